@@ -0,0 +1,47 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.core.caching;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+
+import java.util.Collection;
+
+/**
+ * Reports hit, miss, eviction, size and load statistics for the caches held by the application's cache manager.
+ * Caches created by a partitioning cache resolver (e.g. the per-user HOD caches) are reported separately for each partition.
+ * Statistics are only available for caches which record them (e.g. Guava caches built with recordStats); load times
+ * and entry sizes are only available if the cache manager is wrapped in an {@link InstrumentedCacheManager}.
+ */
+public interface CacheMetricsService {
+    /**
+     * The bean name of the default implementation.
+     * Use this in an {@link Qualifier} tag to access this implementation via autowiring.
+     */
+    String CACHE_METRICS_SERVICE_BEAN_NAME = "cacheMetricsService";
+
+    /**
+     * Statistics for every instrumented cache and partition
+     *
+     * @return the statistics
+     */
+    Collection<CacheStatistics> getStatistics();
+
+    /**
+     * Statistics for each partition of the given cache
+     *
+     * @param cacheName One of the {@link CacheNames}
+     * @return the statistics, one entry per partition
+     */
+    Collection<CacheStatistics> getStatistics(String cacheName);
+
+    /**
+     * Statistics for the given cache, summed over all partitions
+     *
+     * @param cacheName One of the {@link CacheNames}
+     * @return the aggregated statistics, with a null partition
+     */
+    CacheStatistics getAggregateStatistics(String cacheName);
+}
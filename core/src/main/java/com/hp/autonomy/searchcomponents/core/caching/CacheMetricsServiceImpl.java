@@ -0,0 +1,173 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.core.caching;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheStats;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.hp.autonomy.searchcomponents.core.caching.CacheMetricsService.CACHE_METRICS_SERVICE_BEAN_NAME;
+
+/**
+ * Default implementation of {@link CacheMetricsService}. Reads statistics from the native Guava cache behind each Spring
+ * cache; runtime cache names of the form {@code <cache name><separator><partition>} are attributed to the matching
+ * {@link CacheNames} entry. Spring computes values outside the Guava cache, so load times and entry sizes are taken
+ * from the {@link InstrumentedCache} wrapping it, if the cache manager is an {@link InstrumentedCacheManager}.
+ */
+@Component(CACHE_METRICS_SERVICE_BEAN_NAME)
+@ManagedResource(description = "Statistics for the Haven Search caches")
+class CacheMetricsServiceImpl implements CacheMetricsService {
+    // longest first, so that e.g. parametric-values-in-buckets is not attributed to parametric-values
+    private static final List<String> KNOWN_CACHE_NAMES = Collections.unmodifiableList(Arrays.asList(
+            CacheNames.FIELDS,
+            CacheNames.DATABASES,
+            CacheNames.PARAMETRIC_VALUES,
+            CacheNames.PARAMETRIC_VALUES_IN_BUCKETS,
+            CacheNames.GET_DOCUMENT_CONTENT,
+            CacheNames.RELATED_CONCEPTS,
+            CacheNames.TYPE_AHEAD
+    ).stream()
+            .sorted(Comparator.comparing(String::length).reversed())
+            .collect(Collectors.toList()));
+
+    private final ObjectProvider<CacheManager> cacheManagerProvider;
+
+    @Autowired
+    CacheMetricsServiceImpl(final ObjectProvider<CacheManager> cacheManagerProvider) {
+        this.cacheManagerProvider = cacheManagerProvider;
+    }
+
+    @Override
+    public Collection<CacheStatistics> getStatistics() {
+        final CacheManager cacheManager = cacheManagerProvider.getIfAvailable();
+        if (cacheManager == null) {
+            return Collections.emptyList();
+        }
+
+        final Collection<CacheStatistics> statistics = new ArrayList<>();
+        for (final String runtimeName : cacheManager.getCacheNames()) {
+            final org.springframework.cache.Cache cache = cacheManager.getCache(runtimeName);
+            if (cache != null && cache.getNativeCache() instanceof Cache) {
+                statistics.add(toStatistics(runtimeName, (Cache<?, ?>) cache.getNativeCache(), cache instanceof InstrumentedCache ? (InstrumentedCache) cache : null));
+            }
+        }
+
+        return statistics;
+    }
+
+    @Override
+    public Collection<CacheStatistics> getStatistics(final String cacheName) {
+        return getStatistics().stream()
+                .filter(statistics -> statistics.getCacheName().equals(cacheName))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public CacheStatistics getAggregateStatistics(final String cacheName) {
+        long hitCount = 0;
+        long missCount = 0;
+        long evictionCount = 0;
+        long size = 0;
+        long loadCount = 0;
+        long totalLoadTime = 0;
+        long estimatedSizeInBytes = 0;
+
+        for (final CacheStatistics statistics : getStatistics(cacheName)) {
+            hitCount += statistics.getHitCount();
+            missCount += statistics.getMissCount();
+            evictionCount += statistics.getEvictionCount();
+            size += statistics.getSize();
+            loadCount += statistics.getLoadCount();
+            totalLoadTime += statistics.getTotalLoadTime();
+            estimatedSizeInBytes += statistics.getEstimatedSizeInBytes();
+        }
+
+        return CacheStatistics.builder()
+                .cacheName(cacheName)
+                .hitCount(hitCount)
+                .missCount(missCount)
+                .evictionCount(evictionCount)
+                .size(size)
+                .loadCount(loadCount)
+                .totalLoadTime(totalLoadTime)
+                .estimatedSizeInBytes(estimatedSizeInBytes)
+                .build();
+    }
+
+    @ManagedAttribute(description = "Names of the caches for which statistics are available")
+    public Collection<String> getCacheNames() {
+        return getStatistics().stream()
+                .map(CacheStatistics::getCacheName)
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    @ManagedOperation(description = "Statistics for the named cache, summed over all partitions")
+    public Map<String, Number> summarise(final String cacheName) {
+        final CacheStatistics statistics = getAggregateStatistics(cacheName);
+
+        final Map<String, Number> summary = new LinkedHashMap<>();
+        summary.put("partitions", getStatistics(cacheName).size());
+        summary.put("size", statistics.getSize());
+        summary.put("hitCount", statistics.getHitCount());
+        summary.put("missCount", statistics.getMissCount());
+        summary.put("hitRate", statistics.getHitRate());
+        summary.put("evictionCount", statistics.getEvictionCount());
+        summary.put("loadCount", statistics.getLoadCount());
+        summary.put("averageLoadPenaltyMillis", statistics.getAverageLoadPenalty() / TimeUnit.MILLISECONDS.toNanos(1));
+        summary.put("estimatedSizeInBytes", statistics.getEstimatedSizeInBytes());
+        summary.put("averageEntrySizeInBytes", statistics.getAverageEntrySize());
+        return summary;
+    }
+
+    private CacheStatistics toStatistics(final String runtimeName, final Cache<?, ?> cache, final InstrumentedCache instrumentedCache) {
+        final CacheStats stats = cache.stats();
+
+        String cacheName = runtimeName;
+        String partition = null;
+
+        for (final String knownName : KNOWN_CACHE_NAMES) {
+            if (runtimeName.equals(knownName)) {
+                break;
+            }
+
+            if (runtimeName.length() > knownName.length() + 1 && runtimeName.startsWith(knownName) && !Character.isLetterOrDigit(runtimeName.charAt(knownName.length()))) {
+                cacheName = knownName;
+                partition = runtimeName.substring(knownName.length() + 1);
+                break;
+            }
+        }
+
+        return CacheStatistics.builder()
+                .cacheName(cacheName)
+                .partition(partition)
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .evictionCount(stats.evictionCount())
+                .size(cache.size())
+                .loadCount(instrumentedCache != null ? instrumentedCache.getLoadCount() : 0)
+                .totalLoadTime(instrumentedCache != null ? instrumentedCache.getTotalLoadTime() : 0)
+                .estimatedSizeInBytes(instrumentedCache != null ? instrumentedCache.getAverageEntrySize() * cache.size() : 0)
+                .build();
+    }
+}
@@ -5,6 +5,8 @@
 
 package com.hp.autonomy.searchcomponents.core.caching;
 
+import com.hp.autonomy.searchcomponents.core.databases.DatabasesRequest;
+import com.hp.autonomy.searchcomponents.core.databases.DatabasesService;
 import com.hp.autonomy.searchcomponents.core.fields.FieldsRequest;
 import com.hp.autonomy.searchcomponents.core.fields.FieldsService;
 import com.hp.autonomy.searchcomponents.core.parametricvalues.ParametricRequest;
@@ -27,6 +29,12 @@ public interface CacheNames {
      */
     String FIELDS = "fields";
 
+    /**
+     * Cache identifier for {@link DatabasesService#getDatabases(DatabasesRequest)}. Optional: if the cache manager does
+     * not hold this cache the databases are not cached (see {@link OptionalCacheResolver}).
+     */
+    String DATABASES = "databases";
+
     /**
      * Cache identifier for {@link ParametricValuesService#getAllParametricValues(ParametricRequest)}
      */
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.core.caching;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * Point-in-time statistics for a single cache, or a single partition of a cache
+ */
+@Data
+@Builder
+public class CacheStatistics implements Serializable {
+    private static final long serialVersionUID = 4717591725226186826L;
+
+    /**
+     * One of the {@link CacheNames}, or the raw cache name if it does not correspond to one of them
+     */
+    private final String cacheName;
+
+    /**
+     * The resolver partition (e.g. a HOD domain and user) the cache belongs to, or null if the cache is not partitioned
+     */
+    private final String partition;
+
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long size;
+
+    /**
+     * The number of values loaded into the cache; only counted for caches obtained from an {@link InstrumentedCacheManager}
+     */
+    private final long loadCount;
+
+    /**
+     * The total time spent loading values, in nanoseconds; only measured for caches obtained from an
+     * {@link InstrumentedCacheManager}
+     */
+    private final long totalLoadTime;
+
+    /**
+     * The total size of the entries in bytes, estimated from the serialized size of the values stored; only estimated
+     * for caches obtained from an {@link InstrumentedCacheManager}
+     */
+    private final long estimatedSizeInBytes;
+
+    /**
+     * @return the proportion of lookups which were hits, or 1 if there have been no lookups
+     */
+    public double getHitRate() {
+        final long requestCount = hitCount + missCount;
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+
+    /**
+     * @return the average time taken to load a value in nanoseconds, or 0 if no loads have been measured
+     */
+    public double getAverageLoadPenalty() {
+        return loadCount == 0 ? 0 : (double) totalLoadTime / loadCount;
+    }
+
+    /**
+     * @return the estimated average size of an entry in bytes, or 0 if it is not known
+     */
+    public long getAverageEntrySize() {
+        return size == 0 ? 0 : estimatedSizeInBytes / size;
+    }
+}
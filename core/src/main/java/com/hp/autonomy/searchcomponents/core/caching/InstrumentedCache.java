@@ -0,0 +1,167 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.core.caching;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingOutputStream;
+import org.springframework.cache.Cache;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link Cache} which times value loads and samples the serialized size of stored values. A load is either a
+ * {@link #get(Object, Callable)} which calls its value loader, or a miss followed by a put of the same key on the same
+ * thread, which is how Spring fills a cache for {@code @Cacheable} methods which are not synchronized.
+ */
+class InstrumentedCache implements Cache {
+    private final Cache delegate;
+    // the miss which the next put on this thread may complete
+    private final ThreadLocal<PendingLoad> pendingLoad = new ThreadLocal<>();
+
+    private final AtomicLong loadCount = new AtomicLong();
+    private final AtomicLong totalLoadTime = new AtomicLong();
+    private final AtomicLong sizedEntryCount = new AtomicLong();
+    private final AtomicLong totalEntrySize = new AtomicLong();
+
+    InstrumentedCache(final Cache delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(final Object key) {
+        final ValueWrapper value = delegate.get(key);
+        startLoadIfMissing(key, value);
+        return value;
+    }
+
+    @Override
+    public <T> T get(final Object key, final Class<T> type) {
+        final T value = delegate.get(key, type);
+        startLoadIfMissing(key, value);
+        return value;
+    }
+
+    @Override
+    public <T> T get(final Object key, final Callable<T> valueLoader) {
+        return delegate.get(key, () -> {
+            final long start = System.nanoTime();
+            final T value = valueLoader.call();
+            recordLoad(System.nanoTime() - start);
+            recordEntrySize(value);
+            return value;
+        });
+    }
+
+    @Override
+    public void put(final Object key, final Object value) {
+        delegate.put(key, value);
+        completeLoad(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(final Object key, final Object value) {
+        final ValueWrapper existingValue = delegate.putIfAbsent(key, value);
+        completeLoad(key, value);
+        return existingValue;
+    }
+
+    @Override
+    public void evict(final Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    long getLoadCount() {
+        return loadCount.get();
+    }
+
+    /**
+     * @return the total time spent loading values, in nanoseconds
+     */
+    long getTotalLoadTime() {
+        return totalLoadTime.get();
+    }
+
+    /**
+     * @return the average serialized size in bytes of the values stored so far, or 0 if none could be measured
+     */
+    long getAverageEntrySize() {
+        final long count = sizedEntryCount.get();
+        return count == 0 ? 0 : totalEntrySize.get() / count;
+    }
+
+    private void startLoadIfMissing(final Object key, final Object value) {
+        if (value == null) {
+            pendingLoad.set(new PendingLoad(key, System.nanoTime()));
+        } else {
+            pendingLoad.remove();
+        }
+    }
+
+    private void completeLoad(final Object key, final Object value) {
+        final PendingLoad load = pendingLoad.get();
+        pendingLoad.remove();
+
+        // a put which does not follow a miss for the same key (e.g. @CachePut) is not a load
+        if (load != null && Objects.equals(load.key, key)) {
+            recordLoad(System.nanoTime() - load.start);
+        }
+
+        recordEntrySize(value);
+    }
+
+    private void recordLoad(final long durationNanos) {
+        loadCount.incrementAndGet();
+        totalLoadTime.addAndGet(durationNanos);
+    }
+
+    private void recordEntrySize(final Object value) {
+        if (!(value instanceof Serializable)) {
+            return;
+        }
+
+        // values are only stored after a load from the backend, so the cost of serializing them is small by comparison
+        final CountingOutputStream outputStream = new CountingOutputStream(ByteStreams.nullOutputStream());
+        try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(outputStream)) {
+            objectOutputStream.writeObject(value);
+        } catch (final IOException | RuntimeException ignored) {
+            // part of the value is not serializable, so its size is unknown
+            return;
+        }
+
+        sizedEntryCount.incrementAndGet();
+        totalEntrySize.addAndGet(outputStream.getCount());
+    }
+
+    private static class PendingLoad {
+        private final Object key;
+        private final long start;
+
+        private PendingLoad(final Object key, final long start) {
+            this.key = key;
+            this.start = start;
+        }
+    }
+}
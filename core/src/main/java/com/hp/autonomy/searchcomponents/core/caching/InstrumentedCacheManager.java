@@ -0,0 +1,43 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.core.caching;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@link CacheManager} which measures how long values take to load and roughly how large they are, for the
+ * {@link CacheMetricsService}. Spring computes a missing value itself rather than through the underlying cache, so the
+ * underlying cache cannot measure this; applications which want load and size statistics should wrap their cache
+ * manager in one of these.
+ */
+public class InstrumentedCacheManager implements CacheManager {
+    private final CacheManager delegate;
+    private final ConcurrentMap<Cache, InstrumentedCache> caches = new ConcurrentHashMap<>();
+
+    /**
+     * @param delegate Creates and holds the caches
+     */
+    public InstrumentedCacheManager(final CacheManager delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Cache getCache(final String name) {
+        final Cache cache = delegate.getCache(name);
+        // keyed by the underlying cache, so a cache which the delegate replaces starts with new statistics
+        return cache != null ? caches.computeIfAbsent(cache, InstrumentedCache::new) : null;
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+}
@@ -0,0 +1,24 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.core.caching;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.interceptor.CacheResolver;
+
+/**
+ * Resolves the caches named by a {@link Cacheable} method, as the default resolver does, but leaves the method
+ * uncached rather than failing if the application's cache manager does not hold one of them. Used for caches which
+ * were added after applications had configured a fixed list of cache names.
+ */
+public interface OptionalCacheResolver extends CacheResolver {
+    /**
+     * The bean name of the default implementation.
+     * Use this in an {@link Qualifier} tag to access this implementation via autowiring, or as the cacheResolver of a
+     * {@link Cacheable} method.
+     */
+    String OPTIONAL_CACHE_RESOLVER_BEAN_NAME = "optionalCacheResolver";
+}
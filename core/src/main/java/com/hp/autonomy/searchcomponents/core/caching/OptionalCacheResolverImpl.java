@@ -0,0 +1,47 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.core.caching;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.CacheOperationInvocationContext;
+import org.springframework.cache.support.NoOpCache;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+import static com.hp.autonomy.searchcomponents.core.caching.OptionalCacheResolver.OPTIONAL_CACHE_RESOLVER_BEAN_NAME;
+
+/**
+ * Default implementation of {@link OptionalCacheResolver}. A cache which the cache manager does not hold is replaced by
+ * a {@link NoOpCache}, so the method is called every time.
+ */
+@Component(OPTIONAL_CACHE_RESOLVER_BEAN_NAME)
+class OptionalCacheResolverImpl implements OptionalCacheResolver {
+    private final ObjectProvider<CacheManager> cacheManagerProvider;
+
+    @Autowired
+    OptionalCacheResolverImpl(final ObjectProvider<CacheManager> cacheManagerProvider) {
+        this.cacheManagerProvider = cacheManagerProvider;
+    }
+
+    @Override
+    public Collection<? extends Cache> resolveCaches(final CacheOperationInvocationContext<?> context) {
+        final CacheManager cacheManager = cacheManagerProvider.getIfAvailable();
+        final Collection<String> cacheNames = context.getOperation().getCacheNames();
+        final Collection<Cache> caches = new ArrayList<>(cacheNames.size());
+
+        for (final String cacheName : cacheNames) {
+            final Cache cache = cacheManager != null ? cacheManager.getCache(cacheName) : null;
+            caches.add(cache != null ? cache : new NoOpCache(cacheName));
+        }
+
+        return caches;
+    }
+}
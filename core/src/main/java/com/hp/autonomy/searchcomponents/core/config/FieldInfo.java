@@ -55,6 +55,14 @@ public class FieldInfo<T> implements RequestObject<FieldInfo<T>, FieldInfo.Field
         values = builder.values;
     }
 
+    FieldInfo(final String id, final FieldType type, final boolean advanced, final Set<String> names, final List<T> values) {
+        this.id = id;
+        this.type = type;
+        this.advanced = advanced;
+        this.names = names;
+        this.values = values;
+    }
+
     public String getId() {
         return id;
     }
@@ -103,8 +111,9 @@ public class FieldInfo<T> implements RequestObject<FieldInfo<T>, FieldInfo.Field
             id = fieldInfo.id;
             type = fieldInfo.type;
             advanced = fieldInfo.advanced;
-            names = fieldInfo.names;
-            values = fieldInfo.values;
+            // copied, as the original may share its names with other fields
+            names = new HashSet<>(fieldInfo.names);
+            values = new ArrayList<>(fieldInfo.values);
         }
 
         @JsonProperty("type")
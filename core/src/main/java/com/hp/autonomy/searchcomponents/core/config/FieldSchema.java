@@ -0,0 +1,230 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.core.config;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Immutable form of {@link FieldsInfo} for use when parsing documents. Ids and names are interned, and each field has its
+ * type and value parser resolved up front, so parsing a document only allocates storage for the values it contains.
+ * Unconfigured fields are given an entry the first time they are seen, which is then shared by later documents.
+ */
+public final class FieldSchema {
+    /**
+     * Maximum number of unconfigured fields remembered by {@link #getEntryOrDefault(String)}, so that documents with
+     * arbitrary field names cannot grow the schema without limit
+     */
+    static final int MAX_DEFAULT_ENTRIES = 10000;
+
+    private final List<Entry> entries;
+    private final Map<String, Entry> entriesByName;
+    private final ConcurrentMap<String, Entry> defaultEntries = new ConcurrentHashMap<>();
+
+    private FieldSchema(final List<Entry> entries, final Map<String, Entry> entriesByName) {
+        this.entries = entries;
+        this.entriesByName = entriesByName;
+    }
+
+    /**
+     * Compiles the schema for the given field configuration
+     *
+     * @param fieldsInfo The field configuration
+     * @return The schema
+     */
+    public static FieldSchema compile(final FieldsInfo fieldsInfo) {
+        final Collection<FieldInfo<?>> fieldConfig = fieldsInfo.getFieldConfig().values();
+        final List<Entry> entries = new ArrayList<>(fieldConfig.size());
+        final Map<String, Entry> entriesByName = new HashMap<>();
+
+        for (final FieldInfo<?> fieldInfo : fieldConfig) {
+            final Set<String> names = new LinkedHashSet<>(fieldInfo.getNames().size());
+            fieldInfo.getNames().forEach(name -> names.add(name.intern()));
+
+            final Entry entry = new Entry(fieldInfo.getId().intern(), fieldInfo.getType(), fieldInfo.isAdvanced(), Collections.unmodifiableSet(names));
+            entries.add(entry);
+            // as in FieldsInfo, a name configured for more than one field belongs to the last of them
+            entry.getNames().forEach(name -> entriesByName.put(name, entry));
+        }
+
+        return new FieldSchema(Collections.unmodifiableList(entries), entriesByName);
+    }
+
+    /**
+     * @return The configured fields, in configuration order
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * @param name An Idol field name
+     * @return The field with the given name, or null if it is not configured
+     */
+    public Entry getEntry(final String name) {
+        return entriesByName.get(name);
+    }
+
+    /**
+     * @param name An Idol field name
+     * @return The field with the given name, or an advanced string field with the name as its id if it is not configured.
+     * The entries for unconfigured fields are shared in the same way as configured ones, up to {@link #MAX_DEFAULT_ENTRIES}.
+     */
+    public Entry getEntryOrDefault(final String name) {
+        final Entry entry = entriesByName.get(name);
+        if (entry != null) {
+            return entry;
+        }
+
+        final Entry defaultEntry = defaultEntries.get(name);
+        if (defaultEntry != null) {
+            return defaultEntry;
+        }
+
+        final String internedName = name.intern();
+        final Entry newEntry = new Entry(internedName, FieldType.STRING, true, Collections.singleton(internedName));
+        if (defaultEntries.size() >= MAX_DEFAULT_ENTRIES) {
+            return newEntry;
+        }
+
+        final Entry existingEntry = defaultEntries.putIfAbsent(internedName, newEntry);
+        return existingEntry != null ? existingEntry : newEntry;
+    }
+
+    /**
+     * A single configured field
+     */
+    public static final class Entry {
+        private final String id;
+        private final FieldType type;
+        private final boolean advanced;
+        private final Set<String> names;
+        private final Map<String, Set<String>> singleNames;
+        private final Function<String, ?> parser;
+
+        private Entry(final String id, final FieldType type, final boolean advanced, final Set<String> names) {
+            this.id = id;
+            this.type = type;
+            this.advanced = advanced;
+            this.names = names;
+
+            singleNames = new HashMap<>(names.size());
+            names.forEach(name -> singleNames.put(name, Collections.singleton(name)));
+
+            final Class<?> valueType = type.getType();
+            parser = value -> type.parseValue(valueType, value);
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public FieldType getType() {
+            return type;
+        }
+
+        public boolean isAdvanced() {
+            return advanced;
+        }
+
+        public Set<String> getNames() {
+            return names;
+        }
+
+        /**
+         * @param value The value of the field as returned by Idol
+         * @return The value converted to the type of the field
+         */
+        public Object parseValue(final String value) {
+            return parser.apply(value);
+        }
+
+        /**
+         * @return Storage for the values of this field in one document
+         */
+        public Values newValues() {
+            return new Values(this);
+        }
+    }
+
+    /**
+     * The values of one field in one document. The names are shared with the {@link Entry} until a document contains the
+     * field under more than one name.
+     */
+    public static final class Values {
+        private final Entry entry;
+        private final List<Object> values = new ArrayList<>(1);
+        private Set<String> names = Collections.emptySet();
+        private boolean namesShared = true;
+
+        private Values(final Entry entry) {
+            this.entry = entry;
+        }
+
+        public Entry getEntry() {
+            return entry;
+        }
+
+        /**
+         * Records a value read from the document
+         *
+         * @param name  The name under which the value was found
+         * @param value The value as returned by Idol
+         */
+        public void add(final String name, final String value) {
+            addName(name);
+            values.add(entry.parseValue(value));
+        }
+
+        /**
+         * Records values read from the document
+         *
+         * @param name         The name under which the values were found
+         * @param stringValues The values as returned by Idol
+         */
+        public void addAll(final String name, final String... stringValues) {
+            addName(name);
+            for (final String value : stringValues) {
+                values.add(entry.parseValue(value));
+            }
+        }
+
+        /**
+         * @param advanced Whether the field should be reported as advanced
+         * @return The field with the recorded values
+         */
+        public FieldInfo<?> toFieldInfo(final boolean advanced) {
+            return new FieldInfo<>(entry.id, entry.type, advanced, names, values);
+        }
+
+        private void addName(final String name) {
+            if (names.contains(name)) {
+                return;
+            }
+
+            final Set<String> singleName = entry.singleNames.get(name);
+            if (names.isEmpty() && singleName != null) {
+                names = singleName;
+            } else {
+                if (namesShared) {
+                    names = new HashSet<>(names);
+                    namesShared = false;
+                }
+                names.add(singleName != null ? singleName.iterator().next() : name);
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.core.config;
+
+/**
+ * Holds the {@link FieldSchema} for the current field configuration. The schema is compiled again only when a different
+ * {@link FieldsInfo} is passed in, which happens when the configuration is reloaded.
+ */
+public class FieldSchemaRegistry {
+    private volatile CompiledSchema compiledSchema;
+
+    /**
+     * @param fieldsInfo The current field configuration
+     * @return The schema for the configuration
+     */
+    public FieldSchema getSchema(final FieldsInfo fieldsInfo) {
+        final CompiledSchema current = compiledSchema;
+        // compared by identity as FieldsInfo equality walks the whole configuration
+        if (current != null && current.fieldsInfo == fieldsInfo) {
+            return current.schema;
+        }
+
+        // concurrent callers may both compile the schema, but they produce equivalent results
+        final FieldSchema schema = FieldSchema.compile(fieldsInfo);
+        compiledSchema = new CompiledSchema(fieldsInfo, schema);
+        return schema;
+    }
+
+    private static class CompiledSchema {
+        private final FieldsInfo fieldsInfo;
+        private final FieldSchema schema;
+
+        private CompiledSchema(final FieldsInfo fieldsInfo, final FieldSchema schema) {
+            this.fieldsInfo = fieldsInfo;
+            this.schema = schema;
+        }
+    }
+}
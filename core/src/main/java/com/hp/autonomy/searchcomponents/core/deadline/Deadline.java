@@ -0,0 +1,65 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.core.deadline;
+
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A point in time by which an operation, including every backend request it makes, must have finished
+ */
+@EqualsAndHashCode
+@ToString
+public final class Deadline {
+    private final long expiryNanos;
+
+    private Deadline(final long expiryNanos) {
+        this.expiryNanos = expiryNanos;
+    }
+
+    /**
+     * Creates a deadline relative to now
+     *
+     * @param timeout The time allowed for the operation
+     * @param unit    The unit of the timeout
+     * @return The new deadline
+     */
+    public static Deadline after(final long timeout, final TimeUnit unit) {
+        return new Deadline(System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    /**
+     * The time left before the deadline passes
+     *
+     * @param unit The unit of the result
+     * @return The remaining time, which is zero or negative if the deadline has passed
+     */
+    public long getRemaining(final TimeUnit unit) {
+        return unit.convert(expiryNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    public boolean isExpired() {
+        return expiryNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * @param other Another deadline (may be null)
+     * @return Whichever of this and the other deadline passes first
+     */
+    public Deadline earliest(final Deadline other) {
+        return other == null || expiryNanos - other.expiryNanos <= 0 ? this : other;
+    }
+
+    /**
+     * @param other Another deadline (may be null)
+     * @return Whichever of this and the other deadline passes last
+     */
+    public Deadline latest(final Deadline other) {
+        return other == null || expiryNanos - other.expiryNanos >= 0 ? this : other;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.core.deadline;
+
+import java.util.function.Supplier;
+
+/**
+ * Associates a {@link Deadline} with the current thread. Callers set a deadline once around an operation and every
+ * backend request made while it applies is given only the time that remains, failing fast once none is left.
+ * <p>
+ * Deadlines nest: setting a later deadline inside an earlier one has no effect. Work handed to another thread must be
+ * wrapped with {@link #wrap(Supplier)} to carry the deadline with it.
+ */
+public final class DeadlineContext {
+    private static final ThreadLocal<Deadline> DEADLINE = new ThreadLocal<>();
+
+    private DeadlineContext() {
+    }
+
+    /**
+     * @return The deadline which applies to the current thread, or null if there is none
+     */
+    public static Deadline getDeadline() {
+        return DEADLINE.get();
+    }
+
+    /**
+     * Runs a task with a deadline applied, restoring the previous deadline afterwards
+     *
+     * @param deadline The deadline for the task (may be null, in which case any existing deadline still applies)
+     * @param task     The task to run
+     * @param <T>      The result type of the task
+     * @return The result of the task
+     */
+    public static <T> T callWithin(final Deadline deadline, final Supplier<T> task) {
+        final Deadline previous = DEADLINE.get();
+        final Deadline effective = deadline != null ? deadline.earliest(previous) : previous;
+
+        DEADLINE.set(effective);
+        try {
+            return task.get();
+        } finally {
+            if (previous != null) {
+                DEADLINE.set(previous);
+            } else {
+                DEADLINE.remove();
+            }
+        }
+    }
+
+    /**
+     * Runs a task with only the given deadline applied, ignoring the current one, and restores the current deadline
+     * afterwards. Intended for work done on behalf of several callers, which must not be bound by the deadline of
+     * whichever caller happens to run it.
+     *
+     * @param deadline The deadline for the task (may be null, in which case the task has no deadline)
+     * @param task     The task to run
+     * @param <T>      The result type of the task
+     * @return The result of the task
+     */
+    public static <T> T callDetached(final Deadline deadline, final Supplier<T> task) {
+        final Deadline previous = DEADLINE.get();
+
+        DEADLINE.set(deadline);
+        try {
+            return task.get();
+        } finally {
+            if (previous != null) {
+                DEADLINE.set(previous);
+            } else {
+                DEADLINE.remove();
+            }
+        }
+    }
+
+    /**
+     * Runs a task with a deadline applied, restoring the previous deadline afterwards
+     *
+     * @param deadline The deadline for the task (may be null)
+     * @param task     The task to run
+     */
+    public static void runWithin(final Deadline deadline, final Runnable task) {
+        callWithin(deadline, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Captures the current deadline so that it also applies when the task runs on another thread
+     *
+     * @param task The task to wrap
+     * @param <T>  The result type of the task
+     * @return A task which runs within the current deadline
+     */
+    public static <T> Supplier<T> wrap(final Supplier<T> task) {
+        final Deadline deadline = DEADLINE.get();
+        return deadline == null ? task : () -> callWithin(deadline, task);
+    }
+
+    /**
+     * @throws DeadlineExceededException If the current deadline has passed
+     */
+    public static void checkDeadline() {
+        final Deadline deadline = DEADLINE.get();
+        if (deadline != null && deadline.isExpired()) {
+            throw new DeadlineExceededException();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.core.deadline;
+
+/**
+ * Thrown instead of making a backend request once the current {@link Deadline} has passed
+ */
+public class DeadlineExceededException extends RuntimeException {
+    private static final long serialVersionUID = 6113512396455326744L;
+
+    public DeadlineExceededException() {
+        super("The deadline for this request has passed");
+    }
+}
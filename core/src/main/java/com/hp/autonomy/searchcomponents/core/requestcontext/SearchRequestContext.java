@@ -0,0 +1,37 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.core.requestcontext;
+
+import com.hp.autonomy.frontend.configuration.ConfigService;
+import com.hp.autonomy.searchcomponents.core.config.HavenSearchCapable;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Immutable snapshot of the state which every backend request made on behalf of a single search needs: the
+ * configuration and the escaped security info of the current user. Capturing these once means a search reads the
+ * configuration and the principal once rather than once for each parameter or result it processes.
+ *
+ * @param <C> The configuration type
+ */
+@Getter
+@ToString(exclude = "securityInfo")
+public final class SearchRequestContext<C extends HavenSearchCapable> {
+    private final ConfigService<? extends C> configService;
+    private final C config;
+    private final String securityInfo;
+
+    /**
+     * @param configService The service the configuration was read from
+     * @param config        The configuration at the time the request started
+     * @param securityInfo  The escaped security info of the current user (may be null)
+     */
+    public SearchRequestContext(final ConfigService<? extends C> configService, final C config, final String securityInfo) {
+        this.configService = configService;
+        this.config = config;
+        this.securityInfo = securityInfo;
+    }
+}
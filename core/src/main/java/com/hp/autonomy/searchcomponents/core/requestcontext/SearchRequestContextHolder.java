@@ -0,0 +1,122 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.core.requestcontext;
+
+import com.hp.autonomy.frontend.configuration.ConfigService;
+import com.hp.autonomy.searchcomponents.core.config.HavenSearchCapable;
+
+import java.util.function.Supplier;
+
+/**
+ * Associates a {@link SearchRequestContext} with the current thread. This is an internal detail of the default
+ * services: components which applications implement or call are given the context as an explicit argument, and the
+ * services only apply it to the thread so that it reaches their own helpers without changing every signature in between.
+ * Contexts are always applied for the duration of a task and removed afterwards, never set and left on a thread.
+ * <p>
+ * Components must still work when no context has been set, so they fall back to reading the configuration directly.
+ * Contexts nest: setting a context inside another has no effect, so the outermost snapshot applies throughout. Work
+ * handed to another thread must be wrapped with {@link #wrap(Supplier)} to carry the context with it.
+ */
+public final class SearchRequestContextHolder {
+    private static final ThreadLocal<SearchRequestContext<?>> CONTEXT = new ThreadLocal<>();
+
+    private SearchRequestContextHolder() {
+    }
+
+    /**
+     * @return The context which applies to the current thread, or null if there is none
+     */
+    public static SearchRequestContext<?> getContext() {
+        return CONTEXT.get();
+    }
+
+    /**
+     * Returns the configuration captured in the current context, or the current configuration if no context has been
+     * captured from the given service
+     *
+     * @param configService The service to read the configuration from if there is no context
+     * @param <C>           The configuration type
+     * @return The configuration for the current request
+     */
+    public static <C extends HavenSearchCapable> C getConfig(final ConfigService<? extends C> configService) {
+        return getConfig(CONTEXT.get(), configService);
+    }
+
+    /**
+     * Returns the configuration captured in the given context, or the current configuration if the context was not
+     * captured from the given service
+     *
+     * @param context       The context of the request (may be null)
+     * @param configService The service to read the configuration from if the context cannot be used
+     * @param <C>           The configuration type
+     * @return The configuration for the request
+     */
+    @SuppressWarnings("unchecked")
+    public static <C extends HavenSearchCapable> C getConfig(final SearchRequestContext<?> context, final ConfigService<? extends C> configService) {
+        // the context can only be used if it was captured from the same service, which guarantees its type
+        return context != null && context.getConfigService() == configService
+                ? (C) context.getConfig()
+                : configService.getConfig();
+    }
+
+    /**
+     * Runs a task with a context applied, removing it afterwards
+     *
+     * @param context The context for the task (may be null, in which case any existing context still applies)
+     * @param task    The task to run
+     * @param <T>     The result type of the task
+     * @return The result of the task
+     */
+    public static <T> T callWithin(final SearchRequestContext<?> context, final Supplier<T> task) {
+        if (context == null || CONTEXT.get() != null) {
+            return task.get();
+        }
+
+        CONTEXT.set(context);
+        try {
+            return task.get();
+        } finally {
+            CONTEXT.remove();
+        }
+    }
+
+    /**
+     * Runs a task with only the given context applied, ignoring the current one, and restores the current context
+     * afterwards. Intended for work done on behalf of several requests, which must not use the snapshot taken by
+     * whichever request happens to run it.
+     *
+     * @param context The context for the task (may be null, in which case the task has no context)
+     * @param task    The task to run
+     * @param <T>     The result type of the task
+     * @return The result of the task
+     */
+    public static <T> T callDetached(final SearchRequestContext<?> context, final Supplier<T> task) {
+        final SearchRequestContext<?> previous = CONTEXT.get();
+
+        CONTEXT.set(context);
+        try {
+            return task.get();
+        } finally {
+            if (previous != null) {
+                CONTEXT.set(previous);
+            } else {
+                CONTEXT.remove();
+            }
+        }
+    }
+
+    /**
+     * Captures the current context so that it also applies when the task runs on another thread
+     *
+     * @param task The task to wrap
+     * @param <T>  The result type of the task
+     * @return A task which runs within the current context
+     */
+    public static <T> Supplier<T> wrap(final Supplier<T> task) {
+        final SearchRequestContext<?> context = CONTEXT.get();
+        return context == null ? task : () -> callWithin(context, task);
+    }
+}
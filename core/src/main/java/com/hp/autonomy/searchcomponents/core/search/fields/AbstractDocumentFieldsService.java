@@ -9,6 +9,7 @@ import com.hp.autonomy.frontend.configuration.ConfigService;
 import com.hp.autonomy.searchcomponents.core.config.FieldInfo;
 import com.hp.autonomy.searchcomponents.core.config.FieldsInfo;
 import com.hp.autonomy.searchcomponents.core.config.HavenSearchCapable;
+import com.hp.autonomy.searchcomponents.core.requestcontext.SearchRequestContextHolder;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -26,7 +27,7 @@ public abstract class AbstractDocumentFieldsService implements DocumentFieldsSer
 
     @Override
     public List<String> getPrintFields(final Collection<String> selectedFields) {
-        final FieldsInfo fieldsInfo = configService.getConfig().getFieldsInfo();
+        final FieldsInfo fieldsInfo = SearchRequestContextHolder.getConfig(configService).getFieldsInfo();
 
         final List<String> fields = new ArrayList<>();
 
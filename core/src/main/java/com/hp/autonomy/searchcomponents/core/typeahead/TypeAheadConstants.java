@@ -5,6 +5,18 @@
 
 package com.hp.autonomy.searchcomponents.core.typeahead;
 
+import java.util.regex.Pattern;
+
 public interface TypeAheadConstants {
     int MAX_RESULTS = 7;
+
+    /**
+     * Wildcard which may end the text; it is implied, so text with and without it is treated the same
+     */
+    String WILDCARD = "*";
+
+    /**
+     * Matches text which is not a single literal term, once any trailing {@link #WILDCARD} has been removed
+     */
+    Pattern UNSUPPORTED_TEXT = Pattern.compile("[\\s*?\"]");
 }
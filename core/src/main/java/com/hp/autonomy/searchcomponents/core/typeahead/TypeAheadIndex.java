@@ -0,0 +1,247 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.core.typeahead;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable prefix tree of type-ahead suggestions. Every node holds the best suggestions for the terms below it, so a
+ * lookup takes one step per character of the prefix and allocates nothing.
+ * <p>
+ * The index is built from expansions of a set of prefixes, each listing the terms which start with that prefix, best
+ * first. An expansion may have been cut short, in which case any term it left out ranks below every term it returned.
+ * The index therefore only answers for a longer prefix if it is below a complete expansion, or if it knows at least as
+ * many terms below the prefix as there are suggestions to return. Otherwise {@link #getSuggestions(String)} returns
+ * null and the caller should ask the backend. Expansions are expected not to overlap.
+ * <p>
+ * Terms are matched without regard to case, but are suggested as they were given.
+ */
+public final class TypeAheadIndex {
+    private static final Comparator<Entry> ENTRY_COMPARATOR = Comparator.<Entry>comparingInt(entry -> entry.rank).thenComparing(entry -> entry.value);
+
+    private final Node root;
+    private final int maxSuggestions;
+
+    private TypeAheadIndex(final Node root, final int maxSuggestions) {
+        this.root = root;
+        this.maxSuggestions = maxSuggestions;
+    }
+
+    /**
+     * @param maxSuggestions The number of suggestions to return for each prefix
+     * @return A builder for a new index
+     */
+    public static Builder builder(final int maxSuggestions) {
+        return new Builder(maxSuggestions);
+    }
+
+    /**
+     * Looks up the suggestions for a prefix
+     *
+     * @param prefix The prefix
+     * @return The best suggestions starting with the prefix, or null if the index does not know enough terms below it
+     */
+    public List<String> getSuggestions(final String prefix) {
+        final String key = prefix.toLowerCase();
+
+        Node node = root;
+        boolean complete = node.complete;
+
+        for (int i = 0; i < key.length(); i++) {
+            node = node.getChild(key.charAt(i));
+
+            if (node == null) {
+                // a complete expansion would have returned any term starting with the prefix
+                return complete ? Collections.emptyList() : null;
+            }
+
+            complete |= node.complete;
+        }
+
+        return node.covered ? node.suggestions : null;
+    }
+
+    /**
+     * @return The number of suggestions returned for each prefix
+     */
+    public int getMaxSuggestions() {
+        return maxSuggestions;
+    }
+
+    /**
+     * @return The number of distinct terms in the index
+     */
+    public int getTermCount() {
+        return root.termCount;
+    }
+
+    /**
+     * Collects expansions for a new {@link TypeAheadIndex}. Not thread safe.
+     */
+    public static final class Builder {
+        private final int maxSuggestions;
+        private final MutableNode root = new MutableNode();
+
+        private Builder(final int maxSuggestions) {
+            this.maxSuggestions = maxSuggestions;
+        }
+
+        /**
+         * Adds the terms returned for a prefix
+         *
+         * @param prefix   The expanded prefix
+         * @param terms    The terms starting with the prefix, best first
+         * @param complete Whether the terms include every term starting with the prefix
+         * @return This builder
+         */
+        public Builder addExpansion(final String prefix, final List<String> terms, final boolean complete) {
+            final String prefixKey = prefix.toLowerCase();
+            final MutableNode prefixNode = root.getOrCreate(prefixKey);
+            prefixNode.expansion = true;
+            prefixNode.complete |= complete;
+
+            int rank = 0;
+            for (final String term : terms) {
+                final String termKey = term.toLowerCase();
+                if (!termKey.startsWith(prefixKey)) {
+                    // the backend may correct the prefix; such terms belong to another expansion
+                    continue;
+                }
+
+                final MutableNode termNode = root.getOrCreate(termKey);
+
+                // the first spelling seen is kept, as it comes from the best ranked occurrence
+                if (termNode.value == null) {
+                    termNode.value = term;
+                    termNode.rank = rank;
+                }
+
+                rank++;
+            }
+
+            return this;
+        }
+
+        /**
+         * @return The new index
+         */
+        public TypeAheadIndex build() {
+            return new TypeAheadIndex(root.freeze(maxSuggestions, false, false), maxSuggestions);
+        }
+    }
+
+    private static final class Node {
+        private static final char[] NO_KEYS = {};
+        private static final Node[] NO_CHILDREN = {};
+
+        private final char[] keys;
+        private final Node[] children;
+        private final List<String> suggestions;
+        private final Entry[] topEntries;
+        private final int termCount;
+        private final boolean complete;
+        private final boolean covered;
+
+        private Node(final char[] keys, final Node[] children, final Entry[] topEntries, final int termCount, final boolean complete, final boolean covered) {
+            this.keys = keys;
+            this.children = children;
+            this.topEntries = topEntries;
+            this.termCount = termCount;
+            this.complete = complete;
+            this.covered = covered;
+
+            final List<String> values = new ArrayList<>(topEntries.length);
+            for (final Entry entry : topEntries) {
+                values.add(entry.value);
+            }
+
+            suggestions = Collections.unmodifiableList(values);
+        }
+
+        private Node getChild(final char key) {
+            int low = 0;
+            int high = keys.length - 1;
+
+            while (low <= high) {
+                final int middle = (low + high) >>> 1;
+                final char middleKey = keys[middle];
+
+                if (middleKey < key) {
+                    low = middle + 1;
+                } else if (middleKey > key) {
+                    high = middle - 1;
+                } else {
+                    return children[middle];
+                }
+            }
+
+            return null;
+        }
+    }
+
+    private static final class MutableNode {
+        private final Map<Character, MutableNode> children = new TreeMap<>();
+        private String value;
+        private int rank;
+        private boolean expansion;
+        private boolean complete;
+
+        private MutableNode getOrCreate(final String key) {
+            MutableNode node = this;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), k -> new MutableNode());
+            }
+
+            return node;
+        }
+
+        private Node freeze(final int maxSuggestions, final boolean parentInExpansion, final boolean parentComplete) {
+            final boolean inExpansion = parentInExpansion || expansion;
+            final boolean subtreeComplete = parentComplete || complete;
+
+            final char[] keys = children.isEmpty() ? Node.NO_KEYS : new char[children.size()];
+            final Node[] frozenChildren = children.isEmpty() ? Node.NO_CHILDREN : new Node[children.size()];
+            final List<Entry> candidates = new ArrayList<>();
+            int termCount = 0;
+
+            if (value != null) {
+                candidates.add(new Entry(value, rank));
+                termCount++;
+            }
+
+            int i = 0;
+            for (final Map.Entry<Character, MutableNode> child : children.entrySet()) {
+                final Node frozenChild = child.getValue().freeze(maxSuggestions, inExpansion, subtreeComplete);
+                keys[i] = child.getKey();
+                frozenChildren[i] = frozenChild;
+                Collections.addAll(candidates, frozenChild.topEntries);
+                termCount += frozenChild.termCount;
+                i++;
+            }
+
+            candidates.sort(ENTRY_COMPARATOR);
+            final Entry[] topEntries = candidates.subList(0, Math.min(maxSuggestions, candidates.size())).toArray(new Entry[0]);
+            final boolean covered = inExpansion && (subtreeComplete || termCount >= maxSuggestions);
+
+            return new Node(keys, frozenChildren, topEntries, termCount, complete, covered);
+        }
+    }
+
+    private static final class Entry {
+        private final String value;
+        private final int rank;
+
+        private Entry(final String value, final int rank) {
+            this.value = value;
+            this.rank = rank;
+        }
+    }
+}
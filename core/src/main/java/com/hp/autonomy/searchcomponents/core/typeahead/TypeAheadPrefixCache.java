@@ -0,0 +1,61 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.core.typeahead;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+
+import java.util.List;
+
+/**
+ * Cache of type-ahead suggestions which reuses the suggestions for a shorter prefix as the user keeps typing. If the
+ * backend returned fewer than {@link TypeAheadConstants#MAX_RESULTS} suggestions for a prefix, it returned every
+ * suggestion starting with that prefix, so the suggestions for any longer text are found by filtering that list.
+ * If it returned a full list, the backend is asked again.
+ */
+public interface TypeAheadPrefixCache {
+    /**
+     * The bean name of the default implementation.
+     * Use this in an {@link Qualifier} tag to access this implementation via autowiring.
+     */
+    String TYPE_AHEAD_PREFIX_CACHE_BEAN_NAME = "typeAheadPrefixCache";
+
+    /**
+     * Returns the suggestions for the given text, from the cache if possible and otherwise from the backend
+     *
+     * @param partition Identifies the backend and anything else the suggestions depend on; suggestions are only reused
+     *                  within the same partition
+     * @param text      The text so far
+     * @param backend   Generates suggestions on a cache miss
+     * @param <E>       The checked exception thrown by the backend
+     * @return The suggestions
+     * @throws E The error thrown by the backend
+     */
+    <E extends Exception> List<String> getSuggestions(Object partition, String text, TypeAheadService<E> backend) throws E;
+
+    /**
+     * Returns the suggestions for the given text if they can be found without asking the backend, for callers which
+     * ask the backend themselves
+     *
+     * @param partition As for {@link #getSuggestions(Object, String, TypeAheadService)}
+     * @param text      The text so far
+     * @return The suggestions, or null if the backend must be asked
+     */
+    List<String> getCachedSuggestions(Object partition, String text);
+
+    /**
+     * Records the suggestions the backend returned for the given text
+     *
+     * @param partition   As for {@link #getSuggestions(Object, String, TypeAheadService)}
+     * @param text        The text
+     * @param suggestions The suggestions returned by the backend
+     */
+    void putSuggestions(Object partition, String text, List<String> suggestions);
+
+    /**
+     * Discards all cached suggestions
+     */
+    void invalidateAll();
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.core.typeahead;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.Data;
+import org.apache.commons.lang.StringUtils;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static com.hp.autonomy.searchcomponents.core.typeahead.TypeAheadPrefixCache.TYPE_AHEAD_PREFIX_CACHE_BEAN_NAME;
+
+/**
+ * Default implementation of {@link TypeAheadPrefixCache}, backed by a size-bounded Guava cache. Entries expire after a
+ * few minutes so that new terms are picked up. Suggestions are matched against the text without regard to case.
+ * <p>
+ * A trailing wildcard is ignored, as it is by the type-ahead index. Text containing any other wildcard or more than one
+ * term is neither cached nor answered from the cache, since suggestions for it cannot be derived by prefix matching.
+ */
+@Component(TYPE_AHEAD_PREFIX_CACHE_BEAN_NAME)
+@ManagedResource(description = "Cache of type-ahead suggestions which reuses the suggestions for shorter prefixes")
+class TypeAheadPrefixCacheImpl implements TypeAheadPrefixCache {
+    static final long MAXIMUM_SIZE = 10000;
+    static final long EXPIRY_SECONDS = 300;
+
+    private final Cache<Key, List<String>> cache;
+
+    private final AtomicLong exactHits = new AtomicLong();
+    private final AtomicLong prefixHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    TypeAheadPrefixCacheImpl() {
+        this(MAXIMUM_SIZE, EXPIRY_SECONDS, TimeUnit.SECONDS);
+    }
+
+    TypeAheadPrefixCacheImpl(final long maximumSize, final long expiry, final TimeUnit expiryUnit) {
+        cache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expiry, expiryUnit)
+                .build();
+    }
+
+    @Override
+    public <E extends Exception> List<String> getSuggestions(final Object partition, final String text, final TypeAheadService<E> backend) throws E {
+        if (StringUtils.isBlank(text) || getPrefix(text) == null) {
+            return backend.getSuggestions(text);
+        }
+
+        final List<String> cached = getCachedSuggestions(partition, text);
+        if (cached != null) {
+            return cached;
+        }
+
+        final List<String> suggestions = backend.getSuggestions(text);
+        putSuggestions(partition, text, suggestions);
+        return suggestions;
+    }
+
+    @Override
+    public List<String> getCachedSuggestions(final Object partition, final String text) {
+        final String prefix = getPrefix(text);
+        if (prefix == null) {
+            return null;
+        }
+
+        final Key key = new Key(partition, prefix);
+        final List<String> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            exactHits.incrementAndGet();
+            return cached;
+        }
+
+        // a shorter prefix may have expired while a still shorter one is cached, so keep looking
+        for (int length = prefix.length() - 1; length > 0; length--) {
+            final List<String> shorterPrefixSuggestions = cache.getIfPresent(new Key(partition, prefix.substring(0, length)));
+
+            if (shorterPrefixSuggestions != null && shorterPrefixSuggestions.size() < TypeAheadConstants.MAX_RESULTS) {
+                final List<String> suggestions = filter(shorterPrefixSuggestions, prefix);
+                cache.put(key, suggestions);
+                prefixHits.incrementAndGet();
+                return suggestions;
+            }
+        }
+
+        misses.incrementAndGet();
+        return null;
+    }
+
+    @Override
+    public void putSuggestions(final Object partition, final String text, final List<String> suggestions) {
+        final String prefix = getPrefix(text);
+        if (prefix != null) {
+            cache.put(new Key(partition, prefix), Collections.unmodifiableList(new ArrayList<>(suggestions)));
+        }
+    }
+
+    @Override
+    @ManagedOperation(description = "Discards all cached suggestions")
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @ManagedAttribute(description = "Number of cached suggestion lists")
+    public long getSize() {
+        return cache.size();
+    }
+
+    @ManagedAttribute(description = "Number of requests answered with the suggestions for the same text")
+    public long getExactHitCount() {
+        return exactHits.get();
+    }
+
+    @ManagedAttribute(description = "Number of requests answered by filtering the suggestions for a shorter prefix")
+    public long getPrefixHitCount() {
+        return prefixHits.get();
+    }
+
+    @ManagedAttribute(description = "Number of requests passed to the backend")
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    private String getPrefix(final String text) {
+        final String prefix = StringUtils.removeEnd(text, TypeAheadConstants.WILDCARD);
+        return StringUtils.isEmpty(prefix) || TypeAheadConstants.UNSUPPORTED_TEXT.matcher(prefix).find() ? null : prefix;
+    }
+
+    private List<String> filter(final List<String> suggestions, final String text) {
+        final String lowerCaseText = text.toLowerCase();
+
+        return Collections.unmodifiableList(suggestions.stream()
+                .filter(suggestion -> suggestion.toLowerCase().startsWith(lowerCaseText))
+                .collect(Collectors.toList()));
+    }
+
+    @Data
+    private static class Key {
+        private final Object partition;
+        private final String text;
+    }
+}
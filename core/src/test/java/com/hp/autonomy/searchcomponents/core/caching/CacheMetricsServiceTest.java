@@ -0,0 +1,144 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.core.caching;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.CacheManager;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CacheMetricsServiceTest {
+    @Mock
+    private ObjectProvider<CacheManager> cacheManagerProvider;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    private CacheMetricsService cacheMetricsService;
+
+    @Before
+    public void setUp() {
+        when(cacheManagerProvider.getIfAvailable()).thenReturn(cacheManager);
+
+        cacheMetricsService = new CacheMetricsServiceImpl(cacheManagerProvider);
+    }
+
+    @Test
+    public void noCacheManager() {
+        when(cacheManagerProvider.getIfAvailable()).thenReturn(null);
+
+        assertThat(cacheMetricsService.getStatistics(), is(empty()));
+    }
+
+    @Test
+    public void unpartitionedCache() {
+        final Cache<Object, Object> fieldsCache = mockCache(CacheNames.FIELDS);
+        fieldsCache.put("key", "value");
+        fieldsCache.getIfPresent("key");
+        fieldsCache.getIfPresent("other key");
+        when(cacheManager.getCacheNames()).thenReturn(Arrays.asList(CacheNames.FIELDS, CacheNames.PARAMETRIC_VALUES_IN_BUCKETS));
+        mockCache(CacheNames.PARAMETRIC_VALUES_IN_BUCKETS);
+
+        final Collection<CacheStatistics> statistics = cacheMetricsService.getStatistics(CacheNames.FIELDS);
+        assertThat(statistics, hasSize(1));
+
+        final CacheStatistics fieldsStatistics = statistics.iterator().next();
+        assertThat(fieldsStatistics.getPartition(), is(nullValue()));
+        assertThat(fieldsStatistics.getHitCount(), is(1L));
+        assertThat(fieldsStatistics.getMissCount(), is(1L));
+        assertThat(fieldsStatistics.getHitRate(), is(0.5));
+        assertThat(fieldsStatistics.getSize(), is(1L));
+
+        assertThat(cacheMetricsService.getStatistics(CacheNames.PARAMETRIC_VALUES), is(empty()));
+        assertThat(cacheMetricsService.getStatistics(CacheNames.PARAMETRIC_VALUES_IN_BUCKETS), hasSize(1));
+    }
+
+    @Test
+    public void partitionedCaches() {
+        final String firstPartition = CacheNames.PARAMETRIC_VALUES + ":domain:user1";
+        final String secondPartition = CacheNames.PARAMETRIC_VALUES + ":domain:user2";
+        when(cacheManager.getCacheNames()).thenReturn(Arrays.asList(firstPartition, secondPartition));
+        mockCache(firstPartition).put("key", "value");
+        final Cache<Object, Object> secondCache = mockCache(secondPartition);
+        secondCache.put("key", "value");
+        secondCache.put("other key", "value");
+
+        final Collection<CacheStatistics> statistics = cacheMetricsService.getStatistics(CacheNames.PARAMETRIC_VALUES);
+        assertThat(statistics, hasSize(2));
+        assertThat(statistics.stream().map(CacheStatistics::getPartition).toArray(), is(new Object[]{"domain:user1", "domain:user2"}));
+
+        final CacheStatistics aggregate = cacheMetricsService.getAggregateStatistics(CacheNames.PARAMETRIC_VALUES);
+        assertThat(aggregate.getSize(), is(3L));
+        assertThat(aggregate.getPartition(), is(nullValue()));
+    }
+
+    @Test
+    public void loadStatisticsFromInstrumentedCache() {
+        when(cacheManager.getCacheNames()).thenReturn(Collections.singletonList(CacheNames.FIELDS));
+        final Cache<Object, Object> nativeCache = mockCache(CacheNames.FIELDS);
+        final InstrumentedCache cache = new InstrumentedCache(cacheManager.getCache(CacheNames.FIELDS));
+        when(cacheManager.getCache(CacheNames.FIELDS)).thenReturn(cache);
+
+        // as Spring does for a @Cacheable method
+        cache.get("key");
+        nativeCache.put("key", "value");
+        cache.put("key", "value");
+
+        final CacheStatistics statistics = cacheMetricsService.getAggregateStatistics(CacheNames.FIELDS);
+        assertThat(statistics.getLoadCount(), is(1L));
+        assertThat(statistics.getEstimatedSizeInBytes(), is(greaterThan(0L)));
+        assertThat(statistics.getAverageEntrySize(), is(statistics.getEstimatedSizeInBytes()));
+    }
+
+    @Test
+    public void ignoresUninstrumentedCaches() {
+        when(cacheManager.getCacheNames()).thenReturn(Arrays.asList(CacheNames.FIELDS, CacheNames.TYPE_AHEAD));
+        mockCache(CacheNames.FIELDS);
+        final org.springframework.cache.Cache typeAheadCache = mock(org.springframework.cache.Cache.class);
+        when(typeAheadCache.getNativeCache()).thenReturn(new Object());
+        when(cacheManager.getCache(CacheNames.TYPE_AHEAD)).thenReturn(typeAheadCache);
+
+        assertThat(((CacheMetricsServiceImpl) cacheMetricsService).getCacheNames(), contains(CacheNames.FIELDS));
+    }
+
+    @Test
+    public void unknownCacheNamesReportedAsIs() {
+        when(cacheManager.getCacheNames()).thenReturn(Arrays.asList("custom", CacheNames.RELATED_CONCEPTS));
+        mockCache("custom");
+        mockCache(CacheNames.RELATED_CONCEPTS);
+
+        assertThat(((CacheMetricsServiceImpl) cacheMetricsService).getCacheNames(), containsInAnyOrder("custom", CacheNames.RELATED_CONCEPTS));
+    }
+
+    private Cache<Object, Object> mockCache(final String runtimeName) {
+        final Cache<Object, Object> nativeCache = CacheBuilder.newBuilder().recordStats().build();
+        final org.springframework.cache.Cache cache = mock(org.springframework.cache.Cache.class);
+        when(cache.getNativeCache()).thenReturn(nativeCache);
+        when(cacheManager.getCache(runtimeName)).thenReturn(cache);
+        return nativeCache;
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.core.caching;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+public class InstrumentedCacheTest {
+    private InstrumentedCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new InstrumentedCache(new ConcurrentMapCache(CacheNames.FIELDS));
+    }
+
+    @Test
+    public void missFollowedByPutIsALoad() throws InterruptedException {
+        cache.get("key");
+        Thread.sleep(5L);
+        cache.put("key", "value");
+
+        assertThat(cache.getLoadCount(), is(1L));
+        assertThat(cache.getTotalLoadTime(), is(greaterThan(0L)));
+    }
+
+    @Test
+    public void putWithoutMissIsNotALoad() {
+        cache.get("other key");
+        cache.put("key", "value");
+        cache.put("key", "new value");
+
+        assertThat(cache.getLoadCount(), is(0L));
+    }
+
+    @Test
+    public void valueLoaderIsTimed() {
+        assertThat(cache.get("key", () -> "value"), is("value"));
+        assertThat(cache.get("key", () -> "other value"), is("value"));
+
+        assertThat(cache.getLoadCount(), is(1L));
+    }
+
+    @Test
+    public void estimatesEntrySize() {
+        cache.put("key", "value");
+
+        assertThat(cache.getAverageEntrySize(), is(greaterThan(0L)));
+    }
+
+    @Test
+    public void unserializableValuesAreNotSized() {
+        cache.put("key", new Object());
+
+        assertThat(cache.getAverageEntrySize(), is(0L));
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.core.caching;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.BasicOperation;
+import org.springframework.cache.interceptor.CacheOperationInvocationContext;
+import org.springframework.cache.support.NoOpCache;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class OptionalCacheResolverTest {
+    @Mock
+    private ObjectProvider<CacheManager> cacheManagerProvider;
+    @Mock
+    private CacheManager cacheManager;
+    @Mock
+    private Cache cache;
+    @Mock
+    private CacheOperationInvocationContext<BasicOperation> context;
+    @Mock
+    private BasicOperation operation;
+
+    private OptionalCacheResolver optionalCacheResolver;
+
+    @Before
+    public void setUp() {
+        when(cacheManagerProvider.getIfAvailable()).thenReturn(cacheManager);
+        when(context.getOperation()).thenReturn(operation);
+        when(operation.getCacheNames()).thenReturn(Collections.singleton(CacheNames.DATABASES));
+
+        optionalCacheResolver = new OptionalCacheResolverImpl(cacheManagerProvider);
+    }
+
+    @Test
+    public void configuredCache() {
+        when(cacheManager.getCache(CacheNames.DATABASES)).thenReturn(cache);
+
+        assertThat(optionalCacheResolver.resolveCaches(context), contains(cache));
+    }
+
+    @Test
+    public void missingCacheIsNotUsed() {
+        final Collection<? extends Cache> caches = optionalCacheResolver.resolveCaches(context);
+
+        assertThat(caches.size(), is(1));
+        final Cache resolved = caches.iterator().next();
+        assertThat(resolved, instanceOf(NoOpCache.class));
+        assertThat(resolved.getName(), is(CacheNames.DATABASES));
+    }
+
+    @Test
+    public void noCacheManager() {
+        when(cacheManagerProvider.getIfAvailable()).thenReturn(null);
+
+        assertThat(optionalCacheResolver.resolveCaches(context).iterator().next(), instanceOf(NoOpCache.class));
+    }
+}
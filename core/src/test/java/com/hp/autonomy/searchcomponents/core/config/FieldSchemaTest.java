@@ -0,0 +1,150 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.core.config;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class FieldSchemaTest {
+    private FieldsInfo fieldsInfo;
+    private FieldSchema fieldSchema;
+
+    @Before
+    public void setUp() {
+        fieldsInfo = FieldsInfo.builder()
+                .populateResponseMap("modifiedDate", FieldInfo.builder()
+                        .names(Arrays.asList("MODIFIED_DATE", "DATE_MODIFIED"))
+                        .type(FieldType.DATE)
+                        .build())
+                .populateResponseMap("wordCount", FieldInfo.builder()
+                        .name("WORD_COUNT")
+                        .type(FieldType.NUMBER)
+                        .advanced(true)
+                        .build())
+                .build();
+        fieldSchema = FieldSchema.compile(fieldsInfo);
+    }
+
+    @Test
+    public void compile() {
+        final FieldSchema.Entry entry = fieldSchema.getEntry("WORD_COUNT");
+        assertThat(entry.getId(), is("wordCount"));
+        assertThat(entry.getType(), is(FieldType.NUMBER));
+        assertThat(entry.isAdvanced(), is(true));
+        assertThat(fieldSchema.getEntry("DATE_MODIFIED"), is(sameInstance(fieldSchema.getEntry("MODIFIED_DATE"))));
+    }
+
+    @Test
+    public void entriesAreInConfigurationOrder() {
+        assertThat(fieldSchema.getEntries(), contains(fieldSchema.getEntry("MODIFIED_DATE"), fieldSchema.getEntry("WORD_COUNT")));
+    }
+
+    @Test
+    public void namesAreInterned() {
+        final FieldSchema.Entry entry = fieldSchema.getEntry(new String("WORD_COUNT"));
+        assertThat(entry.getNames().iterator().next(), is(sameInstance("WORD_COUNT")));
+    }
+
+    @Test
+    public void unconfiguredField() {
+        assertThat(fieldSchema.getEntry("TITLE"), is(nullValue()));
+
+        final FieldSchema.Entry entry = fieldSchema.getEntryOrDefault("TITLE");
+        assertThat(entry.getId(), is("TITLE"));
+        assertThat(entry.getType(), is(FieldType.STRING));
+        assertThat(entry.isAdvanced(), is(true));
+    }
+
+    @Test
+    public void unconfiguredFieldIsShared() {
+        final FieldSchema.Entry entry = fieldSchema.getEntryOrDefault(new String("TITLE"));
+        assertThat(fieldSchema.getEntryOrDefault(new String("TITLE")), is(sameInstance(entry)));
+        assertThat(entry.getId(), is(sameInstance("TITLE")));
+        assertThat(entry.getNames().iterator().next(), is(sameInstance("TITLE")));
+    }
+
+    @Test
+    public void unconfiguredFieldsAreLimited() {
+        for (int i = 0; i < FieldSchema.MAX_DEFAULT_ENTRIES; i++) {
+            fieldSchema.getEntryOrDefault("FIELD_" + i);
+        }
+
+        final FieldSchema.Entry entry = fieldSchema.getEntryOrDefault("TITLE");
+        assertThat(entry.getId(), is("TITLE"));
+        assertThat(fieldSchema.getEntryOrDefault("TITLE"), is(not(sameInstance(entry))));
+    }
+
+    @Test
+    public void valuesAreParsed() {
+        final FieldSchema.Values values = fieldSchema.getEntry("WORD_COUNT").newValues();
+        values.add("WORD_COUNT", "12");
+        values.addAll("WORD_COUNT", "3", "4");
+
+        final FieldInfo<?> fieldInfo = values.toFieldInfo(false);
+        assertThat(fieldInfo.getId(), is("wordCount"));
+        assertThat(fieldInfo.isAdvanced(), is(false));
+        assertThat(fieldInfo.getNames(), contains("WORD_COUNT"));
+        assertThat(fieldInfo.getValues(), contains((Object) 12.0, 3.0, 4.0));
+    }
+
+    @Test
+    public void namesAreSharedBetweenDocuments() {
+        final FieldSchema.Entry entry = fieldSchema.getEntry("WORD_COUNT");
+        final FieldSchema.Values first = entry.newValues();
+        first.add("WORD_COUNT", "1");
+        final FieldSchema.Values second = entry.newValues();
+        second.add("WORD_COUNT", "2");
+
+        assertThat(first.toFieldInfo(true).getNames(), is(sameInstance(second.toFieldInfo(true).getNames())));
+    }
+
+    @Test
+    public void fieldFoundUnderSeveralNames() {
+        final FieldSchema.Entry entry = fieldSchema.getEntry("MODIFIED_DATE");
+        final FieldSchema.Values values = entry.newValues();
+        values.add("MODIFIED_DATE", "1456999320");
+        values.add("DATE_MODIFIED", "1456999320");
+
+        final FieldInfo<?> fieldInfo = values.toFieldInfo(false);
+        assertThat(fieldInfo.getNames(), containsInAnyOrder("MODIFIED_DATE", "DATE_MODIFIED"));
+
+        final FieldSchema.Values otherDocument = entry.newValues();
+        otherDocument.add("MODIFIED_DATE", "1456999320");
+        assertThat(otherDocument.toFieldInfo(false).getNames(), contains("MODIFIED_DATE"));
+    }
+
+    @Test
+    public void fieldInfoCanBeModified() {
+        final FieldSchema.Values values = fieldSchema.getEntry("WORD_COUNT").newValues();
+        values.add("WORD_COUNT", "1");
+        final FieldInfo<?> fieldInfo = values.toFieldInfo(false);
+
+        final FieldInfo<?> modified = fieldInfo.toBuilder().name("WORDS").build();
+        assertThat(modified.getNames(), containsInAnyOrder("WORD_COUNT", "WORDS"));
+        assertThat(fieldInfo.getNames(), not(contains("WORDS")));
+    }
+
+    @Test
+    public void registryCompilesOncePerConfiguration() {
+        final FieldSchemaRegistry registry = new FieldSchemaRegistry();
+        final FieldSchema schema = registry.getSchema(fieldsInfo);
+        assertThat(registry.getSchema(fieldsInfo), is(sameInstance(schema)));
+
+        final FieldsInfo reloaded = FieldsInfo.builder().build();
+        assertThat(registry.getSchema(reloaded), is(not(sameInstance(schema))));
+        assertThat(registry.getSchema(reloaded).getEntries().isEmpty(), is(true));
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.core.deadline;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class DeadlineContextTest {
+    @Test
+    public void noDeadlineByDefault() {
+        assertThat(DeadlineContext.getDeadline(), is(nullValue()));
+        DeadlineContext.checkDeadline();
+    }
+
+    @Test
+    public void deadlineAppliesWithinTask() {
+        final Deadline deadline = Deadline.after(1, TimeUnit.MINUTES);
+
+        assertThat(DeadlineContext.callWithin(deadline, DeadlineContext::getDeadline), is(sameInstance(deadline)));
+        assertThat(DeadlineContext.getDeadline(), is(nullValue()));
+    }
+
+    @Test
+    public void earlierDeadlineWins() {
+        final Deadline outer = Deadline.after(1, TimeUnit.SECONDS);
+        final Deadline inner = Deadline.after(1, TimeUnit.MINUTES);
+
+        final Deadline effective = DeadlineContext.callWithin(outer, () -> DeadlineContext.callWithin(inner, DeadlineContext::getDeadline));
+        assertThat(effective, is(sameInstance(outer)));
+    }
+
+    @Test
+    public void detachedTaskIgnoresCurrentDeadline() {
+        final Deadline outer = Deadline.after(1, TimeUnit.SECONDS);
+        final Deadline detached = Deadline.after(1, TimeUnit.MINUTES);
+
+        assertThat(DeadlineContext.callWithin(outer, () -> DeadlineContext.callDetached(detached, DeadlineContext::getDeadline)), is(sameInstance(detached)));
+        assertThat(DeadlineContext.callWithin(outer, () -> DeadlineContext.callDetached(null, DeadlineContext::getDeadline)), is(nullValue()));
+        assertThat(DeadlineContext.callWithin(outer, () -> {
+            DeadlineContext.callDetached(detached, DeadlineContext::getDeadline);
+            return DeadlineContext.getDeadline();
+        }), is(sameInstance(outer)));
+    }
+
+    @Test
+    public void latestDeadline() {
+        final Deadline earlier = Deadline.after(1, TimeUnit.SECONDS);
+        final Deadline later = Deadline.after(1, TimeUnit.MINUTES);
+
+        assertThat(earlier.latest(later), is(sameInstance(later)));
+        assertThat(later.latest(earlier), is(sameInstance(later)));
+        assertThat(earlier.latest(null), is(sameInstance(earlier)));
+    }
+
+    @Test(expected = DeadlineExceededException.class)
+    public void expiredDeadlineFailsCheck() {
+        DeadlineContext.runWithin(Deadline.after(-1, TimeUnit.MILLISECONDS), DeadlineContext::checkDeadline);
+    }
+
+    @Test
+    public void wrappedTaskCarriesDeadline() {
+        final Deadline deadline = Deadline.after(1, TimeUnit.MINUTES);
+        final Supplier<Deadline> task = DeadlineContext.callWithin(deadline, () -> DeadlineContext.wrap(DeadlineContext::getDeadline));
+
+        assertThat(CompletableFuture.supplyAsync(task).join(), is(sameInstance(deadline)));
+    }
+
+    @Test
+    public void remainingTime() {
+        final Deadline deadline = Deadline.after(1, TimeUnit.MINUTES);
+
+        assertThat(deadline.isExpired(), is(false));
+        assertThat(deadline.getRemaining(TimeUnit.SECONDS) > 50, is(true));
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.core.requestcontext;
+
+import com.hp.autonomy.frontend.configuration.ConfigService;
+import com.hp.autonomy.searchcomponents.core.config.HavenSearchCapable;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SearchRequestContextHolderTest {
+    @Mock
+    private ConfigService<HavenSearchCapable> configService;
+
+    @Mock
+    private ConfigService<HavenSearchCapable> otherConfigService;
+
+    @Mock
+    private HavenSearchCapable config;
+
+    @Mock
+    private HavenSearchCapable liveConfig;
+
+    @Test
+    public void noContextByDefault() {
+        when(configService.getConfig()).thenReturn(liveConfig);
+
+        assertThat(SearchRequestContextHolder.getContext(), is(nullValue()));
+        assertThat(SearchRequestContextHolder.getConfig(configService), is(sameInstance(liveConfig)));
+    }
+
+    @Test
+    public void configReadFromContext() {
+        final SearchRequestContext<HavenSearchCapable> context = new SearchRequestContext<>(configService, config, "info");
+
+        final HavenSearchCapable result = SearchRequestContextHolder.callWithin(context, () -> SearchRequestContextHolder.getConfig(configService));
+        assertThat(result, is(sameInstance(config)));
+        assertThat(SearchRequestContextHolder.getContext(), is(nullValue()));
+        verify(configService, never()).getConfig();
+    }
+
+    @Test
+    public void detachedTaskIgnoresCurrentContext() {
+        final SearchRequestContext<HavenSearchCapable> outer = new SearchRequestContext<>(configService, config, "info");
+        final SearchRequestContext<HavenSearchCapable> detached = new SearchRequestContext<>(configService, liveConfig, null);
+
+        assertThat(SearchRequestContextHolder.callWithin(outer, () -> SearchRequestContextHolder.callDetached(detached, SearchRequestContextHolder::getContext)), is(sameInstance(detached)));
+        assertThat(SearchRequestContextHolder.callWithin(outer, () -> SearchRequestContextHolder.callDetached(null, SearchRequestContextHolder::getContext)), is(nullValue()));
+        assertThat(SearchRequestContextHolder.callWithin(outer, () -> {
+            SearchRequestContextHolder.callDetached(null, SearchRequestContextHolder::getContext);
+            return SearchRequestContextHolder.getContext();
+        }), is(sameInstance(outer)));
+    }
+
+    @Test
+    public void contextFromOtherServiceIgnored() {
+        when(otherConfigService.getConfig()).thenReturn(liveConfig);
+        final SearchRequestContext<HavenSearchCapable> context = new SearchRequestContext<>(configService, config, "info");
+
+        final HavenSearchCapable result = SearchRequestContextHolder.callWithin(context, () -> SearchRequestContextHolder.getConfig(otherConfigService));
+        assertThat(result, is(sameInstance(liveConfig)));
+    }
+
+    @Test
+    public void configReadFromExplicitContext() {
+        when(otherConfigService.getConfig()).thenReturn(liveConfig);
+        final SearchRequestContext<HavenSearchCapable> context = new SearchRequestContext<>(configService, config, "info");
+
+        assertThat(SearchRequestContextHolder.getConfig(context, configService), is(sameInstance(config)));
+        assertThat(SearchRequestContextHolder.getConfig(context, otherConfigService), is(sameInstance(liveConfig)));
+        verify(configService, never()).getConfig();
+    }
+
+    @Test
+    public void outerContextWins() {
+        final SearchRequestContext<HavenSearchCapable> outer = new SearchRequestContext<>(configService, config, "outer");
+        final SearchRequestContext<HavenSearchCapable> inner = new SearchRequestContext<>(configService, liveConfig, "inner");
+
+        final SearchRequestContext<?> effective = SearchRequestContextHolder.callWithin(outer, () -> SearchRequestContextHolder.callWithin(inner, SearchRequestContextHolder::getContext));
+        assertThat(effective, is(sameInstance(outer)));
+        assertThat(SearchRequestContextHolder.getContext(), is(nullValue()));
+    }
+
+    @Test
+    public void wrappedTaskCarriesContext() {
+        final SearchRequestContext<HavenSearchCapable> context = new SearchRequestContext<>(configService, config, "info");
+        final Supplier<SearchRequestContext<?>> task = SearchRequestContextHolder.callWithin(context, () -> SearchRequestContextHolder.wrap(SearchRequestContextHolder::getContext));
+
+        assertThat(CompletableFuture.supplyAsync(task).join(), is(sameInstance(context)));
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.core.typeahead;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class TypeAheadIndexTest {
+    @Test
+    public void completeExpansion() {
+        final TypeAheadIndex index = TypeAheadIndex.builder(2)
+                .addExpansion("c", Arrays.asList("car", "cat", "cart", "cow"), true)
+                .build();
+
+        assertThat(index.getTermCount(), is(4));
+        assertThat(index.getSuggestions("c"), contains("car", "cat"));
+        assertThat(index.getSuggestions("ca"), contains("car", "cat"));
+        assertThat(index.getSuggestions("car"), contains("car", "cart"));
+        assertThat(index.getSuggestions("co"), contains("cow"));
+        assertThat(index.getSuggestions("cz"), is(empty()));
+    }
+
+    @Test
+    public void matchesWithoutRegardToCase() {
+        final TypeAheadIndex index = TypeAheadIndex.builder(2)
+                .addExpansion("h", Arrays.asList("Hewlett", "Hewlett", "hp"), true)
+                .build();
+
+        assertThat(index.getSuggestions("HE"), contains("Hewlett"));
+    }
+
+    @Test
+    public void truncatedExpansion() {
+        final TypeAheadIndex index = TypeAheadIndex.builder(2)
+                .addExpansion("c", Arrays.asList("car", "cat", "cow"), false)
+                .build();
+
+        assertThat(index.getSuggestions("c"), contains("car", "cat"));
+        assertThat(index.getSuggestions("ca"), contains("car", "cat"));
+        // the backend may know other terms starting with these prefixes
+        assertThat(index.getSuggestions("co"), is(nullValue()));
+        assertThat(index.getSuggestions("cz"), is(nullValue()));
+    }
+
+    @Test
+    public void prefixOutsideExpansions() {
+        final TypeAheadIndex index = TypeAheadIndex.builder(2)
+                .addExpansion("c", Arrays.asList("car", "cat"), true)
+                .build();
+
+        assertThat(index.getSuggestions("b"), is(nullValue()));
+        assertThat(index.getSuggestions(""), is(nullValue()));
+    }
+
+    @Test
+    public void ignoresTermsOutsideExpansion() {
+        final TypeAheadIndex index = TypeAheadIndex.builder(2)
+                .addExpansion("c", Arrays.asList("car", "bus"), true)
+                .build();
+
+        assertThat(index.getTermCount(), is(1));
+        assertThat(index.getSuggestions("b"), is(nullValue()));
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.core.typeahead;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TypeAheadPrefixCacheTest {
+    @Mock
+    private TypeAheadService<RuntimeException> backend;
+
+    private TypeAheadPrefixCacheImpl typeAheadPrefixCache;
+
+    @Before
+    public void setUp() {
+        typeAheadPrefixCache = new TypeAheadPrefixCacheImpl();
+    }
+
+    @Test
+    public void cachesExactText() {
+        when(backend.getSuggestions("mach")).thenReturn(Arrays.asList("mach", "machine"));
+
+        typeAheadPrefixCache.getSuggestions("partition", "mach", backend);
+        assertThat(typeAheadPrefixCache.getSuggestions("partition", "mach", backend), contains("mach", "machine"));
+
+        verify(backend, times(1)).getSuggestions("mach");
+        assertThat(typeAheadPrefixCache.getExactHitCount(), is(1L));
+        assertThat(typeAheadPrefixCache.getMissCount(), is(1L));
+    }
+
+    @Test
+    public void filtersShortListForLongerText() {
+        when(backend.getSuggestions("mach")).thenReturn(Arrays.asList("mach", "Machine", "machinery", "macho"));
+
+        typeAheadPrefixCache.getSuggestions("partition", "mach", backend);
+        assertThat(typeAheadPrefixCache.getSuggestions("partition", "machi", backend), contains("Machine", "machinery"));
+        assertThat(typeAheadPrefixCache.getSuggestions("partition", "machinery", backend), contains("machinery"));
+
+        verify(backend).getSuggestions("mach");
+        verifyNoMoreInteractions(backend);
+        assertThat(typeAheadPrefixCache.getPrefixHitCount(), is(2L));
+    }
+
+    @Test
+    public void asksBackendWhenShorterListWasFull() {
+        when(backend.getSuggestions("m")).thenReturn(Collections.nCopies(TypeAheadConstants.MAX_RESULTS, "machine"));
+        when(backend.getSuggestions("ma")).thenReturn(Collections.singletonList("mango"));
+
+        typeAheadPrefixCache.getSuggestions("partition", "m", backend);
+        assertThat(typeAheadPrefixCache.getSuggestions("partition", "ma", backend), contains("mango"));
+
+        verify(backend).getSuggestions("ma");
+        assertThat(typeAheadPrefixCache.getPrefixHitCount(), is(0L));
+    }
+
+    @Test
+    public void doesNotShareBetweenPartitions() {
+        when(backend.getSuggestions("mach")).thenReturn(Collections.singletonList("machine"));
+        when(backend.getSuggestions("machi")).thenReturn(Collections.singletonList("machinery"));
+
+        typeAheadPrefixCache.getSuggestions("partition", "mach", backend);
+        assertThat(typeAheadPrefixCache.getSuggestions("other", "machi", backend), contains("machinery"));
+    }
+
+    @Test
+    public void ignoresTrailingWildcard() {
+        when(backend.getSuggestions("mach*")).thenReturn(Arrays.asList("machine", "macho"));
+
+        typeAheadPrefixCache.getSuggestions("partition", "mach*", backend);
+        assertThat(typeAheadPrefixCache.getSuggestions("partition", "mach", backend), contains("machine", "macho"));
+        assertThat(typeAheadPrefixCache.getSuggestions("partition", "machi*", backend), contains("machine"));
+
+        verify(backend).getSuggestions("mach*");
+        verifyNoMoreInteractions(backend);
+    }
+
+    @Test
+    public void doesNotFilterForWildcardPattern() {
+        when(backend.getSuggestions("ma")).thenReturn(Collections.singletonList("mango"));
+        when(backend.getSuggestions("ma?h")).thenReturn(Arrays.asList("mach", "math"));
+
+        typeAheadPrefixCache.getSuggestions("partition", "ma", backend);
+        assertThat(typeAheadPrefixCache.getSuggestions("partition", "ma?h", backend), contains("mach", "math"));
+        assertThat(typeAheadPrefixCache.getCachedSuggestions("partition", "ma?h"), is(nullValue()));
+    }
+
+    @Test
+    public void doesNotCacheSeveralTerms() {
+        when(backend.getSuggestions("new yo")).thenReturn(Collections.singletonList("new york"));
+
+        typeAheadPrefixCache.getSuggestions("partition", "new yo", backend);
+        typeAheadPrefixCache.getSuggestions("partition", "new yo", backend);
+
+        verify(backend, times(2)).getSuggestions("new yo");
+    }
+}
@@ -14,6 +14,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hp.autonomy.frontend.configuration.ConfigService;
 import com.hp.autonomy.hod.client.api.textindex.query.search.PromotionType;
 import com.hp.autonomy.searchcomponents.core.config.FieldInfo;
+import com.hp.autonomy.searchcomponents.core.config.FieldSchema;
+import com.hp.autonomy.searchcomponents.core.config.FieldSchemaRegistry;
 import com.hp.autonomy.searchcomponents.core.config.FieldType;
 import com.hp.autonomy.searchcomponents.core.config.FieldsInfo;
 import com.hp.autonomy.searchcomponents.core.search.PromotionCategory;
@@ -25,14 +27,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.jackson.JsonComponent;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @JsonComponent
 public class HodSearchResultDeserializer extends JsonDeserializer<HodSearchResult> {
     private final ConfigService<? extends HodSearchCapable> configService;
+    private final FieldSchemaRegistry fieldSchemaRegistry = new FieldSchemaRegistry();
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
@@ -44,44 +46,29 @@ public class HodSearchResultDeserializer extends JsonDeserializer<HodSearchResul
     @Override
     public HodSearchResult deserialize(final JsonParser jsonParser, final DeserializationContext deserializationContext) throws IOException {
         final FieldsInfo fieldsInfo = configService.getConfig().getFieldsInfo();
-        final Map<String, FieldInfo<?>> fieldConfig = fieldsInfo.getFieldConfig();
+        final List<FieldSchema.Entry> entries = fieldSchemaRegistry.getSchema(fieldsInfo).getEntries();
 
         final JsonNode node = jsonParser.getCodec().readTree(jsonParser);
 
-        final Map<String, FieldInfo<?>> fieldMap = new HashMap<>(fieldConfig.size());
-        for (final FieldInfo<?> fieldInfo : fieldConfig.values()) {
-            for (final String name : fieldInfo.getNames()) {
+        final Map<String, FieldInfo<?>> fieldMap = new HashMap<>(entries.size());
+        for (final FieldSchema.Entry entry : entries) {
+            FieldSchema.Values values = null;
+            for (final String name : entry.getNames()) {
                 final String[] stringValues = parseAsStringArray(node, name);
 
                 if (ArrayUtils.isNotEmpty(stringValues)) {
-                    final Collection<Object> values = new ArrayList<>(stringValues.length);
-                    for (final String stringValue : stringValues) {
-                        final Object value = fieldInfo.getType().parseValue(fieldInfo.getType().getType(), stringValue);
-                        values.add(value);
+                    if (values == null) {
+                        values = entry.newValues();
                     }
 
-                    final String id = fieldInfo.getId();
-                    if (fieldMap.containsKey(id)) {
-                        final FieldInfo<?> existingFieldInfo = fieldMap.get(id);
-                        @SuppressWarnings({"unchecked", "rawtypes"})
-                        final FieldInfo<?> updatedFieldInfo = existingFieldInfo.toBuilder()
-                                .name(name)
-                                .values((Collection) values)
-                                .build();
-                        fieldMap.put(id, updatedFieldInfo);
-                    } else {
-                        @SuppressWarnings({"unchecked", "rawtypes"})
-                        final FieldInfo<?> newFieldInfo = FieldInfo.builder()
-                                .id(id)
-                                .name(name)
-                                .type(fieldInfo.getType())
-                                .advanced(true)
-                                .values((Collection) values)
-                                .build();
-                        fieldMap.put(id, newFieldInfo);
-                    }
+                    values.addAll(name, stringValues);
                 }
             }
+
+            if (values != null) {
+                // fields in HOD results are always reported as advanced
+                fieldMap.put(entry.getId(), values.toFieldInfo(true));
+            }
         }
 
         return HodSearchResult.builder()
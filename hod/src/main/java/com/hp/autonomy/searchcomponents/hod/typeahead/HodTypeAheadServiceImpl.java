@@ -9,6 +9,7 @@ import com.hp.autonomy.hod.caching.CachingConfiguration;
 import com.hp.autonomy.hod.client.api.analysis.autocomplete.AutocompleteService;
 import com.hp.autonomy.hod.client.error.HodErrorException;
 import com.hp.autonomy.searchcomponents.core.caching.CacheNames;
+import com.hp.autonomy.searchcomponents.core.typeahead.TypeAheadPrefixCache;
 import com.hp.autonomy.searchcomponents.core.typeahead.TypeAheadService;
 import org.apache.commons.lang.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,20 +22,28 @@ import java.util.List;
 import static com.hp.autonomy.searchcomponents.core.typeahead.TypeAheadService.TYPE_AHEAD_SERVICE_BEAN_NAME;
 
 /**
- * Default HoD implementation of {@link TypeAheadService}
+ * Default HoD implementation of {@link TypeAheadService}. Text which is not already cached is looked up through the
+ * {@link TypeAheadPrefixCache}, so that suggestions for a shorter prefix can be reused.
  */
 @Service(TYPE_AHEAD_SERVICE_BEAN_NAME)
 class HodTypeAheadServiceImpl implements HodTypeAheadService {
+    // suggestions do not depend on the user (see the cache resolver below), so a single partition is used
+    private static final String PREFIX_CACHE_PARTITION = "autocomplete";
+
     private final AutocompleteService autocompleteService;
+    private final TypeAheadPrefixCache typeAheadPrefixCache;
 
     @Autowired
-    HodTypeAheadServiceImpl(final AutocompleteService autocompleteService) {
+    HodTypeAheadServiceImpl(final AutocompleteService autocompleteService, final TypeAheadPrefixCache typeAheadPrefixCache) {
         this.autocompleteService = autocompleteService;
+        this.typeAheadPrefixCache = typeAheadPrefixCache;
     }
 
     @Override
     @Cacheable(cacheNames = CacheNames.TYPE_AHEAD, cacheResolver = CachingConfiguration.SIMPLE_CACHE_RESOLVER_NAME)
     public List<String> getSuggestions(final String text) throws HodErrorException {
-        return StringUtils.isBlank(text) ? Collections.emptyList() : autocompleteService.getSuggestions(text);
+        return StringUtils.isBlank(text)
+                ? Collections.emptyList()
+                : typeAheadPrefixCache.getSuggestions(PREFIX_CACHE_PARTITION, text, autocompleteService::getSuggestions);
     }
 }
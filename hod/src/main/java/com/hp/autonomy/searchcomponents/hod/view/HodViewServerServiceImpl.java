@@ -25,7 +25,6 @@ import com.hp.autonomy.searchcomponents.core.view.ViewServerService;
 import com.hp.autonomy.searchcomponents.hod.configuration.HodSearchCapable;
 import com.hpe.bigdata.frontend.spring.authentication.AuthenticationInformationRetriever;
 import org.apache.commons.io.IOUtils;
-import org.apache.commons.lang.StringEscapeUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.validator.routines.UrlValidator;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -39,12 +38,10 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static com.hp.autonomy.searchcomponents.core.view.ViewServerService.VIEW_SERVER_SERVICE_BEAN_NAME;
@@ -63,7 +60,6 @@ class HodViewServerServiceImpl implements HodViewServerService {
     private static final String REFERENCE_FIELD = "static_reference";
     private static final String HOD_RULE_CATEGORY = "default";
     private static final Pattern SLASH_PATTERN = Pattern.compile("/|\\\\");
-    private static final Pattern NEWLINE_PATTERN = Pattern.compile("\n", Pattern.LITERAL);
 
     private final ViewDocumentService viewDocumentService;
     private final GetContentService<Document> getContentService;
@@ -96,24 +92,6 @@ class HodViewServerServiceImpl implements HodViewServerService {
         }
     }
 
-    private String escapeAndAddLineBreaks(final String input) {
-        return input == null ? "" : NEWLINE_PATTERN.matcher(StringEscapeUtils.escapeHtml(input)).replaceAll(Matcher.quoteReplacement("<br>"));
-    }
-
-    // Format the document's content for display in a browser
-    private InputStream formatRawContent(final Document document) {
-        final String body = "<h1>" + escapeAndAddLineBreaks(resolveTitle(document)) + "</h1>"
-                + "<p>" + escapeAndAddLineBreaks(document.getContent()) + "</p>";
-
-        return IOUtils.toInputStream(body, StandardCharsets.UTF_8);
-    }
-
-    // TODO: Reconcile with the above
-    private String formatRawContent(final String title, final String content) {
-        return "<h1>" + escapeAndAddLineBreaks(title) + "</h1>"
-                + "<p>" + escapeAndAddLineBreaks(content) + "</p>";
-    }
-
     private String hodFieldValueAsString(final Object value) {
         return value instanceof List ? ((List<?>) value).get(0).toString() : value.toString();
     }
@@ -144,17 +122,21 @@ class HodViewServerServiceImpl implements HodViewServerService {
 
         InputStream inputStream = null;
         try {
-            inputStream = getInputStream(request.getHighlightExpression(), document, documentUrl, urlValidator);
+            inputStream = getInputStream(request.getHighlightExpression(), documentUrl, urlValidator);
 
-            IOUtils.copy(inputStream, outputStream);
+            if (inputStream != null) {
+                IOUtils.copy(inputStream, outputStream);
+            } else {
+                // Format the document's content for display in a browser
+                RawContentRenderer.render(resolveTitle(document), document.getContent(), outputStream);
+            }
         } finally {
             IOUtils.closeQuietly(inputStream);
         }
     }
 
-    @SuppressWarnings("resource")
+    // Returns null if the document content should be displayed instead
     private InputStream getInputStream(final String highlightExpression,
-                                       final Document document,
                                        final String documentUrl,
                                        final UrlValidator urlValidator) throws HodErrorException {
         InputStream inputStream;
@@ -175,15 +157,15 @@ class HodViewServerServiceImpl implements HodViewServerService {
 
                 inputStream = viewDocumentService.viewUrl(encodedUrl, builder);
             } else {
-                inputStream = formatRawContent(document);
+                inputStream = null;
             }
         } catch (final URISyntaxException | MalformedURLException ignored) {
             // URL was not valid, fall back to using the document content
-            inputStream = formatRawContent(document);
+            inputStream = null;
         } catch (final HodErrorException e) {
             if (e.getErrorCode() == HodErrorCode.BACKEND_REQUEST_FAILED) {
                 // HOD failed to read the url, fall back to using the document content
-                inputStream = formatRawContent(document);
+                inputStream = null;
             } else {
                 throw e;
             }
@@ -210,8 +192,6 @@ class HodViewServerServiceImpl implements HodViewServerService {
         final String staticContent = hodFieldValueAsString(fields.get(CONTENT_FIELD));
         final String staticTitle = hodFieldValueAsString(fields.get(TITLE_FIELD));
 
-        try (InputStream inputStream = IOUtils.toInputStream(formatRawContent(staticTitle, staticContent), StandardCharsets.UTF_8)) {
-            IOUtils.copy(inputStream, outputStream);
-        }
+        RawContentRenderer.render(staticTitle, staticContent, outputStream);
     }
 }
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.hod.view;
+
+import org.apache.commons.lang.StringEscapeUtils;
+
+import java.io.BufferedWriter;
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Renders plain text documents as HTML for display in a browser. The text is escaped and line breaks are inserted as it
+ * is written, so large documents are never held in memory a second time.
+ */
+final class RawContentRenderer {
+    private static final String LINE_BREAK = "<br>";
+
+    private RawContentRenderer() {
+    }
+
+    /**
+     * Writes the title as a heading followed by the content as a paragraph. The output stream is flushed but not closed.
+     *
+     * @param title        The title of the document (may be null)
+     * @param content      The content of the document (may be null)
+     * @param outputStream The stream to write the HTML to, as UTF-8
+     * @throws IOException If the stream cannot be written to
+     */
+    static void render(final String title, final String content, final OutputStream outputStream) throws IOException {
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        final Writer lineBreakWriter = new LineBreakWriter(writer);
+
+        writer.write("<h1>");
+        writeEscaped(lineBreakWriter, title);
+        writer.write("</h1><p>");
+        writeEscaped(lineBreakWriter, content);
+        writer.write("</p>");
+        writer.flush();
+    }
+
+    private static void writeEscaped(final Writer writer, final String input) throws IOException {
+        if (input != null) {
+            StringEscapeUtils.escapeHtml(writer, input);
+        }
+    }
+
+    /**
+     * Replaces each newline with an HTML line break. Escaping never produces a newline, so this can be applied to the
+     * escaped output.
+     */
+    private static class LineBreakWriter extends FilterWriter {
+        private LineBreakWriter(final Writer out) {
+            super(out);
+        }
+
+        @Override
+        public void write(final int c) throws IOException {
+            if (c == '\n') {
+                out.write(LINE_BREAK);
+            } else {
+                out.write(c);
+            }
+        }
+
+        @Override
+        public void write(final char[] buffer, final int offset, final int length) throws IOException {
+            int start = offset;
+            final int end = offset + length;
+            for (int i = offset; i < end; i++) {
+                if (buffer[i] == '\n') {
+                    out.write(buffer, start, i - start);
+                    out.write(LINE_BREAK);
+                    start = i + 1;
+                }
+            }
+
+            out.write(buffer, start, end - start);
+        }
+
+        @Override
+        public void write(final String string, final int offset, final int length) throws IOException {
+            int start = offset;
+            final int end = offset + length;
+            for (int i = offset; i < end; i++) {
+                if (string.charAt(i) == '\n') {
+                    out.write(string, start, i - start);
+                    out.write(LINE_BREAK);
+                    start = i + 1;
+                }
+            }
+
+            out.write(string, start, end - start);
+        }
+    }
+}
@@ -7,10 +7,12 @@ package com.hp.autonomy.searchcomponents.hod.typeahead;
 
 import com.hp.autonomy.hod.client.api.analysis.autocomplete.AutocompleteService;
 import com.hp.autonomy.hod.client.error.HodErrorException;
+import com.hp.autonomy.searchcomponents.core.typeahead.TypeAheadPrefixCache;
 import com.hp.autonomy.searchcomponents.core.typeahead.TypeAheadService;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.Matchers;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
@@ -18,6 +20,9 @@ import java.util.Collections;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -25,11 +30,16 @@ public class HodTypeAheadServiceTest {
     @Mock
     private AutocompleteService autocompleteService;
 
+    @Mock
+    private TypeAheadPrefixCache typeAheadPrefixCache;
+
     private TypeAheadService<HodErrorException> typeAheadService;
 
     @Before
-    public void setUp() {
-        typeAheadService = new HodTypeAheadServiceImpl(autocompleteService);
+    public void setUp() throws HodErrorException {
+        typeAheadService = new HodTypeAheadServiceImpl(autocompleteService, typeAheadPrefixCache);
+        when(typeAheadPrefixCache.getSuggestions(eq("autocomplete"), anyString(), Matchers.<TypeAheadService<HodErrorException>>any()))
+                .thenAnswer(invocation -> ((TypeAheadService<?>) invocation.getArguments()[2]).getSuggestions((String) invocation.getArguments()[1]));
     }
 
     @Test
@@ -41,5 +51,6 @@ public class HodTypeAheadServiceTest {
     @Test
     public void getSuggestionsNoText() throws HodErrorException {
         assertThat(typeAheadService.getSuggestions(null), is(empty()));
+        verifyZeroInteractions(typeAheadPrefixCache);
     }
 }
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.hod.view;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class RawContentRendererTest {
+    @Test
+    public void escapesAndAddsLineBreaks() throws IOException {
+        assertThat(render("Cats & Dogs", "<b>first</b>\nsecond\n\nthird"), is("<h1>Cats &amp; Dogs</h1><p>&lt;b&gt;first&lt;/b&gt;<br>second<br><br>third</p>"));
+    }
+
+    @Test
+    public void missingTitleAndContent() throws IOException {
+        assertThat(render(null, null), is("<h1></h1><p></p>"));
+    }
+
+    @Test
+    public void nonAsciiCharacters() throws IOException {
+        assertThat(render("Café", "über"), is("<h1>Caf&eacute;</h1><p>&uuml;ber</p>"));
+    }
+
+    @Test
+    public void largeContent() throws IOException {
+        final StringBuilder content = new StringBuilder();
+        final StringBuilder expected = new StringBuilder("<h1>title</h1><p>");
+        for (int i = 0; i < 100000; i++) {
+            content.append("line ").append(i).append('\n');
+            expected.append("line ").append(i).append("<br>");
+        }
+        expected.append("</p>");
+
+        assertThat(render("title", content.toString()), is(expected.toString()));
+    }
+
+    private String render(final String title, final String content) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        RawContentRenderer.render(title, content, outputStream);
+        return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
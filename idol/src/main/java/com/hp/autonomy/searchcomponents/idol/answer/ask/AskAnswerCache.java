@@ -0,0 +1,61 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.answer.ask;
+
+import com.google.common.cache.CacheStats;
+import com.hp.autonomy.types.idol.responses.answer.AskAnswer;
+import org.springframework.beans.factory.annotation.Qualifier;
+
+import java.util.List;
+
+/**
+ * Record of the answers recently returned by AnswerServer, so that asking the same question again does not need an Ask.
+ * Questions are considered the same if they differ only in case, whitespace and punctuation, and all other request
+ * parameters are equal.
+ */
+public interface AskAnswerCache {
+    /**
+     * The bean name of the default implementation.
+     * Use this in an {@link Qualifier} tag to access this implementation via autowiring.
+     */
+    String ASK_ANSWER_CACHE_BEAN_NAME = "askAnswerCache";
+
+    /**
+     * Returns the recorded answers for the given request
+     *
+     * @param request The Ask request
+     * @return The answers, or null if none have been recorded
+     */
+    List<AskAnswer> getAnswers(AskAnswerServerRequest request);
+
+    /**
+     * Records the answers returned by AnswerServer for the given request
+     *
+     * @param request The Ask request
+     * @param answers The answers returned by AnswerServer
+     */
+    void putAnswers(AskAnswerServerRequest request, List<AskAnswer> answers);
+
+    /**
+     * Discards all recorded answers for requests which included the given system, for example because its answer bank
+     * has been updated
+     *
+     * @param systemName The name of the AnswerServer system
+     */
+    void invalidateSystem(String systemName);
+
+    /**
+     * Discards all recorded answers
+     */
+    void invalidateAll();
+
+    /**
+     * Hit, miss and eviction counts for the cache
+     *
+     * @return the cache statistics
+     */
+    CacheStats getStatistics();
+}
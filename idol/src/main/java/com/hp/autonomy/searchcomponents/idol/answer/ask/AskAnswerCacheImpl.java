@@ -0,0 +1,152 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.answer.ask;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.hp.autonomy.searchcomponents.idol.answer.system.AnswerServerSystemsChangedEvent;
+import com.hp.autonomy.types.idol.responses.answer.AskAnswer;
+import com.hp.autonomy.types.requests.idol.actions.answer.params.AskSortParam;
+import lombok.Data;
+import org.springframework.context.event.EventListener;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedOperationParameter;
+import org.springframework.jmx.export.annotation.ManagedOperationParameters;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import static com.hp.autonomy.searchcomponents.idol.answer.ask.AskAnswerCache.ASK_ANSWER_CACHE_BEAN_NAME;
+
+/**
+ * Default implementation of {@link AskAnswerCache}, backed by a size-bounded Guava cache. Entries expire after a few
+ * minutes so that changes to answer banks are picked up even if nobody invalidates them.
+ */
+@Component(ASK_ANSWER_CACHE_BEAN_NAME)
+@ManagedResource(description = "Cache of AnswerServer answers for recently asked questions")
+class AskAnswerCacheImpl implements AskAnswerCache {
+    static final long MAXIMUM_SIZE = 10000;
+    static final long EXPIRY_SECONDS = 300;
+
+    // full stops and commas are kept inside numbers, so that 1.5 and 15 remain different questions
+    private static final Pattern PUNCTUATION = Pattern.compile("[?!;:\"'`()\\[\\]{}]|[.,](?!\\d)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final Cache<Key, List<AskAnswer>> cache;
+
+    AskAnswerCacheImpl() {
+        this(MAXIMUM_SIZE, EXPIRY_SECONDS, TimeUnit.SECONDS);
+    }
+
+    AskAnswerCacheImpl(final long maximumSize, final long expiry, final TimeUnit expiryUnit) {
+        cache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expiry, expiryUnit)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public List<AskAnswer> getAnswers(final AskAnswerServerRequest request) {
+        return cache.getIfPresent(createKey(request));
+    }
+
+    @Override
+    public void putAnswers(final AskAnswerServerRequest request, final List<AskAnswer> answers) {
+        cache.put(createKey(request), Collections.unmodifiableList(new ArrayList<>(answers)));
+    }
+
+    @Override
+    @ManagedOperation(description = "Discards all recorded answers from the given system")
+    @ManagedOperationParameters(@ManagedOperationParameter(name = "systemName", description = "The name of the AnswerServer system"))
+    public void invalidateSystem(final String systemName) {
+        cache.asMap().keySet().removeIf(key -> key.getSystemNames().contains(systemName));
+    }
+
+    @Override
+    @ManagedOperation(description = "Discards all recorded answers")
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public CacheStats getStatistics() {
+        return cache.stats();
+    }
+
+    @EventListener
+    public void onSystemsChanged(final AnswerServerSystemsChangedEvent event) {
+        // answers from a system which has been removed must not be served again
+        event.getPreviousSystemNames().stream()
+                .filter(systemName -> !event.getSystemNames().contains(systemName))
+                .forEach(this::invalidateSystem);
+    }
+
+    @ManagedAttribute(description = "Number of recorded questions")
+    public long getSize() {
+        return cache.size();
+    }
+
+    @ManagedAttribute(description = "Number of questions which did not need an Ask")
+    public long getHitCount() {
+        return cache.stats().hitCount();
+    }
+
+    @ManagedAttribute(description = "Number of questions not found in the cache")
+    public long getMissCount() {
+        return cache.stats().missCount();
+    }
+
+    @ManagedAttribute(description = "Proportion of questions which did not need an Ask")
+    public double getHitRate() {
+        return cache.stats().hitRate();
+    }
+
+    @ManagedAttribute(description = "Number of questions evicted because the cache was full or the entry expired")
+    public long getEvictionCount() {
+        return cache.stats().evictionCount();
+    }
+
+    static String normalise(final String text) {
+        if (text == null) {
+            return null;
+        }
+
+        final String withoutPunctuation = PUNCTUATION.matcher(text.toLowerCase(Locale.ROOT)).replaceAll(" ");
+        return WHITESPACE.matcher(withoutPunctuation).replaceAll(" ").trim();
+    }
+
+    private Key createKey(final AskAnswerServerRequest request) {
+        // the order of the systems is kept as it determines the order of the answers when sorting by system
+        return new Key(
+                normalise(request.getText()),
+                new ArrayList<>(request.getSystemNames()),
+                request.getMaxResults(),
+                request.getMinScore(),
+                request.getSort()
+        );
+    }
+
+    @Data
+    private static class Key implements Serializable {
+        private static final long serialVersionUID = -5408126364816375025L;
+
+        private final String text;
+        private final List<String> systemNames;
+        private final Integer maxResults;
+        private final Double minScore;
+        private final AskSortParam sort;
+    }
+}
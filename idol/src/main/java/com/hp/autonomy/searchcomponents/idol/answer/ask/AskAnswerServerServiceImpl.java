@@ -6,9 +6,16 @@
 package com.hp.autonomy.searchcomponents.idol.answer.ask;
 
 import com.autonomy.aci.client.services.AciService;
+import com.autonomy.aci.client.services.AciServiceException;
 import com.autonomy.aci.client.services.Processor;
 import com.autonomy.aci.client.util.AciParameters;
+import com.hp.autonomy.frontend.configuration.ConfigService;
+import com.hp.autonomy.searchcomponents.idol.answer.configuration.AnswerServerConfig;
+import com.hp.autonomy.searchcomponents.idol.answer.configuration.AskFanOutConfig;
+import com.hp.autonomy.searchcomponents.idol.configuration.IdolSearchCapable;
 import com.hp.autonomy.searchcomponents.idol.exceptions.IdolService;
+import com.hp.autonomy.searchcomponents.idol.httpclient.AsyncAciFutures;
+import com.hp.autonomy.searchcomponents.idol.httpclient.AsyncAciService;
 import com.hp.autonomy.types.idol.marshalling.ProcessorFactory;
 import com.hp.autonomy.types.idol.responses.answer.AskAnswer;
 import com.hp.autonomy.types.idol.responses.answer.AskAnswers;
@@ -16,43 +23,180 @@ import com.hp.autonomy.types.idol.responses.answer.AskResponsedata;
 import com.hp.autonomy.types.requests.idol.actions.answer.AnswerServerActions;
 import com.hp.autonomy.types.requests.idol.actions.answer.params.AskParams;
 import com.hp.autonomy.types.requests.idol.actions.answer.params.AskSortParam;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.BooleanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeoutException;
 
 import static com.hp.autonomy.searchcomponents.idol.answer.ask.AskAnswerServerService.ASK_SERVICE_BEAN_NAME;
+import static com.hp.autonomy.searchcomponents.idol.beanconfiguration.HavenSearchIdolConfiguration.TIMEOUT_SCHEDULER_BEAN_NAME;
 import static com.hp.autonomy.searchcomponents.idol.exceptions.codes.IdolErrorCodes.ANSWER_SERVER;
 
 /**
- * Default idol implementation of {@link AskAnswerServerService}
+ * Default idol implementation of {@link AskAnswerServerService}. If {@link AskFanOutConfig} is enabled and more than one
+ * system is requested, each system is asked separately and concurrently, and the answers are merged in the requested
+ * sort order. Answers are recorded in the {@link AskAnswerCache}, so repeated questions do not reach AnswerServer.
  */
+@Slf4j
 @Service(ASK_SERVICE_BEAN_NAME)
 @IdolService(ANSWER_SERVER)
 class AskAnswerServerServiceImpl implements AskAnswerServerService {
+    private final ConfigService<? extends IdolSearchCapable> configService;
     private final AciService answerServerAciService;
+    private final AsyncAciService answerServerAsyncAciService;
+    private final AskAnswerCache askAnswerCache;
     private final Processor<AskResponsedata> processor;
+    private final TaskScheduler timeoutScheduler;
 
     @Autowired
-    AskAnswerServerServiceImpl(final AciService answerServerAciService,
-                               final ProcessorFactory processorFactory) {
+    AskAnswerServerServiceImpl(final ConfigService<? extends IdolSearchCapable> configService,
+                               final AciService answerServerAciService,
+                               final AsyncAciService answerServerAsyncAciService,
+                               final AskAnswerCache askAnswerCache,
+                               final ProcessorFactory processorFactory,
+                               @Qualifier(TIMEOUT_SCHEDULER_BEAN_NAME) final TaskScheduler timeoutScheduler) {
+        this.configService = configService;
         this.answerServerAciService = answerServerAciService;
+        this.answerServerAsyncAciService = answerServerAsyncAciService;
+        this.askAnswerCache = askAnswerCache;
+        this.timeoutScheduler = timeoutScheduler;
         processor = processorFactory.getResponseDataProcessor(AskResponsedata.class);
     }
 
-    @SuppressWarnings("IfMayBeConditional")
     @Override
     public List<AskAnswer> ask(final AskAnswerServerRequest request) {
+        final List<AskAnswer> cachedAnswers = askAnswerCache.getAnswers(request);
+        if (cachedAnswers != null) {
+            return cachedAnswers;
+        }
+
+        final AskFanOutConfig fanOutConfig = getFanOutConfig();
+        if (fanOutConfig != null && request.getSystemNames().size() > 1) {
+            return askEachSystem(request, fanOutConfig);
+        }
+
+        final AciParameters aciParameters = createParameters(request, String.join(",", request.getSystemNames()));
+        final List<AskAnswer> answers = getAnswers(answerServerAciService.executeAction(aciParameters, processor));
+        askAnswerCache.putAnswers(request, answers);
+        return answers;
+    }
+
+    private List<AskAnswer> askEachSystem(final AskAnswerServerRequest request, final AskFanOutConfig fanOutConfig) {
+        final Double earlyTerminationScore = fanOutConfig.getEarlyTerminationScore();
+        final CompletableFuture<Void> finished = new CompletableFuture<>();
+        final List<CompletableFuture<List<AskAnswer>>> systemAnswers = new ArrayList<>(request.getSystemNames().size());
+
+        for (final String systemName : request.getSystemNames()) {
+            final CompletableFuture<List<AskAnswer>> answers = askSystem(request, systemName, fanOutConfig.getSystemTimeoutOrDefault());
+
+            if (earlyTerminationScore != null) {
+                answers.thenAccept(systemResults -> {
+                    if (systemResults.stream().anyMatch(answer -> getScore(answer) >= earlyTerminationScore)) {
+                        finished.complete(null);
+                    }
+                });
+            }
+
+            systemAnswers.add(answers);
+        }
+
+        CompletableFuture.allOf(systemAnswers.toArray(new CompletableFuture<?>[systemAnswers.size()]))
+                .whenComplete((ignored, e) -> finished.complete(null));
+        finished.join();
+
+        final List<AskAnswer> merged = new ArrayList<>();
+        boolean complete = true;
+        RuntimeException failure = null;
+        for (final CompletableFuture<List<AskAnswer>> answers : systemAnswers) {
+            // systems which have not answered yet are no longer needed
+            answers.cancel(true);
+
+            try {
+                merged.addAll(answers.join());
+            } catch (final CancellationException ignored) {
+                // an answer was found elsewhere
+            } catch (final CompletionException e) {
+                complete = false;
+
+                if (failure == null && !(e.getCause() instanceof TimeoutException)) {
+                    failure = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new AciServiceException(e.getCause());
+                }
+            }
+        }
+
+        // only fail if there is nothing to show
+        if (merged.isEmpty() && failure != null) {
+            throw failure;
+        }
+
+        // answers are already grouped by system in request order; otherwise order by score as AnswerServer does
+        if (request.getSort() != AskSortParam.SYSTEM) {
+            merged.sort(Comparator.comparingDouble(AskAnswerServerServiceImpl::getScore).reversed());
+        }
+
+        final Integer maxResults = request.getMaxResults();
+        final List<AskAnswer> answers = maxResults != null && merged.size() > maxResults ? new ArrayList<>(merged.subList(0, maxResults)) : merged;
+
+        // a slow or failing system might answer next time
+        if (complete) {
+            askAnswerCache.putAnswers(request, answers);
+        }
+
+        return answers;
+    }
+
+    private CompletableFuture<List<AskAnswer>> askSystem(final AskAnswerServerRequest request, final String systemName, final long timeout) {
+        final CompletableFuture<AskResponsedata> response = answerServerAsyncAciService.executeAction(createParameters(request, systemName), processor);
+        // a timeout completes the answers exceptionally, which aborts the request
+        final CompletableFuture<List<AskAnswer>> answers = AsyncAciFutures.thenApply(response, this::getAnswers);
+
+        final ScheduledFuture<?> timeoutTask = timeoutScheduler.schedule(() -> {
+            if (answers.completeExceptionally(new TimeoutException())) {
+                log.debug("AnswerServer system {} did not answer within {}ms", systemName, timeout);
+            }
+        }, new Date(System.currentTimeMillis() + timeout));
+        answers.whenComplete((value, e) -> timeoutTask.cancel(false));
+
+        return answers;
+    }
+
+    private AciParameters createParameters(final AskAnswerServerRequest request, final String systemNames) {
         final AciParameters aciParameters = new AciParameters(AnswerServerActions.Ask.name());
         aciParameters.add(AskParams.Text.name(), request.getText());
         aciParameters.add(AskParams.Sort.name(), Optional.ofNullable(request.getSort()).map(AskSortParam::value).orElse(null));
-        aciParameters.add(AskParams.SystemNames.name(), String.join(",", request.getSystemNames()));
+        aciParameters.add(AskParams.SystemNames.name(), systemNames);
         aciParameters.add(AskParams.MaxResults.name(), request.getMaxResults());
         aciParameters.add(AskParams.MinScore.name(), request.getMinScore());
+        return aciParameters;
+    }
 
-        final AskAnswers answers = answerServerAciService.executeAction(aciParameters, processor).getAnswers();
+    private List<AskAnswer> getAnswers(final AskResponsedata responsedata) {
+        final AskAnswers answers = responsedata.getAnswers();
         return Optional.ofNullable(answers).map(AskAnswers::getAnswer).orElse(Collections.emptyList());
     }
+
+    private AskFanOutConfig getFanOutConfig() {
+        final AnswerServerConfig answerServerConfig = configService.getConfig().getAnswerServer();
+        final AskFanOutConfig fanOutConfig = answerServerConfig != null ? answerServerConfig.getAskFanOut() : null;
+        return fanOutConfig != null && BooleanUtils.isTrue(fanOutConfig.getEnabled()) ? fanOutConfig : null;
+    }
+
+    private static double getScore(final AskAnswer answer) {
+        final Number score = answer.getScore();
+        return score != null ? score.doubleValue() : 0;
+    }
 }
@@ -30,9 +30,16 @@ import java.util.Collection;
 public class AnswerServerConfig extends SimpleComponent<AnswerServerConfig> implements OptionalConfigurationComponent<AnswerServerConfig> {
     private static final String SECTION = "AnswerServer";
 
+    /**
+     * The time in milliseconds between checks for added or removed systems if no value is configured
+     */
+    public static final long DEFAULT_SYSTEMS_REFRESH_INTERVAL = 300000L;
+
     private final ServerConfig server;
     @Singular
     private final Collection<String> systemNames;
+    private final Long systemsRefreshInterval;
+    private final AskFanOutConfig askFanOut;
     private final Boolean enabled;
 
     @Override
@@ -42,9 +49,21 @@ public class AnswerServerConfig extends SimpleComponent<AnswerServerConfig> impl
                 throw new ConfigException(SECTION, "AnswerServer is enabled but no corresponding server details have been provided");
             }
             server.basicValidate(SECTION);
+
+            if (systemsRefreshInterval != null && systemsRefreshInterval <= 0) {
+                throw new ConfigException(SECTION, "Systems refresh interval must be positive");
+            }
+
+            if (askFanOut != null) {
+                askFanOut.basicValidate(SECTION);
+            }
         }
     }
 
+    public long getSystemsRefreshIntervalOrDefault() {
+        return systemsRefreshInterval != null ? systemsRefreshInterval : DEFAULT_SYSTEMS_REFRESH_INTERVAL;
+    }
+
     public AciServerDetails toAciServerDetails() {
         return server.toAciServerDetails();
     }
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.answer.configuration;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import com.hp.autonomy.frontend.configuration.ConfigException;
+import com.hp.autonomy.frontend.configuration.SimpleComponent;
+import com.hp.autonomy.frontend.configuration.validation.OptionalConfigurationComponent;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.apache.commons.lang3.BooleanUtils;
+
+/**
+ * Configuration for sending a separate Ask action to each AnswerServer system concurrently, rather than one Ask action
+ * which is only answered once every system has been evaluated
+ */
+@SuppressWarnings("DefaultAnnotationParam")
+@Getter
+@Builder
+@EqualsAndHashCode(callSuper = false)
+@ToString
+@JsonDeserialize(builder = AskFanOutConfig.AskFanOutConfigBuilder.class)
+public class AskFanOutConfig extends SimpleComponent<AskFanOutConfig> implements OptionalConfigurationComponent<AskFanOutConfig> {
+    private static final String SECTION = "AskFanOut";
+
+    /**
+     * The time in milliseconds to wait for the answers of a single system if no value is configured
+     */
+    public static final long DEFAULT_SYSTEM_TIMEOUT = 10000L;
+
+    private final Long systemTimeout;
+    /**
+     * Once any system returns an answer with at least this score, the remaining systems are not waited for. If not
+     * set, all systems are waited for.
+     */
+    private final Double earlyTerminationScore;
+    private final Boolean enabled;
+
+    @Override
+    public void basicValidate(final String configSection) throws ConfigException {
+        if (BooleanUtils.isTrue(enabled) && systemTimeout != null && systemTimeout <= 0) {
+            throw new ConfigException(SECTION, "System timeout must be positive");
+        }
+    }
+
+    public long getSystemTimeoutOrDefault() {
+        return systemTimeout != null ? systemTimeout : DEFAULT_SYSTEM_TIMEOUT;
+    }
+
+    @SuppressWarnings("WeakerAccess")
+    @JsonPOJOBuilder(withPrefix = "")
+    public static class AskFanOutConfigBuilder {
+    }
+}
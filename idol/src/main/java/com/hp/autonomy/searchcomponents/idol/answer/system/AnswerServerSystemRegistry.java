@@ -0,0 +1,36 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.answer.system;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+
+import java.util.List;
+
+/**
+ * Holds the names of the systems of the configured AnswerServer, so that they need not be requested before every
+ * question. The names are refreshed in the background and an {@link AnswerServerSystemsChangedEvent} is published when
+ * they change.
+ */
+public interface AnswerServerSystemRegistry {
+    /**
+     * The bean name of the default implementation.
+     * Use this in an {@link Qualifier} tag to access this implementation via autowiring.
+     */
+    String ANSWER_SERVER_SYSTEM_REGISTRY_BEAN_NAME = "answerServerSystemRegistry";
+
+    /**
+     * Returns the cached system names, requesting them from AnswerServer if they have not been loaded yet or the
+     * AnswerServer configuration has changed since they were loaded
+     *
+     * @return the list of configured system names
+     */
+    List<String> getSystemNames();
+
+    /**
+     * Requests the system names from AnswerServer and replaces the cached names
+     */
+    void refresh();
+}
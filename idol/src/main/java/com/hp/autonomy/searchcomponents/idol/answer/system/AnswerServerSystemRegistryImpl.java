@@ -0,0 +1,166 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.answer.system;
+
+import com.autonomy.aci.client.services.AciService;
+import com.autonomy.aci.client.services.Processor;
+import com.autonomy.aci.client.transport.AciServerDetails;
+import com.autonomy.aci.client.util.AciParameters;
+import com.hp.autonomy.frontend.configuration.ConfigService;
+import com.hp.autonomy.searchcomponents.idol.answer.configuration.AnswerServerConfig;
+import com.hp.autonomy.searchcomponents.idol.configuration.IdolSearchCapable;
+import com.hp.autonomy.searchcomponents.idol.scheduling.ConfiguredDelayTrigger;
+import com.hp.autonomy.types.idol.marshalling.ProcessorFactory;
+import com.hp.autonomy.types.idol.responses.answer.GetStatusResponsedata;
+import com.hp.autonomy.types.requests.idol.actions.status.StatusActions;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.BooleanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ScheduledFuture;
+
+import static com.hp.autonomy.searchcomponents.idol.beanconfiguration.HavenSearchIdolConfiguration.TASK_SCHEDULER_BEAN_NAME;
+import static com.hp.autonomy.searchcomponents.idol.answer.system.AnswerServerSystemRegistry.ANSWER_SERVER_SYSTEM_REGISTRY_BEAN_NAME;
+
+/**
+ * Default implementation of {@link AnswerServerSystemRegistry}. The names are refreshed on a background thread at the
+ * configured interval while AnswerServer is enabled; if a refresh fails the previous names are kept.
+ */
+@Slf4j
+@Component(ANSWER_SERVER_SYSTEM_REGISTRY_BEAN_NAME)
+@ManagedResource(description = "Cached names of AnswerServer systems")
+class AnswerServerSystemRegistryImpl implements AnswerServerSystemRegistry {
+    private final ConfigService<? extends IdolSearchCapable> configService;
+    private final AciService answerServerAciService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Processor<GetStatusResponsedata> processor;
+    private final TaskScheduler taskScheduler;
+
+    private volatile Snapshot snapshot;
+    private volatile ScheduledFuture<?> refreshTask;
+
+    @Autowired
+    AnswerServerSystemRegistryImpl(
+            final ConfigService<? extends IdolSearchCapable> configService,
+            final AciService answerServerAciService,
+            final ApplicationEventPublisher eventPublisher,
+            final ProcessorFactory processorFactory,
+            @Qualifier(TASK_SCHEDULER_BEAN_NAME)
+            final TaskScheduler taskScheduler
+    ) {
+        this.configService = configService;
+        this.answerServerAciService = answerServerAciService;
+        this.eventPublisher = eventPublisher;
+        this.taskScheduler = taskScheduler;
+        processor = processorFactory.getResponseDataProcessor(GetStatusResponsedata.class);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refreshTask = taskScheduler.schedule(this::refreshInBackground, new ConfiguredDelayTrigger(this::getRefreshInterval));
+    }
+
+    @PreDestroy
+    public void close() {
+        if (refreshTask != null) {
+            refreshTask.cancel(false);
+        }
+    }
+
+    @Override
+    public List<String> getSystemNames() {
+        final Snapshot currentSnapshot = snapshot;
+        return isCurrent(currentSnapshot) ? currentSnapshot.getSystemNames() : loadSystemNames();
+    }
+
+    @Override
+    @ManagedOperation(description = "Requests the system names from AnswerServer")
+    public synchronized void refresh() {
+        final AciServerDetails serverDetails = getServerDetails();
+        final GetStatusResponsedata status = answerServerAciService.executeAction(new AciParameters(StatusActions.GetStatus.name()), processor);
+        final List<String> systemNames = Collections.unmodifiableList(new ArrayList<>(AnswerServerSystemServiceImpl.getSystemNames(status)));
+
+        final Snapshot previousSnapshot = snapshot;
+        snapshot = new Snapshot(serverDetails, systemNames, System.currentTimeMillis());
+
+        if (previousSnapshot != null && !previousSnapshot.getSystemNames().equals(systemNames)) {
+            log.info("AnswerServer systems changed from {} to {}", previousSnapshot.getSystemNames(), systemNames);
+            eventPublisher.publishEvent(new AnswerServerSystemsChangedEvent(this, previousSnapshot.getSystemNames(), systemNames));
+        }
+    }
+
+    @ManagedAttribute(description = "Names of the AnswerServer systems")
+    public List<String> getCachedSystemNames() {
+        final Snapshot currentSnapshot = snapshot;
+        return currentSnapshot != null ? currentSnapshot.getSystemNames() : Collections.emptyList();
+    }
+
+    @ManagedAttribute(description = "Time at which the system names were last requested, in milliseconds since the epoch")
+    public long getRefreshTime() {
+        final Snapshot currentSnapshot = snapshot;
+        return currentSnapshot != null ? currentSnapshot.getRefreshTime() : 0;
+    }
+
+    private void refreshInBackground() {
+        final AnswerServerConfig config = configService.getConfig().getAnswerServer();
+
+        try {
+            if (config != null && BooleanUtils.isTrue(config.getEnabled())) {
+                refresh();
+            }
+        } catch (final RuntimeException e) {
+            log.warn("Failed to refresh AnswerServer system names", e);
+        }
+    }
+
+    private synchronized List<String> loadSystemNames() {
+        // callers which were waiting for another caller's refresh use its result rather than sending GetStatus again
+        final Snapshot currentSnapshot = snapshot;
+        if (isCurrent(currentSnapshot)) {
+            return currentSnapshot.getSystemNames();
+        }
+
+        refresh();
+        return snapshot.getSystemNames();
+    }
+
+    private boolean isCurrent(final Snapshot currentSnapshot) {
+        // the names are discarded if they were loaded from a different server
+        return currentSnapshot != null && Objects.equals(currentSnapshot.getServerDetails(), getServerDetails());
+    }
+
+    private long getRefreshInterval() {
+        final AnswerServerConfig config = configService.getConfig().getAnswerServer();
+        return config != null ? config.getSystemsRefreshIntervalOrDefault() : AnswerServerConfig.DEFAULT_SYSTEMS_REFRESH_INTERVAL;
+    }
+
+    private AciServerDetails getServerDetails() {
+        final AnswerServerConfig config = configService.getConfig().getAnswerServer();
+        return config != null && BooleanUtils.isTrue(config.getEnabled()) ? config.toAciServerDetails() : null;
+    }
+
+    @Data
+    private static class Snapshot {
+        private final AciServerDetails serverDetails;
+        private final List<String> systemNames;
+        private final long refreshTime;
+    }
+}
@@ -14,7 +14,8 @@ import java.util.Collection;
  */
 public interface AnswerServerSystemService {
     /**
-     * Returns the list of configured system names using configured server details
+     * Returns the list of configured system names using configured server details. The names are cached by
+     * {@link AnswerServerSystemRegistry}, so may not reflect a very recent change to AnswerServer.
      *
      * @return the list of configured system names
      */
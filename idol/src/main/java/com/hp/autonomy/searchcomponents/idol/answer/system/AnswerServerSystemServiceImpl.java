@@ -17,37 +17,36 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.stream.Collectors;
 
 @Component
 class AnswerServerSystemServiceImpl implements AnswerServerSystemService {
     private final AciService aciService;
-    private final AciService answerServerAciService;
+    private final AnswerServerSystemRegistry answerServerSystemRegistry;
     private final Processor<GetStatusResponsedata> processor;
 
     @Autowired
     AnswerServerSystemServiceImpl(final AciService aciService,
-                                  final AciService answerServerAciService,
+                                  final AnswerServerSystemRegistry answerServerSystemRegistry,
                                   final ProcessorFactory processorFactory) {
         this.aciService = aciService;
-        this.answerServerAciService = answerServerAciService;
+        this.answerServerSystemRegistry = answerServerSystemRegistry;
         processor = processorFactory.getResponseDataProcessor(GetStatusResponsedata.class);
     }
 
     @Override
     public Collection<String> getSystemNames() {
-        return answerServerAciService.executeAction(new AciParameters(StatusActions.GetStatus.name()), processor)
-                .getSystems()
-                .getSystem()
-                .stream()
-                .map(System::getName)
-                .collect(Collectors.toList());
+        return answerServerSystemRegistry.getSystemNames();
     }
 
     @Override
     public Collection<String> getSystemNames(final AciServerDetails aciServerDetails) {
-        return aciService.executeAction(aciServerDetails, new AciParameters(StatusActions.GetStatus.name()), processor)
-                .getSystems()
+        return getSystemNames(aciService.executeAction(aciServerDetails, new AciParameters(StatusActions.GetStatus.name()), processor));
+    }
+
+    static List<String> getSystemNames(final GetStatusResponsedata status) {
+        return status.getSystems()
                 .getSystem()
                 .stream()
                 .map(System::getName)
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.answer.system;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.List;
+
+/**
+ * Published by {@link AnswerServerSystemRegistry} when a refresh finds that systems have been added to or removed from
+ * AnswerServer
+ */
+@Getter
+public class AnswerServerSystemsChangedEvent extends ApplicationEvent {
+    private static final long serialVersionUID = -2783515938512735146L;
+
+    private final List<String> previousSystemNames;
+    private final List<String> systemNames;
+
+    public AnswerServerSystemsChangedEvent(final Object source, final List<String> previousSystemNames, final List<String> systemNames) {
+        super(source);
+        this.previousSystemNames = previousSystemNames;
+        this.systemNames = systemNames;
+    }
+}
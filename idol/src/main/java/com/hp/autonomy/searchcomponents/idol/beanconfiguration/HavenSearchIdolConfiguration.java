@@ -15,8 +15,17 @@ import com.hp.autonomy.frontend.configuration.ConfigService;
 import com.hp.autonomy.frontend.configuration.aci.AbstractConfigurableAciService;
 import com.hp.autonomy.frontend.configuration.authentication.CommunityPrincipal;
 import com.hp.autonomy.searchcomponents.idol.answer.configuration.AnswerServerConfig;
+import com.hp.autonomy.searchcomponents.idol.circuitbreaker.CircuitBreakerAciService;
+import com.hp.autonomy.searchcomponents.idol.configuration.CircuitBreakerConfig;
+import com.hp.autonomy.searchcomponents.idol.configuration.CircuitBreakersConfig;
+import com.hp.autonomy.searchcomponents.idol.configuration.HttpPoolConfig;
+import com.hp.autonomy.searchcomponents.idol.configuration.HttpPoolsConfig;
 import com.hp.autonomy.searchcomponents.idol.configuration.IdolSearchCapable;
 import com.hp.autonomy.searchcomponents.idol.configuration.QueryManipulation;
+import com.hp.autonomy.searchcomponents.idol.httpclient.AsyncAciService;
+import com.hp.autonomy.searchcomponents.idol.httpclient.AsyncAciServiceImpl;
+import com.hp.autonomy.searchcomponents.idol.httpclient.IdolHttpClientFactory;
+import com.hp.autonomy.searchcomponents.idol.loadbalancing.LoadBalancingAciService;
 import com.hp.autonomy.types.idol.marshalling.Jaxb2ParsingConfiguration;
 import com.hpe.bigdata.frontend.spring.authentication.AuthenticationInformationRetriever;
 import com.hpe.bigdata.frontend.spring.authentication.SpringSecurityAuthenticationInformationRetriever;
@@ -24,14 +33,25 @@ import org.apache.commons.lang.BooleanUtils;
 import org.apache.http.client.HttpClient;
 import org.apache.http.config.SocketConfig;
 import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.nio.client.HttpAsyncClient;
+import org.apache.http.nio.reactor.IOReactorException;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
 /**
  * Defines Spring beans required for using this module
  *
@@ -84,6 +104,132 @@ public class HavenSearchIdolConfiguration<C extends IdolSearchCapable> {
      */
     public static final String HTTP_CLIENT_BEAN_NAME = "httpClient";
 
+    /**
+     * The bean name of the http client used for queries against Content.
+     * Use this in an {@link Qualifier} tag to access this implementation via autowiring.
+     */
+    public static final String CONTENT_HTTP_CLIENT_BEAN_NAME = "contentHttpClient";
+
+    /**
+     * The bean name of the http client used for queries against QMS.
+     * Use this in an {@link Qualifier} tag to access this implementation via autowiring.
+     */
+    public static final String QMS_HTTP_CLIENT_BEAN_NAME = "qmsHttpClient";
+
+    /**
+     * The bean name of the http client used for queries against ViewServer.
+     * Use this in an {@link Qualifier} tag to access this implementation via autowiring.
+     */
+    public static final String VIEW_HTTP_CLIENT_BEAN_NAME = "viewHttpClient";
+
+    /**
+     * The bean name of the http client used for queries against AnswerServer.
+     * Use this in an {@link Qualifier} tag to access this implementation via autowiring.
+     */
+    public static final String ANSWER_SERVER_HTTP_CLIENT_BEAN_NAME = "answerServerHttpClient";
+
+    /**
+     * The bean name of the {@link AsyncAciService} used for queries against Content.
+     * Use this in an {@link Qualifier} tag to access this implementation via autowiring.
+     */
+    public static final String CONTENT_ASYNC_ACI_SERVICE_BEAN_NAME = "contentAsyncAciService";
+
+    /**
+     * The bean name of the {@link AsyncAciService} used for queries against QMS.
+     * Use this in an {@link Qualifier} tag to access this implementation via autowiring.
+     */
+    public static final String QMS_ASYNC_ACI_SERVICE_BEAN_NAME = "qmsAsyncAciService";
+
+    /**
+     * The bean name of the {@link AsyncAciService} used for queries against ViewServer.
+     * Use this in an {@link Qualifier} tag to access this implementation via autowiring.
+     */
+    public static final String VIEW_ASYNC_ACI_SERVICE_BEAN_NAME = "viewAsyncAciService";
+
+    /**
+     * The bean name of the {@link AsyncAciService} used for queries against AnswerServer.
+     * Use this in an {@link Qualifier} tag to access this implementation via autowiring.
+     */
+    public static final String ANSWER_SERVER_ASYNC_ACI_SERVICE_BEAN_NAME = "answerServerAsyncAciService";
+
+    /**
+     * The bean name of the {@link LoadBalancingAciService} which spreads queries across Content replicas.
+     * Use this in an {@link Qualifier} tag to access this implementation via autowiring.
+     */
+    public static final String CONTENT_LOAD_BALANCING_ACI_SERVICE_BEAN_NAME = "contentLoadBalancingAciService";
+
+    /**
+     * The bean name of the {@link LoadBalancingAciService} which spreads queries across QMS replicas.
+     * Use this in an {@link Qualifier} tag to access this implementation via autowiring.
+     */
+    public static final String QMS_LOAD_BALANCING_ACI_SERVICE_BEAN_NAME = "qmsLoadBalancingAciService";
+
+    /**
+     * The bean name of the {@link CircuitBreakerAciService} which isolates callers from a failing Content.
+     * Use this in an {@link Qualifier} tag to access this implementation via autowiring.
+     */
+    public static final String CONTENT_CIRCUIT_BREAKER_ACI_SERVICE_BEAN_NAME = "contentCircuitBreakerAciService";
+
+    /**
+     * The bean name of the {@link CircuitBreakerAciService} which isolates callers from a failing QMS.
+     * Use this in an {@link Qualifier} tag to access this implementation via autowiring.
+     */
+    public static final String QMS_CIRCUIT_BREAKER_ACI_SERVICE_BEAN_NAME = "qmsCircuitBreakerAciService";
+
+    /**
+     * The bean name of the {@link CircuitBreakerAciService} which isolates callers from a failing ViewServer.
+     * Use this in an {@link Qualifier} tag to access this implementation via autowiring.
+     */
+    public static final String VIEW_CIRCUIT_BREAKER_ACI_SERVICE_BEAN_NAME = "viewCircuitBreakerAciService";
+
+    /**
+     * The bean name of the {@link CircuitBreakerAciService} which isolates callers from a failing AnswerServer.
+     * Use this in an {@link Qualifier} tag to access this implementation via autowiring.
+     */
+    public static final String ANSWER_SERVER_CIRCUIT_BREAKER_ACI_SERVICE_BEAN_NAME = "answerServerCircuitBreakerAciService";
+
+    /**
+     * The bean name of the non-blocking http client used for queries against Content.
+     * Use this in an {@link Qualifier} tag to access this implementation via autowiring.
+     */
+    public static final String CONTENT_ASYNC_HTTP_CLIENT_BEAN_NAME = "contentAsyncHttpClient";
+
+    /**
+     * The bean name of the non-blocking http client used for queries against QMS.
+     * Use this in an {@link Qualifier} tag to access this implementation via autowiring.
+     */
+    public static final String QMS_ASYNC_HTTP_CLIENT_BEAN_NAME = "qmsAsyncHttpClient";
+
+    /**
+     * The bean name of the non-blocking http client used for queries against ViewServer.
+     * Use this in an {@link Qualifier} tag to access this implementation via autowiring.
+     */
+    public static final String VIEW_ASYNC_HTTP_CLIENT_BEAN_NAME = "viewAsyncHttpClient";
+
+    /**
+     * The bean name of the non-blocking http client used for queries against AnswerServer.
+     * Use this in an {@link Qualifier} tag to access this implementation via autowiring.
+     */
+    public static final String ANSWER_SERVER_ASYNC_HTTP_CLIENT_BEAN_NAME = "answerServerAsyncHttpClient";
+
+    /**
+     * The bean name of the executor which parses responses received by the {@link AsyncAciService}s.
+     * Use this in an {@link Qualifier} tag to access this implementation via autowiring.
+     */
+    public static final String ACI_RESPONSE_EXECUTOR_BEAN_NAME = "aciResponseExecutor";
+
+    /**
+     * The bean name of the scheduler which runs periodic background jobs, such as index rebuilds and health checks.
+     * These jobs may wait on Idol. Use this in an {@link Qualifier} tag to access this implementation via autowiring.
+     */
+    public static final String TASK_SCHEDULER_BEAN_NAME = "havenSearchTaskScheduler";
+
+    /**
+     * The bean name of the scheduler which runs short tasks that must not be held up by background jobs, such as
+     * timeouts. Use this in an {@link Qualifier} tag to access this implementation via autowiring.
+     */
+    public static final String TIMEOUT_SCHEDULER_BEAN_NAME = "havenSearchTimeoutScheduler";
+
     /**
      * The bean name of the http client settings used for Idol validation checks.
      * Use this in an {@link Qualifier} tag to access this implementation via autowiring.
@@ -96,6 +242,8 @@ public class HavenSearchIdolConfiguration<C extends IdolSearchCapable> {
     private static final int VALIDATOR_HTTP_SOCKET_TIMEOUT = 2000;
     private static final int VALIDATOR_HTTP_MAX_CONNECTIONS_PER_ROUTE = 5;
     private static final int VALIDATOR_HTTP_MAX_CONNECTIONS_TOTAL = 5;
+    private static final int TASK_SCHEDULER_POOL_SIZE = 4;
+    private static final int TIMEOUT_SCHEDULER_POOL_SIZE = 2;
 
     @Bean
     @ConditionalOnMissingBean(AuthenticationInformationRetriever.class)
@@ -112,10 +260,10 @@ public class HavenSearchIdolConfiguration<C extends IdolSearchCapable> {
 
     @Bean
     @ConditionalOnMissingBean(name = CONTENT_ACI_SERVICE_BEAN_NAME)
-    public AciService contentAciService(@Qualifier(ACI_SERVICE_BEAN_NAME)
-                                        final AciService aciService,
+    public AciService contentAciService(@Qualifier(CONTENT_CIRCUIT_BREAKER_ACI_SERVICE_BEAN_NAME)
+                                        final AciService contentCircuitBreakerAciService,
                                         final ConfigService<C> configService) {
-        return new AbstractConfigurableAciService(aciService) {
+        return new AbstractConfigurableAciService(contentCircuitBreakerAciService) {
             @Override
             public AciServerDetails getServerDetails() {
                 return configService.getConfig().getContentAciServerDetails();
@@ -125,24 +273,107 @@ public class HavenSearchIdolConfiguration<C extends IdolSearchCapable> {
 
     @Bean
     @ConditionalOnMissingBean(name = QMS_ACI_SERVICE_BEAN_NAME)
-    public AciService qmsAciService(@Qualifier(ACI_SERVICE_BEAN_NAME)
-                                    final AciService aciService,
+    public AciService qmsAciService(@Qualifier(QMS_CIRCUIT_BREAKER_ACI_SERVICE_BEAN_NAME)
+                                    final AciService qmsCircuitBreakerAciService,
                                     final ConfigService<C> configService) {
-        return new AbstractConfigurableAciService(aciService) {
+        return new AbstractConfigurableAciService(qmsCircuitBreakerAciService) {
             @Override
             public AciServerDetails getServerDetails() {
-                final QueryManipulation queryManipulation = configService.getConfig().getQueryManipulation();
-                return queryManipulation != null ? queryManipulation.getServer().toAciServerDetails() : null;
+                return getQmsServerDetails(configService);
             }
         };
     }
 
+    @Bean
+    @ConditionalOnMissingBean(name = CONTENT_CIRCUIT_BREAKER_ACI_SERVICE_BEAN_NAME)
+    public CircuitBreakerAciService contentCircuitBreakerAciService(@Qualifier(CONTENT_LOAD_BALANCING_ACI_SERVICE_BEAN_NAME)
+                                                                    final LoadBalancingAciService contentLoadBalancingAciService,
+                                                                    final ConfigService<C> configService) {
+        return new CircuitBreakerAciService(contentLoadBalancingAciService, contentLoadBalancingAciService.getAsyncAciService(),
+                () -> getCircuitBreakerConfig(configService, CircuitBreakersConfig::getContent), "Content");
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = QMS_CIRCUIT_BREAKER_ACI_SERVICE_BEAN_NAME)
+    public CircuitBreakerAciService qmsCircuitBreakerAciService(@Qualifier(QMS_LOAD_BALANCING_ACI_SERVICE_BEAN_NAME)
+                                                                final LoadBalancingAciService qmsLoadBalancingAciService,
+                                                                final ConfigService<C> configService) {
+        return new CircuitBreakerAciService(qmsLoadBalancingAciService, qmsLoadBalancingAciService.getAsyncAciService(),
+                () -> getCircuitBreakerConfig(configService, CircuitBreakersConfig::getQueryManipulation), "QMS");
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = VIEW_CIRCUIT_BREAKER_ACI_SERVICE_BEAN_NAME)
+    public CircuitBreakerAciService viewCircuitBreakerAciService(@Qualifier(VIEW_HTTP_CLIENT_BEAN_NAME)
+                                                                 final HttpClient viewHttpClient,
+                                                                 @Qualifier(VIEW_ASYNC_HTTP_CLIENT_BEAN_NAME)
+                                                                 final HttpAsyncClient viewAsyncHttpClient,
+                                                                 @Qualifier(ACI_RESPONSE_EXECUTOR_BEAN_NAME)
+                                                                 final Executor aciResponseExecutor,
+                                                                 final IdolHttpClientFactory httpClientFactory,
+                                                                 final ConfigService<C> configService) {
+        return new CircuitBreakerAciService(new AciServiceImpl(new AciHttpClientImpl(viewHttpClient)),
+                new AsyncAciServiceImpl(viewAsyncHttpClient, httpClientFactory.createAsyncRequestConfig(getHttpPoolConfig(configService, HttpPoolsConfig::getView)), aciResponseExecutor, () -> configService.getConfig().getViewConfig().toAciServerDetails()),
+                () -> getCircuitBreakerConfig(configService, CircuitBreakersConfig::getView), "ViewServer");
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = ANSWER_SERVER_CIRCUIT_BREAKER_ACI_SERVICE_BEAN_NAME)
+    public CircuitBreakerAciService answerServerCircuitBreakerAciService(@Qualifier(ANSWER_SERVER_HTTP_CLIENT_BEAN_NAME)
+                                                                         final HttpClient answerServerHttpClient,
+                                                                         @Qualifier(ANSWER_SERVER_ASYNC_HTTP_CLIENT_BEAN_NAME)
+                                                                         final HttpAsyncClient answerServerAsyncHttpClient,
+                                                                         @Qualifier(ACI_RESPONSE_EXECUTOR_BEAN_NAME)
+                                                                         final Executor aciResponseExecutor,
+                                                                         final IdolHttpClientFactory httpClientFactory,
+                                                                         final ConfigService<C> configService) {
+        return new CircuitBreakerAciService(new AciServiceImpl(new AciHttpClientImpl(answerServerHttpClient)),
+                new AsyncAciServiceImpl(answerServerAsyncHttpClient, httpClientFactory.createAsyncRequestConfig(getHttpPoolConfig(configService, HttpPoolsConfig::getAnswerServer)), aciResponseExecutor, () -> getAnswerServerDetails(configService)),
+                () -> getCircuitBreakerConfig(configService, CircuitBreakersConfig::getAnswerServer), "AnswerServer");
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = CONTENT_LOAD_BALANCING_ACI_SERVICE_BEAN_NAME)
+    public LoadBalancingAciService contentLoadBalancingAciService(@Qualifier(CONTENT_HTTP_CLIENT_BEAN_NAME)
+                                                                  final HttpClient contentHttpClient,
+                                                                  @Qualifier(CONTENT_ASYNC_HTTP_CLIENT_BEAN_NAME)
+                                                                  final HttpAsyncClient contentAsyncHttpClient,
+                                                                  @Qualifier(ACI_RESPONSE_EXECUTOR_BEAN_NAME)
+                                                                  final Executor aciResponseExecutor,
+                                                                  @Qualifier(TASK_SCHEDULER_BEAN_NAME)
+                                                                  final TaskScheduler taskScheduler,
+                                                                  final IdolHttpClientFactory httpClientFactory,
+                                                                  final ConfigService<C> configService) {
+        return new LoadBalancingAciService(new AciServiceImpl(new AciHttpClientImpl(contentHttpClient)),
+                new AsyncAciServiceImpl(contentAsyncHttpClient, httpClientFactory.createAsyncRequestConfig(getHttpPoolConfig(configService, HttpPoolsConfig::getContent)), aciResponseExecutor, () -> configService.getConfig().getContentAciServerDetails()),
+                () -> configService.getConfig().getContentLoadBalancing(), taskScheduler);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = QMS_LOAD_BALANCING_ACI_SERVICE_BEAN_NAME)
+    public LoadBalancingAciService qmsLoadBalancingAciService(@Qualifier(QMS_HTTP_CLIENT_BEAN_NAME)
+                                                              final HttpClient qmsHttpClient,
+                                                              @Qualifier(QMS_ASYNC_HTTP_CLIENT_BEAN_NAME)
+                                                              final HttpAsyncClient qmsAsyncHttpClient,
+                                                              @Qualifier(ACI_RESPONSE_EXECUTOR_BEAN_NAME)
+                                                              final Executor aciResponseExecutor,
+                                                              @Qualifier(TASK_SCHEDULER_BEAN_NAME)
+                                                              final TaskScheduler taskScheduler,
+                                                              final IdolHttpClientFactory httpClientFactory,
+                                                              final ConfigService<C> configService) {
+        return new LoadBalancingAciService(new AciServiceImpl(new AciHttpClientImpl(qmsHttpClient)),
+                new AsyncAciServiceImpl(qmsAsyncHttpClient, httpClientFactory.createAsyncRequestConfig(getHttpPoolConfig(configService, HttpPoolsConfig::getQueryManipulation)), aciResponseExecutor, () -> getQmsServerDetails(configService)), () -> {
+            final QueryManipulation queryManipulation = configService.getConfig().getQueryManipulation();
+            return queryManipulation != null ? queryManipulation.getLoadBalancing() : null;
+        }, taskScheduler);
+    }
+
     @Bean
     @ConditionalOnMissingBean(name = VIEW_ACI_SERVICE_BEAN_NAME)
-    public AciService viewAciService(@Qualifier(ACI_SERVICE_BEAN_NAME)
-                                     final AciService aciService,
+    public AciService viewAciService(@Qualifier(VIEW_CIRCUIT_BREAKER_ACI_SERVICE_BEAN_NAME)
+                                     final AciService viewCircuitBreakerAciService,
                                      final ConfigService<C> configService) {
-        return new AbstractConfigurableAciService(aciService) {
+        return new AbstractConfigurableAciService(viewCircuitBreakerAciService) {
             @Override
             public AciServerDetails getServerDetails() {
                 return configService.getConfig().getViewConfig().toAciServerDetails();
@@ -152,10 +383,10 @@ public class HavenSearchIdolConfiguration<C extends IdolSearchCapable> {
 
     @Bean
     @ConditionalOnMissingBean(name = ANSWER_SERVER_ACI_SERVICE_BEAN_NAME)
-    public AciService answerServerAciService(@Qualifier(ACI_SERVICE_BEAN_NAME)
-                                           final AciService aciService,
+    public AciService answerServerAciService(@Qualifier(ANSWER_SERVER_CIRCUIT_BREAKER_ACI_SERVICE_BEAN_NAME)
+                                           final AciService answerServerCircuitBreakerAciService,
                                            final ConfigService<C> configService) {
-        return new AbstractConfigurableAciService(aciService) {
+        return new AbstractConfigurableAciService(answerServerCircuitBreakerAciService) {
             @Override
             public AciServerDetails getServerDetails() {
                 final AnswerServerConfig answerServerConfig = configService.getConfig().getAnswerServer();
@@ -192,6 +423,141 @@ public class HavenSearchIdolConfiguration<C extends IdolSearchCapable> {
         return createHttpClient(VALIDATOR_HTTP_SOCKET_TIMEOUT, VALIDATOR_HTTP_MAX_CONNECTIONS_PER_ROUTE, VALIDATOR_HTTP_MAX_CONNECTIONS_TOTAL);
     }
 
+    @Bean
+    @ConditionalOnMissingBean(name = CONTENT_HTTP_CLIENT_BEAN_NAME)
+    public HttpClient contentHttpClient(final IdolHttpClientFactory httpClientFactory, final ConfigService<C> configService) {
+        return httpClientFactory.createHttpClient(CONTENT_HTTP_CLIENT_BEAN_NAME, getHttpPoolConfig(configService, HttpPoolsConfig::getContent),
+                () -> configService.getConfig().getContentAciServerDetails());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = QMS_HTTP_CLIENT_BEAN_NAME)
+    public HttpClient qmsHttpClient(final IdolHttpClientFactory httpClientFactory, final ConfigService<C> configService) {
+        return httpClientFactory.createHttpClient(QMS_HTTP_CLIENT_BEAN_NAME, getHttpPoolConfig(configService, HttpPoolsConfig::getQueryManipulation), () -> {
+            final QueryManipulation queryManipulation = configService.getConfig().getQueryManipulation();
+            return queryManipulation != null && BooleanUtils.isTrue(queryManipulation.getEnabled()) ? queryManipulation.getServer().toAciServerDetails() : null;
+        });
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = VIEW_HTTP_CLIENT_BEAN_NAME)
+    public HttpClient viewHttpClient(final IdolHttpClientFactory httpClientFactory, final ConfigService<C> configService) {
+        return httpClientFactory.createHttpClient(VIEW_HTTP_CLIENT_BEAN_NAME, getHttpPoolConfig(configService, HttpPoolsConfig::getView),
+                () -> configService.getConfig().getViewConfig().toAciServerDetails());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = ANSWER_SERVER_HTTP_CLIENT_BEAN_NAME)
+    public HttpClient answerServerHttpClient(final IdolHttpClientFactory httpClientFactory, final ConfigService<C> configService) {
+        return httpClientFactory.createHttpClient(ANSWER_SERVER_HTTP_CLIENT_BEAN_NAME, getHttpPoolConfig(configService, HttpPoolsConfig::getAnswerServer),
+                () -> getAnswerServerDetails(configService));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = CONTENT_ASYNC_ACI_SERVICE_BEAN_NAME)
+    public AsyncAciService contentAsyncAciService(@Qualifier(CONTENT_CIRCUIT_BREAKER_ACI_SERVICE_BEAN_NAME)
+                                                  final CircuitBreakerAciService contentCircuitBreakerAciService) {
+        return contentCircuitBreakerAciService.getAsyncAciService();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = QMS_ASYNC_ACI_SERVICE_BEAN_NAME)
+    public AsyncAciService qmsAsyncAciService(@Qualifier(QMS_CIRCUIT_BREAKER_ACI_SERVICE_BEAN_NAME)
+                                              final CircuitBreakerAciService qmsCircuitBreakerAciService) {
+        return qmsCircuitBreakerAciService.getAsyncAciService();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = VIEW_ASYNC_ACI_SERVICE_BEAN_NAME)
+    public AsyncAciService viewAsyncAciService(@Qualifier(VIEW_CIRCUIT_BREAKER_ACI_SERVICE_BEAN_NAME)
+                                               final CircuitBreakerAciService viewCircuitBreakerAciService) {
+        return viewCircuitBreakerAciService.getAsyncAciService();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = ANSWER_SERVER_ASYNC_ACI_SERVICE_BEAN_NAME)
+    public AsyncAciService answerServerAsyncAciService(@Qualifier(ANSWER_SERVER_CIRCUIT_BREAKER_ACI_SERVICE_BEAN_NAME)
+                                                       final CircuitBreakerAciService answerServerCircuitBreakerAciService) {
+        return answerServerCircuitBreakerAciService.getAsyncAciService();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = CONTENT_ASYNC_HTTP_CLIENT_BEAN_NAME)
+    public CloseableHttpAsyncClient contentAsyncHttpClient(final IdolHttpClientFactory httpClientFactory, final ConfigService<C> configService) throws IOReactorException {
+        return httpClientFactory.createAsyncHttpClient(CONTENT_ASYNC_HTTP_CLIENT_BEAN_NAME, getHttpPoolConfig(configService, HttpPoolsConfig::getContent));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = QMS_ASYNC_HTTP_CLIENT_BEAN_NAME)
+    public CloseableHttpAsyncClient qmsAsyncHttpClient(final IdolHttpClientFactory httpClientFactory, final ConfigService<C> configService) throws IOReactorException {
+        return httpClientFactory.createAsyncHttpClient(QMS_ASYNC_HTTP_CLIENT_BEAN_NAME, getHttpPoolConfig(configService, HttpPoolsConfig::getQueryManipulation));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = VIEW_ASYNC_HTTP_CLIENT_BEAN_NAME)
+    public CloseableHttpAsyncClient viewAsyncHttpClient(final IdolHttpClientFactory httpClientFactory, final ConfigService<C> configService) throws IOReactorException {
+        return httpClientFactory.createAsyncHttpClient(VIEW_ASYNC_HTTP_CLIENT_BEAN_NAME, getHttpPoolConfig(configService, HttpPoolsConfig::getView));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = ANSWER_SERVER_ASYNC_HTTP_CLIENT_BEAN_NAME)
+    public CloseableHttpAsyncClient answerServerAsyncHttpClient(final IdolHttpClientFactory httpClientFactory, final ConfigService<C> configService) throws IOReactorException {
+        return httpClientFactory.createAsyncHttpClient(ANSWER_SERVER_ASYNC_HTTP_CLIENT_BEAN_NAME, getHttpPoolConfig(configService, HttpPoolsConfig::getAnswerServer));
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnMissingBean(name = ACI_RESPONSE_EXECUTOR_BEAN_NAME)
+    public ExecutorService aciResponseExecutor() {
+        // parsing is CPU bound, so there is no benefit in more threads than cores
+        return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new CustomizableThreadFactory(ACI_RESPONSE_EXECUTOR_BEAN_NAME + '-'));
+    }
+
+    // not named taskScheduler, so that the application's @Scheduled methods do not run on it
+    @Bean
+    @ConditionalOnMissingBean(name = TASK_SCHEDULER_BEAN_NAME)
+    public ThreadPoolTaskScheduler havenSearchTaskScheduler() {
+        return createTaskScheduler(TASK_SCHEDULER_BEAN_NAME, TASK_SCHEDULER_POOL_SIZE);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = TIMEOUT_SCHEDULER_BEAN_NAME)
+    public ThreadPoolTaskScheduler havenSearchTimeoutScheduler() {
+        final ThreadPoolTaskScheduler timeoutScheduler = createTaskScheduler(TIMEOUT_SCHEDULER_BEAN_NAME, TIMEOUT_SCHEDULER_POOL_SIZE);
+        // timeouts are usually cancelled, so do not leave them in the queue until they would have run
+        timeoutScheduler.setRemoveOnCancelPolicy(true);
+        return timeoutScheduler;
+    }
+
+    private ThreadPoolTaskScheduler createTaskScheduler(final String name, final int poolSize) {
+        final ThreadPoolTaskScheduler taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.setPoolSize(poolSize);
+        taskScheduler.setThreadNamePrefix(name + '-');
+        taskScheduler.setDaemon(true);
+        return taskScheduler;
+    }
+
+    private AciServerDetails getQmsServerDetails(final ConfigService<C> configService) {
+        final QueryManipulation queryManipulation = configService.getConfig().getQueryManipulation();
+        return queryManipulation != null ? queryManipulation.getServer().toAciServerDetails() : null;
+    }
+
+    private AciServerDetails getAnswerServerDetails(final ConfigService<C> configService) {
+        final AnswerServerConfig answerServerConfig = configService.getConfig().getAnswerServer();
+        return answerServerConfig != null && BooleanUtils.isTrue(answerServerConfig.getEnabled()) ? answerServerConfig.toAciServerDetails() : null;
+    }
+
+    private HttpPoolConfig getHttpPoolConfig(final ConfigService<C> configService, final Function<HttpPoolsConfig, HttpPoolConfig> poolSelector) {
+        // pools are sized once, when the client is created; fall back to defaults if no config has been loaded yet
+        final C config = configService.getConfig();
+        final HttpPoolsConfig httpPoolsConfig = config != null ? config.getHttpPools() : null;
+        return httpPoolsConfig != null ? poolSelector.apply(httpPoolsConfig) : null;
+    }
+
+    private CircuitBreakerConfig getCircuitBreakerConfig(final ConfigService<C> configService, final Function<CircuitBreakersConfig, CircuitBreakerConfig> circuitBreakerSelector) {
+        final CircuitBreakersConfig circuitBreakersConfig = configService.getConfig().getCircuitBreakers();
+        return circuitBreakersConfig != null ? circuitBreakerSelector.apply(circuitBreakersConfig) : null;
+    }
+
     private HttpClient createHttpClient(final int httpSocketTimeout, final int maxConnectionsPerRoute, final int maxConnectionsTotal) {
         final SocketConfig socketConfig = SocketConfig.custom()
                 .setSoTimeout(httpSocketTimeout)
@@ -0,0 +1,20 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.circuitbreaker;
+
+import com.autonomy.aci.client.services.AciServiceException;
+
+/**
+ * Thrown when a request is rejected without being sent because the backend's circuit is open or too many requests to
+ * it are already in progress
+ */
+public class BackendUnavailableException extends AciServiceException {
+    private static final long serialVersionUID = -2925408727614457254L;
+
+    public BackendUnavailableException(final String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,548 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.circuitbreaker;
+
+import com.autonomy.aci.client.services.AciErrorException;
+import com.autonomy.aci.client.services.AciService;
+import com.autonomy.aci.client.services.Processor;
+import com.autonomy.aci.client.transport.AciServerDetails;
+import com.autonomy.aci.client.transport.ActionParameter;
+import com.hp.autonomy.searchcomponents.core.deadline.Deadline;
+import com.hp.autonomy.searchcomponents.core.deadline.DeadlineContext;
+import com.hp.autonomy.searchcomponents.idol.configuration.CircuitBreakerConfig;
+import com.hp.autonomy.searchcomponents.idol.httpclient.AsyncAciService;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.BooleanUtils;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * {@link AciService} which isolates callers from a failing or slow backend.
+ * <p>
+ * The outcomes of recent requests are kept in a sliding window. Once the proportion of failed or slow requests passes the
+ * configured threshold the circuit opens and requests are rejected with a {@link BackendUnavailableException} without
+ * contacting the backend. After a while a few trial requests are let through; if they all succeed the circuit closes
+ * again, otherwise it stays open. Only the results of requests admitted in the current state count, so a request which
+ * was in progress when the circuit opened cannot decide the outcome of the trials. ACI errors are responses from a
+ * working backend and do not count as failures. A request is timed until the backend starts to respond, so that a
+ * processor which streams the response to a slow client cannot make the backend look slow.
+ * <p>
+ * Independently, the number of requests in progress can be capped so that a slow backend cannot tie up every request
+ * thread; requests over the limit are rejected immediately.
+ * <p>
+ * Requests made through {@link #getAsyncAciService()} share the same circuit and limit; a non-blocking request counts
+ * as in progress until its future completes.
+ * <p>
+ * Callers which can do without the backend should not simply call it while the circuit is not closed, since most of
+ * their requests would be rejected; {@link #reserveCall()} lets them know in advance whether their request will be sent.
+ */
+@Slf4j
+@ManagedResource(description = "Circuit breaker and concurrency limit for an Idol backend")
+public class CircuitBreakerAciService implements AciService {
+    private static final long REJECTED = -1;
+    private static final long NOT_RESERVED = -2;
+
+    private final AciService delegate;
+    private final AsyncAciService asyncDelegate;
+    private final AsyncAciService asyncAciService = new AsyncCircuitBreakerAciService();
+    private final Supplier<CircuitBreakerConfig> configSupplier;
+    private final String name;
+    private final AtomicLong rejectedCalls = new AtomicLong();
+
+    // guarded by this
+    private CircuitState state = CircuitState.CLOSED;
+    // changes whenever the state does, so that results can be matched to the state in which their request was admitted
+    private long generation;
+    private long openedAt;
+    private long halfOpenAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+    private boolean[] failures = new boolean[0];
+    private boolean[] slowCalls = new boolean[0];
+    private int windowIndex;
+    private int windowCount;
+    private int failureCount;
+    private int slowCallCount;
+
+    private volatile Bulkhead bulkhead;
+
+    /**
+     * @param delegate       Performs requests against the backend
+     * @param asyncDelegate  Performs non-blocking requests against the backend
+     * @param configSupplier Supplies the current circuit breaker configuration (may supply null)
+     * @param name           Identifies the backend in log messages and errors
+     */
+    public CircuitBreakerAciService(final AciService delegate, final AsyncAciService asyncDelegate, final Supplier<CircuitBreakerConfig> configSupplier, final String name) {
+        this.delegate = delegate;
+        this.asyncDelegate = asyncDelegate;
+        this.configSupplier = configSupplier;
+        this.name = name;
+    }
+
+    @Override
+    public <T> T executeAction(final Set<? extends ActionParameter<?>> parameters, final Processor<T> processor) {
+        return executeAction(null, parameters, processor);
+    }
+
+    @Override
+    public <T> T executeAction(final AciServerDetails serverDetails, final Set<? extends ActionParameter<?>> parameters, final Processor<T> processor) {
+        return execute(serverDetails, parameters, processor, null);
+    }
+
+    /**
+     * @return Non-blocking access to the backend, protected by the same circuit and concurrency limit
+     */
+    public AsyncAciService getAsyncAciService() {
+        return asyncAciService;
+    }
+
+    /**
+     * Whether requests are being sent to the backend normally. While the circuit is not closed only a few trial requests
+     * reach the backend, so callers with a fallback should use {@link #reserveCall()} to find out whether theirs is one.
+     *
+     * @return true if the circuit is closed or the circuit breaker is disabled
+     */
+    public boolean isClosed() {
+        final CircuitBreakerConfig config = configSupplier.get();
+        return config == null || !BooleanUtils.isTrue(config.getEnabled()) || getState() == CircuitState.CLOSED;
+    }
+
+    /**
+     * Reserves the right to make one request, for callers which have a fallback if the backend is unavailable. While
+     * the circuit is half open this takes one of the trial requests, which the first request made through the returned
+     * service uses; a reservation which is never used is written off once the open duration has passed again.
+     *
+     * @return A service for the reserved request, or null if a request made now would be rejected
+     */
+    public AciService reserveCall() {
+        final long ticket = reserve();
+        return ticket == REJECTED ? null : ticket == NOT_RESERVED ? this : new ReservedAciService(ticket);
+    }
+
+    /**
+     * Non-blocking equivalent of {@link #reserveCall()}
+     *
+     * @return A service for the reserved request, or null if a request made now would be rejected
+     */
+    public AsyncAciService reserveAsyncCall() {
+        final long ticket = reserve();
+        return ticket == REJECTED ? null : ticket == NOT_RESERVED ? asyncAciService : new ReservedAsyncAciService(ticket);
+    }
+
+    public synchronized CircuitState getState() {
+        return state;
+    }
+
+    @ManagedAttribute(description = "Current state of the circuit")
+    public String getStateName() {
+        return getState().name();
+    }
+
+    @ManagedAttribute(description = "Percentage of recent requests which failed")
+    public synchronized double getFailureRate() {
+        return windowCount == 0 ? 0 : failureCount * 100.0 / windowCount;
+    }
+
+    @ManagedAttribute(description = "Percentage of recent requests which were slow")
+    public synchronized double getSlowCallRate() {
+        return windowCount == 0 ? 0 : slowCallCount * 100.0 / windowCount;
+    }
+
+    @ManagedAttribute(description = "Number of requests rejected because the circuit was open or too many requests were in progress")
+    public long getRejectedCalls() {
+        return rejectedCalls.get();
+    }
+
+    @ManagedAttribute(description = "Number of further requests which may be started at once, or -1 if there is no limit")
+    public int getAvailableConcurrentCalls() {
+        final Bulkhead currentBulkhead = bulkhead;
+        return currentBulkhead != null && currentBulkhead.permits != null ? currentBulkhead.permits.availablePermits() : -1;
+    }
+
+    private <T> T execute(final AciServerDetails serverDetails, final Set<? extends ActionParameter<?>> parameters, final Processor<T> processor, final Long reservedTicket) {
+        final CircuitBreakerConfig config = configSupplier.get();
+        if (config == null || !BooleanUtils.isTrue(config.getEnabled())) {
+            return delegate.executeAction(serverDetails, parameters, processor);
+        }
+
+        final Call call = admit(config, reservedTicket);
+        try {
+            final T result = delegate.executeAction(serverDetails, parameters, call.timed(processor));
+            call.complete(false);
+            return result;
+        } catch (final AciErrorException e) {
+            call.complete(false);
+            throw e;
+        } catch (final RuntimeException e) {
+            call.completeExceptionally(DeadlineContext.getDeadline());
+            throw e;
+        } catch (final Error e) {
+            call.ignore();
+            throw e;
+        }
+    }
+
+    private <T> CompletableFuture<T> executeAsync(final Processor<T> processor, final Function<Processor<T>, CompletableFuture<T>> action, final Long reservedTicket) {
+        final CircuitBreakerConfig config = configSupplier.get();
+        if (config == null || !BooleanUtils.isTrue(config.getEnabled())) {
+            return action.apply(processor);
+        }
+
+        final Call call;
+        try {
+            call = admit(config, reservedTicket);
+        } catch (final RuntimeException e) {
+            return failedFuture(e);
+        }
+
+        // the deadline is only visible on the calling thread
+        final Deadline deadline = DeadlineContext.getDeadline();
+
+        final CompletableFuture<T> future;
+        try {
+            future = action.apply(call.timed(processor));
+        } catch (final RuntimeException e) {
+            call.complete(true);
+            throw e;
+        }
+
+        future.whenComplete((result, e) -> {
+            if (e == null || e instanceof AciErrorException) {
+                call.complete(false);
+            } else if (e instanceof CancellationException) {
+                call.ignore();
+            } else {
+                call.completeExceptionally(deadline);
+            }
+        });
+
+        return future;
+    }
+
+    private static <T> CompletableFuture<T> failedFuture(final Throwable e) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(e);
+        return future;
+    }
+
+    private Call admit(final CircuitBreakerConfig config, final Long reservedTicket) {
+        try {
+            // a caller which has run out of time should not be counted against the backend
+            DeadlineContext.checkDeadline();
+        } catch (final RuntimeException e) {
+            if (reservedTicket != null) {
+                onIgnoredResult(reservedTicket);
+            }
+
+            throw e;
+        }
+
+        final Semaphore permits = getBulkhead(config);
+        if (permits != null && !permits.tryAcquire()) {
+            if (reservedTicket != null) {
+                onIgnoredResult(reservedTicket);
+            }
+
+            rejectedCalls.incrementAndGet();
+            throw new BackendUnavailableException("Too many requests to " + name + " are in progress");
+        }
+
+        final long ticket = reservedTicket != null ? reservedTicket : acquirePermission(config);
+        if (ticket == REJECTED) {
+            if (permits != null) {
+                permits.release();
+            }
+
+            rejectedCalls.incrementAndGet();
+            throw new BackendUnavailableException("Circuit for " + name + " is open");
+        }
+
+        return new Call(config, permits, ticket);
+    }
+
+    private long reserve() {
+        final CircuitBreakerConfig config = configSupplier.get();
+        if (config == null || !BooleanUtils.isTrue(config.getEnabled())) {
+            return NOT_RESERVED;
+        }
+
+        synchronized (this) {
+            if (state == CircuitState.CLOSED) {
+                // nothing to reserve: the request takes its chances with the circuit like any other
+                return NOT_RESERVED;
+            }
+
+            return acquirePermission(config);
+        }
+    }
+
+    /**
+     * Decides whether a request may be sent to the backend.
+     *
+     * @return The generation of the circuit in which the request was admitted, which its result must be reported
+     * against, or {@link #REJECTED}
+     */
+    private synchronized long acquirePermission(final CircuitBreakerConfig config) {
+        final long now = System.currentTimeMillis();
+
+        if (state == CircuitState.OPEN) {
+            if (now - openedAt < config.getOpenDurationOrDefault()) {
+                return REJECTED;
+            }
+
+            startTrials(config, now);
+        } else if (state == CircuitState.HALF_OPEN && halfOpenPermits <= 0 && now - halfOpenAt >= config.getOpenDurationOrDefault()) {
+            // trials which have not reported back by now (abandoned reservations, requests which never return) are
+            // written off, so that the circuit cannot stay half open for good
+            startTrials(config, now);
+        }
+
+        if (state == CircuitState.HALF_OPEN) {
+            if (halfOpenPermits <= 0) {
+                return REJECTED;
+            }
+
+            halfOpenPermits--;
+        }
+
+        return generation;
+    }
+
+    private void startTrials(final CircuitBreakerConfig config, final long now) {
+        log.info("Sending trial requests to {}", name);
+        state = CircuitState.HALF_OPEN;
+        generation++;
+        halfOpenAt = now;
+        halfOpenPermits = config.getHalfOpenCallsOrDefault();
+        halfOpenSuccesses = 0;
+    }
+
+    private synchronized void onResult(final CircuitBreakerConfig config, final long ticket, final boolean failed, final long durationNanos) {
+        // requests admitted before the circuit last changed state tell us nothing about the current state; in
+        // particular, only the trial requests of the current round decide whether a half open circuit closes
+        if (ticket != generation) {
+            return;
+        }
+
+        final boolean slow = durationNanos >= TimeUnit.MILLISECONDS.toNanos(config.getSlowCallDurationOrDefault());
+
+        switch (state) {
+            case HALF_OPEN:
+                if (failed || slow) {
+                    open();
+                } else if (++halfOpenSuccesses >= config.getHalfOpenCallsOrDefault()) {
+                    log.info("Closing circuit for {}", name);
+                    state = CircuitState.CLOSED;
+                    generation++;
+                    resetWindow(config.getWindowSizeOrDefault());
+                }
+                break;
+            case CLOSED:
+                record(config, failed, slow);
+
+                if (windowCount >= config.getMinimumCallsOrDefault()
+                        && (failureCount * 100.0 / windowCount >= config.getFailureRateThresholdOrDefault()
+                        || slowCallCount * 100.0 / windowCount >= config.getSlowCallRateThresholdOrDefault())) {
+                    open();
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    // the request neither succeeded nor failed, so a trial request it used up is handed back for another caller
+    private synchronized void onIgnoredResult(final long ticket) {
+        if (state == CircuitState.HALF_OPEN && ticket == generation) {
+            halfOpenPermits++;
+        }
+    }
+
+    private void record(final CircuitBreakerConfig config, final boolean failed, final boolean slow) {
+        final int windowSize = config.getWindowSizeOrDefault();
+        if (failures.length != windowSize) {
+            resetWindow(windowSize);
+        }
+
+        if (windowCount == windowSize) {
+            failureCount -= failures[windowIndex] ? 1 : 0;
+            slowCallCount -= slowCalls[windowIndex] ? 1 : 0;
+        } else {
+            windowCount++;
+        }
+
+        failures[windowIndex] = failed;
+        slowCalls[windowIndex] = slow;
+        failureCount += failed ? 1 : 0;
+        slowCallCount += slow ? 1 : 0;
+        windowIndex = (windowIndex + 1) % windowSize;
+    }
+
+    private void resetWindow(final int windowSize) {
+        failures = new boolean[windowSize];
+        slowCalls = new boolean[windowSize];
+        windowIndex = 0;
+        windowCount = 0;
+        failureCount = 0;
+        slowCallCount = 0;
+    }
+
+    private void open() {
+        log.warn("Opening circuit for {}: {} failed and {} slow of the last {} requests", name, failureCount, slowCallCount, windowCount);
+        state = CircuitState.OPEN;
+        generation++;
+        openedAt = System.currentTimeMillis();
+    }
+
+    private Semaphore getBulkhead(final CircuitBreakerConfig config) {
+        final Integer maxConcurrentCalls = config.getMaxConcurrentCalls();
+        Bulkhead currentBulkhead = bulkhead;
+
+        // permits already taken are returned to the semaphore they came from, so replacing it is safe
+        if (currentBulkhead == null || !Objects.equals(currentBulkhead.maxConcurrentCalls, maxConcurrentCalls)) {
+            currentBulkhead = new Bulkhead(maxConcurrentCalls);
+            bulkhead = currentBulkhead;
+        }
+
+        return currentBulkhead.permits;
+    }
+
+    private class AsyncCircuitBreakerAciService implements AsyncAciService {
+        @Override
+        public <T> CompletableFuture<T> executeAction(final Set<? extends ActionParameter<?>> parameters, final Processor<T> processor) {
+            return executeAsync(processor, timedProcessor -> asyncDelegate.executeAction(parameters, timedProcessor), null);
+        }
+
+        @Override
+        public <T> CompletableFuture<T> executeAction(final AciServerDetails serverDetails, final Set<? extends ActionParameter<?>> parameters, final Processor<T> processor) {
+            return executeAsync(processor, timedProcessor -> asyncDelegate.executeAction(serverDetails, parameters, timedProcessor), null);
+        }
+    }
+
+    /**
+     * Makes its first request with a reserved permission; any later requests are admitted as usual
+     */
+    private class ReservedAciService implements AciService {
+        private final AtomicReference<Long> reservedTicket;
+
+        private ReservedAciService(final long ticket) {
+            reservedTicket = new AtomicReference<>(ticket);
+        }
+
+        @Override
+        public <T> T executeAction(final Set<? extends ActionParameter<?>> parameters, final Processor<T> processor) {
+            return executeAction(null, parameters, processor);
+        }
+
+        @Override
+        public <T> T executeAction(final AciServerDetails serverDetails, final Set<? extends ActionParameter<?>> parameters, final Processor<T> processor) {
+            return execute(serverDetails, parameters, processor, reservedTicket.getAndSet(null));
+        }
+    }
+
+    /**
+     * Non-blocking equivalent of {@link ReservedAciService}
+     */
+    private class ReservedAsyncAciService implements AsyncAciService {
+        private final AtomicReference<Long> reservedTicket;
+
+        private ReservedAsyncAciService(final long ticket) {
+            reservedTicket = new AtomicReference<>(ticket);
+        }
+
+        @Override
+        public <T> CompletableFuture<T> executeAction(final Set<? extends ActionParameter<?>> parameters, final Processor<T> processor) {
+            return executeAsync(processor, timedProcessor -> asyncDelegate.executeAction(parameters, timedProcessor), reservedTicket.getAndSet(null));
+        }
+
+        @Override
+        public <T> CompletableFuture<T> executeAction(final AciServerDetails serverDetails, final Set<? extends ActionParameter<?>> parameters, final Processor<T> processor) {
+            return executeAsync(processor, timedProcessor -> asyncDelegate.executeAction(serverDetails, parameters, timedProcessor), reservedTicket.getAndSet(null));
+        }
+    }
+
+    /**
+     * A request which has been admitted to the backend
+     */
+    private class Call {
+        private final CircuitBreakerConfig config;
+        private final Semaphore permits;
+        private final long ticket;
+        private final long start = System.nanoTime();
+        // when the backend started to respond, or 0 if it has not
+        private volatile long responseStart;
+
+        private Call(final CircuitBreakerConfig config, final Semaphore permits, final long ticket) {
+            this.config = config;
+            this.permits = permits;
+            this.ticket = ticket;
+        }
+
+        /**
+         * Notes when the processor is first handed the response, so that the time spent consuming it (for instance,
+         * streaming it on to a slow client) does not count towards the duration of the request
+         */
+        private <T> Processor<T> timed(final Processor<T> processor) {
+            return aciResponse -> {
+                if (responseStart == 0) {
+                    responseStart = System.nanoTime();
+                }
+
+                return processor.process(aciResponse);
+            };
+        }
+
+        private void complete(final boolean failed) {
+            release();
+            // backends which do not use the processor are timed until the request returns
+            final long finish = responseStart != 0 ? responseStart : System.nanoTime();
+            onResult(config, ticket, failed, finish - start);
+        }
+
+        private void completeExceptionally(final Deadline deadline) {
+            if (responseStart != 0) {
+                // the backend answered; a failure while consuming the response is as likely to be the consumer's
+                complete(false);
+            } else if (deadline == null || !deadline.isExpired()) {
+                complete(true);
+            } else {
+                ignore();
+            }
+        }
+
+        private void ignore() {
+            release();
+            onIgnoredResult(ticket);
+        }
+
+        private void release() {
+            if (permits != null) {
+                permits.release();
+            }
+        }
+    }
+
+    private static class Bulkhead {
+        private final Integer maxConcurrentCalls;
+        private final Semaphore permits;
+
+        private Bulkhead(final Integer maxConcurrentCalls) {
+            this.maxConcurrentCalls = maxConcurrentCalls;
+            permits = maxConcurrentCalls != null ? new Semaphore(maxConcurrentCalls) : null;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.circuitbreaker;
+
+/**
+ * States of a {@link CircuitBreakerAciService}
+ */
+public enum CircuitState {
+    /**
+     * Requests are sent to the backend
+     */
+    CLOSED,
+    /**
+     * Requests are rejected without contacting the backend
+     */
+    OPEN,
+    /**
+     * A limited number of trial requests are sent to the backend to decide whether to close the circuit again
+     */
+    HALF_OPEN
+}
@@ -7,6 +7,7 @@ package com.hp.autonomy.searchcomponents.idol.configuration;
 
 import com.autonomy.aci.client.services.AciService;
 import com.hp.autonomy.searchcomponents.core.search.QueryRequest;
+import com.hp.autonomy.searchcomponents.idol.httpclient.AsyncAciService;
 import org.springframework.beans.factory.annotation.Qualifier;
 
 /**
@@ -27,11 +28,27 @@ public interface AciServiceRetriever {
      */
     boolean qmsEnabled();
 
+    /**
+     * Whether or not a qms server is configured and accepting all requests
+     *
+     * @return false if qms is not configured or its circuit breaker is not closed
+     */
+    boolean qmsAvailable();
+
     /**
      * Retrieves object for connecting to either QMS or Content
      *
      * @param queryType if raw, will retrieve Content AciService regardless; otherwise will retrieve QMS AciService if available
-     * @return the QMS AciService if required and configured, otherwise the Content AciService
+     * @return the QMS AciService if required, configured and available, otherwise the Content AciService. While the qms
+     * circuit breaker is not closed, the returned QMS AciService may only be used for a single request
      */
     AciService getAciService(final QueryRequest.QueryType queryType);
+
+    /**
+     * Retrieves the non-blocking equivalent of {@link #getAciService(QueryRequest.QueryType)}
+     *
+     * @param queryType if raw, will retrieve Content AsyncAciService regardless; otherwise will retrieve QMS AsyncAciService if available
+     * @return the QMS AsyncAciService if required, configured and available, otherwise the Content AsyncAciService
+     */
+    AsyncAciService getAsyncAciService(final QueryRequest.QueryType queryType);
 }
@@ -6,8 +6,13 @@
 package com.hp.autonomy.searchcomponents.idol.configuration;
 
 import com.autonomy.aci.client.services.AciService;
+import com.autonomy.aci.client.transport.AciServerDetails;
 import com.hp.autonomy.frontend.configuration.ConfigService;
+import com.hp.autonomy.frontend.configuration.aci.AbstractConfigurableAciService;
+import com.hp.autonomy.searchcomponents.core.requestcontext.SearchRequestContextHolder;
 import com.hp.autonomy.searchcomponents.core.search.QueryRequest;
+import com.hp.autonomy.searchcomponents.idol.circuitbreaker.CircuitBreakerAciService;
+import com.hp.autonomy.searchcomponents.idol.httpclient.AsyncAciService;
 import org.apache.commons.lang.BooleanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -20,22 +25,69 @@ class AciServiceRetrieverImpl implements AciServiceRetriever {
     private final ConfigService<? extends IdolSearchCapable> configService;
     private final AciService contentAciService;
     private final AciService qmsAciService;
+    private final AsyncAciService contentAsyncAciService;
+    private final AsyncAciService qmsAsyncAciService;
+    private final CircuitBreakerAciService qmsCircuitBreakerAciService;
 
     @Autowired
-    AciServiceRetrieverImpl(final ConfigService<? extends IdolSearchCapable> configService, final AciService contentAciService, final AciService qmsAciService) {
+    AciServiceRetrieverImpl(final ConfigService<? extends IdolSearchCapable> configService,
+                            final AciService contentAciService,
+                            final AciService qmsAciService,
+                            final AsyncAciService contentAsyncAciService,
+                            final AsyncAciService qmsAsyncAciService,
+                            final CircuitBreakerAciService qmsCircuitBreakerAciService) {
         this.configService = configService;
         this.contentAciService = contentAciService;
         this.qmsAciService = qmsAciService;
+        this.contentAsyncAciService = contentAsyncAciService;
+        this.qmsAsyncAciService = qmsAsyncAciService;
+        this.qmsCircuitBreakerAciService = qmsCircuitBreakerAciService;
     }
 
     @Override
     public boolean qmsEnabled() {
-        return configService.getConfig().getQueryManipulation() != null && BooleanUtils.isTrue(configService.getConfig().getQueryManipulation().getEnabled());
+        final QueryManipulation queryManipulation = SearchRequestContextHolder.getConfig(configService).getQueryManipulation();
+        return queryManipulation != null && BooleanUtils.isTrue(queryManipulation.getEnabled());
+    }
+
+    @Override
+    public boolean qmsAvailable() {
+        // while QMS is recovering only the trial requests reach it, so a caller cannot count on its request being sent
+        return qmsEnabled() && qmsCircuitBreakerAciService.isClosed();
     }
 
     @Override
     public AciService getAciService(final QueryRequest.QueryType queryType) {
-        final boolean useQms = qmsEnabled() && queryType != QueryRequest.QueryType.RAW;
-        return useQms ? qmsAciService : contentAciService;
+        if (queryType == QueryRequest.QueryType.RAW || !qmsEnabled()) {
+            return contentAciService;
+        }
+
+        if (qmsCircuitBreakerAciService.isClosed()) {
+            return qmsAciService;
+        }
+
+        // while the QMS circuit is not closed, modified queries fall back to raw queries against Content unless they
+        // can be one of the trial requests
+        final AciService trialAciService = qmsCircuitBreakerAciService.reserveCall();
+        return trialAciService != null ? new AbstractConfigurableAciService(trialAciService) {
+            @Override
+            public AciServerDetails getServerDetails() {
+                return SearchRequestContextHolder.getConfig(configService).getQueryManipulation().getServer().toAciServerDetails();
+            }
+        } : contentAciService;
+    }
+
+    @Override
+    public AsyncAciService getAsyncAciService(final QueryRequest.QueryType queryType) {
+        if (queryType == QueryRequest.QueryType.RAW || !qmsEnabled()) {
+            return contentAsyncAciService;
+        }
+
+        if (qmsCircuitBreakerAciService.isClosed()) {
+            return qmsAsyncAciService;
+        }
+
+        final AsyncAciService trialAsyncAciService = qmsCircuitBreakerAciService.reserveAsyncCall();
+        return trialAsyncAciService != null ? trialAsyncAciService : contentAsyncAciService;
     }
 }
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.configuration;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import com.hp.autonomy.frontend.configuration.ConfigException;
+import com.hp.autonomy.frontend.configuration.SimpleComponent;
+import com.hp.autonomy.frontend.configuration.validation.OptionalConfigurationComponent;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.apache.commons.lang3.BooleanUtils;
+
+/**
+ * Circuit breaker and concurrency limit for requests to a single Idol backend. Rates are percentages of the most recent
+ * requests and times are in milliseconds; unset values fall back to the defaults below.
+ */
+@SuppressWarnings("DefaultAnnotationParam")
+@Getter
+@Builder
+@EqualsAndHashCode(callSuper = false)
+@ToString
+@JsonDeserialize(builder = CircuitBreakerConfig.CircuitBreakerConfigBuilder.class)
+public class CircuitBreakerConfig extends SimpleComponent<CircuitBreakerConfig> implements OptionalConfigurationComponent<CircuitBreakerConfig> {
+    private static final String SECTION = "CircuitBreaker";
+
+    public static final double DEFAULT_FAILURE_RATE_THRESHOLD = 50;
+    public static final double DEFAULT_SLOW_CALL_RATE_THRESHOLD = 80;
+    public static final long DEFAULT_SLOW_CALL_DURATION = 10000L;
+    public static final int DEFAULT_WINDOW_SIZE = 50;
+    public static final int DEFAULT_MINIMUM_CALLS = 10;
+    public static final long DEFAULT_OPEN_DURATION = 30000L;
+    public static final int DEFAULT_HALF_OPEN_CALLS = 3;
+
+    private final Double failureRateThreshold;
+    private final Double slowCallRateThreshold;
+    private final Long slowCallDuration;
+    private final Integer windowSize;
+    private final Integer minimumCalls;
+    private final Long openDuration;
+    private final Integer halfOpenCalls;
+    // no limit if unset
+    private final Integer maxConcurrentCalls;
+    private final Boolean enabled;
+
+    @Override
+    public void basicValidate(final String configSection) throws ConfigException {
+        if (BooleanUtils.isTrue(enabled)) {
+            validatePercentage(failureRateThreshold, "Failure rate threshold");
+            validatePercentage(slowCallRateThreshold, "Slow call rate threshold");
+            validatePositive(slowCallDuration, "Slow call duration");
+            validatePositive(windowSize, "Window size");
+            validatePositive(minimumCalls, "Minimum number of calls");
+            validatePositive(openDuration, "Open duration");
+            validatePositive(halfOpenCalls, "Number of half-open calls");
+            validatePositive(maxConcurrentCalls, "Maximum concurrent calls");
+
+            if (minimumCalls != null && minimumCalls > getWindowSizeOrDefault()) {
+                throw new ConfigException(SECTION, "Minimum number of calls must not exceed the window size");
+            }
+        }
+    }
+
+    public double getFailureRateThresholdOrDefault() {
+        return failureRateThreshold != null ? failureRateThreshold : DEFAULT_FAILURE_RATE_THRESHOLD;
+    }
+
+    public double getSlowCallRateThresholdOrDefault() {
+        return slowCallRateThreshold != null ? slowCallRateThreshold : DEFAULT_SLOW_CALL_RATE_THRESHOLD;
+    }
+
+    public long getSlowCallDurationOrDefault() {
+        return slowCallDuration != null ? slowCallDuration : DEFAULT_SLOW_CALL_DURATION;
+    }
+
+    public int getWindowSizeOrDefault() {
+        return windowSize != null ? windowSize : DEFAULT_WINDOW_SIZE;
+    }
+
+    public int getMinimumCallsOrDefault() {
+        return minimumCalls != null ? minimumCalls : Math.min(DEFAULT_MINIMUM_CALLS, getWindowSizeOrDefault());
+    }
+
+    public long getOpenDurationOrDefault() {
+        return openDuration != null ? openDuration : DEFAULT_OPEN_DURATION;
+    }
+
+    public int getHalfOpenCallsOrDefault() {
+        return halfOpenCalls != null ? halfOpenCalls : DEFAULT_HALF_OPEN_CALLS;
+    }
+
+    private void validatePercentage(final Double value, final String description) throws ConfigException {
+        if (value != null && (value <= 0 || value > 100)) {
+            throw new ConfigException(SECTION, description + " must be between 0 and 100 percent");
+        }
+    }
+
+    private void validatePositive(final Number value, final String description) throws ConfigException {
+        if (value != null && value.longValue() <= 0) {
+            throw new ConfigException(SECTION, description + " must be positive");
+        }
+    }
+
+    @SuppressWarnings("WeakerAccess")
+    @JsonPOJOBuilder(withPrefix = "")
+    public static class CircuitBreakerConfigBuilder {
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.configuration;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import com.hp.autonomy.frontend.configuration.ConfigException;
+import com.hp.autonomy.frontend.configuration.SimpleComponent;
+import com.hp.autonomy.frontend.configuration.validation.OptionalConfigurationComponent;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Circuit breakers for each Idol backend, so that a failing or slow backend is isolated from the others
+ */
+@SuppressWarnings("DefaultAnnotationParam")
+@Getter
+@Builder
+@EqualsAndHashCode(callSuper = false)
+@ToString
+@JsonDeserialize(builder = CircuitBreakersConfig.CircuitBreakersConfigBuilder.class)
+public class CircuitBreakersConfig extends SimpleComponent<CircuitBreakersConfig> implements OptionalConfigurationComponent<CircuitBreakersConfig> {
+    private final CircuitBreakerConfig content;
+    private final CircuitBreakerConfig queryManipulation;
+    private final CircuitBreakerConfig view;
+    private final CircuitBreakerConfig answerServer;
+
+    @Override
+    @JsonIgnore
+    public Boolean getEnabled() {
+        return true;
+    }
+
+    @Override
+    public void basicValidate(final String configSection) throws ConfigException {
+        for (final CircuitBreakerConfig circuitBreaker : new CircuitBreakerConfig[]{content, queryManipulation, view, answerServer}) {
+            if (circuitBreaker != null) {
+                circuitBreaker.basicValidate(configSection);
+            }
+        }
+    }
+
+    @SuppressWarnings("WeakerAccess")
+    @JsonPOJOBuilder(withPrefix = "")
+    public static class CircuitBreakersConfigBuilder {
+    }
+}
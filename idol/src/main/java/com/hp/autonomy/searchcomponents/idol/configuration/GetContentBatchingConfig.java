@@ -0,0 +1,70 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.configuration;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import com.hp.autonomy.frontend.configuration.ConfigException;
+import com.hp.autonomy.frontend.configuration.SimpleComponent;
+import com.hp.autonomy.frontend.configuration.validation.OptionalConfigurationComponent;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.apache.commons.lang3.BooleanUtils;
+
+/**
+ * Configuration for combining concurrent single-document content lookups into one backend request
+ */
+@SuppressWarnings("DefaultAnnotationParam")
+@Getter
+@Builder
+@EqualsAndHashCode(callSuper = false)
+@ToString
+@JsonDeserialize(builder = GetContentBatchingConfig.GetContentBatchingConfigBuilder.class)
+public class GetContentBatchingConfig extends SimpleComponent<GetContentBatchingConfig> implements OptionalConfigurationComponent<GetContentBatchingConfig> {
+    private static final String SECTION = "GetContentBatching";
+
+    /**
+     * The time in milliseconds to wait for further lookups to join a batch if no value is configured
+     */
+    public static final long DEFAULT_WINDOW = 5L;
+
+    /**
+     * The largest number of documents requested at once if no value is configured
+     */
+    public static final int DEFAULT_MAX_BATCH_SIZE = 50;
+
+    private final Long window;
+    private final Integer maxBatchSize;
+    private final Boolean enabled;
+
+    @Override
+    public void basicValidate(final String configSection) throws ConfigException {
+        if (BooleanUtils.isTrue(enabled)) {
+            if (window != null && window < 0) {
+                throw new ConfigException(SECTION, "Batching window must not be negative");
+            }
+
+            if (maxBatchSize != null && maxBatchSize < 1) {
+                throw new ConfigException(SECTION, "Maximum batch size must be at least 1");
+            }
+        }
+    }
+
+    public long getWindowOrDefault() {
+        return window != null ? window : DEFAULT_WINDOW;
+    }
+
+    public int getMaxBatchSizeOrDefault() {
+        return maxBatchSize != null ? maxBatchSize : DEFAULT_MAX_BATCH_SIZE;
+    }
+
+    @SuppressWarnings("WeakerAccess")
+    @JsonPOJOBuilder(withPrefix = "")
+    public static class GetContentBatchingConfigBuilder {
+    }
+}
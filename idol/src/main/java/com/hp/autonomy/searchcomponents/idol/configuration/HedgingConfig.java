@@ -0,0 +1,70 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.configuration;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import com.hp.autonomy.frontend.configuration.ConfigException;
+import com.hp.autonomy.frontend.configuration.SimpleComponent;
+import com.hp.autonomy.frontend.configuration.validation.OptionalConfigurationComponent;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.apache.commons.lang3.BooleanUtils;
+
+/**
+ * Configuration for sending a duplicate of a slow read request to a second replica
+ */
+@SuppressWarnings("DefaultAnnotationParam")
+@Getter
+@Builder
+@EqualsAndHashCode(callSuper = false)
+@ToString
+@JsonDeserialize(builder = HedgingConfig.HedgingConfigBuilder.class)
+public class HedgingConfig extends SimpleComponent<HedgingConfig> implements OptionalConfigurationComponent<HedgingConfig> {
+    private static final String SECTION = "Hedging";
+
+    /**
+     * The percentile of recent latency after which a duplicate request is sent if no value is configured
+     */
+    public static final double DEFAULT_PERCENTILE = 95;
+
+    /**
+     * The maximum number of duplicate requests, as a percentage of all requests, if no value is configured
+     */
+    public static final double DEFAULT_BUDGET_PERCENT = 5;
+
+    private final Double percentile;
+    private final Double budgetPercent;
+    private final Boolean enabled;
+
+    @Override
+    public void basicValidate(final String configSection) throws ConfigException {
+        if (BooleanUtils.isTrue(enabled)) {
+            if (percentile != null && (percentile <= 0 || percentile >= 100)) {
+                throw new ConfigException(SECTION, "Hedging percentile must be between 0 and 100");
+            }
+
+            if (budgetPercent != null && (budgetPercent < 0 || budgetPercent > 100)) {
+                throw new ConfigException(SECTION, "Hedging budget must be between 0 and 100 percent");
+            }
+        }
+    }
+
+    public double getPercentileOrDefault() {
+        return percentile != null ? percentile : DEFAULT_PERCENTILE;
+    }
+
+    public double getBudgetPercentOrDefault() {
+        return budgetPercent != null ? budgetPercent : DEFAULT_BUDGET_PERCENT;
+    }
+
+    @SuppressWarnings("WeakerAccess")
+    @JsonPOJOBuilder(withPrefix = "")
+    public static class HedgingConfigBuilder {
+    }
+}
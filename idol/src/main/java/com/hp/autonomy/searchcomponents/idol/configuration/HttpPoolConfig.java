@@ -0,0 +1,72 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.configuration;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import com.hp.autonomy.frontend.configuration.ConfigException;
+import com.hp.autonomy.frontend.configuration.SimpleComponent;
+import com.hp.autonomy.frontend.configuration.validation.OptionalConfigurationComponent;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Connection pool settings for the HTTP client used to talk to a single Idol backend. All times are in milliseconds;
+ * unset values fall back to the defaults of the client factory. Changes take effect on restart.
+ */
+@SuppressWarnings("DefaultAnnotationParam")
+@Getter
+@Builder
+@EqualsAndHashCode(callSuper = false)
+@ToString
+@JsonDeserialize(builder = HttpPoolConfig.HttpPoolConfigBuilder.class)
+public class HttpPoolConfig extends SimpleComponent<HttpPoolConfig> implements OptionalConfigurationComponent<HttpPoolConfig> {
+    private static final String SECTION = "HttpPool";
+
+    private final Integer maxConnections;
+    private final Integer maxConnectionsPerRoute;
+    private final Integer connectTimeout;
+    private final Integer socketTimeout;
+    private final Long connectionTimeToLive;
+    private final Long idleConnectionEvictionTime;
+    private final Long keepAliveTime;
+    private final Integer preWarmConnections;
+
+    @Override
+    @JsonIgnore
+    public Boolean getEnabled() {
+        return true;
+    }
+
+    @Override
+    public void basicValidate(final String configSection) throws ConfigException {
+        validatePositive(maxConnections, "Maximum connections");
+        validatePositive(maxConnectionsPerRoute, "Maximum connections per route");
+        validatePositive(connectTimeout, "Connect timeout");
+        validatePositive(socketTimeout, "Socket timeout");
+        validatePositive(connectionTimeToLive, "Connection time to live");
+        validatePositive(idleConnectionEvictionTime, "Idle connection eviction time");
+        validatePositive(keepAliveTime, "Keep-alive time");
+
+        if (preWarmConnections != null && preWarmConnections < 0) {
+            throw new ConfigException(SECTION, "Number of pre-warmed connections must not be negative");
+        }
+    }
+
+    private void validatePositive(final Number value, final String description) throws ConfigException {
+        if (value != null && value.longValue() <= 0) {
+            throw new ConfigException(SECTION, description + " must be positive");
+        }
+    }
+
+    @SuppressWarnings("WeakerAccess")
+    @JsonPOJOBuilder(withPrefix = "")
+    public static class HttpPoolConfigBuilder {
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.configuration;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import com.hp.autonomy.frontend.configuration.ConfigException;
+import com.hp.autonomy.frontend.configuration.SimpleComponent;
+import com.hp.autonomy.frontend.configuration.validation.OptionalConfigurationComponent;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Separate HTTP connection pools for each Idol backend, so that a slow backend cannot exhaust connections needed by the others
+ */
+@SuppressWarnings("DefaultAnnotationParam")
+@Getter
+@Builder
+@EqualsAndHashCode(callSuper = false)
+@ToString
+@JsonDeserialize(builder = HttpPoolsConfig.HttpPoolsConfigBuilder.class)
+public class HttpPoolsConfig extends SimpleComponent<HttpPoolsConfig> implements OptionalConfigurationComponent<HttpPoolsConfig> {
+    private final HttpPoolConfig content;
+    private final HttpPoolConfig queryManipulation;
+    private final HttpPoolConfig view;
+    private final HttpPoolConfig answerServer;
+
+    @Override
+    @JsonIgnore
+    public Boolean getEnabled() {
+        return true;
+    }
+
+    @Override
+    public void basicValidate(final String configSection) throws ConfigException {
+        for (final HttpPoolConfig pool : new HttpPoolConfig[]{content, queryManipulation, view, answerServer}) {
+            if (pool != null) {
+                pool.basicValidate(configSection);
+            }
+        }
+    }
+
+    @SuppressWarnings("WeakerAccess")
+    @JsonPOJOBuilder(withPrefix = "")
+    public static class HttpPoolsConfigBuilder {
+    }
+}
@@ -8,6 +8,7 @@ package com.hp.autonomy.searchcomponents.idol.configuration;
 import com.autonomy.aci.client.transport.AciServerDetails;
 import com.hp.autonomy.searchcomponents.core.config.HavenSearchCapable;
 import com.hp.autonomy.searchcomponents.idol.answer.configuration.AnswerServerConfig;
+import com.hp.autonomy.searchcomponents.idol.statsserver.configuration.StatsServerConfig;
 import com.hp.autonomy.searchcomponents.idol.view.configuration.ViewCapable;
 import org.springframework.beans.factory.annotation.Qualifier;
 
@@ -34,6 +35,13 @@ public interface IdolSearchCapable extends HavenSearchCapable, ViewCapable {
      */
     AciServerDetails getContentAciServerDetails();
 
+    /**
+     * Returns details of replicated Idol Content engines to balance requests across
+     *
+     * @return Content load balancing configuration
+     */
+    LoadBalancingConfig getContentLoadBalancing();
+
     /**
      * Returns details of Idol Query Manipulation Server
      *
@@ -47,4 +55,53 @@ public interface IdolSearchCapable extends HavenSearchCapable, ViewCapable {
      * @return AnswerServer configuration
      */
     AnswerServerConfig getAnswerServer();
+
+    /**
+     * Returns details of the cache warm-up performed at startup
+     *
+     * @return Warm-up configuration
+     */
+    WarmUpConfig getWarmUp();
+
+    /**
+     * Returns details of the HTTP connection pools used for each backend
+     *
+     * @return HTTP pool configuration
+     */
+    HttpPoolsConfig getHttpPools();
+
+    /**
+     * Returns details of the circuit breakers used for each backend
+     *
+     * @return Circuit breaker configuration
+     */
+    CircuitBreakersConfig getCircuitBreakers();
+
+    /**
+     * Returns details of how single-document content lookups are combined
+     *
+     * @return Content lookup batching configuration
+     */
+    GetContentBatchingConfig getGetContentBatching();
+
+    /**
+     * Returns details of the in-memory index used for type-ahead suggestions
+     *
+     * @return Type-ahead index configuration
+     */
+    TypeAheadIndexConfig getTypeAheadIndex();
+
+    /**
+     * Returns details of how type-ahead requests from the same session are delayed
+     *
+     * @return Type-ahead debounce configuration
+     */
+    TypeAheadDispatchConfig getTypeAheadDispatch();
+
+    /**
+     * Returns details of StatsServer
+     *
+     * @return StatsServer configuration
+     */
+    StatsServerConfig getStatsServer();
 }
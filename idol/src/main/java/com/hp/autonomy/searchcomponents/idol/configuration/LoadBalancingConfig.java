@@ -0,0 +1,90 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.configuration;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import com.hp.autonomy.frontend.configuration.ConfigException;
+import com.hp.autonomy.frontend.configuration.SimpleComponent;
+import com.hp.autonomy.frontend.configuration.server.ServerConfig;
+import com.hp.autonomy.frontend.configuration.validation.OptionalConfigurationComponent;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Singular;
+import lombok.ToString;
+import org.apache.commons.lang3.BooleanUtils;
+
+import java.util.List;
+
+/**
+ * Replicated servers to spread requests across. When enabled, requests are sent to the replicas instead of the
+ * server configured for the component.
+ */
+@SuppressWarnings("DefaultAnnotationParam")
+@Getter
+@Builder
+@EqualsAndHashCode(callSuper = false)
+@ToString
+@JsonDeserialize(builder = LoadBalancingConfig.LoadBalancingConfigBuilder.class)
+public class LoadBalancingConfig extends SimpleComponent<LoadBalancingConfig> implements OptionalConfigurationComponent<LoadBalancingConfig> {
+    private static final String SECTION = "LoadBalancing";
+
+    /**
+     * The number of consecutive connection failures after which a replica is taken out of service if no value is configured
+     */
+    public static final int DEFAULT_EJECTION_THRESHOLD = 3;
+
+    /**
+     * The interval in milliseconds between health checks of replicas which are out of service if no value is configured
+     */
+    public static final long DEFAULT_PROBE_INTERVAL = 5000L;
+
+    @Singular
+    private final List<ServerConfig> replicas;
+    private final Integer ejectionThreshold;
+    private final Long probeInterval;
+    private final HedgingConfig hedging;
+    private final Boolean enabled;
+
+    @Override
+    public void basicValidate(final String configSection) throws ConfigException {
+        if (BooleanUtils.isTrue(enabled)) {
+            if (replicas == null || replicas.isEmpty()) {
+                throw new ConfigException(SECTION, "Load balancing is enabled but no replicas have been provided");
+            }
+
+            for (final ServerConfig replica : replicas) {
+                replica.basicValidate(SECTION);
+            }
+
+            if (ejectionThreshold != null && ejectionThreshold < 1) {
+                throw new ConfigException(SECTION, "Ejection threshold must be at least 1");
+            }
+
+            if (probeInterval != null && probeInterval <= 0) {
+                throw new ConfigException(SECTION, "Probe interval must be positive");
+            }
+
+            if (hedging != null) {
+                hedging.basicValidate(SECTION);
+            }
+        }
+    }
+
+    public int getEjectionThresholdOrDefault() {
+        return ejectionThreshold != null ? ejectionThreshold : DEFAULT_EJECTION_THRESHOLD;
+    }
+
+    public long getProbeIntervalOrDefault() {
+        return probeInterval != null ? probeInterval : DEFAULT_PROBE_INTERVAL;
+    }
+
+    @SuppressWarnings("WeakerAccess")
+    @JsonPOJOBuilder(withPrefix = "")
+    public static class LoadBalancingConfigBuilder {
+    }
+}
@@ -29,6 +29,7 @@ public class QueryManipulation extends SimpleComponent<QueryManipulation> implem
     private final Boolean expandQuery;
     private final String blacklist;
     private final ModeParam typeAheadMode;
+    private final LoadBalancingConfig loadBalancing;
     private final Boolean enabled;
 
     @Override
@@ -38,6 +39,10 @@ public class QueryManipulation extends SimpleComponent<QueryManipulation> implem
                 throw new ConfigException("QMS", "QMS is enabled but no corresponding server details have been provided");
             }
             server.basicValidate("QMS");
+
+            if (loadBalancing != null) {
+                loadBalancing.basicValidate("QMS");
+            }
         }
     }
 
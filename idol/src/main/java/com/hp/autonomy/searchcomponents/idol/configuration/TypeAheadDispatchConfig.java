@@ -0,0 +1,55 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.configuration;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import com.hp.autonomy.frontend.configuration.ConfigException;
+import com.hp.autonomy.frontend.configuration.SimpleComponent;
+import com.hp.autonomy.frontend.configuration.validation.OptionalConfigurationComponent;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.apache.commons.lang3.BooleanUtils;
+
+/**
+ * Configuration for delaying type-ahead requests so that requests superseded while the user is still typing are never
+ * sent to the backend
+ */
+@SuppressWarnings("DefaultAnnotationParam")
+@Getter
+@Builder
+@EqualsAndHashCode(callSuper = false)
+@ToString
+@JsonDeserialize(builder = TypeAheadDispatchConfig.TypeAheadDispatchConfigBuilder.class)
+public class TypeAheadDispatchConfig extends SimpleComponent<TypeAheadDispatchConfig> implements OptionalConfigurationComponent<TypeAheadDispatchConfig> {
+    private static final String SECTION = "TypeAheadDispatch";
+
+    /**
+     * The time in milliseconds to wait for a newer request before sending a request to the backend if no value is configured
+     */
+    public static final long DEFAULT_DEBOUNCE = 100L;
+
+    private final Long debounce;
+    private final Boolean enabled;
+
+    @Override
+    public void basicValidate(final String configSection) throws ConfigException {
+        if (BooleanUtils.isTrue(enabled) && debounce != null && debounce < 0) {
+            throw new ConfigException(SECTION, "Debounce must not be negative");
+        }
+    }
+
+    public long getDebounceOrDefault() {
+        return debounce != null ? debounce : DEFAULT_DEBOUNCE;
+    }
+
+    @SuppressWarnings("WeakerAccess")
+    @JsonPOJOBuilder(withPrefix = "")
+    public static class TypeAheadDispatchConfigBuilder {
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.configuration;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import com.hp.autonomy.frontend.configuration.ConfigException;
+import com.hp.autonomy.frontend.configuration.SimpleComponent;
+import com.hp.autonomy.frontend.configuration.validation.OptionalConfigurationComponent;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Singular;
+import lombok.ToString;
+import org.apache.commons.lang3.BooleanUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Configuration for serving type-ahead suggestions from an index held in memory, which is rebuilt periodically from
+ * bulk expansions of a set of prefixes
+ */
+@SuppressWarnings("DefaultAnnotationParam")
+@Getter
+@Builder
+@EqualsAndHashCode(callSuper = false)
+@ToString
+@JsonDeserialize(builder = TypeAheadIndexConfig.TypeAheadIndexConfigBuilder.class)
+public class TypeAheadIndexConfig extends SimpleComponent<TypeAheadIndexConfig> implements OptionalConfigurationComponent<TypeAheadIndexConfig> {
+    private static final String SECTION = "TypeAheadIndex";
+
+    /**
+     * The prefixes expanded if none are configured
+     */
+    public static final Collection<String> DEFAULT_PREFIXES = Collections.unmodifiableList(Arrays.asList(
+            "a", "b", "c", "d", "e", "f", "g", "h", "i", "j", "k", "l", "m", "n", "o", "p", "q", "r", "s", "t", "u", "v", "w", "x", "y", "z",
+            "0", "1", "2", "3", "4", "5", "6", "7", "8", "9"
+    ));
+
+    /**
+     * The maximum number of terms requested for each prefix if no value is configured
+     */
+    public static final int DEFAULT_MAX_TERMS = 5000;
+
+    /**
+     * The interval in milliseconds between rebuilds of the index if no value is configured
+     */
+    public static final long DEFAULT_REFRESH_INTERVAL = 60L * 60 * 1000;
+
+    @Singular
+    private final Collection<String> prefixes;
+    private final Integer maxTerms;
+    private final Long refreshInterval;
+    private final Boolean enabled;
+
+    @Override
+    public void basicValidate(final String configSection) throws ConfigException {
+        if (BooleanUtils.isTrue(enabled)) {
+            if (prefixes != null && prefixes.stream().anyMatch(StringUtils::isEmpty)) {
+                throw new ConfigException(SECTION, "Type-ahead index prefixes must not be empty");
+            }
+
+            if (maxTerms != null && maxTerms < 1) {
+                throw new ConfigException(SECTION, "Maximum terms must be at least 1");
+            }
+
+            if (refreshInterval != null && refreshInterval <= 0) {
+                throw new ConfigException(SECTION, "Refresh interval must be positive");
+            }
+        }
+    }
+
+    public Collection<String> getPrefixesOrDefault() {
+        return prefixes != null && !prefixes.isEmpty() ? prefixes : DEFAULT_PREFIXES;
+    }
+
+    public int getMaxTermsOrDefault() {
+        return maxTerms != null ? maxTerms : DEFAULT_MAX_TERMS;
+    }
+
+    public long getRefreshIntervalOrDefault() {
+        return refreshInterval != null ? refreshInterval : DEFAULT_REFRESH_INTERVAL;
+    }
+
+    @SuppressWarnings("WeakerAccess")
+    @JsonPOJOBuilder(withPrefix = "")
+    public static class TypeAheadIndexConfigBuilder {
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.configuration;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import com.hp.autonomy.frontend.configuration.ConfigException;
+import com.hp.autonomy.frontend.configuration.SimpleComponent;
+import com.hp.autonomy.frontend.configuration.validation.OptionalConfigurationComponent;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.apache.commons.lang3.BooleanUtils;
+
+/**
+ * Configuration for priming caches when the application starts
+ */
+@SuppressWarnings("DefaultAnnotationParam")
+@Getter
+@Builder
+@EqualsAndHashCode(callSuper = false)
+@ToString
+@JsonDeserialize(builder = WarmUpConfig.WarmUpConfigBuilder.class)
+public class WarmUpConfig extends SimpleComponent<WarmUpConfig> implements OptionalConfigurationComponent<WarmUpConfig> {
+    private static final String SECTION = "WarmUp";
+
+    /**
+     * The number of warm-up requests which may be outstanding at once if no value is configured
+     */
+    public static final int DEFAULT_CONCURRENCY = 4;
+
+    private final Integer concurrency;
+    private final Boolean enabled;
+
+    @Override
+    public void basicValidate(final String configSection) throws ConfigException {
+        if (BooleanUtils.isTrue(enabled) && concurrency != null && concurrency < 1) {
+            throw new ConfigException(SECTION, "Warm-up concurrency must be at least 1");
+        }
+    }
+
+    /**
+     * The number of warm-up requests which may be outstanding at once
+     *
+     * @return the configured concurrency, or {@link #DEFAULT_CONCURRENCY} if none is configured
+     */
+    public int getConcurrencyOrDefault() {
+        return concurrency != null ? concurrency : DEFAULT_CONCURRENCY;
+    }
+
+    @SuppressWarnings("WeakerAccess")
+    @JsonPOJOBuilder(withPrefix = "")
+    public static class WarmUpConfigBuilder {
+    }
+}
@@ -9,12 +9,15 @@ import com.autonomy.aci.client.services.AciErrorException;
 import com.autonomy.aci.client.services.AciService;
 import com.autonomy.aci.client.services.Processor;
 import com.autonomy.aci.client.util.AciParameters;
+import com.hp.autonomy.searchcomponents.core.caching.CacheNames;
+import com.hp.autonomy.searchcomponents.core.caching.OptionalCacheResolver;
 import com.hp.autonomy.searchcomponents.core.databases.DatabasesService;
 import com.hp.autonomy.types.idol.marshalling.ProcessorFactory;
 import com.hp.autonomy.types.idol.responses.Database;
 import com.hp.autonomy.types.idol.responses.GetStatusResponseData;
 import com.hp.autonomy.types.requests.idol.actions.status.StatusActions;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.util.LinkedHashSet;
@@ -38,6 +41,8 @@ class IdolDatabasesServiceImpl implements IdolDatabasesService {
     }
 
     @Override
+    // applications configured before this cache was added do not declare it, so they run GetStatus every time
+    @Cacheable(cacheNames = CacheNames.DATABASES, cacheResolver = OptionalCacheResolver.OPTIONAL_CACHE_RESOLVER_BEAN_NAME)
     public Set<Database> getDatabases(final IdolDatabasesRequest request) throws AciErrorException {
         final GetStatusResponseData responseData = contentAciService.executeAction(new AciParameters(StatusActions.GetStatus.name()), responseProcessor);
         final List<Database> allDatabases = responseData.getDatabases().getDatabase();
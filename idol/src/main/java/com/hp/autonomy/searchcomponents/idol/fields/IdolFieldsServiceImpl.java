@@ -7,11 +7,13 @@ package com.hp.autonomy.searchcomponents.idol.fields;
 
 import com.autonomy.aci.client.services.AciErrorException;
 import com.autonomy.aci.client.services.AciService;
+import com.autonomy.aci.client.services.AciServiceException;
 import com.autonomy.aci.client.services.Processor;
 import com.autonomy.aci.client.util.AciParameters;
 import com.hp.autonomy.searchcomponents.core.caching.CacheNames;
 import com.hp.autonomy.searchcomponents.core.fields.FieldsRequest;
 import com.hp.autonomy.searchcomponents.core.fields.FieldsService;
+import com.hp.autonomy.searchcomponents.idol.httpclient.AsyncAciService;
 import com.hp.autonomy.types.idol.marshalling.ProcessorFactory;
 import com.hp.autonomy.types.idol.responses.GetTagNamesResponseData;
 import com.hp.autonomy.types.requests.idol.actions.tags.TagActions;
@@ -26,21 +28,32 @@ import java.util.ArrayList;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static com.hp.autonomy.searchcomponents.core.fields.FieldsService.FIELD_SERVICE_BEAN_NAME;
 
 /**
- * Default Idol implementation of {@link FieldsService}: sends a GetTagNames action for each desired fieldType and parses the responses into a map
+ * Default Idol implementation of {@link FieldsService}: sends a GetTagNames action for each desired fieldType and parses the responses into a map.
+ * When several field types are requested the actions are sent together, so the total time is that of the slowest action
+ * rather than the sum of all of them. Each type is still read by its own action, so if the index changes while they are
+ * running the lists for different types may not reflect the same state.
  */
 @SuppressWarnings("WeakerAccess")
 @Service(FIELD_SERVICE_BEAN_NAME)
 class IdolFieldsServiceImpl implements IdolFieldsService {
     private final AciService contentAciService;
+    private final AsyncAciService contentAsyncAciService;
     private final Processor<GetTagNamesResponseData> tagNamesResponseProcessor;
 
     @Autowired
-    IdolFieldsServiceImpl(final AciService contentAciService, final ProcessorFactory aciResponseProcessorFactory) {
+    IdolFieldsServiceImpl(
+            final AciService contentAciService,
+            final AsyncAciService contentAsyncAciService,
+            final ProcessorFactory aciResponseProcessorFactory
+    ) {
         this.contentAciService = contentAciService;
+        this.contentAsyncAciService = contentAsyncAciService;
         tagNamesResponseProcessor = aciResponseProcessorFactory.getResponseDataProcessor(GetTagNamesResponseData.class);
     }
 
@@ -48,20 +61,49 @@ class IdolFieldsServiceImpl implements IdolFieldsService {
     @Cacheable(CacheNames.FIELDS)
     public Map<FieldTypeParam, List<TagName>> getFields(final IdolFieldsRequest request, final FieldTypeParam... fieldTypes) throws AciErrorException {
         final Map<FieldTypeParam, List<TagName>> results = new EnumMap<>(FieldTypeParam.class);
+        if (fieldTypes.length == 1) {
+            results.put(fieldTypes[0], getTagNames(contentAciService.executeAction(createParameters(request, fieldTypes[0]), tagNamesResponseProcessor)));
+            return results;
+        }
+
+        final Map<FieldTypeParam, CompletableFuture<GetTagNamesResponseData>> responses = new EnumMap<>(FieldTypeParam.class);
         for (final FieldTypeParam fieldType : fieldTypes) {
-            results.put(fieldType, getTagNames(request, fieldType));
+            responses.put(fieldType, contentAsyncAciService.executeAction(createParameters(request, fieldType), tagNamesResponseProcessor));
+        }
+
+        // fail as soon as any action fails rather than waiting for the others
+        final CompletableFuture<Void> all = CompletableFuture.allOf(responses.values().toArray(new CompletableFuture<?>[responses.size()]));
+        responses.values().forEach(response -> response.whenComplete((ignored, e) -> {
+            if (e != null) {
+                all.completeExceptionally(e);
+            }
+        }));
+
+        try {
+            all.join();
+        } catch (final CompletionException e) {
+            // the caller only gets an answer for every type or none, so the outstanding actions are not needed
+            responses.values().forEach(response -> response.cancel(true));
+
+            final Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new AciServiceException(cause);
+        }
+
+        for (final Map.Entry<FieldTypeParam, CompletableFuture<GetTagNamesResponseData>> response : responses.entrySet()) {
+            results.put(response.getKey(), getTagNames(response.getValue().join()));
         }
 
         return results;
     }
 
-    private List<TagName> getTagNames(final FieldsRequest request, final FieldTypeParam fieldType) {
+    private AciParameters createParameters(final FieldsRequest request, final FieldTypeParam fieldType) {
         final AciParameters aciParameters = new AciParameters(TagActions.GetTagNames.name());
         aciParameters.add(GetTagNamesParams.FieldType.name(), fieldType);
         aciParameters.add(GetTagNamesParams.MaxValues.name(), request.getMaxValues());
+        return aciParameters;
+    }
 
-        final GetTagNamesResponseData responseData = contentAciService.executeAction(aciParameters, tagNamesResponseProcessor);
-
+    private List<TagName> getTagNames(final GetTagNamesResponseData responseData) {
         final List<GetTagNamesResponseData.Name> names = responseData.getName();
         final List<TagName> tagNames = new ArrayList<>(names.size());
         for (final GetTagNamesResponseData.Name name : names) {
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.httpclient;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Helpers for working with the futures returned by {@link AsyncAciService}
+ */
+public final class AsyncAciFutures {
+    private AsyncAciFutures() {
+    }
+
+    /**
+     * Transforms the response of an action as {@link CompletableFuture#thenApply(Function)} does, except that
+     * cancelling or otherwise failing the returned future also cancels the response, aborting the request if it is
+     * still outstanding. Cancelling a dependent future does not otherwise affect the one it depends on.
+     *
+     * @param response The future returned by {@link AsyncAciService}
+     * @param function Converts the response
+     * @param <T>      The type of the response
+     * @param <U>      The type of the converted response
+     * @return A future which completes with the converted response
+     */
+    public static <T, U> CompletableFuture<U> thenApply(final CompletableFuture<T> response, final Function<? super T, ? extends U> function) {
+        final CompletableFuture<U> result = response.thenApply(function);
+        result.whenComplete((value, e) -> {
+            if (e != null) {
+                response.cancel(true);
+            }
+        });
+
+        return result;
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.httpclient;
+
+import com.autonomy.aci.client.services.AciService;
+import com.autonomy.aci.client.services.Processor;
+import com.autonomy.aci.client.transport.AciServerDetails;
+import com.autonomy.aci.client.transport.ActionParameter;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart to {@link AciService}. No thread is held while a request is outstanding; the response is
+ * passed to the processor once it has been received in full. Errors, including {@link com.autonomy.aci.client.services.AciErrorException}
+ * thrown by the processor, complete the returned future exceptionally. Cancelling the future aborts the HTTP request.
+ */
+public interface AsyncAciService {
+    /**
+     * Executes an action against the configured server
+     *
+     * @param parameters The action parameters
+     * @param processor  Parses the response
+     * @param <T>        The type of the parsed response
+     * @return A future which completes with the parsed response
+     */
+    <T> CompletableFuture<T> executeAction(Set<? extends ActionParameter<?>> parameters, Processor<T> processor);
+
+    /**
+     * Executes an action against the given server
+     *
+     * @param serverDetails The server to send the action to
+     * @param parameters    The action parameters
+     * @param processor     Parses the response
+     * @param <T>           The type of the parsed response
+     * @return A future which completes with the parsed response
+     */
+    <T> CompletableFuture<T> executeAction(AciServerDetails serverDetails, Set<? extends ActionParameter<?>> parameters, Processor<T> processor);
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.httpclient;
+
+import com.autonomy.aci.client.services.AciServiceException;
+import com.autonomy.aci.client.services.Processor;
+import com.autonomy.aci.client.transport.AciResponseInputStream;
+import com.autonomy.aci.client.transport.AciServerDetails;
+import com.autonomy.aci.client.transport.ActionParameter;
+import com.autonomy.aci.client.transport.impl.AciResponseInputStreamImpl;
+import com.hp.autonomy.searchcomponents.core.deadline.Deadline;
+import com.hp.autonomy.searchcomponents.core.deadline.DeadlineContext;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.NameValuePair;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.entity.UrlEncodedFormEntity;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.message.BasicNameValuePair;
+import org.apache.http.nio.client.HttpAsyncClient;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * {@link AsyncAciService} on top of a non-blocking Apache HTTP client. Parameters are sent as a POST form; responses
+ * are buffered by the I/O reactor and parsed on the given executor so that the reactor threads are never blocked.
+ * Requests made under a {@link Deadline} are given no more than the remaining time, as {@link DeadlineRequestInterceptor}
+ * does for blocking clients.
+ */
+public class AsyncAciServiceImpl implements AsyncAciService {
+    private final HttpAsyncClient httpClient;
+    private final RequestConfig defaultRequestConfig;
+    private final Executor responseExecutor;
+    private final Supplier<AciServerDetails> serverDetailsSupplier;
+
+    /**
+     * @param httpClient            A started non-blocking client
+     * @param responseExecutor      Runs response processors
+     * @param serverDetailsSupplier Supplies the server to send actions to; called on each request so that config changes take effect
+     */
+    public AsyncAciServiceImpl(final HttpAsyncClient httpClient, final Executor responseExecutor, final Supplier<AciServerDetails> serverDetailsSupplier) {
+        this(httpClient, RequestConfig.DEFAULT, responseExecutor, serverDetailsSupplier);
+    }
+
+    /**
+     * @param httpClient            A started non-blocking client
+     * @param defaultRequestConfig  The client's default request settings, which requests made under a deadline start from
+     * @param responseExecutor      Runs response processors
+     * @param serverDetailsSupplier Supplies the server to send actions to; called on each request so that config changes take effect
+     */
+    public AsyncAciServiceImpl(final HttpAsyncClient httpClient, final RequestConfig defaultRequestConfig, final Executor responseExecutor, final Supplier<AciServerDetails> serverDetailsSupplier) {
+        this.httpClient = httpClient;
+        this.defaultRequestConfig = defaultRequestConfig;
+        this.responseExecutor = responseExecutor;
+        this.serverDetailsSupplier = serverDetailsSupplier;
+    }
+
+    @Override
+    public <T> CompletableFuture<T> executeAction(final Set<? extends ActionParameter<?>> parameters, final Processor<T> processor) {
+        return executeAction(serverDetailsSupplier, parameters, processor);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> executeAction(final AciServerDetails serverDetails, final Set<? extends ActionParameter<?>> parameters, final Processor<T> processor) {
+        return executeAction(() -> serverDetails, parameters, processor);
+    }
+
+    private <T> CompletableFuture<T> executeAction(final Supplier<AciServerDetails> serverDetails, final Set<? extends ActionParameter<?>> parameters, final Processor<T> processor) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+
+        final HttpPost request;
+        try {
+            DeadlineContext.checkDeadline();
+            request = createRequest(serverDetails.get(), parameters);
+        } catch (final RuntimeException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        final Future<HttpResponse> responseFuture = httpClient.execute(request, new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(final HttpResponse response) {
+                responseExecutor.execute(() -> processResponse(response, processor, result));
+            }
+
+            @Override
+            public void failed(final Exception e) {
+                result.completeExceptionally(new AciServiceException(e));
+            }
+
+            @Override
+            public void cancelled() {
+                result.cancel(false);
+            }
+        });
+
+        result.whenComplete((value, e) -> {
+            if (result.isCancelled()) {
+                responseFuture.cancel(true);
+            }
+        });
+
+        return result;
+    }
+
+    private HttpPost createRequest(final AciServerDetails serverDetails, final Set<? extends ActionParameter<?>> parameters) {
+        if (serverDetails == null) {
+            throw new IllegalStateException("No server is configured for this action");
+        }
+
+        final List<NameValuePair> formParameters = new ArrayList<>(parameters.size());
+        for (final ActionParameter<?> parameter : parameters) {
+            if (parameter.getValue() != null) {
+                formParameters.add(new BasicNameValuePair(parameter.getName(), String.valueOf(parameter.getValue())));
+            }
+        }
+
+        final HttpPost request = new HttpPost(serverDetails.getProtocol().name().toLowerCase() + "://" + serverDetails.getHost() + ':' + serverDetails.getPort() + '/');
+        request.setEntity(new UrlEncodedFormEntity(formParameters, Charset.forName(serverDetails.getCharsetName())));
+
+        final Deadline deadline = DeadlineContext.getDeadline();
+        if (deadline != null) {
+            // a zero timeout would mean no timeout at all
+            final int timeout = (int) Math.max(1, Math.min(deadline.getRemaining(TimeUnit.MILLISECONDS), Integer.MAX_VALUE));
+            // a request config replaces the client's default rather than adding to it
+            request.setConfig(RequestConfig.copy(defaultRequestConfig)
+                    .setConnectionRequestTimeout(DeadlineRequestInterceptor.limit(defaultRequestConfig.getConnectionRequestTimeout(), timeout))
+                    .setConnectTimeout(DeadlineRequestInterceptor.limit(defaultRequestConfig.getConnectTimeout(), timeout))
+                    .setSocketTimeout(DeadlineRequestInterceptor.limit(defaultRequestConfig.getSocketTimeout(), timeout))
+                    .build());
+        }
+
+        return request;
+    }
+
+    private <T> void processResponse(final HttpResponse response, final Processor<T> processor, final CompletableFuture<T> result) {
+        final int statusCode = response.getStatusLine().getStatusCode();
+        if (statusCode != HttpStatus.SC_OK) {
+            result.completeExceptionally(new AciServiceException("Server returned HTTP status " + statusCode));
+            return;
+        }
+
+        try (final AciResponseInputStream inputStream = new AciResponseInputStreamImpl(response)) {
+            result.complete(processor.process(inputStream));
+        } catch (final Exception e) {
+            result.completeExceptionally(e);
+        }
+    }
+}
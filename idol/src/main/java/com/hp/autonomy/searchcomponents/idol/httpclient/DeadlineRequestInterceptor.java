@@ -0,0 +1,52 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.httpclient;
+
+import com.hp.autonomy.searchcomponents.core.deadline.Deadline;
+import com.hp.autonomy.searchcomponents.core.deadline.DeadlineContext;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the connection and socket timeouts of a request to the time remaining before the current {@link Deadline}.
+ * Runs before the connection is leased, so the pool wait is limited too.
+ */
+class DeadlineRequestInterceptor implements HttpRequestInterceptor {
+    @Override
+    public void process(final HttpRequest request, final HttpContext context) throws IOException {
+        final Deadline deadline = DeadlineContext.getDeadline();
+        if (deadline == null) {
+            return;
+        }
+
+        final long remaining = deadline.getRemaining(TimeUnit.MILLISECONDS);
+        if (remaining <= 0) {
+            throw new SocketTimeoutException("The deadline for this request has passed");
+        }
+
+        final HttpClientContext clientContext = HttpClientContext.adapt(context);
+        final RequestConfig config = clientContext.getRequestConfig();
+        final int timeout = (int) Math.min(remaining, Integer.MAX_VALUE);
+
+        clientContext.setRequestConfig(RequestConfig.copy(config)
+                .setConnectionRequestTimeout(limit(config.getConnectionRequestTimeout(), timeout))
+                .setConnectTimeout(limit(config.getConnectTimeout(), timeout))
+                .setSocketTimeout(limit(config.getSocketTimeout(), timeout))
+                .build());
+    }
+
+    static int limit(final int configured, final int remaining) {
+        // zero or negative timeouts mean no timeout
+        return configured > 0 ? Math.min(configured, remaining) : remaining;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.httpclient;
+
+import com.autonomy.aci.client.transport.AciServerDetails;
+import com.hp.autonomy.searchcomponents.idol.configuration.HttpPoolConfig;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.pool.PoolStats;
+import org.springframework.beans.factory.annotation.Qualifier;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Creates pooled HTTP clients for Idol backends and tracks the utilisation of their pools
+ */
+public interface IdolHttpClientFactory {
+    /**
+     * The bean name of the default implementation.
+     * Use this in an {@link Qualifier} tag to access this implementation via autowiring.
+     */
+    String IDOL_HTTP_CLIENT_FACTORY_BEAN_NAME = "idolHttpClientFactory";
+
+    /**
+     * Creates an HTTP client with its own connection pool
+     *
+     * @param poolName      Name under which the pool's statistics are reported
+     * @param poolConfig    Pool settings (may be null, in which case defaults are used)
+     * @param serverDetails Supplies the backend to open connections to if the pool is to be pre-warmed
+     * @return the new client
+     */
+    HttpClient createHttpClient(String poolName, HttpPoolConfig poolConfig, Supplier<AciServerDetails> serverDetails);
+
+    /**
+     * Creates and starts a non-blocking HTTP client with its own connection pool. Connection TTL, idle eviction and
+     * pre-warming settings are not applied to non-blocking pools.
+     *
+     * @param poolName   Name under which the pool's statistics are reported
+     * @param poolConfig Pool settings (may be null, in which case defaults are used)
+     * @return the new client, already started
+     * @throws IOReactorException If the I/O reactor could not be created
+     */
+    CloseableHttpAsyncClient createAsyncHttpClient(String poolName, HttpPoolConfig poolConfig) throws IOReactorException;
+
+    /**
+     * The default request settings of a non-blocking client created with the given pool settings
+     *
+     * @param poolConfig Pool settings (may be null, in which case defaults are used)
+     * @return the request settings
+     */
+    RequestConfig createAsyncRequestConfig(HttpPoolConfig poolConfig);
+
+    /**
+     * Current leased, pending, available and maximum connection counts for each pool
+     *
+     * @return the statistics, keyed by pool name
+     */
+    Map<String, PoolStats> getPoolStatistics();
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.httpclient;
+
+import com.autonomy.aci.client.transport.AciServerDetails;
+import com.hp.autonomy.searchcomponents.idol.configuration.HttpPoolConfig;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.ObjectUtils;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.config.SocketConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.pool.ConnPoolControl;
+import org.apache.http.pool.PoolStats;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static com.hp.autonomy.searchcomponents.idol.httpclient.IdolHttpClientFactory.IDOL_HTTP_CLIENT_FACTORY_BEAN_NAME;
+
+/**
+ * Default implementation of {@link IdolHttpClientFactory}. Blocking pools configured with pre-warmed connections open
+ * them once the application is ready; failure to do so is logged and otherwise ignored.
+ */
+@Slf4j
+@Component(IDOL_HTTP_CLIENT_FACTORY_BEAN_NAME)
+@ManagedResource(description = "Utilisation of the Idol HTTP connection pools")
+class IdolHttpClientFactoryImpl implements IdolHttpClientFactory {
+    static final int DEFAULT_SOCKET_TIMEOUT = 90000;
+    static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 20;
+    static final int DEFAULT_MAX_CONNECTIONS = 120;
+
+    private final Map<String, Pool> pools = new ConcurrentHashMap<>();
+
+    @Override
+    public HttpClient createHttpClient(final String poolName, final HttpPoolConfig poolConfig, final Supplier<AciServerDetails> serverDetails) {
+        final HttpPoolConfig config = poolConfig != null ? poolConfig : HttpPoolConfig.builder().build();
+        final int socketTimeout = ObjectUtils.defaultIfNull(config.getSocketTimeout(), DEFAULT_SOCKET_TIMEOUT);
+
+        final PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(
+                ObjectUtils.defaultIfNull(config.getConnectionTimeToLive(), -1L),
+                TimeUnit.MILLISECONDS
+        );
+        connectionManager.setMaxTotal(ObjectUtils.defaultIfNull(config.getMaxConnections(), DEFAULT_MAX_CONNECTIONS));
+        connectionManager.setDefaultMaxPerRoute(ObjectUtils.defaultIfNull(config.getMaxConnectionsPerRoute(), DEFAULT_MAX_CONNECTIONS_PER_ROUTE));
+        connectionManager.setDefaultSocketConfig(SocketConfig.custom()
+                .setSoTimeout(socketTimeout)
+                .build());
+
+        final RequestConfig.Builder requestConfig = RequestConfig.custom()
+                .setSocketTimeout(socketTimeout);
+        if (config.getConnectTimeout() != null) {
+            requestConfig.setConnectTimeout(config.getConnectTimeout());
+        }
+
+        final HttpClientBuilder builder = HttpClientBuilder.create()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig.build())
+                .setKeepAliveStrategy(createKeepAliveStrategy(config.getKeepAliveTime()))
+                .addInterceptorLast(new DeadlineRequestInterceptor());
+
+        if (config.getIdleConnectionEvictionTime() != null) {
+            builder.evictExpiredConnections()
+                    .evictIdleConnections(config.getIdleConnectionEvictionTime(), TimeUnit.MILLISECONDS);
+        } else if (config.getConnectionTimeToLive() != null) {
+            builder.evictExpiredConnections();
+        }
+
+        pools.put(poolName, new Pool(connectionManager, config, serverDetails));
+
+        return builder.build();
+    }
+
+    @Override
+    public CloseableHttpAsyncClient createAsyncHttpClient(final String poolName, final HttpPoolConfig poolConfig) throws IOReactorException {
+        final HttpPoolConfig config = poolConfig != null ? poolConfig : HttpPoolConfig.builder().build();
+        final int socketTimeout = ObjectUtils.defaultIfNull(config.getSocketTimeout(), DEFAULT_SOCKET_TIMEOUT);
+        final int connectTimeout = ObjectUtils.defaultIfNull(config.getConnectTimeout(), 0);
+
+        final PoolingNHttpClientConnectionManager connectionManager = new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(IOReactorConfig.custom()
+                .setSoTimeout(socketTimeout)
+                .setConnectTimeout(connectTimeout)
+                .build()));
+        connectionManager.setMaxTotal(ObjectUtils.defaultIfNull(config.getMaxConnections(), DEFAULT_MAX_CONNECTIONS));
+        connectionManager.setDefaultMaxPerRoute(ObjectUtils.defaultIfNull(config.getMaxConnectionsPerRoute(), DEFAULT_MAX_CONNECTIONS_PER_ROUTE));
+
+        final CloseableHttpAsyncClient httpClient = HttpAsyncClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(createAsyncRequestConfig(config))
+                .setKeepAliveStrategy(createKeepAliveStrategy(config.getKeepAliveTime()))
+                .build();
+
+        pools.put(poolName, new Pool(connectionManager, config, () -> null));
+
+        httpClient.start();
+        return httpClient;
+    }
+
+    @Override
+    public RequestConfig createAsyncRequestConfig(final HttpPoolConfig poolConfig) {
+        final HttpPoolConfig config = poolConfig != null ? poolConfig : HttpPoolConfig.builder().build();
+        return RequestConfig.custom()
+                .setSocketTimeout(ObjectUtils.defaultIfNull(config.getSocketTimeout(), DEFAULT_SOCKET_TIMEOUT))
+                .setConnectTimeout(ObjectUtils.defaultIfNull(config.getConnectTimeout(), 0))
+                .build();
+    }
+
+    @Override
+    public Map<String, PoolStats> getPoolStatistics() {
+        final Map<String, PoolStats> statistics = new LinkedHashMap<>();
+        for (final Map.Entry<String, Pool> entry : pools.entrySet()) {
+            statistics.put(entry.getKey(), entry.getValue().getConnectionPool().getTotalStats());
+        }
+
+        return statistics;
+    }
+
+    @ManagedAttribute(description = "Names of the connection pools")
+    public Collection<String> getPoolNames() {
+        return new TreeSet<>(pools.keySet());
+    }
+
+    @ManagedOperation(description = "Leased, pending, available and maximum connections for the named pool")
+    public Map<String, Integer> summarise(final String poolName) {
+        final Pool pool = pools.get(poolName);
+        final Map<String, Integer> summary = new LinkedHashMap<>();
+
+        if (pool != null) {
+            final PoolStats stats = pool.getConnectionPool().getTotalStats();
+            summary.put("leased", stats.getLeased());
+            summary.put("pending", stats.getPending());
+            summary.put("available", stats.getAvailable());
+            summary.put("max", stats.getMax());
+        }
+
+        return summary;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void preWarm() {
+        for (final Map.Entry<String, Pool> entry : pools.entrySet()) {
+            final Integer connections = entry.getValue().getConfig().getPreWarmConnections();
+            if (connections != null && connections > 0) {
+                try {
+                    final int opened = preWarm(entry.getValue(), connections);
+                    log.info("Opened {} connections for HTTP pool {}", opened, entry.getKey());
+                } catch (final Exception e) {
+                    log.warn("Failed to pre-warm HTTP pool " + entry.getKey(), e);
+                }
+            }
+        }
+    }
+
+    private int preWarm(final Pool pool, final int connections) throws Exception {
+        final AciServerDetails serverDetails = pool.getServerDetails().get();
+        if (serverDetails == null || !(pool.getConnectionPool() instanceof PoolingHttpClientConnectionManager)) {
+            return 0;
+        }
+
+        final String scheme = serverDetails.getProtocol().name().toLowerCase();
+        final HttpRoute route = new HttpRoute(new HttpHost(serverDetails.getHost(), serverDetails.getPort(), scheme), null, "https".equals(scheme));
+        final PoolingHttpClientConnectionManager connectionManager = (PoolingHttpClientConnectionManager) pool.getConnectionPool();
+        final int connectTimeout = ObjectUtils.defaultIfNull(pool.getConfig().getConnectTimeout(), 0);
+        final long keepAliveTime = ObjectUtils.defaultIfNull(pool.getConfig().getKeepAliveTime(), 0L);
+
+        // never ask for more connections than the route allows, or the request would block
+        final int routeConnections = Math.min(connections, connectionManager.getDefaultMaxPerRoute());
+
+        final List<HttpClientConnection> opened = new ArrayList<>();
+        try {
+            for (int i = 0; i < routeConnections; i++) {
+                final HttpClientConnection connection = connectionManager.requestConnection(route, null).get(connectTimeout, TimeUnit.MILLISECONDS);
+                opened.add(connection);
+
+                if (!connection.isOpen()) {
+                    final HttpClientContext context = HttpClientContext.create();
+                    connectionManager.connect(connection, route, connectTimeout, context);
+                    connectionManager.routeComplete(connection, route, context);
+                }
+            }
+        } finally {
+            for (final HttpClientConnection connection : opened) {
+                connectionManager.releaseConnection(connection, null, keepAliveTime, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        return routeConnections;
+    }
+
+    private ConnectionKeepAliveStrategy createKeepAliveStrategy(final Long keepAliveTime) {
+        if (keepAliveTime == null) {
+            return DefaultConnectionKeepAliveStrategy.INSTANCE;
+        }
+
+        // honour a shorter keep-alive advertised by the server, otherwise use the configured value
+        return (response, context) -> {
+            final long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return serverKeepAlive > 0 ? Math.min(serverKeepAlive, keepAliveTime) : keepAliveTime;
+        };
+    }
+
+    @Data
+    private static class Pool {
+        private final ConnPoolControl<HttpRoute> connectionPool;
+        private final HttpPoolConfig config;
+        private final Supplier<AciServerDetails> serverDetails;
+    }
+}
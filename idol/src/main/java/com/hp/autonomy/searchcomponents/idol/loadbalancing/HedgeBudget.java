@@ -0,0 +1,29 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.loadbalancing;
+
+/**
+ * Token bucket limiting duplicate requests to a percentage of all requests. Each request earns a fraction of a token
+ * and each duplicate spends a whole one, so a burst of slow responses cannot multiply the load on the backend.
+ */
+class HedgeBudget {
+    private static final double MAXIMUM_TOKENS = 10;
+
+    private double tokens;
+
+    synchronized void onRequest(final double budgetPercent) {
+        tokens = Math.min(MAXIMUM_TOKENS, tokens + budgetPercent / 100);
+    }
+
+    synchronized boolean tryAcquire() {
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.loadbalancing;
+
+import java.util.Arrays;
+
+/**
+ * Keeps a window of recent request latencies so that percentiles can be estimated
+ */
+class LatencyTracker {
+    private static final int WINDOW_SIZE = 1024;
+    // percentiles are recalculated after this many new samples, rather than on every request
+    private static final int RECALCULATION_INTERVAL = 64;
+    private static final int MINIMUM_SAMPLES = 20;
+
+    private final long[] samples = new long[WINDOW_SIZE];
+    private long count;
+    private long[] sorted;
+
+    synchronized void record(final long latencyNanos) {
+        samples[(int) (count % WINDOW_SIZE)] = latencyNanos;
+        count++;
+
+        if (count % RECALCULATION_INTERVAL == 0 || count == MINIMUM_SAMPLES) {
+            sorted = null;
+        }
+    }
+
+    synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * @param percentile Between 0 and 100
+     * @return The latency in nanoseconds, or -1 if too few requests have been seen to estimate it
+     */
+    synchronized long getPercentile(final double percentile) {
+        if (count < MINIMUM_SAMPLES) {
+            return -1;
+        }
+
+        if (sorted == null) {
+            sorted = Arrays.copyOf(samples, (int) Math.min(count, WINDOW_SIZE));
+            Arrays.sort(sorted);
+        }
+
+        final int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
@@ -0,0 +1,473 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.loadbalancing;
+
+import com.autonomy.aci.client.services.AciErrorException;
+import com.autonomy.aci.client.services.AciService;
+import com.autonomy.aci.client.services.AciServiceException;
+import com.autonomy.aci.client.services.Processor;
+import com.autonomy.aci.client.transport.AciServerDetails;
+import com.autonomy.aci.client.transport.ActionParameter;
+import com.autonomy.aci.client.util.AciParameters;
+import com.hp.autonomy.frontend.configuration.server.ServerConfig;
+import com.hp.autonomy.searchcomponents.idol.configuration.HedgingConfig;
+import com.hp.autonomy.searchcomponents.idol.configuration.LoadBalancingConfig;
+import com.hp.autonomy.searchcomponents.idol.httpclient.AsyncAciService;
+import com.hp.autonomy.types.idol.marshalling.processors.CopyResponseProcessor;
+import com.hp.autonomy.types.requests.idol.actions.query.QueryActions;
+import com.hp.autonomy.types.requests.idol.actions.status.StatusActions;
+import com.hp.autonomy.types.requests.idol.actions.tags.TagActions;
+import com.hp.autonomy.types.requests.idol.actions.term.TermActions;
+import com.hp.autonomy.types.requests.qms.actions.typeahead.TypeAheadActions;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.BooleanUtils;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * {@link AciService} which spreads requests across replicated servers. Each request goes to the better of two randomly
+ * chosen healthy replicas, judged by requests in flight and a moving average of latency. Replicas which fail to respond
+ * several times in a row are taken out of service and checked with GetStatus in the background until they recover.
+ * <p>
+ * If hedging is enabled, read actions which have not been answered by a percentile of their recent latency are sent
+ * again to a second replica and whichever response arrives first is used. The number of duplicates is capped by a
+ * budget. Hedged actions are sent with the non-blocking client so that no thread is held per request and the slower
+ * request can be aborted once the other has been answered; all other actions run on the calling thread. The
+ * non-blocking client cannot encrypt requests, so actions for servers which use encryption are never hedged.
+ * <p>
+ * Requests made through {@link #getAsyncAciService()} are spread across the same replicas and count towards their
+ * health, but are not hedged.
+ * <p>
+ * When load balancing is not enabled in the configuration, requests go to the server details supplied by the caller.
+ */
+@Slf4j
+@ManagedResource(description = "Replica selection and health")
+public class LoadBalancingAciService implements AciService, Closeable {
+    private static final long PROBE_TICK_MILLIS = 1000L;
+    private static final String ACTION_PARAMETER = "action";
+    // idempotent reads which are safe to send twice
+    private static final Set<String> HEDGEABLE_ACTIONS = Stream.of(
+            QueryActions.Query.name(),
+            TagActions.GetQueryTagValues.name(),
+            QueryActions.GetContent.name(),
+            TermActions.TermExpand.name(),
+            TypeAheadActions.TypeAhead.name()
+    ).map(action -> action.toLowerCase(Locale.ENGLISH)).collect(Collectors.toSet());
+
+    private final AciService delegate;
+    private final AsyncAciService asyncDelegate;
+    private final AsyncAciService asyncAciService = new AsyncLoadBalancingAciService();
+    private final Supplier<LoadBalancingConfig> configSupplier;
+    private final ScheduledFuture<?> probeTask;
+    private final ConcurrentMap<String, LatencyTracker> latencyTrackers = new ConcurrentHashMap<>();
+    private final HedgeBudget hedgeBudget = new HedgeBudget();
+    private final AtomicLong hedgedRequests = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+    private final AtomicLong hedgesOverBudget = new AtomicLong();
+
+    private volatile LoadBalancingConfig currentConfig;
+    private volatile List<Replica> replicas = Collections.emptyList();
+
+    /**
+     * @param delegate       Performs requests against a given replica
+     * @param asyncDelegate  Performs hedged and non-blocking requests against a given replica
+     * @param configSupplier Supplies the current load balancing configuration (may supply null)
+     * @param taskScheduler  Runs the background health checks
+     */
+    public LoadBalancingAciService(final AciService delegate, final AsyncAciService asyncDelegate, final Supplier<LoadBalancingConfig> configSupplier, final TaskScheduler taskScheduler) {
+        this.delegate = delegate;
+        this.asyncDelegate = asyncDelegate;
+        this.configSupplier = configSupplier;
+
+        probeTask = taskScheduler.scheduleWithFixedDelay(this::probeReplicas, new Date(System.currentTimeMillis() + PROBE_TICK_MILLIS), PROBE_TICK_MILLIS);
+    }
+
+    @Override
+    public <T> T executeAction(final Set<? extends ActionParameter<?>> parameters, final Processor<T> processor) {
+        return executeAction(null, parameters, processor);
+    }
+
+    @Override
+    public <T> T executeAction(final AciServerDetails serverDetails, final Set<? extends ActionParameter<?>> parameters, final Processor<T> processor) {
+        final LoadBalancingConfig config = configSupplier.get();
+        if (config == null || !BooleanUtils.isTrue(config.getEnabled())) {
+            return delegate.executeAction(serverDetails, parameters, processor);
+        }
+
+        final List<Replica> currentReplicas = getReplicas(config);
+        final HedgingConfig hedging = config.getHedging();
+        final String action = hedging != null && BooleanUtils.isTrue(hedging.getEnabled()) && currentReplicas.size() > 1 && !isEncrypted(serverDetails, currentReplicas)
+                ? getHedgeableAction(parameters, processor)
+                : null;
+
+        return action == null
+                ? executeAction(chooseReplica(currentReplicas, null), config, parameters, processor)
+                : executeHedged(currentReplicas, config, hedging, action, parameters, processor);
+    }
+
+    /**
+     * @return Non-blocking access to the replicas
+     */
+    public AsyncAciService getAsyncAciService() {
+        return asyncAciService;
+    }
+
+    /**
+     * Chooses a replica to send a request to by comparing two random candidates
+     *
+     * @param exclude A replica which must not be chosen if any other is available (may be null)
+     * @return The chosen replica, or null if load balancing is not enabled
+     */
+    Replica chooseReplica(final Replica exclude) {
+        final LoadBalancingConfig config = configSupplier.get();
+        return config != null && BooleanUtils.isTrue(config.getEnabled()) ? chooseReplica(getReplicas(config), exclude) : null;
+    }
+
+    private <T> T executeAction(final Replica replica, final LoadBalancingConfig config, final Set<? extends ActionParameter<?>> parameters, final Processor<T> processor) {
+        replica.getInFlight().incrementAndGet();
+        final long start = System.nanoTime();
+
+        try {
+            final T result = delegate.executeAction(replica.getServerDetails(), parameters, processor);
+            replica.recordSuccess(System.nanoTime() - start);
+            return result;
+        } catch (final AciErrorException e) {
+            // the replica answered, so it is healthy even though the action failed
+            replica.recordSuccess(System.nanoTime() - start);
+            throw e;
+        } catch (final AciServiceException e) {
+            recordFailure(replica, config);
+            throw e;
+        } finally {
+            replica.getInFlight().decrementAndGet();
+        }
+    }
+
+    private <T> CompletableFuture<T> executeAsync(
+            final Replica replica,
+            final LoadBalancingConfig config,
+            final LatencyTracker latencyTracker,
+            final Set<? extends ActionParameter<?>> parameters,
+            final Processor<T> processor
+    ) {
+        replica.getInFlight().incrementAndGet();
+        final long start = System.nanoTime();
+
+        final CompletableFuture<T> future = asyncDelegate.executeAction(replica.getServerDetails(), parameters, processor);
+        future.whenComplete((result, e) -> {
+            replica.getInFlight().decrementAndGet();
+            final long duration = System.nanoTime() - start;
+
+            // an aborted request tells us nothing about the replica
+            if (e == null) {
+                replica.recordSuccess(duration);
+                if (latencyTracker != null) {
+                    latencyTracker.record(duration);
+                }
+            } else if (e instanceof CancellationException) {
+                // the losing request of a hedged pair would have taken at least this long; leaving it out would make
+                // the percentile, and so the hedge delay, too low
+                if (latencyTracker != null) {
+                    latencyTracker.record(duration);
+                }
+            } else if (e instanceof AciErrorException) {
+                replica.recordSuccess(duration);
+            } else if (e instanceof AciServiceException) {
+                recordFailure(replica, config);
+            }
+        });
+
+        return future;
+    }
+
+    private void recordFailure(final Replica replica, final LoadBalancingConfig config) {
+        if (replica.recordFailure(config.getEjectionThresholdOrDefault())) {
+            log.warn("Taking replica {} out of service after repeated failures", replica.getName());
+            replica.setNextProbeTime(System.currentTimeMillis() + config.getProbeIntervalOrDefault());
+        }
+    }
+
+    @ManagedAttribute(description = "Number of duplicate requests sent to a second replica")
+    public long getHedgedRequests() {
+        return hedgedRequests.get();
+    }
+
+    @ManagedAttribute(description = "Number of duplicate requests which were answered before the original")
+    public long getHedgeWins() {
+        return hedgeWins.get();
+    }
+
+    @ManagedAttribute(description = "Number of slow requests which were not duplicated because the hedging budget was spent")
+    public long getHedgesOverBudget() {
+        return hedgesOverBudget.get();
+    }
+
+    @ManagedAttribute(description = "Health, requests in flight and average latency (ms) of each replica")
+    public Map<String, String> getReplicaStatus() {
+        final Map<String, String> status = new LinkedHashMap<>();
+        for (final Replica replica : replicas) {
+            status.put(replica.getName(), String.format("%s, %d in flight, %.1f ms",
+                    replica.isHealthy() ? "healthy" : "out of service",
+                    replica.getInFlight().get(),
+                    replica.getLatencyEwma() / 1e6));
+        }
+
+        return status;
+    }
+
+    @Override
+    public void close() {
+        probeTask.cancel(false);
+    }
+
+    /**
+     * @param action The lower case action name
+     * @return The number of latencies recorded for hedging the action
+     */
+    long getLatencySampleCount(final String action) {
+        final LatencyTracker latencyTracker = latencyTrackers.get(action);
+        return latencyTracker != null ? latencyTracker.getCount() : 0;
+    }
+
+    void probeReplicas() {
+        final LoadBalancingConfig config = currentConfig;
+        if (config == null) {
+            return;
+        }
+
+        final long now = System.currentTimeMillis();
+        for (final Replica replica : replicas) {
+            if (!replica.isHealthy() && replica.getNextProbeTime() <= now) {
+                probe(replica, config);
+            }
+        }
+    }
+
+    private void probe(final Replica replica, final LoadBalancingConfig config) {
+        final long start = System.nanoTime();
+
+        try {
+            delegate.executeAction(replica.getServerDetails(), new AciParameters(StatusActions.GetStatus.name()), new CopyResponseProcessor(new ByteArrayOutputStream()));
+            replica.restore(System.nanoTime() - start);
+            log.info("Replica {} is back in service", replica.getName());
+        } catch (final RuntimeException e) {
+            log.debug("Replica {} is still unavailable", replica.getName(), e);
+            replica.setNextProbeTime(System.currentTimeMillis() + config.getProbeIntervalOrDefault());
+        }
+    }
+
+    private <T> T executeHedged(
+            final List<Replica> currentReplicas,
+            final LoadBalancingConfig config,
+            final HedgingConfig hedging,
+            final String action,
+            final Set<? extends ActionParameter<?>> parameters,
+            final Processor<T> processor
+    ) {
+        final LatencyTracker latencyTracker = latencyTrackers.computeIfAbsent(action, key -> new LatencyTracker());
+        final long hedgeDelay = latencyTracker.getPercentile(hedging.getPercentileOrDefault());
+        hedgeBudget.onRequest(hedging.getBudgetPercentOrDefault());
+
+        final Replica primary = chooseReplica(currentReplicas, null);
+        if (hedgeDelay < 0) {
+            // too few requests have been seen to know when to hedge
+            final long start = System.nanoTime();
+            final T result = executeAction(primary, config, parameters, processor);
+            latencyTracker.record(System.nanoTime() - start);
+            return result;
+        }
+
+        final CompletableFuture<T> primaryFuture = executeAsync(primary, config, latencyTracker, parameters, processor);
+
+        try {
+            try {
+                return primaryFuture.get(hedgeDelay, TimeUnit.NANOSECONDS);
+            } catch (final TimeoutException ignored) {
+                // the primary is slow; fall through to hedging
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AciServiceException(e);
+            } catch (final ExecutionException e) {
+                // rethrows the failure
+                return await(primaryFuture);
+            }
+
+            if (!hedgeBudget.tryAcquire()) {
+                hedgesOverBudget.incrementAndGet();
+                return await(primaryFuture);
+            }
+
+            final Replica secondary = chooseReplica(currentReplicas, primary);
+            if (secondary == primary) {
+                return await(primaryFuture);
+            }
+
+            hedgedRequests.incrementAndGet();
+            final CompletableFuture<T> hedgeFuture = executeAsync(secondary, config, latencyTracker, parameters, processor);
+
+            // the first successful response wins; only fail if both requests fail
+            final CompletableFuture<T> first = new CompletableFuture<>();
+            final AtomicInteger failures = new AtomicInteger();
+
+            primaryFuture.whenComplete((result, e) -> complete(first, result, e, failures));
+            hedgeFuture.whenComplete((result, e) -> {
+                if (complete(first, result, e, failures)) {
+                    hedgeWins.incrementAndGet();
+                }
+            });
+
+            try {
+                return await(first);
+            } finally {
+                // aborts whichever request is still outstanding
+                hedgeFuture.cancel(true);
+            }
+        } finally {
+            primaryFuture.cancel(true);
+        }
+    }
+
+    private <T> boolean complete(final CompletableFuture<T> first, final T result, final Throwable e, final AtomicInteger failures) {
+        if (e == null) {
+            return first.complete(result);
+        }
+
+        if (failures.incrementAndGet() == 2) {
+            first.completeExceptionally(e);
+        }
+
+        return false;
+    }
+
+    private <T> T await(final CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AciServiceException(e);
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new AciServiceException(cause);
+        }
+    }
+
+    private boolean isEncrypted(final AciServerDetails serverDetails, final List<Replica> currentReplicas) {
+        return serverDetails != null && serverDetails.getEncryptionCodec() != null
+                || currentReplicas.stream().anyMatch(replica -> replica.getServerDetails().getEncryptionCodec() != null);
+    }
+
+    private String getHedgeableAction(final Set<? extends ActionParameter<?>> parameters, final Processor<?> processor) {
+        // responses copied to a caller's stream cannot be written twice
+        if (processor instanceof CopyResponseProcessor) {
+            return null;
+        }
+
+        for (final ActionParameter<?> parameter : parameters) {
+            if (ACTION_PARAMETER.equalsIgnoreCase(parameter.getName())) {
+                final String action = String.valueOf(parameter.getValue()).toLowerCase(Locale.ENGLISH);
+                return HEDGEABLE_ACTIONS.contains(action) ? action : null;
+            }
+        }
+
+        return null;
+    }
+
+    private Replica chooseReplica(final List<Replica> allReplicas, final Replica exclude) {
+        List<Replica> candidates = allReplicas.stream()
+                .filter(replica -> replica.isHealthy() && replica != exclude)
+                .collect(Collectors.toList());
+
+        if (candidates.isEmpty()) {
+            // better to try a replica which may have recovered than to fail outright
+            candidates = allReplicas.stream()
+                    .filter(replica -> replica != exclude)
+                    .collect(Collectors.toList());
+
+            if (candidates.isEmpty()) {
+                candidates = allReplicas;
+            }
+        }
+
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final int first = random.nextInt(candidates.size());
+        final int second = (first + 1 + random.nextInt(candidates.size() - 1)) % candidates.size();
+
+        final Replica firstReplica = candidates.get(first);
+        final Replica secondReplica = candidates.get(second);
+        return firstReplica.getScore() <= secondReplica.getScore() ? firstReplica : secondReplica;
+    }
+
+    private List<Replica> getReplicas(final LoadBalancingConfig config) {
+        if (config != currentConfig) {
+            synchronized (this) {
+                if (config != currentConfig) {
+                    // keep the state of replicas which are still configured
+                    final Map<String, Replica> existing = replicas.stream().collect(Collectors.toMap(Replica::getName, replica -> replica));
+                    final List<Replica> updated = new ArrayList<>(config.getReplicas().size());
+
+                    for (final ServerConfig serverConfig : config.getReplicas()) {
+                        final Replica replica = new Replica(serverConfig.toAciServerDetails());
+                        updated.add(existing.getOrDefault(replica.getName(), replica));
+                    }
+
+                    replicas = Collections.unmodifiableList(updated);
+                    currentConfig = config;
+                }
+            }
+        }
+
+        return replicas;
+    }
+
+    private class AsyncLoadBalancingAciService implements AsyncAciService {
+        @Override
+        public <T> CompletableFuture<T> executeAction(final Set<? extends ActionParameter<?>> parameters, final Processor<T> processor) {
+            final LoadBalancingConfig config = configSupplier.get();
+            return config == null || !BooleanUtils.isTrue(config.getEnabled())
+                    ? asyncDelegate.executeAction(parameters, processor)
+                    : executeAsync(chooseReplica(getReplicas(config), null), config, null, parameters, processor);
+        }
+
+        @Override
+        public <T> CompletableFuture<T> executeAction(final AciServerDetails serverDetails, final Set<? extends ActionParameter<?>> parameters, final Processor<T> processor) {
+            final LoadBalancingConfig config = configSupplier.get();
+            return config == null || !BooleanUtils.isTrue(config.getEnabled())
+                    ? asyncDelegate.executeAction(serverDetails, parameters, processor)
+                    : executeAsync(chooseReplica(getReplicas(config), null), config, null, parameters, processor);
+        }
+    }
+}
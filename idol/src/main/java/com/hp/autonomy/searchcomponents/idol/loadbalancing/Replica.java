@@ -0,0 +1,68 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.loadbalancing;
+
+import com.autonomy.aci.client.transport.AciServerDetails;
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load and health state of a single replicated server
+ */
+@Getter
+class Replica {
+    // weight given to the latest sample in the moving average
+    private static final double EWMA_ALPHA = 0.3;
+
+    private final String name;
+    private final AciServerDetails serverDetails;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    private volatile double latencyEwma;
+    private volatile boolean healthy = true;
+    private volatile long nextProbeTime;
+
+    Replica(final AciServerDetails serverDetails) {
+        this.serverDetails = serverDetails;
+        name = serverDetails.getHost() + ':' + serverDetails.getPort();
+    }
+
+    /**
+     * Lower is better: expected wait for a new request given the current queue and recent latency
+     */
+    double getScore() {
+        return (inFlight.get() + 1) * Math.max(latencyEwma, 1.0);
+    }
+
+    void recordSuccess(final long latencyNanos) {
+        latencyEwma = latencyEwma == 0 ? latencyNanos : EWMA_ALPHA * latencyNanos + (1 - EWMA_ALPHA) * latencyEwma;
+        consecutiveFailures.set(0);
+    }
+
+    /**
+     * @return true if this failure took the replica out of service
+     */
+    boolean recordFailure(final int ejectionThreshold) {
+        if (consecutiveFailures.incrementAndGet() >= ejectionThreshold && healthy) {
+            healthy = false;
+            return true;
+        }
+
+        return false;
+    }
+
+    void restore(final long latencyNanos) {
+        latencyEwma = latencyNanos;
+        consecutiveFailures.set(0);
+        healthy = true;
+    }
+
+    void setNextProbeTime(final long nextProbeTime) {
+        this.nextProbeTime = nextProbeTime;
+    }
+}
@@ -8,9 +8,22 @@ package com.hp.autonomy.searchcomponents.idol.parametricvalues;
 import com.autonomy.aci.client.services.AciErrorException;
 import com.hp.autonomy.searchcomponents.core.parametricvalues.ParametricValuesService;
 import com.hp.autonomy.searchcomponents.idol.search.IdolQueryRestrictions;
+import com.hp.autonomy.types.requests.idol.actions.tags.QueryTagInfo;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Idol extension to {@link ParametricValuesService}
  */
 public interface IdolParametricValuesService extends ParametricValuesService<IdolParametricRequest, IdolQueryRestrictions, AciErrorException> {
+    /**
+     * Non-blocking equivalent of {@link #getAllParametricValues}. If no field names are specified, the parametric field
+     * names are looked up (and usually cached) before the GetQueryTagValues request is sent.
+     *
+     * @param parametricRequest the request parameters
+     * @return A future which completes with the parametric values, or with an {@link AciErrorException} in the event of
+     * the Idol's returning an error response
+     */
+    CompletableFuture<Set<QueryTagInfo>> getAllParametricValuesAsync(IdolParametricRequest parametricRequest);
 }
@@ -20,6 +20,7 @@ import com.hp.autonomy.searchcomponents.core.search.QueryRequest;
 import com.hp.autonomy.searchcomponents.idol.configuration.AciServiceRetriever;
 import com.hp.autonomy.searchcomponents.idol.fields.IdolFieldsRequestBuilder;
 import com.hp.autonomy.searchcomponents.idol.fields.IdolFieldsService;
+import com.hp.autonomy.searchcomponents.idol.search.AciParameterTemplate;
 import com.hp.autonomy.searchcomponents.idol.search.HavenSearchAciParameterHandler;
 import com.hp.autonomy.searchcomponents.idol.search.IdolQueryRestrictions;
 import com.hp.autonomy.types.idol.marshalling.ProcessorFactory;
@@ -56,6 +57,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import static com.hp.autonomy.searchcomponents.core.parametricvalues.ParametricValuesService.PARAMETRIC_VALUES_SERVICE_BEAN_NAME;
@@ -72,6 +74,22 @@ class IdolParametricValuesServiceImpl implements IdolParametricValuesService {
     static final String VALUE_AVERAGE_NODE_NAME = "valueaverage";
     static final String VALUE_SUM_NODE_NAME = "valuesum";
 
+    private static final AciParameterTemplate DEPENDENT_VALUES_PARAMETERS = AciParameterTemplate.of(parameters -> {
+        parameters.add(GetQueryTagValuesParams.DocumentCount.name(), true);
+        parameters.add(GetQueryTagValuesParams.FieldDependence.name(), true);
+        parameters.add(GetQueryTagValuesParams.FieldDependenceMultiLevel.name(), true);
+    });
+
+    private static final AciParameterTemplate VALUE_DETAILS_PARAMETERS = AciParameterTemplate.of(parameters -> {
+        parameters.add(GetQueryTagValuesParams.MaxValues.name(), 1);
+        parameters.add(GetQueryTagValuesParams.ValueDetails.name(), true);
+    });
+
+    private static final AciParameterTemplate FLAT_FIELDS_PARAMETERS = AciParameterTemplate.of(parameters -> {
+        parameters.add(GetQueryTagValuesParams.DocumentCount.name(), true);
+        parameters.add(GetQueryTagValuesParams.ValueDetails.name(), true);
+    });
+
     private final HavenSearchAciParameterHandler parameterHandler;
     private final IdolFieldsService fieldsService;
     private final ObjectFactory<IdolFieldsRequestBuilder> fieldsRequestBuilderFactory;
@@ -99,33 +117,21 @@ class IdolParametricValuesServiceImpl implements IdolParametricValuesService {
 
     @Override
     public Set<QueryTagInfo> getAllParametricValues(final IdolParametricRequest parametricRequest) throws AciErrorException {
-        final Collection<String> fieldNames = new HashSet<>();
-        fieldNames.addAll(parametricRequest.getFieldNames());
-        if (fieldNames.isEmpty()) {
-            fieldNames.addAll(lookupFieldIds());
-        }
+        final Collection<String> fieldNames = getFieldNames(parametricRequest);
 
-        final Set<QueryTagInfo> results;
+        return fieldNames.isEmpty() ? Collections.emptySet() : toQueryTagInfo(getFlatFields(parametricRequest, fieldNames));
+    }
+
+    @Override
+    public CompletableFuture<Set<QueryTagInfo>> getAllParametricValuesAsync(final IdolParametricRequest parametricRequest) {
+        final Collection<String> fieldNames = getFieldNames(parametricRequest);
         if (fieldNames.isEmpty()) {
-            results = Collections.emptySet();
-        } else {
-            final List<FlatField> fields = getFlatFields(parametricRequest, fieldNames);
-            results = new LinkedHashSet<>(fields.size());
-            for (final FlatField field : fields) {
-                final List<JAXBElement<? extends Serializable>> valueElements = field.getValueAndSubvalueOrValues();
-                final LinkedHashSet<QueryTagCountInfo> values = new LinkedHashSet<>(valueElements.size());
-                valueElements.stream().filter(element -> VALUE_NODE_NAME.equals(element.getName().getLocalPart())).forEach(element -> {
-                    final TagValue tagValue = (TagValue) element.getValue();
-                    values.add(new QueryTagCountInfo(tagValue.getValue(), tagValue.getCount()));
-                });
-                if (!values.isEmpty()) {
-                    final TagName tagName = new TagName(field.getName().get(0));
-                    results.add(new QueryTagInfo(tagName, values));
-                }
-            }
+            return CompletableFuture.completedFuture(Collections.emptySet());
         }
 
-        return results;
+        return aciServiceRetriever.getAsyncAciService(getQueryType(parametricRequest))
+                .executeAction(createFlatFieldsParameters(parametricRequest, fieldNames), queryTagValuesResponseProcessor)
+                .thenApply(responseData -> toQueryTagInfo(responseData.getField()));
     }
 
     @Override
@@ -161,10 +167,8 @@ class IdolParametricValuesServiceImpl implements IdolParametricValuesService {
             final AciParameters aciParameters = createAciParameters(parametricRequest.getQueryRestrictions(), parametricRequest.isModified());
 
             parameterHandler.addSecurityInfo(aciParameters);
-            aciParameters.add(GetQueryTagValuesParams.DocumentCount.name(), true);
             aciParameters.add(GetQueryTagValuesParams.FieldName.name(), StringUtils.join(fieldNames.toArray(), ','));
-            aciParameters.add(GetQueryTagValuesParams.FieldDependence.name(), true);
-            aciParameters.add(GetQueryTagValuesParams.FieldDependenceMultiLevel.name(), true);
+            DEPENDENT_VALUES_PARAMETERS.applyTo(aciParameters);
 
 
             final GetQueryTagValuesResponseData responseData = executeAction(parametricRequest, aciParameters);
@@ -183,9 +187,8 @@ class IdolParametricValuesServiceImpl implements IdolParametricValuesService {
             final AciParameters aciParameters = createAciParameters(parametricRequest.getQueryRestrictions(), parametricRequest.isModified());
 
             parameterHandler.addSecurityInfo(aciParameters);
-            aciParameters.add(GetQueryTagValuesParams.MaxValues.name(), 1);
             aciParameters.add(GetQueryTagValuesParams.FieldName.name(), StringUtils.join(parametricRequest.getFieldNames(), ','));
-            aciParameters.add(GetQueryTagValuesParams.ValueDetails.name(), true);
+            VALUE_DETAILS_PARAMETERS.applyTo(aciParameters);
 
             final GetQueryTagValuesResponseData responseData = executeAction(parametricRequest, aciParameters);
             final Collection<FlatField> fields = responseData.getField();
@@ -220,6 +223,34 @@ class IdolParametricValuesServiceImpl implements IdolParametricValuesService {
         }
     }
 
+    private Collection<String> getFieldNames(final IdolParametricRequest parametricRequest) {
+        final Collection<String> fieldNames = new HashSet<>();
+        fieldNames.addAll(parametricRequest.getFieldNames());
+        if (fieldNames.isEmpty()) {
+            fieldNames.addAll(lookupFieldIds());
+        }
+
+        return fieldNames;
+    }
+
+    private Set<QueryTagInfo> toQueryTagInfo(final Collection<FlatField> fields) {
+        final Set<QueryTagInfo> results = new LinkedHashSet<>(fields.size());
+        for (final FlatField field : fields) {
+            final List<JAXBElement<? extends Serializable>> valueElements = field.getValueAndSubvalueOrValues();
+            final LinkedHashSet<QueryTagCountInfo> values = new LinkedHashSet<>(valueElements.size());
+            valueElements.stream().filter(element -> VALUE_NODE_NAME.equals(element.getName().getLocalPart())).forEach(element -> {
+                final TagValue tagValue = (TagValue) element.getValue();
+                values.add(new QueryTagCountInfo(tagValue.getValue(), tagValue.getCount()));
+            });
+            if (!values.isEmpty()) {
+                final TagName tagName = new TagName(field.getName().get(0));
+                results.add(new QueryTagInfo(tagName, values));
+            }
+        }
+
+        return results;
+    }
+
     private AciParameters createAciParameters(final IdolQueryRestrictions queryRestrictions, final boolean modified) {
         final AciParameters aciParameters = new AciParameters(TagActions.GetQueryTagValues.name());
         parameterHandler.addSearchRestrictions(aciParameters, queryRestrictions);
@@ -301,6 +332,11 @@ class IdolParametricValuesServiceImpl implements IdolParametricValuesService {
     }
 
     private List<FlatField> getFlatFields(final IdolParametricRequest parametricRequest, final Collection<String> fieldNames) {
+        final GetQueryTagValuesResponseData responseData = executeAction(parametricRequest, createFlatFieldsParameters(parametricRequest, fieldNames));
+        return responseData.getField();
+    }
+
+    private AciParameters createFlatFieldsParameters(final IdolParametricRequest parametricRequest, final Collection<String> fieldNames) {
         final AciParameters aciParameters = new AciParameters(TagActions.GetQueryTagValues.name());
         parameterHandler.addSearchRestrictions(aciParameters, parametricRequest.getQueryRestrictions());
 
@@ -309,19 +345,21 @@ class IdolParametricValuesServiceImpl implements IdolParametricValuesService {
         }
 
         parameterHandler.addSecurityInfo(aciParameters);
-        aciParameters.add(GetQueryTagValuesParams.DocumentCount.name(), true);
         aciParameters.add(GetQueryTagValuesParams.MaxValues.name(), parametricRequest.getMaxValues());
         aciParameters.add(GetQueryTagValuesParams.FieldName.name(), StringUtils.join(fieldNames.toArray(), ','));
         aciParameters.add(GetQueryTagValuesParams.Sort.name(), parametricRequest.getSort());
         aciParameters.add(GetQueryTagValuesParams.Ranges.name(), new Ranges(parametricRequest.getRanges()));
-        aciParameters.add(GetQueryTagValuesParams.ValueDetails.name(), true);
+        FLAT_FIELDS_PARAMETERS.applyTo(aciParameters);
 
-        final GetQueryTagValuesResponseData responseData = executeAction(parametricRequest, aciParameters);
-        return responseData.getField();
+        return aciParameters;
     }
 
     private GetQueryTagValuesResponseData executeAction(final ParametricRequest<IdolQueryRestrictions> idolParametricRequest, final Set<AciParameter> aciParameters) {
-        return aciServiceRetriever.getAciService(idolParametricRequest.isModified() ? QueryRequest.QueryType.MODIFIED : QueryRequest.QueryType.RAW)
+        return aciServiceRetriever.getAciService(getQueryType(idolParametricRequest))
                 .executeAction(aciParameters, queryTagValuesResponseProcessor);
     }
+
+    private QueryRequest.QueryType getQueryType(final ParametricRequest<IdolQueryRestrictions> idolParametricRequest) {
+        return idolParametricRequest.isModified() ? QueryRequest.QueryType.MODIFIED : QueryRequest.QueryType.RAW;
+    }
 }
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.scheduling;
+
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.TriggerContext;
+
+import java.util.Date;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link Trigger} which runs a task straight away, then again each time the configured delay has passed since the
+ * previous run finished. The delay is read before every run, so a changed configuration applies without a restart.
+ */
+public class ConfiguredDelayTrigger implements Trigger {
+    private final LongSupplier delaySupplier;
+
+    /**
+     * @param delaySupplier Supplies the current delay in milliseconds
+     */
+    public ConfiguredDelayTrigger(final LongSupplier delaySupplier) {
+        this.delaySupplier = delaySupplier;
+    }
+
+    @Override
+    public Date nextExecutionTime(final TriggerContext triggerContext) {
+        final Date lastCompletionTime = triggerContext.lastCompletionTime();
+        return lastCompletionTime == null ? new Date() : new Date(lastCompletionTime.getTime() + delaySupplier.getAsLong());
+    }
+}
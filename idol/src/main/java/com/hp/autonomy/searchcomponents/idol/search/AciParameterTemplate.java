@@ -0,0 +1,57 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.search;
+
+import com.autonomy.aci.client.transport.ActionParameter;
+import com.autonomy.aci.client.util.AciParameters;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Immutable group of parameters which are the same for every request of a given kind. The values are converted once
+ * when the template is defined, so applying it adds the same parameter objects to each request instead of converting
+ * the values again. {@link AciParameters#put} and {@link AciParameters#add} replace or skip an existing parameter rather
+ * than modifying it, so a request can override a template parameter without affecting other requests.
+ */
+public final class AciParameterTemplate {
+    private final List<ActionParameter<?>> parameters;
+
+    private AciParameterTemplate(final AciParameters parameters) {
+        this.parameters = Collections.unmodifiableList(new ArrayList<>(parameters));
+    }
+
+    /**
+     * Defines a template. The parameters are added exactly as they would be added to a request, so a template always
+     * produces the same parameters as the calls it replaces.
+     *
+     * @param definition Adds the parameters of the template
+     * @return The template
+     */
+    public static AciParameterTemplate of(final Consumer<AciParameters> definition) {
+        final AciParameters parameters = new AciParameters();
+        definition.accept(parameters);
+        return new AciParameterTemplate(parameters);
+    }
+
+    /**
+     * Adds the parameters of the template to a request
+     *
+     * @param aciParameters The parameters of the request
+     */
+    public void applyTo(final AciParameters aciParameters) {
+        aciParameters.addAll(parameters);
+    }
+
+    /**
+     * @return The parameters of the template
+     */
+    public List<ActionParameter<?>> getParameters() {
+        return parameters;
+    }
+}
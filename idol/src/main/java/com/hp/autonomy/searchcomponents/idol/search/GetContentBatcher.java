@@ -0,0 +1,41 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.search;
+
+import com.autonomy.aci.client.services.AciErrorException;
+import com.hp.autonomy.types.requests.idol.actions.query.params.PrintParam;
+import org.springframework.beans.factory.annotation.Qualifier;
+
+import java.util.List;
+
+/**
+ * Combines content lookups for single documents which arrive at about the same time into one Query per database,
+ * print mode and security info
+ */
+public interface GetContentBatcher {
+    /**
+     * The bean name of the default implementation.
+     * Use this in an {@link Qualifier} tag to access this implementation via autowiring.
+     */
+    String GET_CONTENT_BATCHER_BEAN_NAME = "getContentBatcher";
+
+    /**
+     * Whether lookups should be batched
+     *
+     * @return true if batching is enabled in the configuration
+     */
+    boolean isEnabled();
+
+    /**
+     * Retrieves a single document, possibly as part of a larger request made on behalf of several callers
+     *
+     * @param indexAndReference The database and the reference of the document
+     * @param print             The print mode to apply
+     * @return The matching results, which may be empty
+     * @throws AciErrorException If the backend returns an error for the batch
+     */
+    List<IdolSearchResult> getDocument(IdolGetContentRequestIndex indexAndReference, PrintParam print) throws AciErrorException;
+}
@@ -0,0 +1,312 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.search;
+
+import com.autonomy.aci.client.services.AciErrorException;
+import com.autonomy.aci.client.services.AciServiceException;
+import com.autonomy.aci.client.util.AciParameters;
+import com.hp.autonomy.frontend.configuration.ConfigService;
+import com.hp.autonomy.searchcomponents.core.deadline.Deadline;
+import com.hp.autonomy.searchcomponents.core.deadline.DeadlineContext;
+import com.hp.autonomy.searchcomponents.core.deadline.DeadlineExceededException;
+import com.hp.autonomy.searchcomponents.core.requestcontext.SearchRequestContext;
+import com.hp.autonomy.searchcomponents.core.requestcontext.SearchRequestContextHolder;
+import com.hp.autonomy.searchcomponents.core.search.QueryRequest;
+import com.hp.autonomy.searchcomponents.idol.configuration.GetContentBatchingConfig;
+import com.hp.autonomy.searchcomponents.idol.configuration.IdolSearchCapable;
+import com.hp.autonomy.types.idol.responses.QueryResponseData;
+import com.hp.autonomy.types.requests.idol.actions.query.QueryActions;
+import com.hp.autonomy.types.requests.idol.actions.query.params.PrintParam;
+import lombok.Data;
+import org.apache.commons.lang.BooleanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hp.autonomy.searchcomponents.idol.search.GetContentBatcher.GET_CONTENT_BATCHER_BEAN_NAME;
+
+/**
+ * Default implementation of {@link GetContentBatcher}. The first lookup for a given database, print mode and security
+ * info opens a batch. If it is the only lookup for that key in progress it is sent at once; otherwise it waits for the
+ * configured window, or until the batch is full, while other lookups join it. It then sends a single Query for every
+ * reference in the batch on its own thread and hands each caller the hits for its reference. The security info is taken
+ * from the request context and is part of the batch key, so the results are the same as separate lookups.
+ * <p>
+ * The batch is sent with the request context of the caller which opened it, passed explicitly to the parameter handler
+ * and query executor, and with the latest deadline of any caller in the batch; each caller still stops waiting once its
+ * own deadline passes. References are matched ignoring case, as MatchReference does, so a reference which receives no
+ * hits from a successful batch is not found.
+ */
+@Component(GET_CONTENT_BATCHER_BEAN_NAME)
+@ManagedResource(description = "Batching of single-document content lookups")
+class GetContentBatcherImpl implements GetContentBatcher {
+    private final ConfigService<? extends IdolSearchCapable> configService;
+    private final HavenSearchAciParameterHandler parameterHandler;
+    private final QueryExecutor queryExecutor;
+    private final QueryResponseParser queryResponseParser;
+    private final SearchRequestContextService searchRequestContextService;
+
+    private final ConcurrentMap<Key, Batch> openBatches = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Key, Integer> lookupsInProgress = new ConcurrentHashMap<>();
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    @Autowired
+    GetContentBatcherImpl(
+            final ConfigService<? extends IdolSearchCapable> configService,
+            final HavenSearchAciParameterHandler parameterHandler,
+            final QueryExecutor queryExecutor,
+            final QueryResponseParser queryResponseParser,
+            final SearchRequestContextService searchRequestContextService
+    ) {
+        this.configService = configService;
+        this.parameterHandler = parameterHandler;
+        this.queryExecutor = queryExecutor;
+        this.queryResponseParser = queryResponseParser;
+        this.searchRequestContextService = searchRequestContextService;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        final GetContentBatchingConfig config = configService.getConfig().getGetContentBatching();
+        return config != null && BooleanUtils.isTrue(config.getEnabled());
+    }
+
+    @Override
+    public List<IdolSearchResult> getDocument(final IdolGetContentRequestIndex indexAndReference, final PrintParam print) throws AciErrorException {
+        final GetContentBatchingConfig config = configService.getConfig().getGetContentBatching();
+        final String reference = indexAndReference.getReferences().iterator().next();
+        final SearchRequestContext<IdolSearchCapable> context = searchRequestContextService.getContext();
+        final Key key = new Key(indexAndReference.getIndex(), print, searchRequestContextService.getSecurityInfo(context));
+        final Deadline deadline = DeadlineContext.getDeadline();
+
+        // the lookups in progress include those waiting for a batch which has already been sent
+        lookupsInProgress.merge(key, 1, Integer::sum);
+        try {
+            return getDocument(indexAndReference, print, reference, key, deadline, context, config);
+        } finally {
+            lookupsInProgress.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    @ManagedAttribute(description = "Number of single-document lookups")
+    public long getLookups() {
+        return lookups.get();
+    }
+
+    @ManagedAttribute(description = "Number of backend requests made for single-document lookups")
+    public long getBatches() {
+        return batches.get();
+    }
+
+    @ManagedAttribute(description = "Average number of lookups served by each backend request")
+    public double getAverageBatchSize() {
+        final long batchCount = batches.get();
+        return batchCount == 0 ? 0 : (double) lookups.get() / batchCount;
+    }
+
+    private List<IdolSearchResult> getDocument(final IdolGetContentRequestIndex indexAndReference, final PrintParam print, final String reference, final Key key,
+                                               final Deadline deadline, final SearchRequestContext<?> context, final GetContentBatchingConfig config) {
+        Batch batch;
+        int position;
+        do {
+            batch = openBatches.computeIfAbsent(key, k -> new Batch(config.getMaxBatchSizeOrDefault(), context));
+            position = batch.add(reference, deadline);
+
+            if (position < 0) {
+                // the batch is full or already being sent, so the next attempt starts a new one
+                openBatches.remove(key, batch);
+            }
+        } while (position < 0);
+
+        lookups.incrementAndGet();
+
+        if (position == 0) {
+            // a lone lookup is not kept waiting for others which may never arrive
+            if (lookupsInProgress.getOrDefault(key, 0) > 1) {
+                batch.awaitFull(config.getWindowOrDefault());
+            }
+
+            openBatches.remove(key, batch);
+            send(indexAndReference, print, batch);
+        }
+
+        return batch.getResults(reference, deadline);
+    }
+
+    private void send(final IdolGetContentRequestIndex indexAndReference, final PrintParam print, final Batch batch) {
+        final Set<String> references = batch.close();
+
+        try {
+            // the request is made on behalf of every caller in the batch, not just the one which happens to send it
+            final List<IdolSearchResult> results = SearchRequestContextHolder.callDetached(batch.context,
+                    () -> DeadlineContext.callDetached(batch.getDeadline(), () -> lookUp(indexAndReference, print, references, batch.context)));
+
+            batch.results.complete(references.size() == 1
+                    // nothing to route, so do not rely on the returned reference matching the requested one exactly
+                    ? Collections.singletonMap(references.iterator().next(), results)
+                    : routeResults(references, results));
+        } catch (final RuntimeException | Error e) {
+            batch.results.completeExceptionally(e);
+        }
+    }
+
+    private List<IdolSearchResult> lookUp(final IdolGetContentRequestIndex indexAndReference, final PrintParam print, final Set<String> references, final SearchRequestContext<?> context) {
+        batches.incrementAndGet();
+
+        // Query rather than GetContent, as in IdolDocumentsServiceImpl, so that Combine=simple keeps references unique
+        final AciParameters aciParameters = new AciParameters(QueryActions.Query.name());
+        parameterHandler.addGetDocumentOutputParameters(aciParameters, indexAndReference.toBuilder()
+                .clearReferences()
+                .references(references)
+                .build(), print, context);
+
+        final QueryResponseData responseData = queryExecutor.executeQuery(aciParameters, QueryRequest.QueryType.RAW, context);
+        return queryResponseParser.parseQueryHits(responseData.getHits());
+    }
+
+    private Map<String, List<IdolSearchResult>> routeResults(final Set<String> references, final List<IdolSearchResult> results) {
+        final Map<String, List<IdolSearchResult>> resultsByReference = new HashMap<>();
+        final Map<String, List<IdolSearchResult>> unmatchedResults = new HashMap<>();
+
+        for (final IdolSearchResult result : results) {
+            final String reference = result.getReference();
+            if (references.contains(reference)) {
+                resultsByReference.computeIfAbsent(reference, k -> new ArrayList<>()).add(result);
+            } else if (reference != null) {
+                unmatchedResults.computeIfAbsent(reference.toLowerCase(Locale.ENGLISH), k -> new ArrayList<>()).add(result);
+            }
+        }
+
+        // MatchReference ignores case, so a hit may come back under a reference spelled differently from the request
+        if (!unmatchedResults.isEmpty()) {
+            for (final String reference : references) {
+                if (!resultsByReference.containsKey(reference)) {
+                    final List<IdolSearchResult> matches = unmatchedResults.remove(reference.toLowerCase(Locale.ENGLISH));
+                    if (matches != null) {
+                        resultsByReference.put(reference, matches);
+                    }
+                }
+            }
+        }
+
+        return resultsByReference;
+    }
+
+    @Data
+    private static class Key {
+        private final String database;
+        private final PrintParam print;
+        private final String securityInfo;
+    }
+
+    private static class Batch {
+        private final int maxSize;
+        private final SearchRequestContext<?> context;
+        private final Set<String> references = new LinkedHashSet<>();
+        private final CountDownLatch full = new CountDownLatch(1);
+        private final CompletableFuture<Map<String, List<IdolSearchResult>>> results = new CompletableFuture<>();
+        private boolean closed;
+        private Deadline deadline;
+        private boolean unbounded;
+
+        private Batch(final int maxSize, final SearchRequestContext<?> context) {
+            this.maxSize = maxSize;
+            this.context = context;
+        }
+
+        /**
+         * @return The position of the lookup in the batch, where 0 means the caller must send the batch, or -1 if the
+         * lookup could not be added
+         */
+        private synchronized int add(final String reference, final Deadline callerDeadline) {
+            if (closed || references.size() >= maxSize) {
+                return -1;
+            }
+
+            final int position = references.size();
+            references.add(reference);
+
+            if (callerDeadline == null) {
+                unbounded = true;
+            } else {
+                deadline = callerDeadline.latest(deadline);
+            }
+
+            if (references.size() >= maxSize) {
+                full.countDown();
+            }
+
+            return position;
+        }
+
+        private synchronized Set<String> close() {
+            closed = true;
+            return new LinkedHashSet<>(references);
+        }
+
+        /**
+         * @return The latest deadline of the callers in the batch, or null if any of them has none
+         */
+        private synchronized Deadline getDeadline() {
+            return unbounded ? null : deadline;
+        }
+
+        private void awaitFull(final long window) {
+            try {
+                full.await(window, TimeUnit.MILLISECONDS);
+            } catch (final InterruptedException ignored) {
+                // send what has been collected so far
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * @return The hits for the reference, which are empty if the batch returned none
+         */
+        private List<IdolSearchResult> getResults(final String reference, final Deadline callerDeadline) {
+            try {
+                final Map<String, List<IdolSearchResult>> resultsByReference = callerDeadline == null
+                        ? results.get()
+                        : results.get(callerDeadline.getRemaining(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+                return resultsByReference.getOrDefault(reference, Collections.emptyList());
+            } catch (final TimeoutException ignored) {
+                throw new DeadlineExceededException();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AciServiceException(e);
+            } catch (final ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+
+                throw new AciServiceException(e.getCause());
+            }
+        }
+    }
+}
@@ -6,6 +6,7 @@
 package com.hp.autonomy.searchcomponents.idol.search;
 
 import com.autonomy.aci.client.util.AciParameters;
+import com.hp.autonomy.searchcomponents.core.requestcontext.SearchRequestContext;
 import com.hp.autonomy.searchcomponents.idol.view.IdolViewRequest;
 import com.hp.autonomy.types.requests.idol.actions.query.params.PrintParam;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -36,6 +37,18 @@ public interface HavenSearchAciParameterHandler {
      */
     void addSearchOutputParameters(final AciParameters aciParameters, final IdolSearchRequest searchRequest);
 
+    /**
+     * Adds Idol parameters relating to the format/content of the response objects returned by Idol, using the
+     * configuration and security info captured for the request
+     *
+     * @param aciParameters The set of parameters to add to
+     * @param searchRequest The request options
+     * @param context       The context of the request (may be null)
+     */
+    default void addSearchOutputParameters(final AciParameters aciParameters, final IdolSearchRequest searchRequest, final SearchRequestContext<?> context) {
+        addSearchOutputParameters(aciParameters, searchRequest);
+    }
+
     /**
      * Adds Idol parameters relating to requests for retrieving document content
      *
@@ -45,6 +58,19 @@ public interface HavenSearchAciParameterHandler {
      */
     void addGetDocumentOutputParameters(final AciParameters aciParameters, final IdolGetContentRequestIndex indexAndReferences, final PrintParam print);
 
+    /**
+     * Adds Idol parameters relating to requests for retrieving document content, using the configuration and security
+     * info captured for the request
+     *
+     * @param aciParameters      The set of parameters to add to
+     * @param indexAndReferences The databases and references of documents to be retrieved
+     * @param print              the print setting, determining Idol output
+     * @param context            The context of the request (may be null)
+     */
+    default void addGetDocumentOutputParameters(final AciParameters aciParameters, final IdolGetContentRequestIndex indexAndReferences, final PrintParam print, final SearchRequestContext<?> context) {
+        addGetDocumentOutputParameters(aciParameters, indexAndReferences, print);
+    }
+
     /**
      * Adds Idol parameters for retrieving document content (during View document process)
      *
@@ -71,6 +97,17 @@ public interface HavenSearchAciParameterHandler {
      */
     void addQmsParameters(final AciParameters aciParameters, final IdolQueryRestrictions queryRestrictions);
 
+    /**
+     * Adds parameters which only apply when query QMS, using the configuration captured for the request
+     *
+     * @param aciParameters     The set of parameters to add to
+     * @param queryRestrictions The restrictions to add
+     * @param context           The context of the request (may be null)
+     */
+    default void addQmsParameters(final AciParameters aciParameters, final IdolQueryRestrictions queryRestrictions, final SearchRequestContext<?> context) {
+        addQmsParameters(aciParameters, queryRestrictions);
+    }
+
     /**
      * Adds security info String which may allow restricted documents to be accessed
      *
@@ -78,6 +115,16 @@ public interface HavenSearchAciParameterHandler {
      */
     void addSecurityInfo(AciParameters aciParameters);
 
+    /**
+     * Adds the security info captured for the request
+     *
+     * @param aciParameters The set of parameters to add to
+     * @param context       The context of the request (may be null)
+     */
+    default void addSecurityInfo(final AciParameters aciParameters, final SearchRequestContext<?> context) {
+        addSecurityInfo(aciParameters);
+    }
+
     /**
      * Adds parameters used when retrieving state tokens for a query
      *
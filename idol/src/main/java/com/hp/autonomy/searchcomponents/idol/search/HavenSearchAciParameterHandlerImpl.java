@@ -6,18 +6,18 @@
 package com.hp.autonomy.searchcomponents.idol.search;
 
 import com.autonomy.aci.client.util.AciParameters;
-import com.google.common.escape.Escaper;
-import com.google.common.net.UrlEscapers;
 import com.hp.autonomy.aci.content.database.Databases;
 import com.hp.autonomy.aci.content.identifier.reference.Reference;
 import com.hp.autonomy.aci.content.identifier.reference.ReferencesBuilder;
 import com.hp.autonomy.aci.content.identifier.stateid.StateIdsBuilder;
 import com.hp.autonomy.aci.content.printfields.PrintFields;
 import com.hp.autonomy.frontend.configuration.ConfigService;
-import com.hp.autonomy.frontend.configuration.authentication.CommunityPrincipal;
+import com.hp.autonomy.searchcomponents.core.requestcontext.SearchRequestContext;
+import com.hp.autonomy.searchcomponents.core.requestcontext.SearchRequestContextHolder;
 import com.hp.autonomy.searchcomponents.core.search.DocumentsService;
 import com.hp.autonomy.searchcomponents.core.search.fields.DocumentFieldsService;
 import com.hp.autonomy.searchcomponents.idol.configuration.IdolSearchCapable;
+import com.hp.autonomy.searchcomponents.idol.configuration.QueryManipulation;
 import com.hp.autonomy.searchcomponents.idol.view.IdolViewRequest;
 import com.hp.autonomy.types.requests.idol.actions.query.params.CombineParam;
 import com.hp.autonomy.types.requests.idol.actions.query.params.GetContentParams;
@@ -28,9 +28,9 @@ import com.hp.autonomy.types.requests.idol.actions.query.params.SummaryParam;
 import com.hp.autonomy.types.requests.idol.actions.view.params.OutputTypeParam;
 import com.hp.autonomy.types.requests.idol.actions.view.params.ViewParams;
 import com.hp.autonomy.types.requests.qms.actions.query.params.QmsQueryParams;
-import com.hpe.bigdata.frontend.spring.authentication.AuthenticationInformationRetriever;
 import org.joda.time.ReadableInstant;
 import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -49,24 +49,70 @@ import static com.hp.autonomy.searchcomponents.idol.view.IdolViewServerService.A
  */
 @Component(PARAMETER_HANDLER_BEAN_NAME)
 class HavenSearchAciParameterHandlerImpl implements HavenSearchAciParameterHandler {
-    private static final String IDOL_DATE_PARAMETER_FORMAT = "HH:mm:ss dd/MM/yyyy";
+    private static final DateTimeFormatter IDOL_DATE_PARAMETER_FORMATTER = DateTimeFormat.forPattern("HH:mm:ss dd/MM/yyyy");
     private static final String GET_CONTENT_QUERY_TEXT = "*";
 
+    // parameters which are the same for every request, grouped by the kind of request they belong to
+    private static final AciParameterTemplate SEARCH_RESTRICTION_PARAMETERS = AciParameterTemplate.of(parameters -> parameters.add(QueryParams.Combine.name(), CombineParam.Simple));
+
+    private static final AciParameterTemplate SEARCH_OUTPUT_PARAMETERS = AciParameterTemplate.of(parameters -> {
+        parameters.add(QueryParams.Predict.name(), false);
+        parameters.add(QueryParams.TotalResults.name(), true);
+        parameters.add(QueryParams.XMLMeta.name(), true);
+    });
+
+    private static final AciParameterTemplate SEARCH_HIGHLIGHT_PARAMETERS = AciParameterTemplate.of(parameters -> {
+        parameters.add(QueryParams.Highlight.name(), HighlightParam.SummaryTerms);
+        parameters.add(QueryParams.StartTag.name(), DocumentsService.HIGHLIGHT_START_TAG);
+        parameters.add(QueryParams.EndTag.name(), DocumentsService.HIGHLIGHT_END_TAG);
+    });
+
+    private static final AciParameterTemplate GET_DOCUMENT_OUTPUT_PARAMETERS = AciParameterTemplate.of(parameters -> {
+        parameters.add(QueryParams.Summary.name(), SummaryParam.Concept);
+        parameters.add(QueryParams.Combine.name(), CombineParam.Simple);
+        parameters.add(QueryParams.Text.name(), GET_CONTENT_QUERY_TEXT);
+        parameters.add(QueryParams.AnyLanguage.name(), true);
+        parameters.add(QueryParams.XMLMeta.name(), true);
+    });
+
+    private static final AciParameterTemplate GET_CONTENT_OUTPUT_PARAMETERS = AciParameterTemplate.of(parameters -> parameters.add(GetContentParams.Print.name(), PrintParam.Fields));
+
+    private static final AciParameterTemplate STORE_STATE_PARAMETERS = AciParameterTemplate.of(parameters -> {
+        parameters.add(QueryParams.StoreState.name(), true);
+        parameters.add(QueryParams.StoredStateTokenLifetime.name(), -1);  // negative value means no expiry (DAH)
+    });
+
+    private static final AciParameterTemplate VIEW_PARAMETERS = AciParameterTemplate.of(parameters -> {
+        parameters.add(ViewParams.NoACI.name(), true);
+        parameters.add(ViewParams.EmbedImages.name(), true);
+        parameters.add(ViewParams.StripScript.name(), true);
+        parameters.add(ViewParams.OriginalBaseURL.name(), true);
+
+        // this prevents ViewServer from returning the raw file
+        parameters.add(ViewParams.OutputType.name(), OutputTypeParam.HTML);
+    });
+
+    private static final AciParameterTemplate VIEW_HIGHLIGHT_PARAMETERS = AciParameterTemplate.of(parameters -> {
+        parameters.add(ViewParams.StartTag.name(), HIGHLIGHT_START_TAG);
+        parameters.add(ViewParams.EndTag.name(), HIGHLIGHT_END_TAG);
+
+        // we need this because we're sending query text, not a csv of stemmed terms
+        parameters.add(ViewParams.Boolean.name(), true);
+    });
+
     private final ConfigService<? extends IdolSearchCapable> configService;
     private final DocumentFieldsService documentFieldsService;
-    private final AuthenticationInformationRetriever<?, CommunityPrincipal> authenticationInformationRetriever;
-
-    private final Escaper urlFragmentEscaper = UrlEscapers.urlFragmentEscaper();
+    private final SearchRequestContextService searchRequestContextService;
 
     @Autowired
     HavenSearchAciParameterHandlerImpl(
             final ConfigService<? extends IdolSearchCapable> configService,
             final DocumentFieldsService documentFieldsService,
-            final AuthenticationInformationRetriever<?, CommunityPrincipal> authenticationInformationRetriever
+            final SearchRequestContextService searchRequestContextService
     ) {
         this.configService = configService;
         this.documentFieldsService = documentFieldsService;
-        this.authenticationInformationRetriever = authenticationInformationRetriever;
+        this.searchRequestContextService = searchRequestContextService;
     }
 
     @Override
@@ -82,7 +128,7 @@ class HavenSearchAciParameterHandlerImpl implements HavenSearchAciParameterHandl
             aciParameters.add(QueryParams.StateDontMatchID.name(), new StateIdsBuilder(queryRestrictions.getStateDontMatchIds()));
         }
 
-        aciParameters.add(QueryParams.Combine.name(), CombineParam.Simple);
+        SEARCH_RESTRICTION_PARAMETERS.applyTo(aciParameters);
         aciParameters.add(QueryParams.MinDate.name(), formatDate(queryRestrictions.getMinDate()));
         aciParameters.add(QueryParams.MaxDate.name(), formatDate(queryRestrictions.getMaxDate()));
         aciParameters.add(QueryParams.FieldText.name(), queryRestrictions.getFieldText());
@@ -93,48 +139,50 @@ class HavenSearchAciParameterHandlerImpl implements HavenSearchAciParameterHandl
 
     @Override
     public void addSearchOutputParameters(final AciParameters aciParameters, final IdolSearchRequest searchRequest) {
-        addSecurityInfo(aciParameters);
+        addSearchOutputParameters(aciParameters, searchRequest, SearchRequestContextHolder.getContext());
+    }
+
+    @Override
+    public void addSearchOutputParameters(final AciParameters aciParameters, final IdolSearchRequest searchRequest, final SearchRequestContext<?> context) {
+        addSecurityInfo(aciParameters, context);
 
         aciParameters.add(QueryParams.Start.name(), searchRequest.getStart());
         aciParameters.add(QueryParams.MaxResults.name(), searchRequest.getMaxResults());
         aciParameters.add(QueryParams.Summary.name(), SummaryParam.fromValue(searchRequest.getSummary(), null));
         aciParameters.add(QueryParams.Characters.name(), searchRequest.getSummaryCharacters());
-        aciParameters.add(QueryParams.Predict.name(), false);
         aciParameters.add(QueryParams.Sort.name(), searchRequest.getSort());
-        aciParameters.add(QueryParams.TotalResults.name(), true);
-        aciParameters.add(QueryParams.XMLMeta.name(), true);
-        addPrintParameters(aciParameters, PrintParam.fromValue(searchRequest.getPrint(), null), searchRequest.getPrintFields());
+        SEARCH_OUTPUT_PARAMETERS.applyTo(aciParameters);
+        addPrintParameters(aciParameters, PrintParam.fromValue(searchRequest.getPrint(), null), searchRequest.getPrintFields(), context);
 
         if (searchRequest.isHighlight()) {
-            aciParameters.add(QueryParams.Highlight.name(), HighlightParam.SummaryTerms);
-            aciParameters.add(QueryParams.StartTag.name(), DocumentsService.HIGHLIGHT_START_TAG);
-            aciParameters.add(QueryParams.EndTag.name(), DocumentsService.HIGHLIGHT_END_TAG);
+            SEARCH_HIGHLIGHT_PARAMETERS.applyTo(aciParameters);
         }
     }
 
     @Override
     public void addGetDocumentOutputParameters(final AciParameters aciParameters, final IdolGetContentRequestIndex indexAndReferences, final PrintParam print) {
-        addSecurityInfo(aciParameters);
+        addGetDocumentOutputParameters(aciParameters, indexAndReferences, print, SearchRequestContextHolder.getContext());
+    }
+
+    @Override
+    public void addGetDocumentOutputParameters(final AciParameters aciParameters, final IdolGetContentRequestIndex indexAndReferences, final PrintParam print, final SearchRequestContext<?> context) {
+        addSecurityInfo(aciParameters, context);
 
         final Set<String> references = indexAndReferences.getReferences();
         aciParameters.add(QueryParams.MatchReference.name(), new ReferencesBuilder(references));
-        aciParameters.add(QueryParams.Summary.name(), SummaryParam.Concept);
-        aciParameters.add(QueryParams.Combine.name(), CombineParam.Simple);
-        aciParameters.add(QueryParams.Text.name(), GET_CONTENT_QUERY_TEXT);
         aciParameters.add(QueryParams.MaxResults.name(), references.size());
-        aciParameters.add(QueryParams.AnyLanguage.name(), true);
-        aciParameters.add(QueryParams.XMLMeta.name(), true);
-        addPrintParameters(aciParameters, print, Collections.emptyList());
+        GET_DOCUMENT_OUTPUT_PARAMETERS.applyTo(aciParameters);
+        addPrintParameters(aciParameters, print, Collections.emptyList(), context);
 
         if (indexAndReferences.getIndex() != null) {
             aciParameters.add(QueryParams.DatabaseMatch.name(), new Databases(indexAndReferences.getIndex()));
         }
     }
 
-    private void addPrintParameters(final AciParameters aciParameters, final PrintParam print, final Collection<String> printFields) {
+    private void addPrintParameters(final AciParameters aciParameters, final PrintParam print, final Collection<String> printFields, final SearchRequestContext<?> context) {
         aciParameters.add(QueryParams.Print.name(), print);
         if (print == PrintParam.Fields) {
-            final Collection<String> printFieldsToApply = documentFieldsService.getPrintFields(printFields);
+            final Collection<String> printFieldsToApply = SearchRequestContextHolder.callDetached(context, () -> documentFieldsService.getPrintFields(printFields));
             aciParameters.add(QueryParams.PrintFields.name(), new PrintFields(printFieldsToApply));
         }
     }
@@ -147,7 +195,7 @@ class HavenSearchAciParameterHandlerImpl implements HavenSearchAciParameterHandl
             parameters.add(GetContentParams.DatabaseMatch.name(), new Databases(database));
         }
         parameters.add(GetContentParams.Reference.name(), new Reference(documentReference));
-        parameters.add(GetContentParams.Print.name(), PrintParam.Fields);
+        GET_CONTENT_OUTPUT_PARAMETERS.applyTo(parameters);
         parameters.add(GetContentParams.PrintFields.name(), new PrintFields(referenceField, AUTN_IDENTIFIER, AUTN_GROUP));
     }
 
@@ -169,46 +217,43 @@ class HavenSearchAciParameterHandlerImpl implements HavenSearchAciParameterHandl
 
     @Override
     public void addQmsParameters(final AciParameters aciParameters, final IdolQueryRestrictions queryRestrictions) {
-        aciParameters.add(QmsQueryParams.Blacklist.name(), configService.getConfig().getQueryManipulation().getBlacklist());
-        aciParameters.add(QmsQueryParams.ExpandQuery.name(), configService.getConfig().getQueryManipulation().getExpandQuery());
+        addQmsParameters(aciParameters, queryRestrictions, SearchRequestContextHolder.getContext());
+    }
+
+    @Override
+    public void addQmsParameters(final AciParameters aciParameters, final IdolQueryRestrictions queryRestrictions, final SearchRequestContext<?> context) {
+        final QueryManipulation queryManipulation = SearchRequestContextHolder.getConfig(context, configService).getQueryManipulation();
+        aciParameters.add(QmsQueryParams.Blacklist.name(), queryManipulation.getBlacklist());
+        aciParameters.add(QmsQueryParams.ExpandQuery.name(), queryManipulation.getExpandQuery());
     }
 
     @Override
     public void addSecurityInfo(final AciParameters aciParameters) {
-        final String securityInfo = authenticationInformationRetriever.getPrincipal() != null && authenticationInformationRetriever.getPrincipal().getSecurityInfo() != null
-                ? urlFragmentEscaper.escape(authenticationInformationRetriever.getPrincipal().getSecurityInfo())
-                : null;
-        aciParameters.add(QueryParams.SecurityInfo.name(), securityInfo);
+        addSecurityInfo(aciParameters, SearchRequestContextHolder.getContext());
+    }
+
+    @Override
+    public void addSecurityInfo(final AciParameters aciParameters, final SearchRequestContext<?> context) {
+        aciParameters.add(QueryParams.SecurityInfo.name(), searchRequestContextService.getSecurityInfo(context));
     }
 
     @Override
     public void addStoreStateParameters(final AciParameters aciParameters) {
-        aciParameters.add(QueryParams.StoreState.name(), true);
-        aciParameters.add(QueryParams.StoredStateTokenLifetime.name(), -1);  // negative value means no expiry (DAH)
+        STORE_STATE_PARAMETERS.applyTo(aciParameters);
     }
 
     @Override
     public void addViewParameters(final AciParameters aciParameters, final String reference, final IdolViewRequest viewRequest) {
-        aciParameters.add(ViewParams.NoACI.name(), true);
         aciParameters.add(ViewParams.Reference.name(), reference);
-        aciParameters.add(ViewParams.EmbedImages.name(), true);
-        aciParameters.add(ViewParams.StripScript.name(), true);
-        aciParameters.add(ViewParams.OriginalBaseURL.name(), true);
+        VIEW_PARAMETERS.applyTo(aciParameters);
 
         if (viewRequest.getHighlightExpression() != null) {
             aciParameters.add(ViewParams.Links.name(), viewRequest.getHighlightExpression());
-            aciParameters.add(ViewParams.StartTag.name(), HIGHLIGHT_START_TAG);
-            aciParameters.add(ViewParams.EndTag.name(), HIGHLIGHT_END_TAG);
-
-            // we need this because we're sending query text, not a csv of stemmed terms
-            aciParameters.add(ViewParams.Boolean.name(), true);
+            VIEW_HIGHLIGHT_PARAMETERS.applyTo(aciParameters);
         }
-
-        // this prevents ViewServer from returning the raw file
-        aciParameters.add(ViewParams.OutputType.name(), OutputTypeParam.HTML);
     }
 
     private String formatDate(final ReadableInstant date) {
-        return date == null ? null : DateTimeFormat.forPattern(IDOL_DATE_PARAMETER_FORMAT).print(date);
+        return date == null ? null : IDOL_DATE_PARAMETER_FORMATTER.print(date);
     }
 }
@@ -8,10 +8,13 @@ package com.hp.autonomy.searchcomponents.idol.search;
 import com.autonomy.aci.client.services.AciErrorException;
 import com.autonomy.aci.client.util.AciParameters;
 import com.hp.autonomy.aci.content.identifier.reference.Reference;
+import com.hp.autonomy.searchcomponents.core.requestcontext.SearchRequestContext;
+import com.hp.autonomy.searchcomponents.core.requestcontext.SearchRequestContextHolder;
 import com.hp.autonomy.searchcomponents.core.search.DocumentsService;
 import com.hp.autonomy.searchcomponents.core.search.QueryRequest;
 import com.hp.autonomy.searchcomponents.core.search.StateTokenAndResultCount;
 import com.hp.autonomy.searchcomponents.core.search.TypedStateToken;
+import com.hp.autonomy.searchcomponents.idol.configuration.IdolSearchCapable;
 import com.hp.autonomy.types.idol.responses.Hit;
 import com.hp.autonomy.types.idol.responses.QueryResponseData;
 import com.hp.autonomy.types.idol.responses.SuggestResponseData;
@@ -41,30 +44,66 @@ class IdolDocumentsServiceImpl implements IdolDocumentsService {
     private final HavenSearchAciParameterHandler parameterHandler;
     private final QueryExecutor queryExecutor;
     private final QueryResponseParser queryResponseParser;
+    private final GetContentBatcher getContentBatcher;
+    private final SearchRequestContextService searchRequestContextService;
 
     @Autowired
     IdolDocumentsServiceImpl(
             final HavenSearchAciParameterHandler parameterHandler,
             final QueryExecutor queryExecutor,
-            final QueryResponseParser queryResponseParser) {
+            final QueryResponseParser queryResponseParser,
+            final GetContentBatcher getContentBatcher,
+            final SearchRequestContextService searchRequestContextService) {
         this.parameterHandler = parameterHandler;
         this.queryExecutor = queryExecutor;
         this.queryResponseParser = queryResponseParser;
+        this.getContentBatcher = getContentBatcher;
+        this.searchRequestContextService = searchRequestContextService;
     }
 
+    // each public method captures the configuration and security info once for all the requests it makes, and passes
+    // them to the parameter handler and query executor; they are also applied to the thread for the response parser
     @Override
     public Documents<IdolSearchResult> queryTextIndex(final IdolQueryRequest queryRequest) throws AciErrorException {
+        final SearchRequestContext<IdolSearchCapable> context = searchRequestContextService.getContext();
+        return SearchRequestContextHolder.callWithin(context, () -> queryTextIndexWithinContext(queryRequest, context));
+    }
+
+    @Override
+    public Documents<IdolSearchResult> findSimilar(final IdolSuggestRequest suggestRequest) throws AciErrorException {
+        final SearchRequestContext<IdolSearchCapable> context = searchRequestContextService.getContext();
+        return SearchRequestContextHolder.callWithin(context, () -> findSimilarWithinContext(suggestRequest, context));
+    }
+
+    @Override
+    public List<IdolSearchResult> getDocumentContent(final IdolGetContentRequest request) throws AciErrorException {
+        final SearchRequestContext<IdolSearchCapable> context = searchRequestContextService.getContext();
+        return SearchRequestContextHolder.callWithin(context, () -> getDocumentContentWithinContext(request, context));
+    }
+
+    @Override
+    public String getStateToken(final IdolQueryRestrictions queryRestrictions, final int maxResults, final boolean promotions) throws AciErrorException {
+        return getStateTokenAndResultCount(queryRestrictions, maxResults, promotions).getTypedStateToken().getStateToken();
+    }
+
+    @Override
+    public StateTokenAndResultCount getStateTokenAndResultCount(final IdolQueryRestrictions queryRestrictions, final int maxResults, final boolean promotions) throws AciErrorException {
+        final SearchRequestContext<IdolSearchCapable> context = searchRequestContextService.getContext();
+        return SearchRequestContextHolder.callWithin(context, () -> getStateTokenAndResultCountWithinContext(queryRestrictions, maxResults, promotions, context));
+    }
+
+    private Documents<IdolSearchResult> queryTextIndexWithinContext(final IdolQueryRequest queryRequest, final SearchRequestContext<?> context) {
         final QueryRequest.QueryType queryType = queryRequest.getQueryType();
-        if (!queryExecutor.performQuery(queryType)) {
+        if (!queryExecutor.performQuery(queryType, context)) {
             return new Documents<>(Collections.emptyList(), 0, null, null, null, null);
         }
 
         final AciParameters aciParameters = new AciParameters(QueryActions.Query.name());
 
         parameterHandler.addSearchRestrictions(aciParameters, queryRequest.getQueryRestrictions());
-        parameterHandler.addSearchOutputParameters(aciParameters, queryRequest);
+        parameterHandler.addSearchOutputParameters(aciParameters, queryRequest, context);
         if (queryType != QueryRequest.QueryType.RAW) {
-            parameterHandler.addQmsParameters(aciParameters, queryRequest.getQueryRestrictions());
+            parameterHandler.addQmsParameters(aciParameters, queryRequest.getQueryRestrictions(), context);
         }
 
         if (queryRequest.isAutoCorrect()) {
@@ -75,50 +114,46 @@ class IdolDocumentsServiceImpl implements IdolDocumentsService {
             aciParameters.add(QmsQueryParams.Promotions.name(), true);
         }
 
-        final QueryResponseData responseData = queryExecutor.executeQuery(aciParameters, queryType);
-        return queryResponseParser.parseQueryResults(queryRequest, aciParameters, responseData, parameters -> queryExecutor.executeQuery(parameters, queryType));
+        final QueryResponseData responseData = queryExecutor.executeQuery(aciParameters, queryType, context);
+        return queryResponseParser.parseQueryResults(queryRequest, aciParameters, responseData, parameters -> queryExecutor.executeQuery(parameters, queryType, context));
     }
 
-    @Override
-    public Documents<IdolSearchResult> findSimilar(final IdolSuggestRequest suggestRequest) throws AciErrorException {
+    private Documents<IdolSearchResult> findSimilarWithinContext(final IdolSuggestRequest suggestRequest, final SearchRequestContext<?> context) {
         final AciParameters aciParameters = new AciParameters(QueryActions.Suggest.name());
         aciParameters.add(SuggestParams.Reference.name(), new Reference(suggestRequest.getReference()));
 
         parameterHandler.addSearchRestrictions(aciParameters, suggestRequest.getQueryRestrictions());
-        parameterHandler.addSearchOutputParameters(aciParameters, suggestRequest);
+        parameterHandler.addSearchOutputParameters(aciParameters, suggestRequest, context);
 
-        final SuggestResponseData responseData = queryExecutor.executeSuggest(aciParameters, QueryRequest.QueryType.RAW);
+        final SuggestResponseData responseData = queryExecutor.executeSuggest(aciParameters, QueryRequest.QueryType.RAW, context);
         final List<Hit> hits = responseData.getHits();
         return new Documents<>(queryResponseParser.parseQueryHits(hits), responseData.getTotalhits(), null, null, null, null);
     }
 
-    @Override
-    public List<IdolSearchResult> getDocumentContent(final IdolGetContentRequest request) throws AciErrorException {
+    private List<IdolSearchResult> getDocumentContentWithinContext(final IdolGetContentRequest request, final SearchRequestContext<?> context) {
         final List<IdolSearchResult> results = new ArrayList<>(request.getIndexesAndReferences().size());
 
         for (final IdolGetContentRequestIndex indexAndReferences : request.getIndexesAndReferences()) {
-
-            // We use Query and not GetContent here so we can use Combine=simple to ensure returned references are unique
-            final AciParameters aciParameters = new AciParameters(QueryActions.Query.name());
-            parameterHandler.addGetDocumentOutputParameters(aciParameters, indexAndReferences, request.getPrint());
-
-            final QueryResponseData responseData = queryExecutor.executeQuery(aciParameters, QueryRequest.QueryType.RAW);
-            final List<Hit> hits = responseData.getHits();
-            results.addAll(queryResponseParser.parseQueryHits(hits));
+            if (indexAndReferences.getReferences().size() == 1 && getContentBatcher.isEnabled()) {
+                // lookups for single documents, such as preview cards, are combined with concurrent lookups
+                results.addAll(getContentBatcher.getDocument(indexAndReferences, request.getPrint()));
+            } else {
+                // We use Query and not GetContent here so we can use Combine=simple to ensure returned references are unique
+                final AciParameters aciParameters = new AciParameters(QueryActions.Query.name());
+                parameterHandler.addGetDocumentOutputParameters(aciParameters, indexAndReferences, request.getPrint(), context);
+
+                final QueryResponseData responseData = queryExecutor.executeQuery(aciParameters, QueryRequest.QueryType.RAW, context);
+                final List<Hit> hits = responseData.getHits();
+                results.addAll(queryResponseParser.parseQueryHits(hits));
+            }
         }
 
         return results;
     }
 
-    @Override
-    public String getStateToken(final IdolQueryRestrictions queryRestrictions, final int maxResults, final boolean promotions) throws AciErrorException {
-        return getStateTokenAndResultCount(queryRestrictions, maxResults, promotions).getTypedStateToken().getStateToken();
-    }
-
-    @Override
-    public StateTokenAndResultCount getStateTokenAndResultCount(final IdolQueryRestrictions queryRestrictions, final int maxResults, final boolean promotions) throws AciErrorException {
+    private StateTokenAndResultCount getStateTokenAndResultCountWithinContext(final IdolQueryRestrictions queryRestrictions, final int maxResults, final boolean promotions, final SearchRequestContext<?> context) {
         final AciParameters aciParameters = new AciParameters(QueryActions.Query.name());
-        parameterHandler.addSecurityInfo(aciParameters);
+        parameterHandler.addSecurityInfo(aciParameters, context);
         parameterHandler.addStoreStateParameters(aciParameters);
         aciParameters.add(QueryParams.Print.name(), PrintParam.NoResults);
         aciParameters.add(QueryParams.MaxResults.name(), maxResults);
@@ -131,18 +166,18 @@ class IdolDocumentsServiceImpl implements IdolDocumentsService {
         // Unset combine=simple for state token generation
         aciParameters.remove(QueryParams.Combine.name());
 
-        final QueryResponseData responseData = queryExecutor.executeQuery(aciParameters, QueryRequest.QueryType.RAW);
+        final QueryResponseData responseData = queryExecutor.executeQuery(aciParameters, QueryRequest.QueryType.RAW, context);
         final String token = responseData.getState() != null ? responseData.getState() : EMPTY_RESULT_SET_TOKEN;
         final TypedStateToken tokenData = new TypedStateToken(token, promotions ? TypedStateToken.StateTokenType.PROMOTIONS : TypedStateToken.StateTokenType.QUERY);
 
         // Now fetch result count with combine=simple
         final AciParameters resultCountAciParameters = new AciParameters(QueryActions.Query.name());
-        parameterHandler.addSecurityInfo(aciParameters);
+        parameterHandler.addSecurityInfo(aciParameters, context);
         resultCountAciParameters.add(QueryParams.TotalResults.name(), true);
         resultCountAciParameters.add(QueryParams.Print.name(), PrintParam.NoResults);
         resultCountAciParameters.add(QueryParams.Predict.name(), false);
         parameterHandler.addSearchRestrictions(resultCountAciParameters, queryRestrictions);
-        final QueryResponseData resultCountResponseData = queryExecutor.executeQuery(resultCountAciParameters, QueryRequest.QueryType.RAW);
+        final QueryResponseData resultCountResponseData = queryExecutor.executeQuery(resultCountAciParameters, QueryRequest.QueryType.RAW, context);
 
         return new StateTokenAndResultCount(tokenData, resultCountResponseData.getTotalhits());
     }
@@ -7,11 +7,14 @@ package com.hp.autonomy.searchcomponents.idol.search;
 
 import com.autonomy.aci.client.services.AciErrorException;
 import com.autonomy.aci.client.util.AciParameters;
+import com.hp.autonomy.searchcomponents.core.requestcontext.SearchRequestContext;
 import com.hp.autonomy.searchcomponents.core.search.QueryRequest;
 import com.hp.autonomy.types.idol.responses.QueryResponseData;
 import com.hp.autonomy.types.idol.responses.SuggestResponseData;
 import org.springframework.beans.factory.annotation.Qualifier;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Implementations are responsible for executing queries against Idol for a given set of parameters and query type
  */
@@ -25,7 +28,7 @@ public interface QueryExecutor {
 
     /**
      * Whether or not it is worth performing a query
-     * Querying for promotions is pointless and misleading if QMS is not configured
+     * Querying for promotions is pointless and misleading if QMS is not configured, and is skipped while QMS is unavailable
      *
      * @param queryType the type of query being performed
      * @return Whether or not to perform a query
@@ -33,6 +36,18 @@ public interface QueryExecutor {
      */
     boolean performQuery(QueryRequest.QueryType queryType) throws AciErrorException;
 
+    /**
+     * Whether or not it is worth performing a query, using the configuration captured for the request
+     *
+     * @param queryType the type of query being performed
+     * @param context   the context of the request (may be null)
+     * @return Whether or not to perform a query
+     * @throws AciErrorException The error thrown in the event of the Idol's returning an error response
+     */
+    default boolean performQuery(final QueryRequest.QueryType queryType, final SearchRequestContext<?> context) throws AciErrorException {
+        return performQuery(queryType);
+    }
+
     /**
      * Executes a query action
      *
@@ -43,6 +58,43 @@ public interface QueryExecutor {
      */
     QueryResponseData executeQuery(AciParameters aciParameters, QueryRequest.QueryType queryType) throws AciErrorException;
 
+    /**
+     * Executes a query action against the backend chosen by the configuration captured for the request
+     *
+     * @param aciParameters the query parameters to send to Idol
+     * @param queryType     the type of query being performed
+     * @param context       the context of the request (may be null)
+     * @return The Idol response data
+     * @throws AciErrorException The error thrown in the event of the Idol's returning an error response
+     */
+    default QueryResponseData executeQuery(final AciParameters aciParameters, final QueryRequest.QueryType queryType, final SearchRequestContext<?> context) throws AciErrorException {
+        return executeQuery(aciParameters, queryType);
+    }
+
+    /**
+     * Executes a query action without blocking the calling thread
+     *
+     * @param aciParameters the query parameters to send to Idol
+     * @param queryType     the type of query being performed
+     * @return A future which completes with the Idol response data, or with an {@link AciErrorException} in the event of
+     * the Idol's returning an error response
+     */
+    CompletableFuture<QueryResponseData> executeQueryAsync(AciParameters aciParameters, QueryRequest.QueryType queryType);
+
+    /**
+     * Executes a query action without blocking the calling thread, against the backend chosen by the configuration
+     * captured for the request
+     *
+     * @param aciParameters the query parameters to send to Idol
+     * @param queryType     the type of query being performed
+     * @param context       the context of the request (may be null)
+     * @return A future which completes with the Idol response data, or with an {@link AciErrorException} in the event of
+     * the Idol's returning an error response
+     */
+    default CompletableFuture<QueryResponseData> executeQueryAsync(final AciParameters aciParameters, final QueryRequest.QueryType queryType, final SearchRequestContext<?> context) {
+        return executeQueryAsync(aciParameters, queryType);
+    }
+
     /**
      * Executes a suggest action
      *
@@ -52,4 +104,17 @@ public interface QueryExecutor {
      * @throws AciErrorException The error thrown in the event of the Idol's returning an error response
      */
     SuggestResponseData executeSuggest(AciParameters aciParameters, QueryRequest.QueryType queryType) throws AciErrorException;
+
+    /**
+     * Executes a suggest action against the backend chosen by the configuration captured for the request
+     *
+     * @param aciParameters the query parameters to send to Idol
+     * @param queryType     the type of query being performed
+     * @param context       the context of the request (may be null)
+     * @return The Idol response data
+     * @throws AciErrorException The error thrown in the event of the Idol's returning an error response
+     */
+    default SuggestResponseData executeSuggest(final AciParameters aciParameters, final QueryRequest.QueryType queryType, final SearchRequestContext<?> context) throws AciErrorException {
+        return executeSuggest(aciParameters, queryType);
+    }
 }
@@ -8,6 +8,8 @@ package com.hp.autonomy.searchcomponents.idol.search;
 import com.autonomy.aci.client.services.AciService;
 import com.autonomy.aci.client.services.Processor;
 import com.autonomy.aci.client.util.AciParameters;
+import com.hp.autonomy.searchcomponents.core.requestcontext.SearchRequestContext;
+import com.hp.autonomy.searchcomponents.core.requestcontext.SearchRequestContextHolder;
 import com.hp.autonomy.searchcomponents.core.search.QueryRequest;
 import com.hp.autonomy.searchcomponents.idol.configuration.AciServiceRetriever;
 import com.hp.autonomy.types.idol.marshalling.ProcessorFactory;
@@ -16,6 +18,8 @@ import com.hp.autonomy.types.idol.responses.SuggestResponseData;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+
 import static com.hp.autonomy.searchcomponents.idol.search.QueryExecutor.QUERY_EXECUTOR_BEAN_NAME;
 
 /**
@@ -38,18 +42,52 @@ class QueryExecutorImpl implements QueryExecutor {
 
     @Override
     public boolean performQuery(final QueryRequest.QueryType queryType) {
-        return queryType != QueryRequest.QueryType.PROMOTIONS || aciServiceRetriever.qmsEnabled();
+        return performQuery(queryType, SearchRequestContextHolder.getContext());
+    }
+
+    @Override
+    public boolean performQuery(final QueryRequest.QueryType queryType, final SearchRequestContext<?> context) {
+        // promotions are skipped rather than failing the search while QMS is unavailable
+        return queryType != QueryRequest.QueryType.PROMOTIONS || SearchRequestContextHolder.callDetached(context, aciServiceRetriever::qmsAvailable);
     }
 
     @Override
     public QueryResponseData executeQuery(final AciParameters aciParameters, final QueryRequest.QueryType queryType) {
-        final AciService aciService = aciServiceRetriever.getAciService(queryType);
-        return aciService.executeAction(aciParameters, queryResponseProcessor);
+        return executeQuery(aciParameters, queryType, SearchRequestContextHolder.getContext());
+    }
+
+    @Override
+    public QueryResponseData executeQuery(final AciParameters aciParameters, final QueryRequest.QueryType queryType, final SearchRequestContext<?> context) {
+        return execute(aciParameters, queryType, context, queryResponseProcessor);
+    }
+
+    @Override
+    public CompletableFuture<QueryResponseData> executeQueryAsync(final AciParameters aciParameters, final QueryRequest.QueryType queryType) {
+        return executeQueryAsync(aciParameters, queryType, SearchRequestContextHolder.getContext());
+    }
+
+    @Override
+    public CompletableFuture<QueryResponseData> executeQueryAsync(final AciParameters aciParameters, final QueryRequest.QueryType queryType, final SearchRequestContext<?> context) {
+        // the backend is chosen now, so the context is not needed once the request has been sent
+        return SearchRequestContextHolder.callDetached(context, () -> aciServiceRetriever.getAsyncAciService(queryType))
+                .executeAction(aciParameters, queryResponseProcessor);
     }
 
     @Override
     public SuggestResponseData executeSuggest(final AciParameters aciParameters, final QueryRequest.QueryType queryType) {
-        final AciService aciService = aciServiceRetriever.getAciService(queryType);
-        return aciService.executeAction(aciParameters, suggestResponseProcessor);
+        return executeSuggest(aciParameters, queryType, SearchRequestContextHolder.getContext());
+    }
+
+    @Override
+    public SuggestResponseData executeSuggest(final AciParameters aciParameters, final QueryRequest.QueryType queryType, final SearchRequestContext<?> context) {
+        return execute(aciParameters, queryType, context, suggestResponseProcessor);
+    }
+
+    private <T> T execute(final AciParameters aciParameters, final QueryRequest.QueryType queryType, final SearchRequestContext<?> context, final Processor<T> processor) {
+        // the retriever chooses between QMS and the content engine, and where to send the request, from the context
+        return SearchRequestContextHolder.callDetached(context, () -> {
+            final AciService aciService = aciServiceRetriever.getAciService(queryType);
+            return aciService.executeAction(aciParameters, processor);
+        });
     }
 }
@@ -8,6 +8,8 @@ package com.hp.autonomy.searchcomponents.idol.search;
 import com.autonomy.aci.client.services.AciErrorException;
 import com.autonomy.aci.client.util.AciParameters;
 import com.hp.autonomy.aci.content.database.Databases;
+import com.hp.autonomy.searchcomponents.core.requestcontext.SearchRequestContext;
+import com.hp.autonomy.searchcomponents.core.requestcontext.SearchRequestContextHolder;
 import com.hp.autonomy.searchcomponents.core.search.AutoCorrectException;
 import com.hp.autonomy.searchcomponents.idol.databases.IdolDatabasesRequestBuilder;
 import com.hp.autonomy.searchcomponents.idol.databases.IdolDatabasesService;
@@ -118,6 +120,8 @@ class QueryResponseParserImpl implements QueryResponseParser {
 
     @Override
     public List<IdolSearchResult> parseQueryHits(final Collection<Hit> hits) {
+        // read once for all the hits
+        final SearchRequestContext<?> context = SearchRequestContextHolder.getContext();
         final List<IdolSearchResult> results = new ArrayList<>(hits.size());
         for (final Hit hit : hits) {
             final IdolSearchResult.IdolSearchResultBuilder searchResultBuilder = new IdolSearchResult.IdolSearchResultBuilder()
@@ -129,7 +133,7 @@ class QueryResponseParserImpl implements QueryResponseParser {
                     .weight(hit.getWeight())
                     .promotionName(hit.getPromotionname());
 
-            fieldsParser.parseDocumentFields(hit, searchResultBuilder);
+            fieldsParser.parseDocumentFields(hit, searchResultBuilder, context);
             results.add(searchResultBuilder.build());
         }
         return results;
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.search;
+
+import com.hp.autonomy.searchcomponents.core.requestcontext.SearchRequestContext;
+import com.hp.autonomy.searchcomponents.core.requestcontext.SearchRequestContextHolder;
+import com.hp.autonomy.searchcomponents.idol.configuration.IdolSearchCapable;
+import org.springframework.beans.factory.annotation.Qualifier;
+
+/**
+ * Captures the configuration and security info used by every backend request made for a search, so that they are
+ * looked up once per search. Pass a captured context to the {@link HavenSearchAciParameterHandler},
+ * {@link QueryExecutor} and fields parser; the default services also apply it with {@link SearchRequestContextHolder}.
+ */
+public interface SearchRequestContextService {
+    /**
+     * The bean name of the default implementation.
+     * Use this in an {@link Qualifier} tag to access this implementation via autowiring.
+     */
+    String SEARCH_REQUEST_CONTEXT_SERVICE_BEAN_NAME = "searchRequestContextService";
+
+    /**
+     * Takes a snapshot of the current configuration and the security info of the current user
+     *
+     * @return The context for a new search
+     */
+    SearchRequestContext<IdolSearchCapable> captureContext();
+
+    /**
+     * Returns the context applied to the current thread if it was captured by this service, or captures a new one
+     *
+     * @return The context for the current request
+     */
+    SearchRequestContext<IdolSearchCapable> getContext();
+
+    /**
+     * Returns the escaped security info of the current user, taken from the current context if there is one
+     *
+     * @return The escaped security info, or null if the user has none
+     */
+    String getSecurityInfo();
+
+    /**
+     * Returns the escaped security info captured in the given context, or that of the current user if the context was
+     * not captured by this service
+     *
+     * @param context The context of the request (may be null)
+     * @return The escaped security info, or null if the user has none
+     */
+    String getSecurityInfo(SearchRequestContext<?> context);
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.search;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.escape.Escaper;
+import com.google.common.net.UrlEscapers;
+import com.hp.autonomy.frontend.configuration.ConfigService;
+import com.hp.autonomy.frontend.configuration.authentication.CommunityPrincipal;
+import com.hp.autonomy.searchcomponents.core.requestcontext.SearchRequestContext;
+import com.hp.autonomy.searchcomponents.core.requestcontext.SearchRequestContextHolder;
+import com.hp.autonomy.searchcomponents.idol.configuration.IdolSearchCapable;
+import com.hpe.bigdata.frontend.spring.authentication.AuthenticationInformationRetriever;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.hp.autonomy.searchcomponents.idol.search.SearchRequestContextService.SEARCH_REQUEST_CONTEXT_SERVICE_BEAN_NAME;
+
+/**
+ * Default implementation of {@link SearchRequestContextService}. Security info strings can be long, so the escaped form
+ * is remembered for each distinct value rather than escaped for every request.
+ */
+@Component(SEARCH_REQUEST_CONTEXT_SERVICE_BEAN_NAME)
+class SearchRequestContextServiceImpl implements SearchRequestContextService {
+    private static final int MAX_ESCAPED_SECURITY_INFOS = 1000;
+    private static final long ESCAPED_SECURITY_INFO_EXPIRY_MINUTES = 60;
+
+    private final ConfigService<? extends IdolSearchCapable> configService;
+    private final AuthenticationInformationRetriever<?, CommunityPrincipal> authenticationInformationRetriever;
+
+    private final Escaper urlFragmentEscaper = UrlEscapers.urlFragmentEscaper();
+    private final Cache<String, String> escapedSecurityInfos = CacheBuilder.newBuilder()
+            .maximumSize(MAX_ESCAPED_SECURITY_INFOS)
+            .expireAfterAccess(ESCAPED_SECURITY_INFO_EXPIRY_MINUTES, TimeUnit.MINUTES)
+            .build();
+
+    @Autowired
+    SearchRequestContextServiceImpl(
+            final ConfigService<? extends IdolSearchCapable> configService,
+            final AuthenticationInformationRetriever<?, CommunityPrincipal> authenticationInformationRetriever
+    ) {
+        this.configService = configService;
+        this.authenticationInformationRetriever = authenticationInformationRetriever;
+    }
+
+    @Override
+    public SearchRequestContext<IdolSearchCapable> captureContext() {
+        return new SearchRequestContext<>(configService, configService.getConfig(), escapeSecurityInfo());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public SearchRequestContext<IdolSearchCapable> getContext() {
+        final SearchRequestContext<?> context = SearchRequestContextHolder.getContext();
+        // a context captured from this service holds this service's configuration type
+        return context != null && context.getConfigService() == configService
+                ? (SearchRequestContext<IdolSearchCapable>) context
+                : captureContext();
+    }
+
+    @Override
+    public String getSecurityInfo() {
+        return getSecurityInfo(SearchRequestContextHolder.getContext());
+    }
+
+    @Override
+    public String getSecurityInfo(final SearchRequestContext<?> context) {
+        return context != null && context.getConfigService() == configService
+                ? context.getSecurityInfo()
+                : escapeSecurityInfo();
+    }
+
+    private String escapeSecurityInfo() {
+        final CommunityPrincipal principal = authenticationInformationRetriever.getPrincipal();
+        final String securityInfo = principal != null ? principal.getSecurityInfo() : null;
+        return securityInfo != null ? escapedSecurityInfos.asMap().computeIfAbsent(securityInfo, urlFragmentEscaper::escape) : null;
+    }
+}
@@ -5,6 +5,7 @@
 
 package com.hp.autonomy.searchcomponents.idol.search.fields;
 
+import com.hp.autonomy.searchcomponents.core.requestcontext.SearchRequestContext;
 import com.hp.autonomy.searchcomponents.core.search.SearchResult;
 import com.hp.autonomy.searchcomponents.idol.search.IdolSearchResult;
 import com.hp.autonomy.types.idol.responses.Hit;
@@ -28,4 +29,15 @@ public interface FieldsParser {
      * @param searchResultBuilder The builder for generating a HavenSearch {@link SearchResult}
      */
     void parseDocumentFields(Hit hit, IdolSearchResult.IdolSearchResultBuilder searchResultBuilder);
+
+    /**
+     * Parses the document content of an Idol response using the field configuration captured for the request
+     *
+     * @param hit The document result containing content and metadata
+     * @param searchResultBuilder The builder for generating a HavenSearch {@link SearchResult}
+     * @param context The context of the request (may be null)
+     */
+    default void parseDocumentFields(final Hit hit, final IdolSearchResult.IdolSearchResultBuilder searchResultBuilder, final SearchRequestContext<?> context) {
+        parseDocumentFields(hit, searchResultBuilder);
+    }
 }
@@ -7,8 +7,12 @@ package com.hp.autonomy.searchcomponents.idol.search.fields;
 
 import com.hp.autonomy.frontend.configuration.ConfigService;
 import com.hp.autonomy.searchcomponents.core.config.FieldInfo;
+import com.hp.autonomy.searchcomponents.core.config.FieldSchema;
+import com.hp.autonomy.searchcomponents.core.config.FieldSchemaRegistry;
 import com.hp.autonomy.searchcomponents.core.config.FieldType;
 import com.hp.autonomy.searchcomponents.core.config.FieldsInfo;
+import com.hp.autonomy.searchcomponents.core.requestcontext.SearchRequestContext;
+import com.hp.autonomy.searchcomponents.core.requestcontext.SearchRequestContextHolder;
 import com.hp.autonomy.searchcomponents.core.search.PromotionCategory;
 import com.hp.autonomy.searchcomponents.idol.configuration.IdolSearchCapable;
 import com.hp.autonomy.searchcomponents.idol.search.IdolSearchResult;
@@ -24,7 +28,6 @@ import org.w3c.dom.NodeList;
 import org.w3c.dom.Text;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -33,11 +36,13 @@ import java.util.Map;
 import static com.hp.autonomy.searchcomponents.idol.search.fields.FieldsParser.FIELDS_PARSER_BEAN_NAME;
 
 /**
- * Default implementation of {@link FieldsParser}
+ * Default implementation of {@link FieldsParser}. Field metadata is taken from a {@link FieldSchema} shared by all
+ * documents, so only the values are allocated for each document.
  */
 @Component(FIELDS_PARSER_BEAN_NAME)
 class FieldsParserImpl implements FieldsParser {
     private final ConfigService<? extends IdolSearchCapable> configService;
+    private final FieldSchemaRegistry fieldSchemaRegistry = new FieldSchemaRegistry();
 
     @Autowired
     FieldsParserImpl(final ConfigService<? extends IdolSearchCapable> configService) {
@@ -46,8 +51,13 @@ class FieldsParserImpl implements FieldsParser {
 
     @Override
     public void parseDocumentFields(final Hit hit, final IdolSearchResult.IdolSearchResultBuilder searchResultBuilder) {
-        final FieldsInfo fieldsInfo = configService.getConfig().getFieldsInfo();
-        final Map<String, FieldInfo<?>> fieldConfig = fieldsInfo.getFieldConfigByName();
+        parseDocumentFields(hit, searchResultBuilder, SearchRequestContextHolder.getContext());
+    }
+
+    @Override
+    public void parseDocumentFields(final Hit hit, final IdolSearchResult.IdolSearchResultBuilder searchResultBuilder, final SearchRequestContext<?> context) {
+        final FieldsInfo fieldsInfo = SearchRequestContextHolder.getConfig(context, configService).getFieldsInfo();
+        final FieldSchema fieldSchema = fieldSchemaRegistry.getSchema(fieldsInfo);
 
         final DocContent content = hit.getContent();
         Map<String, FieldInfo<?>> fieldMap = Collections.emptyMap();
@@ -57,9 +67,14 @@ class FieldsParserImpl implements FieldsParser {
             final Element docContent = (Element) content.getContent().get(0);
             if (docContent.hasChildNodes()) {
                 final NodeList childNodes = docContent.getChildNodes();
-                fieldMap = new HashMap<>(childNodes.getLength());
+                final Map<String, FieldSchema.Values> fieldValues = new HashMap<>(childNodes.getLength());
+                parseAllFields(fieldSchema, childNodes, fieldValues, docContent.getNodeName());
+
+                fieldMap = new HashMap<>(fieldValues.size());
+                for (final FieldSchema.Values values : fieldValues.values()) {
+                    fieldMap.put(values.getEntry().getId(), values.toFieldInfo(values.getEntry().isAdvanced()));
+                }
 
-                parseAllFields(fieldConfig, childNodes, fieldMap, docContent.getNodeName());
                 qmsId = parseField(docContent, IdolDocumentFieldsService.QMS_ID_FIELD_INFO, String.class);
                 promotionCategory = determinePromotionCategory(docContent, hit.getPromotionname(), hit.getDatabase());
             }
@@ -71,48 +86,32 @@ class FieldsParserImpl implements FieldsParser {
                 .promotionCategory(promotionCategory);
     }
 
-    private void parseAllFields(final Map<String, FieldInfo<?>> fieldConfig, final NodeList childNodes, final Map<String, FieldInfo<?>> fieldMap, final String name) {
+    private void parseAllFields(final FieldSchema fieldSchema, final NodeList childNodes, final Map<String, FieldSchema.Values> fieldValues, final String name) {
         for (int i = 0; i < childNodes.getLength(); i++) {
             final Node node = childNodes.item(i);
             if (node instanceof Text) {
                 final String stringValue = node.getNodeValue();
                 if (StringUtils.isNotBlank(stringValue)) {
-                    final FieldInfo<?> fieldInfo = getFieldInfo(fieldConfig, name);
-                    final String id = fieldInfo.getId();
-                    final FieldType fieldType = fieldInfo.getType();
-                    final Object value = fieldType.parseValue(fieldType.getType(), stringValue);
-                    if (fieldMap.containsKey(id)) {
-                        @SuppressWarnings({"unchecked", "CastToConcreteClass"})
-                        final FieldInfo<?> updatedFieldInfo = ((FieldInfo<Object>) fieldMap.get(id)).toBuilder()
-                                .name(name)
-                                .value(value)
-                                .build();
-                        fieldMap.put(id, updatedFieldInfo);
-                    } else {
-                        final Collection<String> names = new ArrayList<>(fieldInfo.getNames().size());
-                        names.add(name);
-                        final FieldInfo<Object> fieldInfoWithValue = FieldInfo.builder()
-                                .id(id)
-                                .names(names)
-                                .type(fieldInfo.getType())
-                                .advanced(fieldInfo.isAdvanced())
-                                .value(value)
-                                .build();
-                        fieldMap.put(id, fieldInfoWithValue);
-                    }
+                    getValues(fieldSchema, fieldValues, name).add(name, stringValue);
                 }
             } else if (node.getChildNodes().getLength() > 0) {
-                parseAllFields(fieldConfig, node.getChildNodes(), fieldMap, node.getNodeName());
+                parseAllFields(fieldSchema, node.getChildNodes(), fieldValues, node.getNodeName());
             }
         }
     }
 
-    private FieldInfo<?> getFieldInfo(final Map<String, FieldInfo<?>> fieldConfig, final String name) {
-        return fieldConfig.containsKey(name) ? fieldConfig.get(name) : FieldInfo.builder()
-                .id(name)
-                .name(name)
-                .advanced(true)
-                .build();
+    private FieldSchema.Values getValues(final FieldSchema fieldSchema, final Map<String, FieldSchema.Values> fieldValues, final String name) {
+        final FieldSchema.Entry entry = fieldSchema.getEntry(name);
+        // fields which are not configured use their name as their id
+        final String id = entry != null ? entry.getId() : name;
+
+        FieldSchema.Values values = fieldValues.get(id);
+        if (values == null) {
+            values = (entry != null ? entry : fieldSchema.getEntryOrDefault(name)).newValues();
+            fieldValues.put(id, values);
+        }
+
+        return values;
     }
 
     private PromotionCategory determinePromotionCategory(final Element docContent, final CharSequence promotionName, final CharSequence database) {
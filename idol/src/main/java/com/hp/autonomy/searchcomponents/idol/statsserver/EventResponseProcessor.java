@@ -0,0 +1,34 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.statsserver;
+
+import com.autonomy.aci.client.services.ProcessorException;
+import com.autonomy.aci.client.services.impl.AbstractStAXProcessor;
+import com.autonomy.aci.client.services.impl.ErrorProcessor;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Implementation of {@link AbstractStAXProcessor} which checks that StatsServer accepted a batch of events
+ */
+class EventResponseProcessor extends AbstractStAXProcessor<Void> {
+    private static final long serialVersionUID = 2471652930961365287L;
+
+    @Override
+    public Void process(final XMLStreamReader xmlStreamReader) {
+        try {
+            if (isErrorResponse(xmlStreamReader)) {
+                setErrorProcessor(new ErrorProcessor());
+                processErrorResponse(xmlStreamReader);
+            }
+        } catch (final XMLStreamException e) {
+            throw new ProcessorException(e);
+        }
+
+        return null;
+    }
+}
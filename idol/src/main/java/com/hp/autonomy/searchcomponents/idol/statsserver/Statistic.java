@@ -20,6 +20,10 @@ public class Statistic {
     private Long period;
     private Boolean dynamic;
     private String type;
+    /**
+     * The current value, present only in responses which report values rather than definitions
+     */
+    private Double value;
 
     @IdolField("name")
     public void setName(final String name) {
@@ -40,4 +44,9 @@ public class Statistic {
     public void setDynamic(final boolean dynamic) {
         this.dynamic = dynamic;
     }
+
+    @IdolField("value")
+    public void setValue(final double value) {
+        this.value = value;
+    }
 }
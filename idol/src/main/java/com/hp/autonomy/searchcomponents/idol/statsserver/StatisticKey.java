@@ -0,0 +1,22 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.statsserver;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * Identifies one series of values of a StatsServer statistic
+ */
+@Data
+public class StatisticKey implements Serializable {
+    private static final long serialVersionUID = 3398652071580941172L;
+
+    private final String idol;
+    private final String name;
+    private final Long period;
+}
@@ -0,0 +1,24 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.statsserver;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * The value of a statistic at the time it was read from StatsServer
+ */
+@Data
+public class StatisticSample implements Serializable {
+    private static final long serialVersionUID = -6087409424398153036L;
+
+    /**
+     * Time the value was read, in milliseconds since the epoch
+     */
+    private final long timestamp;
+    private final double value;
+}
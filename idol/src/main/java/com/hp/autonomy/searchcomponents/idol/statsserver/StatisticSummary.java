@@ -0,0 +1,47 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.statsserver;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Aggregates of the samples of a statistic over a window of time
+ */
+@Data
+public class StatisticSummary implements Serializable {
+    private static final long serialVersionUID = 1780239536129004447L;
+
+    private final int count;
+    private final double min;
+    private final double max;
+    private final double mean;
+    private final double sum;
+    /**
+     * The most recent value in the window
+     */
+    private final double latest;
+
+    /**
+     * @param samples Samples in the order they were taken; must not be empty
+     * @return The aggregates of the samples
+     */
+    static StatisticSummary of(final List<StatisticSample> samples) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        double sum = 0;
+
+        for (final StatisticSample sample : samples) {
+            min = Math.min(min, sample.getValue());
+            max = Math.max(max, sample.getValue());
+            sum += sample.getValue();
+        }
+
+        return new StatisticSummary(samples.size(), min, max, sum / samples.size(), sum, samples.get(samples.size() - 1).getValue());
+    }
+}
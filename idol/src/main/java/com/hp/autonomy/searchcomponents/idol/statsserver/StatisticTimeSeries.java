@@ -0,0 +1,52 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.statsserver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed number of the most recent samples of a statistic. Once full, each new sample overwrites the oldest, so the
+ * memory used never grows.
+ */
+class StatisticTimeSeries {
+    private final long[] timestamps;
+    private final double[] values;
+
+    // index at which the next sample is written
+    private int next;
+    private int size;
+
+    StatisticTimeSeries(final int capacity) {
+        timestamps = new long[capacity];
+        values = new double[capacity];
+    }
+
+    synchronized void add(final long timestamp, final double value) {
+        timestamps[next] = timestamp;
+        values[next] = value;
+        next = (next + 1) % timestamps.length;
+        size = Math.min(size + 1, timestamps.length);
+    }
+
+    /**
+     * @param since Earliest time to include, in milliseconds since the epoch
+     * @return The samples taken at or after the given time, oldest first
+     */
+    synchronized List<StatisticSample> getSamples(final long since) {
+        final List<StatisticSample> samples = new ArrayList<>(size);
+        final int oldest = (next - size + timestamps.length) % timestamps.length;
+
+        for (int i = 0; i < size; i++) {
+            final int index = (oldest + i) % timestamps.length;
+            if (timestamps[index] >= since) {
+                samples.add(new StatisticSample(timestamps[index], values[index]));
+            }
+        }
+
+        return samples;
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.statsserver;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Holds recent values of StatsServer statistics in memory, so that they can be shown without a request to StatsServer.
+ * Values are read in the background at a fixed interval.
+ */
+public interface StatisticsHistoryService {
+    /**
+     * The bean name of the default implementation.
+     * Use this in an {@link Qualifier} tag to access this implementation via autowiring.
+     */
+    String STATISTICS_HISTORY_SERVICE_BEAN_NAME = "statisticsHistoryService";
+
+    /**
+     * Returns the statistics for which values have been read
+     *
+     * @return The known statistics
+     */
+    Set<StatisticKey> getKeys();
+
+    /**
+     * Returns the values of a statistic read within the given time
+     *
+     * @param key    The statistic
+     * @param window How far back to look, in milliseconds
+     * @return The samples, oldest first; empty if the statistic is not known
+     */
+    List<StatisticSample> getSamples(StatisticKey key, long window);
+
+    /**
+     * Aggregates the values of a statistic read within the given time
+     *
+     * @param key    The statistic
+     * @param window How far back to look, in milliseconds
+     * @return The aggregates, or null if there are no samples in the window
+     */
+    StatisticSummary getSummary(StatisticKey key, long window);
+
+    /**
+     * Reads the current values of the configured statistics from StatsServer. Does nothing if polling is disabled.
+     */
+    void poll();
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.statsserver;
+
+import com.autonomy.aci.client.annotations.IdolAnnotationsProcessorFactory;
+import com.autonomy.aci.client.services.AciService;
+import com.autonomy.aci.client.services.Processor;
+import com.autonomy.aci.client.util.AciParameters;
+import com.hp.autonomy.frontend.configuration.ConfigService;
+import com.hp.autonomy.searchcomponents.idol.configuration.IdolSearchCapable;
+import com.hp.autonomy.searchcomponents.idol.scheduling.ConfiguredDelayTrigger;
+import com.hp.autonomy.searchcomponents.idol.statsserver.configuration.StatisticsPollingConfig;
+import com.hp.autonomy.searchcomponents.idol.statsserver.configuration.StatsServerConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.BooleanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+
+import static com.hp.autonomy.searchcomponents.idol.beanconfiguration.HavenSearchIdolConfiguration.TASK_SCHEDULER_BEAN_NAME;
+import static com.hp.autonomy.searchcomponents.idol.statsserver.StatisticsHistoryService.STATISTICS_HISTORY_SERVICE_BEAN_NAME;
+
+/**
+ * Default implementation of {@link StatisticsHistoryService}. Each poll sends one GetStatistics action to StatsServer,
+ * parsed by {@link StatisticProcessor}, and appends the value of each configured statistic to its
+ * {@link StatisticTimeSeries}. A failed poll leaves a gap in the series.
+ */
+@Slf4j
+@Component(STATISTICS_HISTORY_SERVICE_BEAN_NAME)
+@ManagedResource(description = "Recent values of StatsServer statistics")
+class StatisticsHistoryServiceImpl implements StatisticsHistoryService {
+    private static final String GET_STATISTICS_ACTION = "GetStatistics";
+
+    private final ConfigService<? extends IdolSearchCapable> configService;
+    private final AciService aciService;
+    private final Processor<Set<Statistic>> processor;
+    private final TaskScheduler taskScheduler;
+
+    private final ConcurrentMap<StatisticKey, StatisticTimeSeries> series = new ConcurrentHashMap<>();
+
+    private volatile long pollTime;
+    private volatile ScheduledFuture<?> pollTask;
+
+    @Autowired
+    StatisticsHistoryServiceImpl(
+            final ConfigService<? extends IdolSearchCapable> configService,
+            final AciService aciService,
+            final IdolAnnotationsProcessorFactory annotationsProcessorFactory,
+            @Qualifier(TASK_SCHEDULER_BEAN_NAME)
+            final TaskScheduler taskScheduler
+    ) {
+        this.configService = configService;
+        this.aciService = aciService;
+        this.taskScheduler = taskScheduler;
+        processor = new StatisticProcessor(annotationsProcessorFactory);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        pollTask = taskScheduler.schedule(this::pollInBackground, new ConfiguredDelayTrigger(this::getInterval));
+    }
+
+    @PreDestroy
+    public void close() {
+        if (pollTask != null) {
+            pollTask.cancel(false);
+        }
+    }
+
+    @Override
+    public Set<StatisticKey> getKeys() {
+        return Collections.unmodifiableSet(new HashSet<>(series.keySet()));
+    }
+
+    @Override
+    public List<StatisticSample> getSamples(final StatisticKey key, final long window) {
+        final StatisticTimeSeries timeSeries = series.get(key);
+        return timeSeries != null ? timeSeries.getSamples(System.currentTimeMillis() - window) : Collections.emptyList();
+    }
+
+    @Override
+    public StatisticSummary getSummary(final StatisticKey key, final long window) {
+        final List<StatisticSample> samples = getSamples(key, window);
+        return samples.isEmpty() ? null : StatisticSummary.of(samples);
+    }
+
+    @Override
+    @ManagedOperation(description = "Reads the current statistics from StatsServer")
+    public synchronized void poll() {
+        final StatsServerConfig statsServerConfig = configService.getConfig().getStatsServer();
+        final StatisticsPollingConfig config = getPollingConfig();
+        if (config == null) {
+            return;
+        }
+
+        final Set<Statistic> statistics = aciService.executeAction(statsServerConfig.toAciServerDetails(), new AciParameters(GET_STATISTICS_ACTION), processor);
+        final long timestamp = System.currentTimeMillis();
+        final Collection<String> names = config.getStatistics();
+        final int historySize = config.getHistorySizeOrDefault();
+
+        for (final Statistic statistic : statistics) {
+            if (statistic.getValue() != null && (names.isEmpty() || names.contains(statistic.getName()))) {
+                final StatisticKey key = new StatisticKey(statistic.getIdol(), statistic.getName(), statistic.getPeriod());
+                series.computeIfAbsent(key, k -> new StatisticTimeSeries(historySize)).add(timestamp, statistic.getValue());
+            }
+        }
+
+        pollTime = timestamp;
+    }
+
+    @ManagedAttribute(description = "Number of statistics being recorded")
+    public int getSeriesCount() {
+        return series.size();
+    }
+
+    @ManagedAttribute(description = "Time of the last successful poll, in milliseconds since the epoch")
+    public long getPollTime() {
+        return pollTime;
+    }
+
+    private void pollInBackground() {
+        try {
+            poll();
+        } catch (final RuntimeException e) {
+            log.warn("Failed to read statistics from StatsServer", e);
+        }
+    }
+
+    private long getInterval() {
+        final StatisticsPollingConfig config = getPollingConfig();
+        return config != null ? config.getIntervalOrDefault() : StatisticsPollingConfig.DEFAULT_INTERVAL;
+    }
+
+    private StatisticsPollingConfig getPollingConfig() {
+        final StatsServerConfig statsServerConfig = configService.getConfig().getStatsServer();
+        final StatisticsPollingConfig pollingConfig = statsServerConfig != null && BooleanUtils.isTrue(statsServerConfig.getEnabled()) ? statsServerConfig.getPolling() : null;
+        return pollingConfig != null && BooleanUtils.isTrue(pollingConfig.getEnabled()) ? pollingConfig : null;
+    }
+}
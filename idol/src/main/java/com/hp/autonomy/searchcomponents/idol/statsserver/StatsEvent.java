@@ -0,0 +1,31 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.statsserver;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.Singular;
+
+import java.util.Map;
+
+/**
+ * A single item of search activity, such as a query or a document being viewed, to be recorded in StatsServer
+ */
+@Data
+@Builder
+public class StatsEvent {
+    private final StatsEventType type;
+    /**
+     * Time of the event, in milliseconds since the epoch
+     */
+    private final long timestamp;
+    private final String username;
+    /**
+     * Type-specific details, such as the query text or the reference of the viewed document
+     */
+    @Singular
+    private final Map<String, String> fields;
+}
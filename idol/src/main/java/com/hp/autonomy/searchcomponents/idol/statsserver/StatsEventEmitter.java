@@ -0,0 +1,28 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.statsserver;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+
+/**
+ * Records search activity in StatsServer without delaying the request which caused it. Events are buffered in memory
+ * and sent in batches in the background; if they cannot be sent quickly enough, some are discarded.
+ */
+public interface StatsEventEmitter {
+    /**
+     * The bean name of the default implementation.
+     * Use this in an {@link Qualifier} tag to access this implementation via autowiring.
+     */
+    String STATS_EVENT_EMITTER_BEAN_NAME = "statsEventEmitter";
+
+    /**
+     * Queues an event to be sent to StatsServer. Never blocks; does nothing if sending events is disabled.
+     *
+     * @param event The event to record
+     * @return false if the event, or an older event in its place, was discarded because the buffer was full
+     */
+    boolean emit(StatsEvent event);
+}
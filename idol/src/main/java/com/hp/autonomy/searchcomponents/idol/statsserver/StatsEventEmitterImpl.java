@@ -0,0 +1,245 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.statsserver;
+
+import com.autonomy.aci.client.services.AciService;
+import com.autonomy.aci.client.services.Processor;
+import com.autonomy.aci.client.util.AciParameters;
+import com.hp.autonomy.frontend.configuration.ConfigService;
+import com.hp.autonomy.searchcomponents.idol.configuration.IdolSearchCapable;
+import com.hp.autonomy.searchcomponents.idol.scheduling.ConfiguredDelayTrigger;
+import com.hp.autonomy.searchcomponents.idol.statsserver.configuration.StatsEventDropPolicy;
+import com.hp.autonomy.searchcomponents.idol.statsserver.configuration.StatsEventsConfig;
+import com.hp.autonomy.searchcomponents.idol.statsserver.configuration.StatsServerConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.BooleanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hp.autonomy.searchcomponents.idol.beanconfiguration.HavenSearchIdolConfiguration.TASK_SCHEDULER_BEAN_NAME;
+import static com.hp.autonomy.searchcomponents.idol.statsserver.StatsEventEmitter.STATS_EVENT_EMITTER_BEAN_NAME;
+
+/**
+ * Default implementation of {@link StatsEventEmitter}. Events are held in a lock-free {@link RingBuffer} and sent to
+ * StatsServer as an Event action by a background task. If a batch cannot be sent it is discarded, and the
+ * remaining events wait for the next flush; when the buffer is full the configured {@link StatsEventDropPolicy} decides
+ * which event is lost. Events still waiting when the application stops are not sent.
+ */
+@Slf4j
+@Component(STATS_EVENT_EMITTER_BEAN_NAME)
+@ManagedResource(description = "Batched sending of search events to StatsServer")
+class StatsEventEmitterImpl implements StatsEventEmitter {
+    private static final String EVENT_ACTION = "Event";
+    private static final String DATA_PARAMETER = "Data";
+    private static final XMLOutputFactory XML_OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+
+    private final ConfigService<? extends IdolSearchCapable> configService;
+    private final AciService aciService;
+    private final Processor<Void> processor = new EventResponseProcessor();
+    private final RingBuffer<StatsEvent> buffer;
+    private final TaskScheduler taskScheduler;
+
+    private final AtomicLong emitted = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private volatile ScheduledFuture<?> flushTask;
+
+    @Autowired
+    StatsEventEmitterImpl(final ConfigService<? extends IdolSearchCapable> configService, final AciService aciService,
+                          @Qualifier(TASK_SCHEDULER_BEAN_NAME) final TaskScheduler taskScheduler) {
+        this.configService = configService;
+        this.aciService = aciService;
+        this.taskScheduler = taskScheduler;
+
+        // the buffer is sized once; fall back to the default if no config has been loaded yet
+        final IdolSearchCapable config = configService.getConfig();
+        final StatsServerConfig statsServerConfig = config != null ? config.getStatsServer() : null;
+        final StatsEventsConfig eventsConfig = statsServerConfig != null ? statsServerConfig.getEvents() : null;
+        buffer = new RingBuffer<>(eventsConfig != null ? eventsConfig.getBufferSizeOrDefault() : StatsEventsConfig.DEFAULT_BUFFER_SIZE);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        flushTask = taskScheduler.schedule(this::flushInBackground, new ConfiguredDelayTrigger(this::getFlushInterval));
+    }
+
+    @PreDestroy
+    public void close() {
+        if (flushTask != null) {
+            flushTask.cancel(false);
+        }
+    }
+
+    @Override
+    public boolean emit(final StatsEvent event) {
+        final StatsEventsConfig config = getEventsConfig();
+        if (config == null) {
+            return true;
+        }
+
+        emitted.incrementAndGet();
+        if (buffer.offer(event)) {
+            return true;
+        }
+
+        dropped.incrementAndGet();
+        if (config.getDropPolicyOrDefault() == StatsEventDropPolicy.DROP_OLDEST) {
+            buffer.poll();
+            // another search thread may take the freed slot first, in which case this event is the one lost
+            buffer.offer(event);
+        }
+
+        return false;
+    }
+
+    @ManagedOperation(description = "Sends all waiting events to StatsServer")
+    public synchronized void flush() {
+        final StatsServerConfig statsServerConfig = configService.getConfig().getStatsServer();
+        final StatsEventsConfig config = getEventsConfig();
+        if (config == null) {
+            return;
+        }
+
+        final int batchSize = config.getBatchSizeOrDefault();
+        List<StatsEvent> batch;
+        while (!(batch = drain(batchSize)).isEmpty()) {
+            if (!send(statsServerConfig, batch)) {
+                // leave the rest for the next flush rather than retrying a server which is struggling
+                return;
+            }
+        }
+    }
+
+    @ManagedAttribute(description = "Number of events recorded while sending events was enabled")
+    public long getEmittedCount() {
+        return emitted.get();
+    }
+
+    @ManagedAttribute(description = "Number of events discarded because the buffer was full")
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    @ManagedAttribute(description = "Number of events accepted by StatsServer")
+    public long getSentCount() {
+        return sent.get();
+    }
+
+    @ManagedAttribute(description = "Number of events discarded because they could not be sent to StatsServer")
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    @ManagedAttribute(description = "Number of events waiting to be sent")
+    public int getBufferedCount() {
+        return buffer.size();
+    }
+
+    @ManagedAttribute(description = "Number of events which can wait to be sent")
+    public int getBufferCapacity() {
+        return buffer.capacity();
+    }
+
+    static String toXml(final Iterable<StatsEvent> events) {
+        final StringWriter writer = new StringWriter();
+
+        try {
+            final XMLStreamWriter xmlStreamWriter = XML_OUTPUT_FACTORY.createXMLStreamWriter(writer);
+            xmlStreamWriter.writeStartElement("events");
+
+            for (final StatsEvent event : events) {
+                xmlStreamWriter.writeStartElement("event");
+                writeElement(xmlStreamWriter, "type", event.getType().value());
+                writeElement(xmlStreamWriter, "timestamp", Long.toString(event.getTimestamp()));
+                writeElement(xmlStreamWriter, "username", event.getUsername());
+
+                for (final Map.Entry<String, String> field : event.getFields().entrySet()) {
+                    writeElement(xmlStreamWriter, field.getKey(), field.getValue());
+                }
+
+                xmlStreamWriter.writeEndElement();
+            }
+
+            xmlStreamWriter.writeEndElement();
+            xmlStreamWriter.close();
+        } catch (final XMLStreamException e) {
+            throw new IllegalArgumentException("Could not write StatsServer events", e);
+        }
+
+        return writer.toString();
+    }
+
+    private static void writeElement(final XMLStreamWriter xmlStreamWriter, final String name, final String value) throws XMLStreamException {
+        if (value != null) {
+            xmlStreamWriter.writeStartElement(name);
+            xmlStreamWriter.writeCharacters(value);
+            xmlStreamWriter.writeEndElement();
+        }
+    }
+
+    private void flushInBackground() {
+        try {
+            flush();
+        } catch (final RuntimeException e) {
+            log.warn("Failed to send events to StatsServer", e);
+        }
+    }
+
+    private long getFlushInterval() {
+        final StatsEventsConfig config = getEventsConfig();
+        return config != null ? config.getFlushIntervalOrDefault() : StatsEventsConfig.DEFAULT_FLUSH_INTERVAL;
+    }
+
+    private List<StatsEvent> drain(final int batchSize) {
+        final List<StatsEvent> batch = new ArrayList<>(Math.min(batchSize, buffer.capacity()));
+        StatsEvent event;
+        while (batch.size() < batchSize && (event = buffer.poll()) != null) {
+            batch.add(event);
+        }
+        return batch;
+    }
+
+    private boolean send(final StatsServerConfig statsServerConfig, final List<StatsEvent> batch) {
+        final AciParameters parameters = new AciParameters(EVENT_ACTION);
+        parameters.add(DATA_PARAMETER, toXml(batch));
+
+        try {
+            aciService.executeAction(statsServerConfig.toAciServerDetails(), parameters, processor);
+            sent.addAndGet(batch.size());
+            return true;
+        } catch (final RuntimeException e) {
+            failed.addAndGet(batch.size());
+            log.warn("Discarded {} events which could not be sent to StatsServer", batch.size(), e);
+            return false;
+        }
+    }
+
+    private StatsEventsConfig getEventsConfig() {
+        final StatsServerConfig statsServerConfig = configService.getConfig().getStatsServer();
+        final StatsEventsConfig eventsConfig = statsServerConfig != null && BooleanUtils.isTrue(statsServerConfig.getEnabled()) ? statsServerConfig.getEvents() : null;
+        return eventsConfig != null && BooleanUtils.isTrue(eventsConfig.getEnabled()) ? eventsConfig : null;
+    }
+}
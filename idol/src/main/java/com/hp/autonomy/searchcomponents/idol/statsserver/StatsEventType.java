@@ -0,0 +1,28 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.statsserver;
+
+/**
+ * The kinds of search activity which can be recorded in StatsServer
+ */
+public enum StatsEventType {
+    QUERY("query"),
+    FACET_CLICK("facetclick"),
+    VIEW("view");
+
+    private final String value;
+
+    StatsEventType(final String value) {
+        this.value = value;
+    }
+
+    /**
+     * @return The name StatsServer knows this type of event by
+     */
+    public String value() {
+        return value;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.statsserver.configuration;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import com.hp.autonomy.frontend.configuration.ConfigException;
+import com.hp.autonomy.frontend.configuration.SimpleComponent;
+import com.hp.autonomy.frontend.configuration.validation.OptionalConfigurationComponent;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Singular;
+import lombok.ToString;
+import org.apache.commons.lang3.BooleanUtils;
+
+import java.util.Collection;
+
+/**
+ * Configuration for periodically reading statistics from StatsServer into memory. Each statistic keeps a fixed number
+ * of samples; the number is read when the statistic is first seen.
+ */
+@SuppressWarnings("DefaultAnnotationParam")
+@Getter
+@Builder
+@EqualsAndHashCode(callSuper = false)
+@ToString
+@JsonDeserialize(builder = StatisticsPollingConfig.StatisticsPollingConfigBuilder.class)
+public class StatisticsPollingConfig extends SimpleComponent<StatisticsPollingConfig> implements OptionalConfigurationComponent<StatisticsPollingConfig> {
+    private static final String SECTION = "StatsServer polling";
+
+    /**
+     * The time in milliseconds between polls if no value is configured
+     */
+    public static final long DEFAULT_INTERVAL = 60000L;
+
+    /**
+     * The number of samples kept for each statistic if no value is configured; a day at the default interval
+     */
+    public static final int DEFAULT_HISTORY_SIZE = 1440;
+
+    /**
+     * Names of the statistics to keep; all statistics are kept if empty
+     */
+    @Singular
+    private final Collection<String> statistics;
+    private final Long interval;
+    private final Integer historySize;
+    private final Boolean enabled;
+
+    @Override
+    public void basicValidate(final String configSection) throws ConfigException {
+        if (BooleanUtils.isTrue(enabled)) {
+            if (interval != null && interval <= 0) {
+                throw new ConfigException(SECTION, "Interval must be positive");
+            }
+
+            if (historySize != null && historySize <= 0) {
+                throw new ConfigException(SECTION, "History size must be positive");
+            }
+        }
+    }
+
+    public long getIntervalOrDefault() {
+        return interval != null ? interval : DEFAULT_INTERVAL;
+    }
+
+    public int getHistorySizeOrDefault() {
+        return historySize != null ? historySize : DEFAULT_HISTORY_SIZE;
+    }
+
+    @SuppressWarnings("WeakerAccess")
+    @JsonPOJOBuilder(withPrefix = "")
+    public static class StatisticsPollingConfigBuilder {
+    }
+}
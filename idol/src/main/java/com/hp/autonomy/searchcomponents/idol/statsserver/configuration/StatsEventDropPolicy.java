@@ -0,0 +1,20 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.statsserver.configuration;
+
+/**
+ * Which events to discard when events are recorded faster than they can be sent to StatsServer
+ */
+public enum StatsEventDropPolicy {
+    /**
+     * Discard the event being recorded, keeping those already waiting to be sent
+     */
+    DROP_NEWEST,
+    /**
+     * Discard the oldest waiting event to make room for the event being recorded
+     */
+    DROP_OLDEST
+}
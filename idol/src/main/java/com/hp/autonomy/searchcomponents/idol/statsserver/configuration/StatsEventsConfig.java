@@ -0,0 +1,90 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.statsserver.configuration;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import com.hp.autonomy.frontend.configuration.ConfigException;
+import com.hp.autonomy.frontend.configuration.SimpleComponent;
+import com.hp.autonomy.frontend.configuration.validation.OptionalConfigurationComponent;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.apache.commons.lang3.BooleanUtils;
+
+/**
+ * Configuration for sending search events to StatsServer. Events are held in a fixed-size buffer and sent in batches by
+ * a background thread; the buffer size is read once at startup.
+ */
+@SuppressWarnings("DefaultAnnotationParam")
+@Getter
+@Builder
+@EqualsAndHashCode(callSuper = false)
+@ToString
+@JsonDeserialize(builder = StatsEventsConfig.StatsEventsConfigBuilder.class)
+public class StatsEventsConfig extends SimpleComponent<StatsEventsConfig> implements OptionalConfigurationComponent<StatsEventsConfig> {
+    private static final String SECTION = "StatsServer events";
+
+    /**
+     * The number of events which can wait to be sent if no value is configured
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    /**
+     * The maximum number of events sent to StatsServer in one request if no value is configured
+     */
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    /**
+     * The time in milliseconds between sends if no value is configured
+     */
+    public static final long DEFAULT_FLUSH_INTERVAL = 5000L;
+
+    private final Integer bufferSize;
+    private final Integer batchSize;
+    private final Long flushInterval;
+    private final StatsEventDropPolicy dropPolicy;
+    private final Boolean enabled;
+
+    @Override
+    public void basicValidate(final String configSection) throws ConfigException {
+        if (BooleanUtils.isTrue(enabled)) {
+            if (bufferSize != null && bufferSize <= 0) {
+                throw new ConfigException(SECTION, "Buffer size must be positive");
+            }
+
+            if (batchSize != null && batchSize <= 0) {
+                throw new ConfigException(SECTION, "Batch size must be positive");
+            }
+
+            if (flushInterval != null && flushInterval <= 0) {
+                throw new ConfigException(SECTION, "Flush interval must be positive");
+            }
+        }
+    }
+
+    public int getBufferSizeOrDefault() {
+        return bufferSize != null ? bufferSize : DEFAULT_BUFFER_SIZE;
+    }
+
+    public int getBatchSizeOrDefault() {
+        return batchSize != null ? batchSize : DEFAULT_BATCH_SIZE;
+    }
+
+    public long getFlushIntervalOrDefault() {
+        return flushInterval != null ? flushInterval : DEFAULT_FLUSH_INTERVAL;
+    }
+
+    public StatsEventDropPolicy getDropPolicyOrDefault() {
+        return dropPolicy != null ? dropPolicy : StatsEventDropPolicy.DROP_NEWEST;
+    }
+
+    @SuppressWarnings("WeakerAccess")
+    @JsonPOJOBuilder(withPrefix = "")
+    public static class StatsEventsConfigBuilder {
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.statsserver.configuration;
+
+import com.autonomy.aci.client.transport.AciServerDetails;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import com.hp.autonomy.frontend.configuration.ConfigException;
+import com.hp.autonomy.frontend.configuration.SimpleComponent;
+import com.hp.autonomy.frontend.configuration.server.ServerConfig;
+import com.hp.autonomy.frontend.configuration.validation.OptionalConfigurationComponent;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.apache.commons.lang3.BooleanUtils;
+
+/**
+ * Configuration for the StatsServer which records search activity
+ */
+@SuppressWarnings("DefaultAnnotationParam")
+@Getter
+@Builder
+@EqualsAndHashCode(callSuper = false)
+@ToString
+@JsonDeserialize(builder = StatsServerConfig.StatsServerConfigBuilder.class)
+public class StatsServerConfig extends SimpleComponent<StatsServerConfig> implements OptionalConfigurationComponent<StatsServerConfig> {
+    private static final String SECTION = "StatsServer";
+
+    private final ServerConfig server;
+    private final StatsEventsConfig events;
+    private final StatisticsPollingConfig polling;
+    private final Boolean enabled;
+
+    @Override
+    public void basicValidate(final String configSection) throws ConfigException {
+        if (BooleanUtils.isTrue(enabled)) {
+            if (server == null) {
+                throw new ConfigException(SECTION, "StatsServer is enabled but no corresponding server details have been provided");
+            }
+            server.basicValidate(SECTION);
+
+            if (events != null) {
+                events.basicValidate(SECTION);
+            }
+
+            if (polling != null) {
+                polling.basicValidate(SECTION);
+            }
+        }
+    }
+
+    public AciServerDetails toAciServerDetails() {
+        return server.toAciServerDetails();
+    }
+
+    @SuppressWarnings("WeakerAccess")
+    @JsonPOJOBuilder(withPrefix = "")
+    public static class StatsServerConfigBuilder {
+    }
+}
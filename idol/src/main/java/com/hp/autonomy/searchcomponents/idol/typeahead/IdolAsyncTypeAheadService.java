@@ -0,0 +1,25 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.typeahead;
+
+import com.hp.autonomy.searchcomponents.idol.httpclient.AsyncAciService;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart to {@link IdolTypeAheadService}, implemented by the QMS and term expand services
+ */
+@FunctionalInterface
+public interface IdolAsyncTypeAheadService {
+    /**
+     * Generates auto-complete suggestions without holding a thread while the backend responds
+     *
+     * @param text The text so far
+     * @return A future which completes with the suggestions. Cancelling it aborts the request, as for {@link AsyncAciService}.
+     */
+    CompletableFuture<List<String>> getSuggestionsAsync(String text);
+}
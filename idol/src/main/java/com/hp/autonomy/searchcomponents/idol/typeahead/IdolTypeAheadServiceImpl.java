@@ -7,8 +7,10 @@ package com.hp.autonomy.searchcomponents.idol.typeahead;
 
 import com.autonomy.aci.client.services.AciErrorException;
 import com.hp.autonomy.frontend.configuration.ConfigService;
+import com.hp.autonomy.searchcomponents.core.typeahead.TypeAheadPrefixCache;
 import com.hp.autonomy.searchcomponents.core.typeahead.TypeAheadService;
 import com.hp.autonomy.searchcomponents.idol.configuration.IdolSearchCapable;
+import com.hp.autonomy.searchcomponents.idol.configuration.QueryManipulation;
 import org.apache.commons.lang.BooleanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -19,13 +21,16 @@ import java.util.List;
 import static com.hp.autonomy.searchcomponents.core.typeahead.TypeAheadService.TYPE_AHEAD_SERVICE_BEAN_NAME;
 
 /**
- * Default Idol implementation of {@link TypeAheadService}
+ * Default Idol implementation of {@link TypeAheadService}. Suggestions come from the {@link TypeAheadIndexService} where
+ * it can answer, and otherwise from QMS or the content engine through the {@link TypeAheadPrefixCache}.
  */
 @Service(TYPE_AHEAD_SERVICE_BEAN_NAME)
 class IdolTypeAheadServiceImpl implements IdolTypeAheadService {
     private final ConfigService<? extends IdolSearchCapable> configService;
     private final TypeAheadService<AciErrorException> termExpandService;
     private final TypeAheadService<AciErrorException> qmsService;
+    private final TypeAheadIndexService typeAheadIndexService;
+    private final TypeAheadPrefixCache typeAheadPrefixCache;
 
     @Autowired
     IdolTypeAheadServiceImpl(
@@ -33,15 +38,39 @@ class IdolTypeAheadServiceImpl implements IdolTypeAheadService {
             @Qualifier(TERM_EXPAND_TYPE_AHEAD_SERVICE_BEAN_NAME)
             final TypeAheadService<AciErrorException> termExpandTypeAheadService,
             @Qualifier(QMS_TYPE_AHEAD_SERVICE_BEAN_NAME)
-            final TypeAheadService<AciErrorException> qmsTypeAheadService
+            final TypeAheadService<AciErrorException> qmsTypeAheadService,
+            final TypeAheadIndexService typeAheadIndexService,
+            final TypeAheadPrefixCache typeAheadPrefixCache
     ) {
         this.configService = configService;
         termExpandService = termExpandTypeAheadService;
         qmsService = qmsTypeAheadService;
+        this.typeAheadIndexService = typeAheadIndexService;
+        this.typeAheadPrefixCache = typeAheadPrefixCache;
     }
 
     @Override
     public List<String> getSuggestions(final String text) {
-        return BooleanUtils.isTrue(configService.getConfig().getQueryManipulation().getEnabled()) ? qmsService.getSuggestions(text) : termExpandService.getSuggestions(text);
+        final List<String> indexedSuggestions = typeAheadIndexService.getSuggestions(text);
+        if (indexedSuggestions != null) {
+            return indexedSuggestions;
+        }
+
+        final QueryManipulation queryManipulation = configService.getConfig().getQueryManipulation();
+        final Object partition = getPrefixCachePartition(queryManipulation);
+
+        return BooleanUtils.isTrue(queryManipulation.getEnabled())
+                ? typeAheadPrefixCache.getSuggestions(partition, text, qmsService)
+                : typeAheadPrefixCache.getSuggestions(partition, text, termExpandService);
+    }
+
+    /**
+     * The {@link TypeAheadPrefixCache} partition for suggestions from the backend currently in use. Suggestions from QMS
+     * depend on the mode, so each mode gets its own partition.
+     */
+    static Object getPrefixCachePartition(final QueryManipulation queryManipulation) {
+        return BooleanUtils.isTrue(queryManipulation.getEnabled())
+                ? queryManipulation.getTypeAheadMode()
+                : TERM_EXPAND_TYPE_AHEAD_SERVICE_BEAN_NAME;
     }
 }
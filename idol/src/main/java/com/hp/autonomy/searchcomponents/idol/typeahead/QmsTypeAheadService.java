@@ -12,6 +12,8 @@ import com.hp.autonomy.frontend.configuration.ConfigService;
 import com.hp.autonomy.searchcomponents.core.typeahead.TypeAheadConstants;
 import com.hp.autonomy.searchcomponents.core.typeahead.TypeAheadService;
 import com.hp.autonomy.searchcomponents.idol.configuration.IdolSearchCapable;
+import com.hp.autonomy.searchcomponents.idol.httpclient.AsyncAciFutures;
+import com.hp.autonomy.searchcomponents.idol.httpclient.AsyncAciService;
 import com.hp.autonomy.types.idol.marshalling.ProcessorFactory;
 import com.hp.autonomy.types.idol.responses.TypeAheadResponseData;
 import com.hp.autonomy.types.requests.qms.actions.typeahead.TypeAheadActions;
@@ -22,6 +24,7 @@ import org.springframework.stereotype.Service;
 
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static com.hp.autonomy.searchcomponents.idol.typeahead.IdolTypeAheadService.QMS_TYPE_AHEAD_SERVICE_BEAN_NAME;
 
@@ -29,33 +32,47 @@ import static com.hp.autonomy.searchcomponents.idol.typeahead.IdolTypeAheadServi
  * Qms implementation of {@link TypeAheadService}
  */
 @Service(QMS_TYPE_AHEAD_SERVICE_BEAN_NAME)
-class QmsTypeAheadService implements IdolTypeAheadService {
+class QmsTypeAheadService implements IdolTypeAheadService, IdolAsyncTypeAheadService {
     private final ConfigService<? extends IdolSearchCapable> configService;
     private final AciService qmsAciService;
+    private final AsyncAciService qmsAsyncAciService;
     private final Processor<TypeAheadResponseData> processor;
 
     @Autowired
     QmsTypeAheadService(
             final ConfigService<? extends IdolSearchCapable> configService,
             final AciService qmsAciService,
+            final AsyncAciService qmsAsyncAciService,
             final ProcessorFactory processorFactory
     ) {
         this.configService = configService;
         this.qmsAciService = qmsAciService;
+        this.qmsAsyncAciService = qmsAsyncAciService;
         processor = processorFactory.getResponseDataProcessor(TypeAheadResponseData.class);
     }
 
     @Override
     public List<String> getSuggestions(final String text) {
         final ModeParam mode = configService.getConfig().getQueryManipulation().getTypeAheadMode();
+        return toSuggestions(qmsAciService.executeAction(createParameters(mode, text), processor), mode);
+    }
 
+    @Override
+    public CompletableFuture<List<String>> getSuggestionsAsync(final String text) {
+        final ModeParam mode = configService.getConfig().getQueryManipulation().getTypeAheadMode();
+        final CompletableFuture<TypeAheadResponseData> response = qmsAsyncAciService.executeAction(createParameters(mode, text), processor);
+        return AsyncAciFutures.thenApply(response, responseData -> toSuggestions(responseData, mode));
+    }
+
+    private AciParameters createParameters(final ModeParam mode, final String text) {
         final AciParameters parameters = new AciParameters(TypeAheadActions.TypeAhead.name());
         parameters.add(TypeAheadParams.Mode.name(), mode);
         parameters.add(TypeAheadParams.MaxResults.name(), TypeAheadConstants.MAX_RESULTS);
         parameters.add(TypeAheadParams.Text.name(), text);
+        return parameters;
+    }
 
-        final TypeAheadResponseData response = qmsAciService.executeAction(parameters, processor);
-
+    private List<String> toSuggestions(final TypeAheadResponseData response, final ModeParam mode) {
         final List<String> output = new LinkedList<>();
         for (final TypeAheadResponseData.Expansion expansion : response.getExpansion()) {
             final String value = expansion.getValue();
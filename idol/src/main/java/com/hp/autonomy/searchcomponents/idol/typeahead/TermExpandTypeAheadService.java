@@ -10,6 +10,8 @@ import com.autonomy.aci.client.services.Processor;
 import com.autonomy.aci.client.util.AciParameters;
 import com.hp.autonomy.searchcomponents.core.typeahead.TypeAheadConstants;
 import com.hp.autonomy.searchcomponents.core.typeahead.TypeAheadService;
+import com.hp.autonomy.searchcomponents.idol.httpclient.AsyncAciFutures;
+import com.hp.autonomy.searchcomponents.idol.httpclient.AsyncAciService;
 import com.hp.autonomy.types.idol.marshalling.ProcessorFactory;
 import com.hp.autonomy.types.idol.responses.TermExpandResponseData;
 import com.hp.autonomy.types.requests.idol.actions.term.TermActions;
@@ -21,6 +23,7 @@ import org.springframework.stereotype.Service;
 
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import static com.hp.autonomy.searchcomponents.idol.typeahead.IdolTypeAheadService.TERM_EXPAND_TYPE_AHEAD_SERVICE_BEAN_NAME;
@@ -29,30 +32,44 @@ import static com.hp.autonomy.searchcomponents.idol.typeahead.IdolTypeAheadServi
  * Term expand implementation of {@link TypeAheadService}
  */
 @Service(TERM_EXPAND_TYPE_AHEAD_SERVICE_BEAN_NAME)
-class TermExpandTypeAheadService implements IdolTypeAheadService {
+class TermExpandTypeAheadService implements IdolTypeAheadService, IdolAsyncTypeAheadService {
     private final AciService contentAciService;
+    private final AsyncAciService contentAsyncAciService;
     private final Processor<TermExpandResponseData> processor;
 
     @Autowired
     TermExpandTypeAheadService(
             final AciService contentAciService,
+            final AsyncAciService contentAsyncAciService,
             final ProcessorFactory processorFactory
     ) {
         this.contentAciService = contentAciService;
+        this.contentAsyncAciService = contentAsyncAciService;
         processor = processorFactory.getResponseDataProcessor(TermExpandResponseData.class);
     }
 
     @Override
     public List<String> getSuggestions(final String text) {
+        return toSuggestions(contentAciService.executeAction(createParameters(text), processor));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> getSuggestionsAsync(final String text) {
+        final CompletableFuture<TermExpandResponseData> response = contentAsyncAciService.executeAction(createParameters(text), processor);
+        return AsyncAciFutures.thenApply(response, this::toSuggestions);
+    }
+
+    private AciParameters createParameters(final String text) {
         final AciParameters parameters = new AciParameters(TermActions.TermExpand.name());
         parameters.put(TermExpandParams.Expansion.name(), ExpansionParam.Wild);
         parameters.put(TermExpandParams.Stemming.name(), false);
         parameters.put(TermExpandParams.MaxTerms.name(), TypeAheadConstants.MAX_RESULTS);
         parameters.put(TermExpandParams.Type.name(), ExpandTypeParam.DocOccs);
         parameters.put(TermExpandParams.Text.name(), text);
+        return parameters;
+    }
 
-        final TermExpandResponseData response = contentAciService.executeAction(parameters, processor);
-
+    private List<String> toSuggestions(final TermExpandResponseData response) {
         return response.getTerm().stream().map(term -> term.getValue().toLowerCase()).collect(Collectors.toCollection(LinkedList::new));
     }
 }
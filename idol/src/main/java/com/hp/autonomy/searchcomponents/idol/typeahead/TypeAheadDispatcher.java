@@ -0,0 +1,36 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.typeahead;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Dispatches type-ahead requests so that only the latest request from each session is worked on. When a newer request
+ * arrives, the previous request for the same session is cancelled; if it had reached the backend, the HTTP request is
+ * aborted. Requests may also be held back briefly so that those superseded while the user is still typing are never
+ * sent at all.
+ */
+@FunctionalInterface
+public interface TypeAheadDispatcher {
+    /**
+     * The bean name of the default implementation.
+     * Use this in an {@link Qualifier} tag to access this implementation via autowiring.
+     */
+    String TYPE_AHEAD_DISPATCHER_BEAN_NAME = "typeAheadDispatcher";
+
+    /**
+     * Generates auto-complete suggestions, cancelling any earlier request for the same session
+     *
+     * @param sessionId Identifies the user's session, e.g. the HTTP session ID
+     * @param text      The text so far
+     * @return A future which completes with the suggestions, or is cancelled if a newer request for the session arrives
+     * first
+     */
+    CompletableFuture<List<String>> getSuggestions(String sessionId, String text);
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.typeahead;
+
+import com.hp.autonomy.frontend.configuration.ConfigService;
+import com.hp.autonomy.searchcomponents.core.typeahead.TypeAheadPrefixCache;
+import com.hp.autonomy.searchcomponents.idol.configuration.IdolSearchCapable;
+import com.hp.autonomy.searchcomponents.idol.configuration.QueryManipulation;
+import com.hp.autonomy.searchcomponents.idol.configuration.TypeAheadDispatchConfig;
+import org.apache.commons.lang.BooleanUtils;
+import org.apache.commons.lang.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hp.autonomy.searchcomponents.idol.beanconfiguration.HavenSearchIdolConfiguration.TIMEOUT_SCHEDULER_BEAN_NAME;
+import static com.hp.autonomy.searchcomponents.idol.typeahead.IdolTypeAheadService.QMS_TYPE_AHEAD_SERVICE_BEAN_NAME;
+import static com.hp.autonomy.searchcomponents.idol.typeahead.IdolTypeAheadService.TERM_EXPAND_TYPE_AHEAD_SERVICE_BEAN_NAME;
+import static com.hp.autonomy.searchcomponents.idol.typeahead.TypeAheadDispatcher.TYPE_AHEAD_DISPATCHER_BEAN_NAME;
+
+/**
+ * Default implementation of {@link TypeAheadDispatcher}. Suggestions are taken from the {@link TypeAheadIndexService}
+ * and the {@link TypeAheadPrefixCache} where possible, as in {@link IdolTypeAheadServiceImpl}; otherwise QMS or the
+ * content engine is asked without blocking, so that the request can be aborted.
+ */
+@Component(TYPE_AHEAD_DISPATCHER_BEAN_NAME)
+@ManagedResource(description = "Cancellation of superseded type-ahead requests")
+class TypeAheadDispatcherImpl implements TypeAheadDispatcher {
+    private final ConfigService<? extends IdolSearchCapable> configService;
+    private final TypeAheadIndexService typeAheadIndexService;
+    private final TypeAheadPrefixCache typeAheadPrefixCache;
+    private final IdolAsyncTypeAheadService qmsService;
+    private final IdolAsyncTypeAheadService termExpandService;
+    private final TaskScheduler timeoutScheduler;
+
+    private final ConcurrentMap<String, CompletableFuture<List<String>>> latestRequests = new ConcurrentHashMap<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong cancellations = new AtomicLong();
+
+    @Autowired
+    TypeAheadDispatcherImpl(
+            final ConfigService<? extends IdolSearchCapable> configService,
+            final TypeAheadIndexService typeAheadIndexService,
+            final TypeAheadPrefixCache typeAheadPrefixCache,
+            @Qualifier(QMS_TYPE_AHEAD_SERVICE_BEAN_NAME)
+            final IdolAsyncTypeAheadService qmsTypeAheadService,
+            @Qualifier(TERM_EXPAND_TYPE_AHEAD_SERVICE_BEAN_NAME)
+            final IdolAsyncTypeAheadService termExpandTypeAheadService,
+            @Qualifier(TIMEOUT_SCHEDULER_BEAN_NAME)
+            final TaskScheduler timeoutScheduler
+    ) {
+        this.configService = configService;
+        this.typeAheadIndexService = typeAheadIndexService;
+        this.typeAheadPrefixCache = typeAheadPrefixCache;
+        qmsService = qmsTypeAheadService;
+        termExpandService = termExpandTypeAheadService;
+        this.timeoutScheduler = timeoutScheduler;
+    }
+
+    @Override
+    public CompletableFuture<List<String>> getSuggestions(final String sessionId, final String text) {
+        requests.incrementAndGet();
+
+        final CompletableFuture<List<String>> result = new CompletableFuture<>();
+        final CompletableFuture<List<String>> previous = latestRequests.put(sessionId, result);
+        if (previous != null && previous.cancel(true)) {
+            cancellations.incrementAndGet();
+        }
+
+        result.whenComplete((suggestions, e) -> latestRequests.remove(sessionId, result));
+
+        final QueryManipulation queryManipulation = configService.getConfig().getQueryManipulation();
+        final Object partition = IdolTypeAheadServiceImpl.getPrefixCachePartition(queryManipulation);
+
+        final List<String> localSuggestions = getLocalSuggestions(partition, text);
+        if (localSuggestions != null) {
+            result.complete(localSuggestions);
+            return result;
+        }
+
+        final TypeAheadDispatchConfig config = configService.getConfig().getTypeAheadDispatch();
+        final long debounce = config != null && BooleanUtils.isTrue(config.getEnabled()) ? config.getDebounceOrDefault() : 0;
+        final IdolAsyncTypeAheadService backend = BooleanUtils.isTrue(queryManipulation.getEnabled()) ? qmsService : termExpandService;
+
+        if (debounce > 0) {
+            try {
+                final ScheduledFuture<?> sendTask = timeoutScheduler.schedule(() -> send(backend, partition, text, result), new Date(System.currentTimeMillis() + debounce));
+                // a superseded request need not wait in the scheduler
+                result.whenComplete((suggestions, e) -> sendTask.cancel(false));
+            } catch (final RejectedExecutionException e) {
+                result.completeExceptionally(e);
+            }
+        } else {
+            send(backend, partition, text, result);
+        }
+
+        return result;
+    }
+
+    @ManagedAttribute(description = "Number of type-ahead requests received")
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    @ManagedAttribute(description = "Number of type-ahead requests cancelled by a newer request from the same session")
+    public long getCancellationCount() {
+        return cancellations.get();
+    }
+
+    @ManagedAttribute(description = "Percentage of type-ahead requests cancelled by a newer request from the same session")
+    public double getCancellationRate() {
+        final long requestCount = requests.get();
+        return requestCount == 0 ? 0 : cancellations.get() * 100.0 / requestCount;
+    }
+
+    @ManagedAttribute(description = "Number of sessions with a type-ahead request in progress")
+    public int getRequestsInProgress() {
+        return latestRequests.size();
+    }
+
+    private List<String> getLocalSuggestions(final Object partition, final String text) {
+        final List<String> indexedSuggestions = typeAheadIndexService.getSuggestions(text);
+        if (indexedSuggestions != null) {
+            return indexedSuggestions;
+        }
+
+        return StringUtils.isBlank(text) ? null : typeAheadPrefixCache.getCachedSuggestions(partition, text);
+    }
+
+    private void send(final IdolAsyncTypeAheadService backend, final Object partition, final String text, final CompletableFuture<List<String>> result) {
+        // superseded while waiting for the debounce
+        if (result.isDone()) {
+            return;
+        }
+
+        final CompletableFuture<List<String>> request;
+        try {
+            request = backend.getSuggestionsAsync(text);
+        } catch (final RuntimeException e) {
+            result.completeExceptionally(e);
+            return;
+        }
+
+        request.whenComplete((suggestions, e) -> {
+            if (e == null) {
+                if (!StringUtils.isBlank(text)) {
+                    typeAheadPrefixCache.putSuggestions(partition, text, suggestions);
+                }
+
+                result.complete(suggestions);
+            } else {
+                result.completeExceptionally(e);
+            }
+        });
+
+        result.whenComplete((suggestions, e) -> {
+            if (result.isCancelled()) {
+                request.cancel(true);
+            }
+        });
+    }
+}
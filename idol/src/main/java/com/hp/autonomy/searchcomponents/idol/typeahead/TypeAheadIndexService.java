@@ -0,0 +1,37 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.typeahead;
+
+import com.hp.autonomy.searchcomponents.core.typeahead.TypeAheadIndex;
+import org.springframework.beans.factory.annotation.Qualifier;
+
+import java.util.List;
+
+/**
+ * Serves type-ahead suggestions from a {@link TypeAheadIndex} held in memory, which is rebuilt in the background from
+ * the same backend that {@link IdolTypeAheadService} would otherwise call
+ */
+public interface TypeAheadIndexService {
+    /**
+     * The bean name of the default implementation.
+     * Use this in an {@link Qualifier} tag to access this implementation via autowiring.
+     */
+    String TYPE_AHEAD_INDEX_SERVICE_BEAN_NAME = "typeAheadIndexService";
+
+    /**
+     * Looks up suggestions in the current index
+     *
+     * @param text The text so far
+     * @return The suggestions, or null if the index is disabled, not yet built or cannot answer for this text
+     */
+    List<String> getSuggestions(String text);
+
+    /**
+     * Rebuilds the index from the backend and replaces the current index once it is complete. Does nothing if the
+     * index is disabled.
+     */
+    void rebuild();
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.typeahead;
+
+import com.autonomy.aci.client.services.AciService;
+import com.autonomy.aci.client.services.Processor;
+import com.autonomy.aci.client.util.AciParameters;
+import com.hp.autonomy.frontend.configuration.ConfigService;
+import com.hp.autonomy.searchcomponents.core.typeahead.TypeAheadConstants;
+import com.hp.autonomy.searchcomponents.core.typeahead.TypeAheadIndex;
+import com.hp.autonomy.searchcomponents.idol.configuration.IdolSearchCapable;
+import com.hp.autonomy.searchcomponents.idol.configuration.QueryManipulation;
+import com.hp.autonomy.searchcomponents.idol.configuration.TypeAheadIndexConfig;
+import com.hp.autonomy.searchcomponents.idol.scheduling.ConfiguredDelayTrigger;
+import com.hp.autonomy.types.idol.marshalling.ProcessorFactory;
+import com.hp.autonomy.types.idol.responses.TermExpandResponseData;
+import com.hp.autonomy.types.idol.responses.TypeAheadResponseData;
+import com.hp.autonomy.types.requests.idol.actions.term.TermActions;
+import com.hp.autonomy.types.requests.idol.actions.term.params.ExpandTypeParam;
+import com.hp.autonomy.types.requests.idol.actions.term.params.ExpansionParam;
+import com.hp.autonomy.types.requests.idol.actions.term.params.TermExpandParams;
+import com.hp.autonomy.types.requests.qms.actions.typeahead.TypeAheadActions;
+import com.hp.autonomy.types.requests.qms.actions.typeahead.params.ModeParam;
+import com.hp.autonomy.types.requests.qms.actions.typeahead.params.TypeAheadParams;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang.BooleanUtils;
+import org.apache.commons.lang.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static com.hp.autonomy.searchcomponents.idol.beanconfiguration.HavenSearchIdolConfiguration.TASK_SCHEDULER_BEAN_NAME;
+import static com.hp.autonomy.searchcomponents.idol.typeahead.TypeAheadIndexService.TYPE_AHEAD_INDEX_SERVICE_BEAN_NAME;
+
+/**
+ * Default implementation of {@link TypeAheadIndexService}. The index is built from a TermExpand on the content engine
+ * for each configured prefix, or a TypeAhead on QMS if QMS is enabled, so that suggestions match those of
+ * {@link IdolTypeAheadServiceImpl}. Terms are ranked in the order the backend returns them. A new index is built on a
+ * background thread and swapped in once complete; if building fails the previous index is kept.
+ */
+@Slf4j
+@Component(TYPE_AHEAD_INDEX_SERVICE_BEAN_NAME)
+@ManagedResource(description = "In-memory index of type-ahead suggestions")
+class TypeAheadIndexServiceImpl implements TypeAheadIndexService {
+    private final ConfigService<? extends IdolSearchCapable> configService;
+    private final AciService contentAciService;
+    private final AciService qmsAciService;
+    private final Processor<TermExpandResponseData> termExpandProcessor;
+    private final Processor<TypeAheadResponseData> typeAheadProcessor;
+    private final TaskScheduler taskScheduler;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private volatile Snapshot snapshot;
+    private volatile ScheduledFuture<?> refreshTask;
+
+    @Autowired
+    TypeAheadIndexServiceImpl(
+            final ConfigService<? extends IdolSearchCapable> configService,
+            final AciService contentAciService,
+            final AciService qmsAciService,
+            final ProcessorFactory processorFactory,
+            @Qualifier(TASK_SCHEDULER_BEAN_NAME)
+            final TaskScheduler taskScheduler
+    ) {
+        this.configService = configService;
+        this.contentAciService = contentAciService;
+        this.qmsAciService = qmsAciService;
+        this.taskScheduler = taskScheduler;
+        termExpandProcessor = processorFactory.getResponseDataProcessor(TermExpandResponseData.class);
+        typeAheadProcessor = processorFactory.getResponseDataProcessor(TypeAheadResponseData.class);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refreshTask = taskScheduler.schedule(this::refresh, new ConfiguredDelayTrigger(this::getRefreshInterval));
+    }
+
+    @PreDestroy
+    public void close() {
+        if (refreshTask != null) {
+            refreshTask.cancel(false);
+        }
+    }
+
+    @Override
+    public List<String> getSuggestions(final String text) {
+        final TypeAheadIndexConfig config = configService.getConfig().getTypeAheadIndex();
+        final Snapshot currentSnapshot = snapshot;
+
+        if (config == null || !BooleanUtils.isTrue(config.getEnabled()) || currentSnapshot == null) {
+            return null;
+        }
+
+        // the index is discarded if the backend which built it is no longer the one in use
+        final List<String> suggestions = currentSnapshot.getSource().equals(getSource())
+                ? lookUp(currentSnapshot.getIndex(), text)
+                : null;
+
+        (suggestions != null ? hits : misses).incrementAndGet();
+        return suggestions;
+    }
+
+    @Override
+    @ManagedOperation(description = "Rebuilds the index from the backend")
+    public synchronized void rebuild() {
+        final TypeAheadIndexConfig config = configService.getConfig().getTypeAheadIndex();
+        if (config == null || !BooleanUtils.isTrue(config.getEnabled())) {
+            snapshot = null;
+            return;
+        }
+
+        final long start = System.currentTimeMillis();
+        final Source source = getSource();
+        final int maxTerms = config.getMaxTermsOrDefault();
+        final TypeAheadIndex.Builder builder = TypeAheadIndex.builder(TypeAheadConstants.MAX_RESULTS);
+
+        for (final String prefix : config.getPrefixesOrDefault()) {
+            final List<String> terms = source.isQms()
+                    ? expandWithQms(prefix, source.getMode(), maxTerms)
+                    : expandWithContent(prefix, maxTerms);
+
+            builder.addExpansion(prefix, terms, terms.size() < maxTerms);
+        }
+
+        final TypeAheadIndex index = builder.build();
+        final long finish = System.currentTimeMillis();
+        snapshot = new Snapshot(index, source, finish, finish - start);
+
+        log.info("Built type-ahead index of {} terms in {} ms", index.getTermCount(), finish - start);
+    }
+
+    @ManagedAttribute(description = "Number of terms in the current index")
+    public int getTermCount() {
+        final Snapshot currentSnapshot = snapshot;
+        return currentSnapshot != null ? currentSnapshot.getIndex().getTermCount() : 0;
+    }
+
+    @ManagedAttribute(description = "Time at which the current index was built, in milliseconds since the epoch")
+    public long getBuildTime() {
+        final Snapshot currentSnapshot = snapshot;
+        return currentSnapshot != null ? currentSnapshot.getBuildTime() : 0;
+    }
+
+    @ManagedAttribute(description = "Time taken to build the current index, in milliseconds")
+    public long getBuildDuration() {
+        final Snapshot currentSnapshot = snapshot;
+        return currentSnapshot != null ? currentSnapshot.getBuildDuration() : 0;
+    }
+
+    @ManagedAttribute(description = "Number of type-ahead requests answered from the index")
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    @ManagedAttribute(description = "Number of type-ahead requests passed to the backend while the index was enabled")
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    private void refresh() {
+        try {
+            rebuild();
+        } catch (final RuntimeException e) {
+            log.warn("Failed to build type-ahead index", e);
+        }
+    }
+
+    private long getRefreshInterval() {
+        final TypeAheadIndexConfig config = configService.getConfig().getTypeAheadIndex();
+        return config != null ? config.getRefreshIntervalOrDefault() : TypeAheadIndexConfig.DEFAULT_REFRESH_INTERVAL;
+    }
+
+    private List<String> lookUp(final TypeAheadIndex index, final String text) {
+        // the index only holds single terms, so anything else is left to the backend
+        final String prefix = StringUtils.removeEnd(text, TypeAheadConstants.WILDCARD);
+        return prefix.isEmpty() || TypeAheadConstants.UNSUPPORTED_TEXT.matcher(prefix).find() ? null : index.getSuggestions(prefix);
+    }
+
+    private List<String> expandWithContent(final String prefix, final int maxTerms) {
+        final AciParameters parameters = new AciParameters(TermActions.TermExpand.name());
+        parameters.put(TermExpandParams.Expansion.name(), ExpansionParam.Wild);
+        parameters.put(TermExpandParams.Stemming.name(), false);
+        parameters.put(TermExpandParams.MaxTerms.name(), maxTerms);
+        parameters.put(TermExpandParams.Type.name(), ExpandTypeParam.DocOccs);
+        parameters.put(TermExpandParams.Text.name(), prefix + TypeAheadConstants.WILDCARD);
+
+        final TermExpandResponseData response = contentAciService.executeAction(parameters, termExpandProcessor);
+
+        return response.getTerm().stream().map(term -> term.getValue().toLowerCase()).collect(Collectors.toList());
+    }
+
+    private List<String> expandWithQms(final String prefix, final ModeParam mode, final int maxTerms) {
+        final AciParameters parameters = new AciParameters(TypeAheadActions.TypeAhead.name());
+        parameters.add(TypeAheadParams.Mode.name(), mode);
+        parameters.add(TypeAheadParams.MaxResults.name(), maxTerms);
+        parameters.add(TypeAheadParams.Text.name(), prefix);
+
+        final TypeAheadResponseData response = qmsAciService.executeAction(parameters, typeAheadProcessor);
+
+        // as in QmsTypeAheadService, dictionary suggestions keep their case
+        return response.getExpansion().stream()
+                .map(expansion -> ModeParam.Index == mode ? expansion.getValue().toLowerCase() : expansion.getValue())
+                .collect(Collectors.toList());
+    }
+
+    private Source getSource() {
+        final QueryManipulation queryManipulation = configService.getConfig().getQueryManipulation();
+        return queryManipulation != null && BooleanUtils.isTrue(queryManipulation.getEnabled())
+                ? new Source(true, queryManipulation.getTypeAheadMode())
+                : new Source(false, null);
+    }
+
+    /**
+     * The backend an index was built from: QMS in the given mode, or the content engine
+     */
+    @Data
+    private static class Source {
+        private final boolean qms;
+        private final ModeParam mode;
+    }
+
+    @Data
+    private static class Snapshot {
+        private final TypeAheadIndex index;
+        private final Source source;
+        private final long buildTime;
+        private final long buildDuration;
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.view;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.hp.autonomy.frontend.configuration.authentication.CommunityPrincipal;
+import com.hp.autonomy.frontend.configuration.server.ServerConfig;
+import com.hp.autonomy.searchcomponents.idol.view.configuration.ViewConfig;
+import com.hp.autonomy.searchcomponents.idol.view.configuration.ViewingMode;
+import com.hpe.bigdata.frontend.spring.authentication.AuthenticationInformationRetriever;
+import lombok.Data;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Size-bounded Guava cache of the outcome of looking up a document for viewing, keyed by the document reference, the
+ * database and the security info of the current user. The cache is replaced by an empty one whenever its size or expiry,
+ * or the reference field, viewing mode or connector in the view configuration, change.
+ *
+ * @param <V> The type of the cached outcomes
+ */
+abstract class AbstractViewLookupCache<V> {
+    private static final CacheStats EMPTY_STATS = new CacheStats(0, 0, 0, 0, 0, 0);
+
+    private final AuthenticationInformationRetriever<?, CommunityPrincipal> authenticationInformationRetriever;
+
+    // the cache and the settings it was built with
+    private volatile Snapshot<V> snapshot;
+
+    AbstractViewLookupCache(final AuthenticationInformationRetriever<?, CommunityPrincipal> authenticationInformationRetriever) {
+        this.authenticationInformationRetriever = authenticationInformationRetriever;
+    }
+
+    @ManagedOperation(description = "Discards all entries")
+    public void invalidateAll() {
+        final Snapshot<V> currentSnapshot = snapshot;
+        if (currentSnapshot != null) {
+            currentSnapshot.getCache().invalidateAll();
+        }
+    }
+
+    public CacheStats getStatistics() {
+        final Snapshot<V> currentSnapshot = snapshot;
+        return currentSnapshot != null ? currentSnapshot.getCache().stats() : EMPTY_STATS;
+    }
+
+    @ManagedAttribute(description = "Number of entries")
+    public long getSize() {
+        final Snapshot<V> currentSnapshot = snapshot;
+        return currentSnapshot != null ? currentSnapshot.getCache().size() : 0;
+    }
+
+    @ManagedAttribute(description = "Number of view requests answered from the cache since the configuration last changed")
+    public long getHitCount() {
+        return getStatistics().hitCount();
+    }
+
+    @ManagedAttribute(description = "Number of view requests not found in the cache since the configuration last changed")
+    public long getMissCount() {
+        return getStatistics().missCount();
+    }
+
+    @ManagedAttribute(description = "Proportion of view requests answered from the cache since the configuration last changed")
+    public double getHitRate() {
+        return getStatistics().hitRate();
+    }
+
+    @ManagedAttribute(description = "Number of entries evicted because the cache was full or the entry expired")
+    public long getEvictionCount() {
+        return getStatistics().evictionCount();
+    }
+
+    V getIfPresent(final String documentReference, final String database, final ViewConfig viewConfig) {
+        return getCache(viewConfig).getIfPresent(createKey(documentReference, database));
+    }
+
+    void put(final String documentReference, final String database, final ViewConfig viewConfig, final V value) {
+        getCache(viewConfig).put(createKey(documentReference, database), value);
+    }
+
+    /**
+     * @param viewConfig The current view configuration
+     * @return The maximum number of entries, where 0 disables the cache
+     */
+    abstract long getMaxSize(ViewConfig viewConfig);
+
+    /**
+     * @param viewConfig The current view configuration
+     * @return The time in milliseconds for which an entry is kept
+     */
+    abstract long getExpiry(ViewConfig viewConfig);
+
+    private Cache<Key, V> getCache(final ViewConfig viewConfig) {
+        final Settings settings = new Settings(viewConfig.getReferenceField(), viewConfig.getViewingMode(), viewConfig.getConnector(), getMaxSize(viewConfig), getExpiry(viewConfig));
+
+        // outcomes resolved with other settings would give the wrong answer
+        Snapshot<V> currentSnapshot = snapshot;
+        if (currentSnapshot == null || !currentSnapshot.getSettings().equals(settings)) {
+            synchronized (this) {
+                currentSnapshot = snapshot;
+                if (currentSnapshot == null || !currentSnapshot.getSettings().equals(settings)) {
+                    currentSnapshot = new Snapshot<>(settings, CacheBuilder.newBuilder()
+                            .maximumSize(settings.getMaxSize())
+                            .expireAfterWrite(settings.getExpiry(), TimeUnit.MILLISECONDS)
+                            .recordStats()
+                            .build());
+                    snapshot = currentSnapshot;
+                }
+            }
+        }
+
+        return currentSnapshot.getCache();
+    }
+
+    private Key createKey(final String documentReference, final String database) {
+        final CommunityPrincipal principal = authenticationInformationRetriever.getPrincipal();
+        return new Key(documentReference, database, principal != null ? principal.getSecurityInfo() : null);
+    }
+
+    @Data
+    private static class Key implements Serializable {
+        private static final long serialVersionUID = -2938316423476353553L;
+
+        private final String documentReference;
+        private final String database;
+        private final String securityInfo;
+    }
+
+    @Data
+    private static class Settings {
+        private final String referenceField;
+        private final ViewingMode viewingMode;
+        private final ServerConfig connector;
+        private final long maxSize;
+        private final long expiry;
+    }
+
+    @Data
+    private static class Snapshot<V> {
+        private final Settings settings;
+        private final Cache<Key, V> cache;
+    }
+}
@@ -8,6 +8,10 @@ package com.hp.autonomy.searchcomponents.idol.view;
 import com.autonomy.aci.client.services.AciErrorException;
 import com.hp.autonomy.searchcomponents.core.view.ViewServerService;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Idol extension to {@link ViewServerService}
  */
@@ -21,4 +25,26 @@ public interface IdolViewServerService extends ViewServerService<IdolViewRequest
      * Connector "group" field
      */
     String AUTN_GROUP = "AUTN_GROUP";
+
+    /**
+     * Non-blocking equivalent of {@link #viewDocument}. The returned future completes exceptionally with the same
+     * exceptions which {@link #viewDocument} would throw.
+     *
+     * @param request      options
+     * @param outputStream The ViewServer output
+     * @return A future which completes once the ViewServer output has been written to the stream
+     */
+    CompletableFuture<Void> viewDocumentAsync(IdolViewRequest request, OutputStream outputStream);
+
+    /**
+     * Renders a document through the {@link RenderedDocumentCache}, reusing stored output when there is some. Callers
+     * can use the ETag and last modified time of the result to answer conditional and byte-range requests without
+     * contacting ViewServer. Stored output is only returned once the document has been checked to be visible to the
+     * current user, as for {@link #viewDocument}.
+     *
+     * @param request options
+     * @return The stored output, or null if the rendered document cache is not enabled or could not keep the output
+     * @throws IOException If the output could not be stored
+     */
+    RenderedDocument renderDocument(IdolViewRequest request) throws IOException;
 }
@@ -15,6 +15,7 @@ import com.autonomy.aci.client.util.AciParameters;
 import com.hp.autonomy.frontend.configuration.ConfigService;
 import com.hp.autonomy.frontend.configuration.server.ServerConfig;
 import com.hp.autonomy.searchcomponents.core.view.ViewServerService;
+import com.hp.autonomy.searchcomponents.idol.httpclient.AsyncAciService;
 import com.hp.autonomy.searchcomponents.idol.search.HavenSearchAciParameterHandler;
 import com.hp.autonomy.searchcomponents.idol.view.configuration.ViewCapable;
 import com.hp.autonomy.searchcomponents.idol.view.configuration.ViewConfig;
@@ -41,7 +42,10 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.NoSuchFileException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static com.hp.autonomy.searchcomponents.core.view.ViewServerService.VIEW_SERVER_SERVICE_BEAN_NAME;
 
@@ -55,20 +59,45 @@ class IdolViewServerServiceImpl implements IdolViewServerService {
     private final HavenSearchAciParameterHandler parameterHandler;
     private final Processor<GetContentResponseData> getContentResponseProcessor;
     private final ConfigService<? extends ViewCapable> configService;
+    private final ViewFailureCache viewFailureCache;
+    private final ViewReferenceCache viewReferenceCache;
+    private final RenderedDocumentCache renderedDocumentCache;
+    private final AsyncAciService contentAsyncAciService;
+    private final AsyncAciService viewAsyncAciService;
 
+    @SuppressWarnings("ConstructorWithTooManyParameters")
     @Autowired
-    IdolViewServerServiceImpl(final AciService contentAciService, final AciService viewAciService, final ProcessorFactory processorFactory, final HavenSearchAciParameterHandler parameterHandler, final ConfigService<? extends ViewCapable> configService) {
+    IdolViewServerServiceImpl(
+            final AciService contentAciService,
+            final AciService viewAciService,
+            final ProcessorFactory processorFactory,
+            final HavenSearchAciParameterHandler parameterHandler,
+            final ConfigService<? extends ViewCapable> configService,
+            final ViewFailureCache viewFailureCache,
+            final ViewReferenceCache viewReferenceCache,
+            final RenderedDocumentCache renderedDocumentCache,
+            final AsyncAciService contentAsyncAciService,
+            final AsyncAciService viewAsyncAciService
+    ) {
         this.contentAciService = contentAciService;
         this.viewAciService = viewAciService;
         this.parameterHandler = parameterHandler;
         this.configService = configService;
+        this.viewFailureCache = viewFailureCache;
+        this.viewReferenceCache = viewReferenceCache;
+        this.renderedDocumentCache = renderedDocumentCache;
+        this.contentAsyncAciService = contentAsyncAciService;
+        this.viewAsyncAciService = viewAsyncAciService;
 
         getContentResponseProcessor = processorFactory.getResponseDataProcessor(GetContentResponseData.class);
     }
 
     /**
      * Provides an HTML rendering of the given IDOL document reference. This first performs a GetContent to make sure the
-     * document exists, then reads the configured reference field and passes the value of the field to ViewServer.
+     * document exists, then reads the configured reference field and passes the value of the field to ViewServer. The
+     * GetContent is skipped if the current user has viewed the document recently, and ViewServer is not contacted at all
+     * if the rendered document cache holds output for the request. Stored output is never used without the reference
+     * lookup, so it cannot outlast the current user's access to the document by more than the reference cache allows.
      *
      * @param request      options
      * @param outputStream The ViewServer output
@@ -76,11 +105,43 @@ class IdolViewServerServiceImpl implements IdolViewServerService {
      * @throws ViewNoReferenceFieldException If the document with the given reference does not have the required reference field
      * @throws ReferenceFieldBlankException  If the configured reference field name is blank
      * @throws ViewServerErrorException      If ViewServer returns a status code outside the 200 range
+     * @throws IOException                   If stored output could not be read or written
      */
     @Override
-    public void viewDocument(final IdolViewRequest request, final OutputStream outputStream) throws ViewDocumentNotFoundException, ViewNoReferenceFieldException, ReferenceFieldBlankException {
+    public void viewDocument(final IdolViewRequest request, final OutputStream outputStream) throws ViewDocumentNotFoundException, ViewNoReferenceFieldException, ReferenceFieldBlankException, IOException {
         final String reference = getReferenceFieldValue(request.getDocumentReference(), request.getDatabase());
 
+        final RenderedDocument renderedDocument = renderedDocumentCache.isEnabled() ? renderDocument(request, reference) : null;
+        if (renderedDocument != null) {
+            try {
+                renderedDocument.writeTo(outputStream);
+                return;
+            } catch (final NoSuchFileException ignored) {
+                // discarded since it was looked up, before anything was written, so render it directly instead
+            }
+        }
+
+        renderFromViewServer(request, reference, outputStream);
+    }
+
+    @Override
+    public RenderedDocument renderDocument(final IdolViewRequest request) throws IOException {
+        if (!renderedDocumentCache.isEnabled()) {
+            return null;
+        }
+
+        return renderDocument(request, getReferenceFieldValue(request.getDocumentReference(), request.getDatabase()));
+    }
+
+    // the reference is looked up first even if there is stored output, since the lookup checks that the current user can see the document
+    private RenderedDocument renderDocument(final IdolViewRequest request, final String reference) throws IOException {
+        final RenderedDocument cachedDocument = renderedDocumentCache.getDocument(request);
+        return cachedDocument != null
+                ? cachedDocument
+                : renderedDocumentCache.putDocument(request, outputStream -> renderFromViewServer(request, reference, outputStream));
+    }
+
+    private void renderFromViewServer(final IdolViewRequest request, final String reference, final OutputStream outputStream) {
         final AciParameters viewParameters = new AciParameters(ViewActions.View.name());
         parameterHandler.addViewParameters(viewParameters, reference, request);
 
@@ -91,39 +152,124 @@ class IdolViewServerServiceImpl implements IdolViewServerService {
         }
     }
 
+    @Override
+    public CompletableFuture<Void> viewDocumentAsync(final IdolViewRequest request, final OutputStream outputStream) {
+        final String documentReference = request.getDocumentReference();
+        final String database = request.getDatabase();
+        final ViewConfig viewConfig = configService.getConfig().getViewConfig();
+
+        final String cachedReference = viewReferenceCache.getReference(documentReference, database, viewConfig);
+        final CompletableFuture<String> reference;
+        if (cachedReference != null) {
+            reference = CompletableFuture.completedFuture(cachedReference);
+        } else {
+            reference = resolveReferenceAsync(documentReference, database, viewConfig);
+        }
+
+        return reference.thenCompose(resolvedReference -> {
+            final AciParameters viewParameters = new AciParameters(ViewActions.View.name());
+            parameterHandler.addViewParameters(viewParameters, resolvedReference, request);
+
+            return viewAsyncAciService.executeAction(viewParameters, new CopyResponseProcessor(outputStream))
+                    .handle((copied, e) -> {
+                        if (e != null) {
+                            final Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                            if (cause instanceof AciServiceException) {
+                                throw new ViewServerErrorException(documentReference, cause);
+                            }
+
+                            throw e instanceof CompletionException ? (CompletionException) e : new CompletionException(e);
+                        }
+
+                        return null;
+                    });
+        });
+    }
+
     @Override
     public void viewStaticContentPromotion(final String documentReference, final OutputStream outputStream) throws IOException, AciErrorException {
         throw new NotImplementedException("Viewing static content promotions on premise is not yet possible");
     }
 
+    private CompletableFuture<String> resolveReferenceAsync(final String documentReference, final String database, final ViewConfig viewConfig) {
+        final AciParameters getContentParameters;
+        try {
+            getContentParameters = createGetContentParameters(documentReference, database, viewConfig);
+        } catch (final RuntimeException e) {
+            final CompletableFuture<String> result = new CompletableFuture<>();
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        return contentAsyncAciService.executeAction(getContentParameters, getContentResponseProcessor)
+                .handle((queryResponse, e) -> {
+                    if (e != null) {
+                        final Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                        // an error may be transient, so unlike a missing document it is not recorded
+                        if (cause instanceof AciErrorException) {
+                            throw new ViewDocumentNotFoundException(documentReference, (AciErrorException) cause);
+                        }
+
+                        throw e instanceof CompletionException ? (CompletionException) e : new CompletionException(e);
+                    }
+
+                    return resolveReference(documentReference, database, viewConfig, queryResponse);
+                });
+    }
+
     private String getReferenceFieldValue(final String documentReference, final String database) throws ReferenceFieldBlankException, ViewDocumentNotFoundException, ViewNoReferenceFieldException {
         final ViewConfig viewConfig = configService.getConfig().getViewConfig();
-        final String referenceField = viewConfig.getReferenceField();
 
-        final ViewingMode viewingMode = viewConfig.getViewingMode();
-
-        // fail fast if there's a misconfiguration
-        if (viewingMode == ViewingMode.FIELD && StringUtils.isEmpty(referenceField)) {
-            throw new ReferenceFieldBlankException();
+        final String cachedReference = viewReferenceCache.getReference(documentReference, database, viewConfig);
+        if (cachedReference != null) {
+            return cachedReference;
         }
 
-        // do a GetContent to check for document visibility and to read out required fields
-        final AciParameters parameters = new AciParameters(QueryActions.GetContent.name());
-        parameterHandler.addGetContentOutputParameters(parameters, database, documentReference, referenceField);
+        final AciParameters parameters = createGetContentParameters(documentReference, database, viewConfig);
 
         final GetContentResponseData queryResponse;
         try {
             queryResponse = contentAciService.executeAction(parameters, getContentResponseProcessor);
         } catch (final AciErrorException e) {
+            // an error may be transient, so unlike a missing document it is not recorded
             throw new ViewDocumentNotFoundException(documentReference, e);
         }
 
+        return resolveReference(documentReference, database, viewConfig, queryResponse);
+    }
+
+    private AciParameters createGetContentParameters(final String documentReference, final String database, final ViewConfig viewConfig) throws ReferenceFieldBlankException, ViewDocumentNotFoundException, ViewNoReferenceFieldException {
+        final String referenceField = viewConfig.getReferenceField();
+
+        // fail fast if there's a misconfiguration
+        if (viewConfig.getViewingMode() == ViewingMode.FIELD && StringUtils.isEmpty(referenceField)) {
+            throw new ReferenceFieldBlankException();
+        }
+
+        // documents which were recently missing or unviewable are unlikely to have changed, so save a round trip
+        viewFailureCache.rethrowCachedFailure(documentReference, database, viewConfig);
+
+        // do a GetContent to check for document visibility and to read out required fields
+        final AciParameters parameters = new AciParameters(QueryActions.GetContent.name());
+        parameterHandler.addGetContentOutputParameters(parameters, database, documentReference, referenceField);
+        return parameters;
+    }
+
+    private String resolveReference(final String documentReference, final String database, final ViewConfig viewConfig, final GetContentResponseData queryResponse) throws ViewDocumentNotFoundException, ViewNoReferenceFieldException {
         final List<Hit> documents = queryResponse.getHits();
         if (documents.isEmpty()) {
+            viewFailureCache.documentNotFound(documentReference, database, viewConfig);
             throw new ViewDocumentNotFoundException(documentReference);
         }
 
-        return getReference(documentReference, viewConfig, referenceField, viewingMode, documents);
+        try {
+            final String reference = getReference(documentReference, viewConfig, viewConfig.getReferenceField(), viewConfig.getViewingMode(), documents);
+            viewReferenceCache.putReference(documentReference, database, viewConfig, reference);
+            return reference;
+        } catch (final ViewNoReferenceFieldException e) {
+            viewFailureCache.noReferenceField(documentReference, database, viewConfig);
+            throw e;
+        }
     }
 
     private String getReference(final String documentReference, final ViewConfig viewConfig, final String referenceField, final ViewingMode viewingMode, final List<Hit> documents) {
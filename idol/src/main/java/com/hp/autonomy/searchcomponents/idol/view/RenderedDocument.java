@@ -0,0 +1,99 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.view;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * ViewServer output for a document, stored on local disk by {@link RenderedDocumentCache}. The ETag and last modified
+ * time allow a controller to answer conditional requests, and ranges of the output can be written for byte-range
+ * requests, without contacting ViewServer again.
+ */
+@Getter
+@ToString
+public final class RenderedDocument {
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Strong entity tag, including the surrounding quotes, derived from the content of the output
+     */
+    private final String eTag;
+
+    /**
+     * The time at which the document was rendered, in milliseconds since the epoch
+     */
+    private final long lastModified;
+
+    /**
+     * The length of the output in bytes
+     */
+    private final long length;
+
+    @Getter(AccessLevel.PACKAGE)
+    private final Path path;
+
+    RenderedDocument(final String eTag, final long lastModified, final long length, final Path path) {
+        this.eTag = eTag;
+        this.lastModified = lastModified;
+        this.length = length;
+        this.path = path;
+    }
+
+    /**
+     * Writes the whole output to a stream
+     *
+     * @param outputStream The stream to write to
+     * @throws NoSuchFileException If the output has been removed from the cache, in which case nothing was written
+     * @throws IOException         If the output could not be read or written
+     */
+    public void writeTo(final OutputStream outputStream) throws IOException {
+        Files.copy(path, outputStream);
+    }
+
+    /**
+     * Writes part of the output to a stream
+     *
+     * @param outputStream The stream to write to
+     * @param offset       The position of the first byte to write
+     * @param count        The number of bytes to write; fewer are written if the output ends first
+     * @throws NoSuchFileException If the output has been removed from the cache, in which case nothing was written
+     * @throws IOException         If the output could not be read or written
+     */
+    public void writeTo(final OutputStream outputStream, final long offset, final long count) throws IOException {
+        if (offset < 0 || count < 0) {
+            throw new IllegalArgumentException("Offset and count must not be negative");
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            channel.position(offset);
+
+            final InputStream inputStream = Channels.newInputStream(channel);
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            long remaining = count;
+            while (remaining > 0) {
+                final int read = inputStream.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read < 0) {
+                    break;
+                }
+
+                outputStream.write(buffer, 0, read);
+                remaining -= read;
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.view;
+
+import com.hp.autonomy.searchcomponents.idol.view.configuration.RenderedDocumentCacheConfig;
+import org.springframework.beans.factory.annotation.Qualifier;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Optional local disk store of ViewServer output for recently viewed documents. Entries are keyed by document reference,
+ * database, highlight expression, the security info of the current user and the view settings which affect the output,
+ * and the total size of the stored output is kept within the configured budget by discarding the least recently used
+ * documents. The cache does not check that the current user can still see a document; callers must do so before
+ * using stored output.
+ *
+ * @see RenderedDocumentCacheConfig
+ */
+public interface RenderedDocumentCache {
+    /**
+     * The bean name of the default implementation.
+     * Use this in an {@link Qualifier} tag to access this implementation via autowiring.
+     */
+    String RENDERED_DOCUMENT_CACHE_BEAN_NAME = "renderedDocumentCache";
+
+    /**
+     * Whether output should be stored
+     *
+     * @return true if the cache is enabled in the configuration
+     */
+    boolean isEnabled();
+
+    /**
+     * Returns the stored output for the given request
+     *
+     * @param request The view request
+     * @return The stored output, or null if there is none or it is too old
+     */
+    RenderedDocument getDocument(IdolViewRequest request);
+
+    /**
+     * Renders a document and stores the output. Nothing is stored if rendering fails. If the same output is already
+     * being rendered for another request, that rendering is used instead.
+     *
+     * @param request  The view request
+     * @param renderer Writes the output for the request
+     * @return The stored output, or null if it could not be kept because the cache was reconfigured while rendering
+     * @throws IOException If the output could not be stored
+     */
+    RenderedDocument putDocument(IdolViewRequest request, Renderer renderer) throws IOException;
+
+    /**
+     * Discards all stored output
+     */
+    void invalidateAll();
+
+    /**
+     * Writes the output for a view request
+     */
+    @FunctionalInterface
+    interface Renderer {
+        void render(OutputStream outputStream) throws IOException;
+    }
+}
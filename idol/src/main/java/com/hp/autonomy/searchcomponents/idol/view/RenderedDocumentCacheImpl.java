@@ -0,0 +1,311 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.view;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingOutputStream;
+import com.hp.autonomy.frontend.configuration.ConfigService;
+import com.hp.autonomy.frontend.configuration.authentication.CommunityPrincipal;
+import com.hp.autonomy.searchcomponents.idol.view.configuration.RenderedDocumentCacheConfig;
+import com.hp.autonomy.searchcomponents.idol.view.configuration.ViewCapable;
+import com.hp.autonomy.searchcomponents.idol.view.configuration.ViewConfig;
+import com.hpe.bigdata.frontend.spring.authentication.AuthenticationInformationRetriever;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.BooleanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import static com.hp.autonomy.searchcomponents.idol.view.RenderedDocumentCache.RENDERED_DOCUMENT_CACHE_BEAN_NAME;
+
+/**
+ * Default implementation of {@link RenderedDocumentCache}. Output is written to a temporary file and moved into place
+ * once it is complete, so a stored document is never partially written. Each rendering gets a new file name, so
+ * replacing or discarding a document does not disturb requests which are still reading the previous file.
+ * <p>
+ * The index of stored documents is held in memory, so files left by a previous run are deleted when the cache first
+ * uses a directory. Concurrent requests for output which is not stored yet wait for a single rendering.
+ */
+@Slf4j
+@Component(RENDERED_DOCUMENT_CACHE_BEAN_NAME)
+@ManagedResource(description = "Local disk cache of ViewServer output")
+class RenderedDocumentCacheImpl implements RenderedDocumentCache {
+    private static final HashFunction HASH_FUNCTION = Hashing.sha256();
+    private static final String FILE_SUFFIX = ".html";
+    private static final String TEMPORARY_FILE_PREFIX = "rendering-";
+    private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+    private static final Pattern CACHE_FILE_PATTERN = Pattern.compile("[0-9a-f]{64}-\\d+\\.html|rendering-\\d+\\.tmp");
+
+    private final ConfigService<? extends ViewCapable> configService;
+    private final AuthenticationInformationRetriever<?, CommunityPrincipal> authenticationInformationRetriever;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong concurrentRenderings = new AtomicLong();
+
+    // guarded by this; iteration order is least recently used first
+    private final Map<String, RenderedDocument> documents = new LinkedHashMap<>(16, 0.75f, true);
+    // guarded by this; renderings in progress, so that concurrent requests for the same output render it once
+    private final Map<String, CompletableFuture<RenderedDocument>> renderings = new HashMap<>();
+    private long totalSize;
+    private Path directory;
+
+    @Autowired
+    RenderedDocumentCacheImpl(final ConfigService<? extends ViewCapable> configService,
+                              final AuthenticationInformationRetriever<?, CommunityPrincipal> authenticationInformationRetriever) {
+        this.configService = configService;
+        this.authenticationInformationRetriever = authenticationInformationRetriever;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return getConfig() != null;
+    }
+
+    @Override
+    public RenderedDocument getDocument(final IdolViewRequest request) {
+        final RenderedDocumentCacheConfig config = getConfig();
+        if (config == null) {
+            return null;
+        }
+
+        final String key = createKey(request);
+
+        synchronized (this) {
+            useDirectory(config.getDirectoryOrDefault());
+
+            RenderedDocument document = documents.get(key);
+            if (document != null && System.currentTimeMillis() - document.getLastModified() > config.getMaxAgeOrDefault()) {
+                discard(documents.remove(key));
+                document = null;
+            }
+
+            (document != null ? hits : misses).incrementAndGet();
+            return document;
+        }
+    }
+
+    @Override
+    public RenderedDocument putDocument(final IdolViewRequest request, final Renderer renderer) throws IOException {
+        final RenderedDocumentCacheConfig config = getConfig();
+        final Path targetDirectory = config != null ? config.getDirectoryOrDefault() : null;
+        if (targetDirectory == null) {
+            throw new IllegalStateException("The rendered document cache is not enabled");
+        }
+
+        final String key = createKey(request);
+        final CompletableFuture<RenderedDocument> rendering = new CompletableFuture<>();
+        final CompletableFuture<RenderedDocument> existingRendering;
+
+        synchronized (this) {
+            useDirectory(targetDirectory);
+            existingRendering = renderings.putIfAbsent(key, rendering);
+        }
+
+        if (existingRendering != null) {
+            // the same output is already being rendered for another request, so wait for it rather than asking
+            // ViewServer again; if that rendering fails, this request tries for itself
+            final RenderedDocument document = awaitRendering(existingRendering);
+            if (document != null) {
+                concurrentRenderings.incrementAndGet();
+                return document;
+            }
+
+            return render(key, targetDirectory, config, renderer);
+        }
+
+        try {
+            final RenderedDocument document = render(key, targetDirectory, config, renderer);
+            rendering.complete(document);
+            return document;
+        } finally {
+            // does nothing if the rendering succeeded
+            rendering.complete(null);
+
+            synchronized (this) {
+                renderings.remove(key, rendering);
+            }
+        }
+    }
+
+    @Override
+    @ManagedOperation(description = "Discards all stored output")
+    public synchronized void invalidateAll() {
+        documents.values().forEach(this::discard);
+        documents.clear();
+    }
+
+    @ManagedAttribute(description = "Number of stored documents")
+    public synchronized int getSize() {
+        return documents.size();
+    }
+
+    @ManagedAttribute(description = "Total size in bytes of the stored documents")
+    public synchronized long getTotalSize() {
+        return totalSize;
+    }
+
+    @ManagedAttribute(description = "Number of view requests answered from stored output")
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    @ManagedAttribute(description = "Number of view requests with no stored output")
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    @ManagedAttribute(description = "Number of documents discarded to keep within the size budget")
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    @ManagedAttribute(description = "Number of view requests which waited for another request to render the same output")
+    public long getConcurrentRenderingCount() {
+        return concurrentRenderings.get();
+    }
+
+    private RenderedDocument render(final String key, final Path targetDirectory, final RenderedDocumentCacheConfig config, final Renderer renderer) throws IOException {
+        final Path temporaryFile = Files.createTempFile(targetDirectory, TEMPORARY_FILE_PREFIX, TEMPORARY_FILE_SUFFIX);
+        final String eTag;
+        try {
+            try (HashingOutputStream outputStream = new HashingOutputStream(HASH_FUNCTION, new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+                renderer.render(outputStream);
+                eTag = '"' + outputStream.hash().toString() + '"';
+            }
+        } catch (final IOException | RuntimeException e) {
+            Files.deleteIfExists(temporaryFile);
+            throw e;
+        }
+
+        final Path file = targetDirectory.resolve(key + '-' + sequence.incrementAndGet() + FILE_SUFFIX);
+        Files.move(temporaryFile, file, StandardCopyOption.ATOMIC_MOVE);
+
+        final RenderedDocument document = new RenderedDocument(eTag, System.currentTimeMillis(), Files.size(file), file);
+
+        synchronized (this) {
+            // the directory was reconfigured while rendering, so the file is not in the cache and nothing would ever
+            // delete it; or it was removed by something else. Either way there is no output to hand out.
+            if (!targetDirectory.equals(directory) || !Files.isRegularFile(file)) {
+                deleteQuietly(file);
+                return null;
+            }
+
+            final RenderedDocument previous = documents.put(key, document);
+            if (previous != null) {
+                discard(previous);
+            }
+
+            totalSize += document.getLength();
+            evict(config.getMaxSizeOrDefault());
+        }
+
+        return document;
+    }
+
+    private static RenderedDocument awaitRendering(final CompletableFuture<RenderedDocument> rendering) throws IOException {
+        try {
+            return rendering.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the document to be rendered");
+        } catch (final ExecutionException e) {
+            // never completed exceptionally
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private RenderedDocumentCacheConfig getConfig() {
+        final ViewConfig viewConfig = configService.getConfig().getViewConfig();
+        final RenderedDocumentCacheConfig config = viewConfig != null ? viewConfig.getRenderedDocumentCache() : null;
+        return config != null && BooleanUtils.isTrue(config.getEnabled()) ? config : null;
+    }
+
+    // the most recent document is kept even if it is larger than the budget, so that it can be served
+    private void evict(final long maxSize) {
+        final Iterator<RenderedDocument> iterator = documents.values().iterator();
+        while (totalSize > maxSize && documents.size() > 1 && iterator.hasNext()) {
+            final RenderedDocument document = iterator.next();
+            iterator.remove();
+            discard(document);
+            evictions.incrementAndGet();
+        }
+    }
+
+    private void discard(final RenderedDocument document) {
+        totalSize -= document.getLength();
+        deleteQuietly(document.getPath());
+    }
+
+    private void useDirectory(final Path newDirectory) {
+        if (newDirectory.equals(directory)) {
+            return;
+        }
+
+        invalidateAll();
+        directory = newDirectory;
+
+        try {
+            Files.createDirectories(newDirectory);
+
+            // only delete files this class could have created, in case the directory is shared
+            try (DirectoryStream<Path> staleFiles = Files.newDirectoryStream(newDirectory, file -> CACHE_FILE_PATTERN.matcher(file.getFileName().toString()).matches())) {
+                staleFiles.forEach(this::deleteQuietly);
+            }
+        } catch (final IOException e) {
+            log.warn("Could not prepare rendered document cache directory " + newDirectory, e);
+        }
+    }
+
+    private void deleteQuietly(final Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (final IOException e) {
+            log.debug("Could not delete rendered document " + file, e);
+        }
+    }
+
+    private String createKey(final IdolViewRequest request) {
+        final CommunityPrincipal principal = authenticationInformationRetriever.getPrincipal();
+        final String securityInfo = principal != null ? principal.getSecurityInfo() : null;
+        // the output depends on how the reference passed to ViewServer is found, so changing that config must not
+        // serve output rendered under the old config
+        final ViewConfig viewConfig = configService.getConfig().getViewConfig();
+
+        return HASH_FUNCTION.newHasher()
+                .putString(String.valueOf(viewConfig.getReferenceField()), StandardCharsets.UTF_8).putByte((byte) 0)
+                .putString(String.valueOf(viewConfig.getViewingMode()), StandardCharsets.UTF_8).putByte((byte) 0)
+                .putString(String.valueOf(viewConfig.getHighlighting()), StandardCharsets.UTF_8).putByte((byte) 0)
+                .putString(String.valueOf(request.getDocumentReference()), StandardCharsets.UTF_8).putByte((byte) 0)
+                .putString(String.valueOf(request.getDatabase()), StandardCharsets.UTF_8).putByte((byte) 0)
+                .putString(String.valueOf(request.getHighlightExpression()), StandardCharsets.UTF_8).putByte((byte) 0)
+                .putString(String.valueOf(securityInfo), StandardCharsets.UTF_8)
+                .hash()
+                .toString();
+    }
+}
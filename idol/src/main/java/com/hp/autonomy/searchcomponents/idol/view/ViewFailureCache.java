@@ -0,0 +1,66 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.view;
+
+import com.google.common.cache.CacheStats;
+import com.hp.autonomy.searchcomponents.idol.view.configuration.ViewConfig;
+import org.springframework.beans.factory.annotation.Qualifier;
+
+/**
+ * Short-lived record of documents which could not be viewed, so that repeated requests for deleted or unauthorised
+ * documents do not reach the content engine each time. Only a successful lookup which returns no document, or a
+ * document without the reference field, is recorded; errors from the content engine are not. Entries are partitioned by
+ * the security info of the current user, and are discarded when the reference field, viewing mode or connector in the
+ * view configuration changes.
+ */
+public interface ViewFailureCache {
+    /**
+     * The bean name of the default implementation.
+     * Use this in an {@link Qualifier} tag to access this implementation via autowiring.
+     */
+    String VIEW_FAILURE_CACHE_BEAN_NAME = "viewFailureCache";
+
+    /**
+     * Throws the exception recorded for the given document, if there is one
+     *
+     * @param documentReference The reference of the document
+     * @param database          The database in which the document was requested (may be null)
+     * @param viewConfig        The current view configuration
+     * @throws ViewDocumentNotFoundException If the document was recently found not to exist
+     * @throws ViewNoReferenceFieldException If the document was recently found not to have a reference field
+     */
+    void rethrowCachedFailure(String documentReference, String database, ViewConfig viewConfig) throws ViewDocumentNotFoundException, ViewNoReferenceFieldException;
+
+    /**
+     * Records that the given document could not be found by the current user
+     *
+     * @param documentReference The reference of the document
+     * @param database          The database in which the document was requested (may be null)
+     * @param viewConfig        The view configuration used to look up the document
+     */
+    void documentNotFound(String documentReference, String database, ViewConfig viewConfig);
+
+    /**
+     * Records that the given document does not contain the reference field in the view configuration
+     *
+     * @param documentReference The reference of the document
+     * @param database          The database in which the document was requested (may be null)
+     * @param viewConfig        The view configuration used to look up the document
+     */
+    void noReferenceField(String documentReference, String database, ViewConfig viewConfig);
+
+    /**
+     * Discards all recorded failures
+     */
+    void invalidateAll();
+
+    /**
+     * Hit, miss and eviction counts for the cache
+     *
+     * @return the cache statistics
+     */
+    CacheStats getStatistics();
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.view;
+
+import com.hp.autonomy.frontend.configuration.authentication.CommunityPrincipal;
+import com.hp.autonomy.searchcomponents.idol.view.configuration.ViewConfig;
+import com.hp.autonomy.searchcomponents.idol.view.configuration.ViewFailureCacheConfig;
+import com.hpe.bigdata.frontend.spring.authentication.AuthenticationInformationRetriever;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.io.Serializable;
+
+import static com.hp.autonomy.searchcomponents.idol.view.ViewFailureCache.VIEW_FAILURE_CACHE_BEAN_NAME;
+
+/**
+ * Default implementation of {@link ViewFailureCache}, sized and expired according to the {@link ViewFailureCacheConfig}
+ */
+@Component(VIEW_FAILURE_CACHE_BEAN_NAME)
+@ManagedResource(description = "Negative cache for documents which could not be viewed")
+class ViewFailureCacheImpl extends AbstractViewLookupCache<ViewFailureCacheImpl.Failure> implements ViewFailureCache {
+    @Autowired
+    ViewFailureCacheImpl(final AuthenticationInformationRetriever<?, CommunityPrincipal> authenticationInformationRetriever) {
+        super(authenticationInformationRetriever);
+    }
+
+    @Override
+    public void rethrowCachedFailure(final String documentReference, final String database, final ViewConfig viewConfig) {
+        final Failure failure = getIfPresent(documentReference, database, viewConfig);
+
+        if (failure != null) {
+            if (failure.getReferenceField() == null) {
+                throw new ViewDocumentNotFoundException(documentReference);
+            } else {
+                throw new ViewNoReferenceFieldException(documentReference, failure.getReferenceField());
+            }
+        }
+    }
+
+    @Override
+    public void documentNotFound(final String documentReference, final String database, final ViewConfig viewConfig) {
+        put(documentReference, database, viewConfig, new Failure(null));
+    }
+
+    @Override
+    public void noReferenceField(final String documentReference, final String database, final ViewConfig viewConfig) {
+        put(documentReference, database, viewConfig, new Failure(viewConfig.getReferenceField()));
+    }
+
+    @Override
+    long getMaxSize(final ViewConfig viewConfig) {
+        final ViewFailureCacheConfig config = viewConfig.getFailureCache();
+        return config != null ? config.getMaxSizeOrDefault() : ViewFailureCacheConfig.DEFAULT_MAX_SIZE;
+    }
+
+    @Override
+    long getExpiry(final ViewConfig viewConfig) {
+        final ViewFailureCacheConfig config = viewConfig.getFailureCache();
+        return config != null ? config.getExpiryOrDefault() : ViewFailureCacheConfig.DEFAULT_EXPIRY;
+    }
+
+    @Data
+    static class Failure implements Serializable {
+        private static final long serialVersionUID = 3453270183573935093L;
+
+        // null if the document was not found
+        private final String referenceField;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.view;
+
+import com.google.common.cache.CacheStats;
+import com.hp.autonomy.searchcomponents.idol.view.configuration.ViewConfig;
+import org.springframework.beans.factory.annotation.Qualifier;
+
+/**
+ * Record of the references which ViewServer was given for recently viewed documents, so that viewing a document again
+ * does not need a GetContent to read its reference field. Entries are partitioned by the security info of the current
+ * user, and are discarded when the reference field, viewing mode or connector in the view configuration changes.
+ * <p>
+ * Since the GetContent is also what checks that the user can see the document, a recorded reference lets the user
+ * keep viewing a document until the entry expires, even if their access to it has been revoked. The expiry is set in
+ * the {@link com.hp.autonomy.searchcomponents.idol.view.configuration.ViewReferenceCacheConfig}.
+ */
+public interface ViewReferenceCache {
+    /**
+     * The bean name of the default implementation.
+     * Use this in an {@link Qualifier} tag to access this implementation via autowiring.
+     */
+    String VIEW_REFERENCE_CACHE_BEAN_NAME = "viewReferenceCache";
+
+    /**
+     * Returns the recorded ViewServer reference for the given document
+     *
+     * @param documentReference The reference of the document
+     * @param database          The database in which the document was requested (may be null)
+     * @param viewConfig        The current view configuration
+     * @return The reference to pass to ViewServer, or null if none has been recorded
+     */
+    String getReference(String documentReference, String database, ViewConfig viewConfig);
+
+    /**
+     * Records the ViewServer reference resolved for the given document by the current user
+     *
+     * @param documentReference The reference of the document
+     * @param database          The database in which the document was requested (may be null)
+     * @param viewConfig        The view configuration used to resolve the reference
+     * @param reference         The reference to pass to ViewServer
+     */
+    void putReference(String documentReference, String database, ViewConfig viewConfig, String reference);
+
+    /**
+     * Discards all recorded references
+     */
+    void invalidateAll();
+
+    /**
+     * Hit, miss and eviction counts for the cache
+     *
+     * @return the cache statistics
+     */
+    CacheStats getStatistics();
+}
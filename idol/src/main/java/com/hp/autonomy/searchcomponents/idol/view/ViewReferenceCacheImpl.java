@@ -0,0 +1,51 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.view;
+
+import com.hp.autonomy.frontend.configuration.authentication.CommunityPrincipal;
+import com.hp.autonomy.searchcomponents.idol.view.configuration.ViewConfig;
+import com.hp.autonomy.searchcomponents.idol.view.configuration.ViewReferenceCacheConfig;
+import com.hpe.bigdata.frontend.spring.authentication.AuthenticationInformationRetriever;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import static com.hp.autonomy.searchcomponents.idol.view.ViewReferenceCache.VIEW_REFERENCE_CACHE_BEAN_NAME;
+
+/**
+ * Default implementation of {@link ViewReferenceCache}, sized and expired according to the {@link ViewReferenceCacheConfig}.
+ * Entries expire so that changes to a document's reference field or permissions are picked up.
+ */
+@Component(VIEW_REFERENCE_CACHE_BEAN_NAME)
+@ManagedResource(description = "Cache of ViewServer references for recently viewed documents")
+class ViewReferenceCacheImpl extends AbstractViewLookupCache<String> implements ViewReferenceCache {
+    @Autowired
+    ViewReferenceCacheImpl(final AuthenticationInformationRetriever<?, CommunityPrincipal> authenticationInformationRetriever) {
+        super(authenticationInformationRetriever);
+    }
+
+    @Override
+    public String getReference(final String documentReference, final String database, final ViewConfig viewConfig) {
+        return getIfPresent(documentReference, database, viewConfig);
+    }
+
+    @Override
+    public void putReference(final String documentReference, final String database, final ViewConfig viewConfig, final String reference) {
+        put(documentReference, database, viewConfig, reference);
+    }
+
+    @Override
+    long getMaxSize(final ViewConfig viewConfig) {
+        final ViewReferenceCacheConfig config = viewConfig.getReferenceCache();
+        return config != null ? config.getMaxSizeOrDefault() : ViewReferenceCacheConfig.DEFAULT_MAX_SIZE;
+    }
+
+    @Override
+    long getExpiry(final ViewConfig viewConfig) {
+        final ViewReferenceCacheConfig config = viewConfig.getReferenceCache();
+        return config != null ? config.getExpiryOrDefault() : ViewReferenceCacheConfig.DEFAULT_EXPIRY;
+    }
+}
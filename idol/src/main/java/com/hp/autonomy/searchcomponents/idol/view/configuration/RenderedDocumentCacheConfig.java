@@ -0,0 +1,83 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.view.configuration;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import com.hp.autonomy.frontend.configuration.ConfigException;
+import com.hp.autonomy.frontend.configuration.SimpleComponent;
+import com.hp.autonomy.frontend.configuration.validation.OptionalConfigurationComponent;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.apache.commons.lang3.BooleanUtils;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Configuration for keeping ViewServer output for recently viewed documents on local disk
+ */
+@SuppressWarnings("DefaultAnnotationParam")
+@Getter
+@Builder
+@EqualsAndHashCode(callSuper = false)
+@ToString
+@JsonDeserialize(builder = RenderedDocumentCacheConfig.RenderedDocumentCacheConfigBuilder.class)
+public class RenderedDocumentCacheConfig extends SimpleComponent<RenderedDocumentCacheConfig> implements OptionalConfigurationComponent<RenderedDocumentCacheConfig> {
+    private static final String SECTION = "RenderedDocumentCache";
+
+    /**
+     * The name of the directory created in the system temporary directory if no directory is configured
+     */
+    public static final String DEFAULT_DIRECTORY_NAME = "haven-search-rendered-documents";
+
+    /**
+     * The total size in bytes of the stored documents if no value is configured
+     */
+    public static final long DEFAULT_MAX_SIZE = 256L * 1024 * 1024;
+
+    /**
+     * The time in milliseconds for which a stored document is used if no value is configured
+     */
+    public static final long DEFAULT_MAX_AGE = 60L * 60 * 1000;
+
+    private final String directory;
+    private final Long maxSize;
+    private final Long maxAge;
+    private final Boolean enabled;
+
+    @Override
+    public void basicValidate(final String configSection) throws ConfigException {
+        if (BooleanUtils.isTrue(enabled)) {
+            if (maxSize != null && maxSize <= 0) {
+                throw new ConfigException(SECTION, "Maximum size must be positive");
+            }
+
+            if (maxAge != null && maxAge <= 0) {
+                throw new ConfigException(SECTION, "Maximum age must be positive");
+            }
+        }
+    }
+
+    public Path getDirectoryOrDefault() {
+        return directory != null ? Paths.get(directory) : Paths.get(System.getProperty("java.io.tmpdir"), DEFAULT_DIRECTORY_NAME);
+    }
+
+    public long getMaxSizeOrDefault() {
+        return maxSize != null ? maxSize : DEFAULT_MAX_SIZE;
+    }
+
+    public long getMaxAgeOrDefault() {
+        return maxAge != null ? maxAge : DEFAULT_MAX_AGE;
+    }
+
+    @SuppressWarnings("WeakerAccess")
+    @JsonPOJOBuilder(withPrefix = "")
+    public static class RenderedDocumentCacheConfigBuilder {
+    }
+}
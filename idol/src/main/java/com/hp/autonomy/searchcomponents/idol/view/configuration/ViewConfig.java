@@ -10,6 +10,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import com.hp.autonomy.frontend.configuration.ConfigException;
 import com.hp.autonomy.frontend.configuration.SimpleComponent;
 import com.hp.autonomy.frontend.configuration.server.ProductType;
 import com.hp.autonomy.frontend.configuration.server.ServerConfig;
@@ -38,6 +39,9 @@ public class ViewConfig extends SimpleComponent<ViewConfig> implements OptionalC
     private final String referenceField;
     private final ViewingMode viewingMode;
     private final Boolean highlighting;
+    private final RenderedDocumentCacheConfig renderedDocumentCache;
+    private final ViewFailureCacheConfig failureCache;
+    private final ViewReferenceCacheConfig referenceCache;
 
     @Override
     @JsonIgnore
@@ -45,6 +49,21 @@ public class ViewConfig extends SimpleComponent<ViewConfig> implements OptionalC
         return true;
     }
 
+    @Override
+    public void basicValidate(final String configSection) throws ConfigException {
+        if (renderedDocumentCache != null) {
+            renderedDocumentCache.basicValidate(configSection);
+        }
+
+        if (failureCache != null) {
+            failureCache.basicValidate(configSection);
+        }
+
+        if (referenceCache != null) {
+            referenceCache.basicValidate(configSection);
+        }
+    }
+
     public AciServerDetails.TransportProtocol getProtocol() {
         return serverConfig.getProtocol();
     }
@@ -82,9 +101,12 @@ public class ViewConfig extends SimpleComponent<ViewConfig> implements OptionalC
         private String referenceField;
         private ViewingMode viewingMode = ViewingMode.FIELD;
         private Boolean highlighting;
+        private RenderedDocumentCacheConfig renderedDocumentCache;
+        private ViewFailureCacheConfig failureCache;
+        private ViewReferenceCacheConfig referenceCache;
 
         public ViewConfig build() {
-            return new ViewConfig(serverConfig != null ? serverConfig : builder.build(), connector, referenceField, viewingMode, highlighting);
+            return new ViewConfig(serverConfig != null ? serverConfig : builder.build(), connector, referenceField, viewingMode, highlighting, renderedDocumentCache, failureCache, referenceCache);
         }
 
         public ViewConfigBuilder protocol(final AciServerDetails.TransportProtocol protocol) {
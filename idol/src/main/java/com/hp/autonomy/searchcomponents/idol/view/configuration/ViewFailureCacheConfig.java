@@ -0,0 +1,74 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.view.configuration;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import com.hp.autonomy.frontend.configuration.ConfigException;
+import com.hp.autonomy.frontend.configuration.SimpleComponent;
+import com.hp.autonomy.frontend.configuration.validation.OptionalConfigurationComponent;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Configuration for the short-lived record of documents which could not be viewed. A maximum size of 0 disables the
+ * record.
+ */
+@SuppressWarnings("DefaultAnnotationParam")
+@Getter
+@Builder
+@EqualsAndHashCode(callSuper = false)
+@ToString
+@JsonDeserialize(builder = ViewFailureCacheConfig.ViewFailureCacheConfigBuilder.class)
+public class ViewFailureCacheConfig extends SimpleComponent<ViewFailureCacheConfig> implements OptionalConfigurationComponent<ViewFailureCacheConfig> {
+    private static final String SECTION = "ViewFailureCache";
+
+    /**
+     * The maximum number of recorded failures if no value is configured
+     */
+    public static final long DEFAULT_MAX_SIZE = 10000;
+
+    /**
+     * The time in milliseconds for which a failure is recorded if no value is configured
+     */
+    public static final long DEFAULT_EXPIRY = 60L * 1000;
+
+    private final Long maxSize;
+    private final Long expiry;
+
+    @Override
+    @JsonIgnore
+    public Boolean getEnabled() {
+        return true;
+    }
+
+    @Override
+    public void basicValidate(final String configSection) throws ConfigException {
+        if (maxSize != null && maxSize < 0) {
+            throw new ConfigException(SECTION, "Maximum size must not be negative");
+        }
+
+        if (expiry != null && expiry <= 0) {
+            throw new ConfigException(SECTION, "Expiry must be positive");
+        }
+    }
+
+    public long getMaxSizeOrDefault() {
+        return maxSize != null ? maxSize : DEFAULT_MAX_SIZE;
+    }
+
+    public long getExpiryOrDefault() {
+        return expiry != null ? expiry : DEFAULT_EXPIRY;
+    }
+
+    @SuppressWarnings("WeakerAccess")
+    @JsonPOJOBuilder(withPrefix = "")
+    public static class ViewFailureCacheConfigBuilder {
+    }
+}
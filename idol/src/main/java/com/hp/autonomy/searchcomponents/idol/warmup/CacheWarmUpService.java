@@ -0,0 +1,35 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.warmup;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Primes metadata and parametric caches before the node starts receiving traffic
+ */
+public interface CacheWarmUpService {
+    /**
+     * The bean name of the default implementation.
+     * Use this in an {@link Qualifier} tag to access this implementation via autowiring.
+     */
+    String CACHE_WARM_UP_SERVICE_BEAN_NAME = "cacheWarmUpService";
+
+    /**
+     * Issues all configured warm-up requests in the background
+     *
+     * @return a future which completes once every warm-up request has finished
+     */
+    CompletableFuture<Void> warmUp();
+
+    /**
+     * The progress of the warm-up
+     *
+     * @return the current warm-up status
+     */
+    WarmUpStatus getStatus();
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.warmup;
+
+import com.hp.autonomy.frontend.configuration.ConfigService;
+import com.hp.autonomy.searchcomponents.idol.configuration.IdolSearchCapable;
+import com.hp.autonomy.searchcomponents.idol.configuration.WarmUpConfig;
+import com.hp.autonomy.searchcomponents.idol.databases.IdolDatabasesRequestBuilder;
+import com.hp.autonomy.searchcomponents.idol.databases.IdolDatabasesService;
+import com.hp.autonomy.searchcomponents.idol.fields.IdolFieldsRequestBuilder;
+import com.hp.autonomy.searchcomponents.idol.fields.IdolFieldsService;
+import com.hp.autonomy.searchcomponents.idol.languages.IdolLanguagesService;
+import com.hp.autonomy.searchcomponents.idol.parametricvalues.IdolParametricRequestBuilder;
+import com.hp.autonomy.searchcomponents.idol.parametricvalues.IdolParametricValuesService;
+import com.hp.autonomy.searchcomponents.idol.search.IdolQueryRestrictionsBuilder;
+import com.hp.autonomy.types.requests.idol.actions.tags.params.FieldTypeParam;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.BooleanUtils;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.hp.autonomy.searchcomponents.idol.warmup.CacheWarmUpService.CACHE_WARM_UP_SERVICE_BEAN_NAME;
+
+/**
+ * Default implementation of {@link CacheWarmUpService}: once the application is ready, runs GetTagNames for the field
+ * types which the application requests together, GetStatus for languages and databases and a GetQueryTagValues for all
+ * documents, using a bounded number of threads. Idol adds the user's security info to GetQueryTagValues, so its result
+ * is of no use to other users; it is only run so that the content engine has read the parametric fields before the
+ * first user asks. Failures are logged and do not prevent the node from becoming ready.
+ */
+@Slf4j
+@Component(CACHE_WARM_UP_SERVICE_BEAN_NAME)
+class CacheWarmUpServiceImpl implements CacheWarmUpService {
+    private static final String THREAD_NAME_PREFIX = "cache-warm-up-";
+    private static final String ALL_DOCUMENTS = "*";
+
+    // the fields cache is keyed on the types in the order requested, so these must match the callers exactly:
+    // the field settings page, and IdolParametricValuesServiceImpl when no field names are given
+    private static final List<FieldTypeParam[]> FIELD_TYPES = Collections.unmodifiableList(Arrays.asList(
+            new FieldTypeParam[]{FieldTypeParam.Parametric, FieldTypeParam.Numeric, FieldTypeParam.NumericDate, FieldTypeParam.Index},
+            new FieldTypeParam[]{FieldTypeParam.Parametric}
+    ));
+
+    private final ConfigService<? extends IdolSearchCapable> configService;
+    private final IdolFieldsService fieldsService;
+    private final ObjectFactory<IdolFieldsRequestBuilder> fieldsRequestBuilderFactory;
+    private final IdolLanguagesService languagesService;
+    private final IdolDatabasesService databasesService;
+    private final ObjectFactory<IdolDatabasesRequestBuilder> databasesRequestBuilderFactory;
+    private final IdolParametricValuesService parametricValuesService;
+    private final ObjectFactory<IdolParametricRequestBuilder> parametricRequestBuilderFactory;
+    private final ObjectFactory<IdolQueryRestrictionsBuilder> queryRestrictionsBuilderFactory;
+
+    private volatile WarmUpStatus status = WarmUpStatus.PENDING;
+
+    @SuppressWarnings("ConstructorWithTooManyParameters")
+    @Autowired
+    CacheWarmUpServiceImpl(
+            final ConfigService<? extends IdolSearchCapable> configService,
+            final IdolFieldsService fieldsService,
+            final ObjectFactory<IdolFieldsRequestBuilder> fieldsRequestBuilderFactory,
+            final IdolLanguagesService languagesService,
+            final IdolDatabasesService databasesService,
+            final ObjectFactory<IdolDatabasesRequestBuilder> databasesRequestBuilderFactory,
+            final IdolParametricValuesService parametricValuesService,
+            final ObjectFactory<IdolParametricRequestBuilder> parametricRequestBuilderFactory,
+            final ObjectFactory<IdolQueryRestrictionsBuilder> queryRestrictionsBuilderFactory
+    ) {
+        this.configService = configService;
+        this.fieldsService = fieldsService;
+        this.fieldsRequestBuilderFactory = fieldsRequestBuilderFactory;
+        this.languagesService = languagesService;
+        this.databasesService = databasesService;
+        this.databasesRequestBuilderFactory = databasesRequestBuilderFactory;
+        this.parametricValuesService = parametricValuesService;
+        this.parametricRequestBuilderFactory = parametricRequestBuilderFactory;
+        this.queryRestrictionsBuilderFactory = queryRestrictionsBuilderFactory;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        warmUp();
+    }
+
+    @Override
+    public CompletableFuture<Void> warmUp() {
+        final WarmUpConfig warmUpConfig = configService.getConfig().getWarmUp();
+        if (warmUpConfig == null || !BooleanUtils.isTrue(warmUpConfig.getEnabled())) {
+            status = WarmUpStatus.DISABLED;
+            return CompletableFuture.completedFuture(null);
+        }
+
+        status = WarmUpStatus.IN_PROGRESS;
+
+        final ExecutorService executor = Executors.newFixedThreadPool(warmUpConfig.getConcurrencyOrDefault(), new CustomizableThreadFactory(THREAD_NAME_PREFIX));
+        final Collection<CompletableFuture<Void>> tasks = new ArrayList<>();
+
+        for (final FieldTypeParam[] fieldTypes : FIELD_TYPES) {
+            tasks.add(submit(executor, "fields " + Arrays.toString(fieldTypes), () -> fieldsService.getFields(fieldsRequestBuilderFactory.getObject().build(), fieldTypes)));
+        }
+
+        tasks.add(submit(executor, "languages", languagesService::getLanguages));
+        tasks.add(submit(executor, "databases", () -> databasesService.getDatabases(databasesRequestBuilderFactory.getObject().build())));
+        tasks.add(submit(executor, "parametric values", () -> parametricValuesService.getAllParametricValues(parametricRequestBuilderFactory.getObject()
+                .queryRestrictions(queryRestrictionsBuilderFactory.getObject()
+                        .queryText(ALL_DOCUMENTS)
+                        .build())
+                .build())));
+
+        return CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[tasks.size()]))
+                .whenComplete((result, e) -> {
+                    executor.shutdown();
+                    status = WarmUpStatus.COMPLETE;
+                    log.info("Cache warm-up complete");
+                });
+    }
+
+    @Override
+    public WarmUpStatus getStatus() {
+        return status;
+    }
+
+    private CompletableFuture<Void> submit(final ExecutorService executor, final String description, final Runnable task) {
+        return CompletableFuture.runAsync(task, executor)
+                .exceptionally(e -> {
+                    log.warn("Cache warm-up failed for " + description, e);
+                    return null;
+                });
+    }
+}
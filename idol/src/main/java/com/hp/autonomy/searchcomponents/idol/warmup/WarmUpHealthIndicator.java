@@ -0,0 +1,41 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.warmup;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the node as out of service until the startup cache warm-up has finished, so that a load balancer polling the
+ * health endpoint only routes traffic to warm nodes. Only registered when Spring Boot Actuator is on the classpath.
+ */
+@Component
+@ConditionalOnClass(name = "org.springframework.boot.actuate.health.HealthIndicator")
+class WarmUpHealthIndicator extends AbstractHealthIndicator {
+    private static final String STATUS_DETAIL = "status";
+
+    private final CacheWarmUpService cacheWarmUpService;
+
+    @Autowired
+    WarmUpHealthIndicator(final CacheWarmUpService cacheWarmUpService) {
+        this.cacheWarmUpService = cacheWarmUpService;
+    }
+
+    @Override
+    protected void doHealthCheck(final Health.Builder builder) {
+        final WarmUpStatus status = cacheWarmUpService.getStatus();
+        if (status.isReady()) {
+            builder.up();
+        } else {
+            builder.outOfService();
+        }
+
+        builder.withDetail(STATUS_DETAIL, status);
+    }
+}
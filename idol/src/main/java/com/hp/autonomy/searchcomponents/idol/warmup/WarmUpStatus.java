@@ -0,0 +1,43 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.warmup;
+
+/**
+ * The progress of the startup cache warm-up
+ */
+public enum WarmUpStatus {
+    /**
+     * The application context is not yet ready, so warm-up has not started
+     */
+    PENDING(false),
+    /**
+     * Warm-up requests are outstanding
+     */
+    IN_PROGRESS(false),
+    /**
+     * All warm-up requests have finished (successfully or otherwise)
+     */
+    COMPLETE(true),
+    /**
+     * Warm-up is not configured
+     */
+    DISABLED(true);
+
+    private final boolean ready;
+
+    WarmUpStatus(final boolean ready) {
+        this.ready = ready;
+    }
+
+    /**
+     * Whether the node should receive traffic
+     *
+     * @return true if warm-up has finished or is disabled
+     */
+    public boolean isReady() {
+        return ready;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.answer.ask;
+
+import com.hp.autonomy.searchcomponents.idol.answer.system.AnswerServerSystemsChangedEvent;
+import com.hp.autonomy.types.idol.responses.answer.AskAnswer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AskAnswerCacheTest {
+    private final AskAnswer answer = new AskAnswer();
+
+    private AskAnswerCacheImpl askAnswerCache;
+
+    @Before
+    public void setUp() {
+        askAnswerCache = new AskAnswerCacheImpl();
+    }
+
+    @Test
+    public void normalise() {
+        assertThat(AskAnswerCacheImpl.normalise("  What is  the Capital of France? "), is("what is the capital of france"));
+        assertThat(AskAnswerCacheImpl.normalise("what is the capital of france"), is("what is the capital of france"));
+        assertThat(AskAnswerCacheImpl.normalise("Is 1.5 bigger than 15?"), not(AskAnswerCacheImpl.normalise("Is 15 bigger than 15?")));
+    }
+
+    @Test
+    public void getAnswersForEquivalentQuestion() {
+        askAnswerCache.putAnswers(mockRequest("Who wrote Hamlet?", "answerbank0"), Collections.singletonList(answer));
+
+        assertThat(askAnswerCache.getAnswers(mockRequest("who   wrote hamlet", "answerbank0")), contains(answer));
+        assertThat(askAnswerCache.getStatistics().hitCount(), is(1L));
+    }
+
+    @Test
+    public void differentSystemsAreDifferentQuestions() {
+        askAnswerCache.putAnswers(mockRequest("Who wrote Hamlet?", "answerbank0"), Collections.singletonList(answer));
+
+        assertThat(askAnswerCache.getAnswers(mockRequest("Who wrote Hamlet?", "passageextractor0")), is(nullValue()));
+    }
+
+    @Test
+    public void differentMaxResultsAreDifferentQuestions() {
+        askAnswerCache.putAnswers(mockRequest("Who wrote Hamlet?", "answerbank0"), Collections.singletonList(answer));
+
+        final AskAnswerServerRequest request = mockRequest("Who wrote Hamlet?", "answerbank0");
+        when(request.getMaxResults()).thenReturn(1);
+        assertThat(askAnswerCache.getAnswers(request), is(nullValue()));
+    }
+
+    @Test
+    public void invalidateSystem() {
+        askAnswerCache.putAnswers(mockRequest("Who wrote Hamlet?", "answerbank0", "passageextractor0"), Collections.singletonList(answer));
+        askAnswerCache.putAnswers(mockRequest("Who wrote Hamlet?", "passageextractor0"), Collections.singletonList(answer));
+
+        askAnswerCache.invalidateSystem("answerbank0");
+
+        assertThat(askAnswerCache.getAnswers(mockRequest("Who wrote Hamlet?", "answerbank0", "passageextractor0")), is(nullValue()));
+        assertThat(askAnswerCache.getAnswers(mockRequest("Who wrote Hamlet?", "passageextractor0")), contains(answer));
+    }
+
+    @Test
+    public void removedSystemsAreInvalidated() {
+        askAnswerCache.putAnswers(mockRequest("Who wrote Hamlet?", "answerbank0"), Collections.singletonList(answer));
+
+        final List<String> previousSystemNames = Arrays.asList("answerbank0", "passageextractor0");
+        askAnswerCache.onSystemsChanged(new AnswerServerSystemsChangedEvent(this, previousSystemNames, Collections.singletonList("passageextractor0")));
+
+        assertThat(askAnswerCache.getAnswers(mockRequest("Who wrote Hamlet?", "answerbank0")), is(nullValue()));
+    }
+
+    @Test
+    public void entriesExpire() throws InterruptedException {
+        askAnswerCache = new AskAnswerCacheImpl(AskAnswerCacheImpl.MAXIMUM_SIZE, 1, TimeUnit.MILLISECONDS);
+        askAnswerCache.putAnswers(mockRequest("Who wrote Hamlet?", "answerbank0"), Collections.singletonList(answer));
+        Thread.sleep(10);
+
+        assertThat(askAnswerCache.getAnswers(mockRequest("Who wrote Hamlet?", "answerbank0")), is(nullValue()));
+    }
+
+    private AskAnswerServerRequest mockRequest(final String text, final String... systemNames) {
+        final AskAnswerServerRequest request = mock(AskAnswerServerRequest.class);
+        when(request.getText()).thenReturn(text);
+        when(request.getSystemNames()).thenReturn(new LinkedHashSet<>(Arrays.asList(systemNames)));
+        return request;
+    }
+}
@@ -5,45 +5,94 @@
 
 package com.hp.autonomy.searchcomponents.idol.answer.ask;
 
+import com.autonomy.aci.client.services.AciErrorException;
 import com.autonomy.aci.client.services.AciService;
+import com.autonomy.aci.client.transport.AciParameter;
+import com.autonomy.aci.client.transport.ActionParameter;
+import com.hp.autonomy.frontend.configuration.ConfigService;
+import com.hp.autonomy.searchcomponents.idol.answer.configuration.AnswerServerConfig;
+import com.hp.autonomy.searchcomponents.idol.answer.configuration.AskFanOutConfig;
+import com.hp.autonomy.searchcomponents.idol.configuration.IdolSearchCapable;
+import com.hp.autonomy.searchcomponents.idol.httpclient.AsyncAciService;
 import com.hp.autonomy.types.idol.marshalling.ProcessorFactory;
 import com.hp.autonomy.types.idol.responses.answer.AskAnswer;
 import com.hp.autonomy.types.idol.responses.answer.AskAnswers;
 import com.hp.autonomy.types.idol.responses.answer.AskResponsedata;
+import com.hp.autonomy.types.requests.idol.actions.answer.params.AskParams;
+import com.hp.autonomy.types.requests.idol.actions.answer.params.AskSortParam;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anySetOf;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
 public class AskAnswerServerServiceTest {
+    @Mock
+    private ConfigService<IdolSearchCapable> configService;
+    @Mock
+    private IdolSearchCapable config;
     @Mock
     private AciService answerServerAciService;
     @Mock
+    private AsyncAciService answerServerAsyncAciService;
+    @Mock
+    private AskAnswerCache askAnswerCache;
+    @Mock
     private ProcessorFactory processorFactory;
     @Mock
     private AskAnswerServerRequest request;
 
-    private AskAnswerServerService service;
+    private final Map<String, CompletableFuture<AskResponsedata>> systemResponses = new ConcurrentHashMap<>();
+    private final ThreadPoolTaskScheduler timeoutScheduler = new ThreadPoolTaskScheduler();
+
+    private AskAnswerServerServiceImpl service;
 
     @Before
     public void setUp() {
-        final AskResponsedata responsedata = new AskResponsedata();
-        final AskAnswers answers = new AskAnswers();
-        answers.getAnswer().add(new AskAnswer());
-        responsedata.setAnswers(answers);
-        when(answerServerAciService.executeAction(any(), any())).thenReturn(responsedata);
+        when(answerServerAciService.executeAction(any(), any())).thenReturn(createResponse(new AskAnswer()));
+        when(answerServerAsyncAciService.executeAction(anySetOf(AciParameter.class), any())).thenAnswer(invocation -> {
+            @SuppressWarnings("unchecked")
+            final Set<? extends ActionParameter<?>> parameters = (Set<? extends ActionParameter<?>>) invocation.getArguments()[0];
+            final String systemName = parameters.stream()
+                    .filter(parameter -> AskParams.SystemNames.name().equalsIgnoreCase(parameter.getName()))
+                    .map(parameter -> String.valueOf(parameter.getValue()))
+                    .findFirst()
+                    .orElseThrow(IllegalStateException::new);
+            return systemResponses.get(systemName);
+        });
+        when(configService.getConfig()).thenReturn(config);
+
+        timeoutScheduler.initialize();
+        service = new AskAnswerServerServiceImpl(configService, answerServerAciService, answerServerAsyncAciService, askAnswerCache, processorFactory, timeoutScheduler);
+    }
 
-        service = new AskAnswerServerServiceImpl(answerServerAciService, processorFactory);
+    @After
+    public void tearDown() {
+        timeoutScheduler.shutdown();
     }
 
     @Test
@@ -57,4 +106,132 @@ public class AskAnswerServerServiceTest {
         when(answerServerAciService.executeAction(any(), any())).thenReturn(new AskResponsedata());
         assertThat(service.ask(request), empty());
     }
+
+    @Test
+    public void askCachedQuestion() {
+        final List<AskAnswer> answers = Collections.singletonList(new AskAnswer());
+        when(askAnswerCache.getAnswers(request)).thenReturn(answers);
+
+        assertThat(service.ask(request), is(answers));
+        verifyZeroInteractions(answerServerAciService);
+    }
+
+    @Test
+    public void askRecordsAnswers() {
+        when(request.getSystemNames()).thenReturn(Collections.singleton("answerbank0"));
+
+        final List<AskAnswer> answers = service.ask(request);
+        verify(askAnswerCache).putAnswers(request, answers);
+    }
+
+    @Test
+    public void askSingleSystemWithFanOut() {
+        mockFanOut(AskFanOutConfig.builder().enabled(true).build());
+        when(request.getSystemNames()).thenReturn(Collections.singleton("answerbank0"));
+
+        assertThat(service.ask(request), not(empty()));
+        verifyZeroInteractions(answerServerAsyncAciService);
+    }
+
+    @Test
+    public void askEachSystemSortedByScore() {
+        mockFanOut(AskFanOutConfig.builder().enabled(true).build());
+        final AskAnswer low = createAnswer(10);
+        final AskAnswer high = createAnswer(90);
+        final AskAnswer middle = createAnswer(50);
+        systemResponses.put("answerbank0", CompletableFuture.completedFuture(createResponse(low, high)));
+        systemResponses.put("passageextractor0", CompletableFuture.completedFuture(createResponse(middle)));
+        when(request.getSystemNames()).thenReturn(systemNames("answerbank0", "passageextractor0"));
+
+        assertThat(service.ask(request), contains(high, middle, low));
+    }
+
+    @Test
+    public void askEachSystemSortedBySystem() {
+        mockFanOut(AskFanOutConfig.builder().enabled(true).build());
+        final AskAnswer first = createAnswer(10);
+        final AskAnswer second = createAnswer(90);
+        systemResponses.put("answerbank0", CompletableFuture.completedFuture(createResponse(first)));
+        systemResponses.put("passageextractor0", CompletableFuture.completedFuture(createResponse(second)));
+        when(request.getSystemNames()).thenReturn(systemNames("answerbank0", "passageextractor0"));
+        when(request.getSort()).thenReturn(AskSortParam.SYSTEM);
+        when(request.getMaxResults()).thenReturn(1);
+
+        assertThat(service.ask(request), contains(first));
+    }
+
+    @Test
+    public void slowSystemTimesOut() {
+        mockFanOut(AskFanOutConfig.builder().enabled(true).systemTimeout(50L).build());
+        final AskAnswer answer = createAnswer(10);
+        final CompletableFuture<AskResponsedata> slowResponse = new CompletableFuture<>();
+        systemResponses.put("answerbank0", CompletableFuture.completedFuture(createResponse(answer)));
+        systemResponses.put("passageextractor0", slowResponse);
+        when(request.getSystemNames()).thenReturn(systemNames("answerbank0", "passageextractor0"));
+
+        assertThat(service.ask(request), contains(answer));
+        assertThat(slowResponse.isCancelled(), is(true));
+        verify(askAnswerCache, never()).putAnswers(any(), any());
+    }
+
+    @Test
+    public void goodAnswerCancelsRemainingSystems() {
+        mockFanOut(AskFanOutConfig.builder().enabled(true).earlyTerminationScore(80.0).build());
+        final AskAnswer answer = createAnswer(90);
+        final CompletableFuture<AskResponsedata> slowResponse = new CompletableFuture<>();
+        systemResponses.put("answerbank0", CompletableFuture.completedFuture(createResponse(answer)));
+        systemResponses.put("passageextractor0", slowResponse);
+        when(request.getSystemNames()).thenReturn(systemNames("answerbank0", "passageextractor0"));
+
+        assertThat(service.ask(request), contains(answer));
+        assertThat(slowResponse.isCancelled(), is(true));
+    }
+
+    @Test
+    public void failedSystemIsIgnored() {
+        mockFanOut(AskFanOutConfig.builder().enabled(true).build());
+        final AskAnswer answer = createAnswer(10);
+        final CompletableFuture<AskResponsedata> failedResponse = new CompletableFuture<>();
+        failedResponse.completeExceptionally(new AciErrorException());
+        systemResponses.put("answerbank0", failedResponse);
+        systemResponses.put("passageextractor0", CompletableFuture.completedFuture(createResponse(answer)));
+        when(request.getSystemNames()).thenReturn(systemNames("answerbank0", "passageextractor0"));
+
+        assertThat(service.ask(request), contains(answer));
+    }
+
+    @Test(expected = AciErrorException.class)
+    public void allSystemsFailed() {
+        mockFanOut(AskFanOutConfig.builder().enabled(true).build());
+        final CompletableFuture<AskResponsedata> failedResponse = new CompletableFuture<>();
+        failedResponse.completeExceptionally(new AciErrorException());
+        systemResponses.put("answerbank0", failedResponse);
+        systemResponses.put("passageextractor0", failedResponse);
+        when(request.getSystemNames()).thenReturn(systemNames("answerbank0", "passageextractor0"));
+
+        service.ask(request);
+    }
+
+    private void mockFanOut(final AskFanOutConfig fanOutConfig) {
+        when(config.getAnswerServer()).thenReturn(AnswerServerConfig.builder().enabled(true).askFanOut(fanOutConfig).build());
+    }
+
+    private Set<String> systemNames(final String... systemNames) {
+        return new LinkedHashSet<>(Arrays.asList(systemNames));
+    }
+
+    private AskAnswer createAnswer(final double score) {
+        final AskAnswer answer = new AskAnswer();
+        answer.setScore(score);
+        return answer;
+    }
+
+    private AskResponsedata createResponse(final AskAnswer... answers) {
+        final AskResponsedata responsedata = new AskResponsedata();
+        final AskAnswers askAnswers = new AskAnswers();
+        final List<AskAnswer> answerList = askAnswers.getAnswer();
+        answerList.addAll(Arrays.asList(answers));
+        responsedata.setAnswers(askAnswers);
+        return responsedata;
+    }
 }
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.answer.system;
+
+import com.autonomy.aci.client.services.AciService;
+import com.autonomy.aci.client.transport.AciServerDetails;
+import com.hp.autonomy.frontend.configuration.ConfigService;
+import com.hp.autonomy.searchcomponents.idol.answer.configuration.AnswerServerConfig;
+import com.hp.autonomy.searchcomponents.idol.configuration.IdolSearchCapable;
+import com.hp.autonomy.types.idol.marshalling.ProcessorFactory;
+import com.hp.autonomy.types.idol.responses.answer.GetStatusResponsedata;
+import com.hp.autonomy.types.idol.responses.answer.System;
+import com.hp.autonomy.types.idol.responses.answer.Systems;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AnswerServerSystemRegistryTest {
+    @Mock
+    private ConfigService<IdolSearchCapable> configService;
+    @Mock
+    private IdolSearchCapable config;
+    @Mock
+    private AnswerServerConfig answerServerConfig;
+    @Mock
+    private AciService answerServerAciService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private ProcessorFactory processorFactory;
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    private AnswerServerSystemRegistryImpl answerServerSystemRegistry;
+
+    @Before
+    public void setUp() {
+        when(configService.getConfig()).thenReturn(config);
+        when(config.getAnswerServer()).thenReturn(answerServerConfig);
+        when(answerServerConfig.getEnabled()).thenReturn(true);
+        when(answerServerConfig.toAciServerDetails()).thenReturn(new AciServerDetails("localhost", 7000));
+        when(answerServerAciService.executeAction(any(), any())).thenReturn(mockStatus("answerbank0"));
+
+        answerServerSystemRegistry = new AnswerServerSystemRegistryImpl(configService, answerServerAciService, eventPublisher, processorFactory, taskScheduler);
+    }
+
+    @After
+    public void tearDown() {
+        answerServerSystemRegistry.close();
+    }
+
+    @Test
+    public void getSystemNames() {
+        answerServerSystemRegistry.getSystemNames();
+        assertThat(answerServerSystemRegistry.getSystemNames(), contains("answerbank0"));
+
+        verify(answerServerAciService, times(1)).executeAction(any(), any());
+    }
+
+    @Test
+    public void concurrentCallersShareOneRequest() throws InterruptedException {
+        final CountDownLatch requestStarted = new CountDownLatch(1);
+        final CountDownLatch releaseRequest = new CountDownLatch(1);
+        when(answerServerAciService.executeAction(any(), any())).thenAnswer(invocation -> {
+            requestStarted.countDown();
+            releaseRequest.await();
+            return mockStatus("answerbank0");
+        });
+
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            final List<Future<List<String>>> results = new ArrayList<>();
+            results.add(executor.submit(answerServerSystemRegistry::getSystemNames));
+            requestStarted.await();
+            results.add(executor.submit(answerServerSystemRegistry::getSystemNames));
+            results.add(executor.submit(answerServerSystemRegistry::getSystemNames));
+
+            // let the other callers queue behind the first
+            Thread.sleep(100);
+            releaseRequest.countDown();
+
+            for (final Future<List<String>> result : results) {
+                assertThat(result.get(), contains("answerbank0"));
+            }
+        } catch (final ExecutionException e) {
+            throw new AssertionError(e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(answerServerAciService, times(1)).executeAction(any(), any());
+    }
+
+    @Test
+    public void reloadsWhenServerChanges() {
+        answerServerSystemRegistry.getSystemNames();
+        when(answerServerConfig.toAciServerDetails()).thenReturn(new AciServerDetails("otherhost", 7000));
+        when(answerServerAciService.executeAction(any(), any())).thenReturn(mockStatus("passageextractor0"));
+
+        assertThat(answerServerSystemRegistry.getSystemNames(), contains("passageextractor0"));
+    }
+
+    @Test
+    public void refreshPublishesChanges() {
+        answerServerSystemRegistry.refresh();
+        when(answerServerAciService.executeAction(any(), any())).thenReturn(mockStatus("answerbank0", "passageextractor0"));
+        answerServerSystemRegistry.refresh();
+
+        final ArgumentCaptor<AnswerServerSystemsChangedEvent> captor = ArgumentCaptor.forClass(AnswerServerSystemsChangedEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        assertThat(captor.getValue().getPreviousSystemNames(), contains("answerbank0"));
+        assertThat(captor.getValue().getSystemNames(), contains("answerbank0", "passageextractor0"));
+        assertThat(answerServerSystemRegistry.getSystemNames(), contains("answerbank0", "passageextractor0"));
+    }
+
+    @Test
+    public void refreshWithoutChanges() {
+        answerServerSystemRegistry.refresh();
+        answerServerSystemRegistry.refresh();
+
+        verify(eventPublisher, never()).publishEvent(any(AnswerServerSystemsChangedEvent.class));
+    }
+
+    @Test
+    public void failedRefreshKeepsPreviousNames() {
+        answerServerSystemRegistry.refresh();
+        when(answerServerAciService.executeAction(any(), any())).thenThrow(new IllegalStateException());
+
+        try {
+            answerServerSystemRegistry.refresh();
+        } catch (final IllegalStateException ignored) {
+            // expected
+        }
+
+        assertThat(answerServerSystemRegistry.getSystemNames(), contains("answerbank0"));
+    }
+
+    private GetStatusResponsedata mockStatus(final String... systemNames) {
+        final GetStatusResponsedata status = new GetStatusResponsedata();
+        final Systems systems = new Systems();
+        for (final String systemName : systemNames) {
+            final System system = new System();
+            system.setName(systemName);
+            systems.getSystem().add(system);
+        }
+        status.setSystems(systems);
+        return status;
+    }
+}
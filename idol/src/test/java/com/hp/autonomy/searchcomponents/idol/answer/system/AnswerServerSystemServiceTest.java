@@ -18,6 +18,8 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.util.Collections;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.not;
@@ -29,7 +31,7 @@ public class AnswerServerSystemServiceTest {
     @Mock
     private AciService aciService;
     @Mock
-    private AciService answerServerAciService;
+    private AnswerServerSystemRegistry answerServerSystemRegistry;
     @Mock
     protected ProcessorFactory processorFactory;
     @Mock
@@ -39,7 +41,7 @@ public class AnswerServerSystemServiceTest {
 
     @Before
     public void setUp() {
-        answerServerSystemService = new AnswerServerSystemServiceImpl(aciService, answerServerAciService, processorFactory);
+        answerServerSystemService = new AnswerServerSystemServiceImpl(aciService, answerServerSystemRegistry, processorFactory);
     }
 
     @Test
@@ -50,7 +52,7 @@ public class AnswerServerSystemServiceTest {
 
     @Test
     public void getSystemNamesViaConfiguration() {
-        when(answerServerAciService.executeAction(any(), any())).thenReturn(mockStatus());
+        when(answerServerSystemRegistry.getSystemNames()).thenReturn(Collections.singletonList("answerbank0"));
         assertThat(answerServerSystemService.getSystemNames(), not(empty()));
     }
 
@@ -0,0 +1,368 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.circuitbreaker;
+
+import com.autonomy.aci.client.services.AciErrorException;
+import com.autonomy.aci.client.services.AciService;
+import com.autonomy.aci.client.services.AciServiceException;
+import com.autonomy.aci.client.services.Processor;
+import com.autonomy.aci.client.util.AciParameters;
+import com.hp.autonomy.searchcomponents.core.deadline.Deadline;
+import com.hp.autonomy.searchcomponents.core.deadline.DeadlineContext;
+import com.hp.autonomy.searchcomponents.idol.configuration.CircuitBreakerConfig;
+import com.hp.autonomy.searchcomponents.idol.httpclient.AsyncAciService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CircuitBreakerAciServiceTest {
+    @Mock
+    private AciService delegate;
+    @Mock
+    private AsyncAciService asyncDelegate;
+    @Mock
+    private Processor<String> processor;
+
+    private CircuitBreakerConfig config;
+    private CircuitBreakerAciService circuitBreakerAciService;
+
+    @Before
+    public void setUp() {
+        config = CircuitBreakerConfig.builder()
+                .enabled(true)
+                .windowSize(10)
+                .minimumCalls(4)
+                .failureRateThreshold(50D)
+                .openDuration(50L)
+                .halfOpenCalls(2)
+                .build();
+
+        circuitBreakerAciService = new CircuitBreakerAciService(delegate, asyncDelegate, () -> config, "test");
+    }
+
+    @Test
+    public void disabledPassesThrough() {
+        config = null;
+        when(delegate.executeAction(any(), any(), any())).thenThrow(new AciServiceException());
+
+        for (int i = 0; i < 20; i++) {
+            callIgnoringErrors();
+        }
+
+        assertThat(circuitBreakerAciService.getState(), is(CircuitState.CLOSED));
+        verify(delegate, times(20)).executeAction(any(), any(), any());
+    }
+
+    @Test
+    public void opensAfterFailures() {
+        when(delegate.executeAction(any(), any(), any())).thenThrow(new AciServiceException());
+
+        for (int i = 0; i < 4; i++) {
+            callIgnoringErrors();
+        }
+
+        assertThat(circuitBreakerAciService.getState(), is(CircuitState.OPEN));
+        assertThat(circuitBreakerAciService.isClosed(), is(false));
+        assertThat(circuitBreakerAciService.reserveCall(), is(nullValue()));
+
+        reset(delegate);
+        try {
+            circuitBreakerAciService.executeAction(new AciParameters("Query"), processor);
+        } catch (final BackendUnavailableException ignored) {
+        }
+
+        verify(delegate, never()).executeAction(any(), any(), any());
+        assertThat(circuitBreakerAciService.getRejectedCalls(), is(1L));
+    }
+
+    @Test
+    public void actionErrorsDoNotOpen() {
+        when(delegate.executeAction(any(), any(), any())).thenThrow(new AciErrorException());
+
+        for (int i = 0; i < 10; i++) {
+            callIgnoringErrors();
+        }
+
+        assertThat(circuitBreakerAciService.getState(), is(CircuitState.CLOSED));
+    }
+
+    @Test
+    public void opensAfterSlowCalls() {
+        config = CircuitBreakerConfig.builder()
+                .enabled(true)
+                .minimumCalls(2)
+                .slowCallDuration(1L)
+                .slowCallRateThreshold(100D)
+                .build();
+
+        when(delegate.executeAction(any(), any(), any())).thenAnswer(invocation -> {
+            Thread.sleep(5L);
+            return "slow";
+        });
+
+        callIgnoringErrors();
+        callIgnoringErrors();
+
+        assertThat(circuitBreakerAciService.getState(), is(CircuitState.OPEN));
+    }
+
+    @Test
+    public void closesAfterSuccessfulTrials() throws InterruptedException {
+        when(delegate.executeAction(any(), any(), any())).thenThrow(new AciServiceException());
+        for (int i = 0; i < 4; i++) {
+            callIgnoringErrors();
+        }
+
+        Thread.sleep(60L);
+        reset(delegate);
+        when(delegate.executeAction(any(), any(), any())).thenReturn("OK");
+
+        circuitBreakerAciService.executeAction(new AciParameters("Query"), processor);
+        assertThat(circuitBreakerAciService.getState(), is(CircuitState.HALF_OPEN));
+
+        circuitBreakerAciService.executeAction(new AciParameters("Query"), processor);
+        assertThat(circuitBreakerAciService.getState(), is(CircuitState.CLOSED));
+    }
+
+    @Test
+    public void streamingResponseIsNotTimed() {
+        config = CircuitBreakerConfig.builder()
+                .enabled(true)
+                .minimumCalls(2)
+                .slowCallDuration(1L)
+                .slowCallRateThreshold(100D)
+                .build();
+
+        // the backend answers at once, but the processor takes its time with the response
+        when(processor.process(any())).thenAnswer(invocation -> {
+            Thread.sleep(5L);
+            return "streamed";
+        });
+        when(delegate.executeAction(any(), any(), any())).thenAnswer(invocation -> {
+            @SuppressWarnings("unchecked")
+            final Processor<String> timedProcessor = (Processor<String>) invocation.getArguments()[2];
+            return timedProcessor.process(null);
+        });
+
+        callIgnoringErrors();
+        callIgnoringErrors();
+
+        assertThat(circuitBreakerAciService.getState(), is(CircuitState.CLOSED));
+        assertThat(circuitBreakerAciService.getSlowCallRate(), is(0.0));
+    }
+
+    @Test
+    public void reservedCallsUseTrialPermits() throws InterruptedException {
+        assertThat(circuitBreakerAciService.reserveCall(), is(sameInstance((AciService) circuitBreakerAciService)));
+
+        when(delegate.executeAction(any(), any(), any())).thenThrow(new AciServiceException());
+        for (int i = 0; i < 4; i++) {
+            callIgnoringErrors();
+        }
+
+        Thread.sleep(60L);
+        reset(delegate);
+        when(delegate.executeAction(any(), any(), any())).thenReturn("OK");
+
+        final AciService firstTrial = circuitBreakerAciService.reserveCall();
+        final AciService secondTrial = circuitBreakerAciService.reserveCall();
+        assertThat(firstTrial, is(notNullValue()));
+        assertThat(secondTrial, is(notNullValue()));
+        // every trial request has been handed out, so other callers should use their fallback
+        assertThat(circuitBreakerAciService.reserveCall(), is(nullValue()));
+
+        firstTrial.executeAction(new AciParameters("Query"), processor);
+        secondTrial.executeAction(new AciParameters("Query"), processor);
+        assertThat(circuitBreakerAciService.getState(), is(CircuitState.CLOSED));
+    }
+
+    @Test
+    public void unusedReservationsAreWrittenOff() throws InterruptedException {
+        when(delegate.executeAction(any(), any(), any())).thenThrow(new AciServiceException());
+        for (int i = 0; i < 4; i++) {
+            callIgnoringErrors();
+        }
+
+        Thread.sleep(60L);
+        circuitBreakerAciService.reserveCall();
+        circuitBreakerAciService.reserveCall();
+        assertThat(circuitBreakerAciService.reserveCall(), is(nullValue()));
+
+        Thread.sleep(60L);
+        assertThat(circuitBreakerAciService.reserveCall(), is(notNullValue()));
+    }
+
+    @Test
+    public void resultsFromBeforeTrialsAreIgnored() throws InterruptedException {
+        final CompletableFuture<String> earlyResponse = new CompletableFuture<>();
+        when(asyncDelegate.executeAction(any(), any())).thenReturn(earlyResponse);
+        circuitBreakerAciService.getAsyncAciService().executeAction(new AciParameters("Query"), processor);
+
+        when(delegate.executeAction(any(), any(), any())).thenThrow(new AciServiceException());
+        for (int i = 0; i < 4; i++) {
+            callIgnoringErrors();
+        }
+
+        Thread.sleep(60L);
+        reset(delegate);
+        when(delegate.executeAction(any(), any(), any())).thenReturn("OK");
+        circuitBreakerAciService.executeAction(new AciParameters("Query"), processor);
+
+        // a request sent before the circuit opened is not a trial, so its failure does not reopen the circuit
+        earlyResponse.completeExceptionally(new AciServiceException());
+        assertThat(circuitBreakerAciService.getState(), is(CircuitState.HALF_OPEN));
+
+        circuitBreakerAciService.executeAction(new AciParameters("Query"), processor);
+        assertThat(circuitBreakerAciService.getState(), is(CircuitState.CLOSED));
+    }
+
+    @Test
+    public void reopensAfterFailedTrial() throws InterruptedException {
+        when(delegate.executeAction(any(), any(), any())).thenThrow(new AciServiceException());
+        for (int i = 0; i < 4; i++) {
+            callIgnoringErrors();
+        }
+
+        Thread.sleep(60L);
+        callIgnoringErrors();
+
+        assertThat(circuitBreakerAciService.getState(), is(CircuitState.OPEN));
+    }
+
+    @Test
+    public void expiredTrialDoesNotUseUpPermit() throws InterruptedException {
+        when(delegate.executeAction(any(), any(), any())).thenThrow(new AciServiceException());
+        for (int i = 0; i < 4; i++) {
+            callIgnoringErrors();
+        }
+
+        Thread.sleep(60L);
+        reset(delegate);
+        when(delegate.executeAction(any(), any(), any())).thenAnswer(invocation -> {
+            Thread.sleep(30L);
+            throw new AciServiceException();
+        });
+
+        for (int i = 0; i < 2; i++) {
+            DeadlineContext.runWithin(Deadline.after(20L, TimeUnit.MILLISECONDS), this::callIgnoringErrors);
+        }
+
+        assertThat(circuitBreakerAciService.getState(), is(CircuitState.HALF_OPEN));
+
+        reset(delegate);
+        when(delegate.executeAction(any(), any(), any())).thenReturn("OK");
+        circuitBreakerAciService.executeAction(new AciParameters("Query"), processor);
+        circuitBreakerAciService.executeAction(new AciParameters("Query"), processor);
+        assertThat(circuitBreakerAciService.getState(), is(CircuitState.CLOSED));
+    }
+
+    @Test(expected = BackendUnavailableException.class)
+    public void bulkheadRejectsExcessCalls() throws InterruptedException {
+        config = CircuitBreakerConfig.builder()
+                .enabled(true)
+                .maxConcurrentCalls(1)
+                .build();
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        when(delegate.executeAction(any(), any(), any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return "OK";
+        });
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> circuitBreakerAciService.executeAction(new AciParameters("Query"), processor));
+            assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+
+            circuitBreakerAciService.executeAction(new AciParameters("Query"), processor);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void asyncFailuresOpen() {
+        final CompletableFuture<String> failure = new CompletableFuture<>();
+        failure.completeExceptionally(new AciServiceException());
+        when(asyncDelegate.executeAction(any(), any())).thenReturn(failure);
+
+        for (int i = 0; i < 4; i++) {
+            circuitBreakerAciService.getAsyncAciService().executeAction(new AciParameters("Query"), processor);
+        }
+
+        assertThat(circuitBreakerAciService.getState(), is(CircuitState.OPEN));
+
+        final CompletableFuture<String> rejected = circuitBreakerAciService.getAsyncAciService().executeAction(new AciParameters("Query"), processor);
+        assertThat(rejected.isCompletedExceptionally(), is(true));
+        verify(asyncDelegate, times(4)).executeAction(any(), any());
+    }
+
+    @Test
+    public void asyncCallHoldsBulkheadUntilComplete() {
+        config = CircuitBreakerConfig.builder()
+                .enabled(true)
+                .maxConcurrentCalls(1)
+                .build();
+
+        final CompletableFuture<String> response = new CompletableFuture<>();
+        when(asyncDelegate.executeAction(any(), any())).thenReturn(response);
+
+        circuitBreakerAciService.getAsyncAciService().executeAction(new AciParameters("Query"), processor);
+        assertThat(circuitBreakerAciService.getAvailableConcurrentCalls(), is(0));
+        assertThat(circuitBreakerAciService.getAsyncAciService().executeAction(new AciParameters("Query"), processor).isCompletedExceptionally(), is(true));
+
+        response.complete("OK");
+        assertThat(circuitBreakerAciService.getAvailableConcurrentCalls(), is(1));
+    }
+
+    @Test
+    public void cancelledAsyncCallIsNotAFailure() {
+        config = CircuitBreakerConfig.builder()
+                .enabled(true)
+                .minimumCalls(1)
+                .build();
+
+        final CompletableFuture<String> response = new CompletableFuture<>();
+        when(asyncDelegate.executeAction(any(), any())).thenReturn(response);
+
+        circuitBreakerAciService.getAsyncAciService().executeAction(new AciParameters("Query"), processor);
+        response.cancel(true);
+
+        assertThat(circuitBreakerAciService.getState(), is(CircuitState.CLOSED));
+        assertThat(circuitBreakerAciService.getFailureRate(), is(0.0));
+    }
+
+    private void callIgnoringErrors() {
+        try {
+            circuitBreakerAciService.executeAction(new AciParameters("Query"), processor);
+        } catch (final AciServiceException ignored) {
+        }
+    }
+}
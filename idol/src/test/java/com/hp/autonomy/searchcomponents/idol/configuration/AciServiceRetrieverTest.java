@@ -6,8 +6,14 @@
 package com.hp.autonomy.searchcomponents.idol.configuration;
 
 import com.autonomy.aci.client.services.AciService;
+import com.autonomy.aci.client.services.Processor;
+import com.autonomy.aci.client.transport.AciServerDetails;
+import com.autonomy.aci.client.util.AciParameters;
+import com.hp.autonomy.frontend.configuration.server.ServerConfig;
 import com.hp.autonomy.frontend.configuration.ConfigService;
 import com.hp.autonomy.searchcomponents.core.search.QueryRequest;
+import com.hp.autonomy.searchcomponents.idol.circuitbreaker.CircuitBreakerAciService;
+import com.hp.autonomy.searchcomponents.idol.httpclient.AsyncAciService;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -15,7 +21,12 @@ import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -28,14 +39,27 @@ public class AciServiceRetrieverTest {
     private AciService contentAciService;
     @Mock
     private AciService qmsAciService;
+    @Mock
+    private AsyncAciService contentAsyncAciService;
+    @Mock
+    private AsyncAciService qmsAsyncAciService;
+    @Mock
+    private CircuitBreakerAciService qmsCircuitBreakerAciService;
+    @Mock
+    private AciService trialAciService;
+    @Mock
+    private AsyncAciService trialAsyncAciService;
+    @Mock
+    private Processor<String> processor;
 
     private AciServiceRetriever aciServiceRetriever;
 
     @Before
     public void setUp() {
-        aciServiceRetriever = new AciServiceRetrieverImpl(configService, contentAciService, qmsAciService);
+        aciServiceRetriever = new AciServiceRetrieverImpl(configService, contentAciService, qmsAciService, contentAsyncAciService, qmsAsyncAciService, qmsCircuitBreakerAciService);
 
         when(configService.getConfig()).thenReturn(config);
+        when(qmsCircuitBreakerAciService.isClosed()).thenReturn(true);
     }
 
     @Test
@@ -61,9 +85,54 @@ public class AciServiceRetrieverTest {
         assertEquals(contentAciService, aciServiceRetriever.getAciService(QueryRequest.QueryType.RAW));
     }
 
+    @Test
+    public void getModifiedAciServiceQmsCircuitOpen() {
+        enableQms();
+        when(qmsCircuitBreakerAciService.isClosed()).thenReturn(false);
+
+        assertFalse(aciServiceRetriever.qmsAvailable());
+        assertEquals(contentAciService, aciServiceRetriever.getAciService(QueryRequest.QueryType.MODIFIED));
+        assertEquals(contentAsyncAciService, aciServiceRetriever.getAsyncAciService(QueryRequest.QueryType.MODIFIED));
+    }
+
+    @Test
+    public void getModifiedAciServiceQmsTrial() {
+        enableQms();
+        when(qmsCircuitBreakerAciService.isClosed()).thenReturn(false);
+        when(qmsCircuitBreakerAciService.reserveCall()).thenReturn(trialAciService);
+        when(qmsCircuitBreakerAciService.reserveAsyncCall()).thenReturn(trialAsyncAciService);
+
+        // promotions are only requested while every request can be sent
+        assertFalse(aciServiceRetriever.qmsAvailable());
+
+        final AciParameters parameters = new AciParameters("Query");
+        aciServiceRetriever.getAciService(QueryRequest.QueryType.MODIFIED).executeAction(parameters, processor);
+        verify(trialAciService).executeAction(any(AciServerDetails.class), eq(parameters), eq(processor));
+        verify(contentAciService, never()).executeAction(any(), any());
+
+        assertEquals(trialAsyncAciService, aciServiceRetriever.getAsyncAciService(QueryRequest.QueryType.MODIFIED));
+    }
+
+    @Test
+    public void getModifiedAsyncAciServiceQmsEnabled() {
+        enableQms();
+        assertEquals(qmsAsyncAciService, aciServiceRetriever.getAsyncAciService(QueryRequest.QueryType.MODIFIED));
+    }
+
+    @Test
+    public void getRawAsyncAciServiceQmsEnabled() {
+        enableQms();
+        assertEquals(contentAsyncAciService, aciServiceRetriever.getAsyncAciService(QueryRequest.QueryType.RAW));
+    }
+
     private void enableQms() {
         when(config.getQueryManipulation()).thenReturn(QueryManipulation.builder()
                 .enabled(true)
+                .server(ServerConfig.builder()
+                        .protocol(AciServerDetails.TransportProtocol.HTTP)
+                        .host("qms")
+                        .port(16000)
+                        .build())
                 .build());
     }
 }
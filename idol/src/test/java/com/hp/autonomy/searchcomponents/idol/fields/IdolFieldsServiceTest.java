@@ -5,10 +5,13 @@
 
 package com.hp.autonomy.searchcomponents.idol.fields;
 
+import com.autonomy.aci.client.services.AciErrorException;
 import com.autonomy.aci.client.services.AciService;
 import com.autonomy.aci.client.transport.AciParameter;
+import com.hp.autonomy.searchcomponents.idol.httpclient.AsyncAciService;
 import com.hp.autonomy.types.idol.marshalling.ProcessorFactory;
 import com.hp.autonomy.types.idol.responses.GetTagNamesResponseData;
+import com.hp.autonomy.types.requests.idol.actions.tags.TagName;
 import com.hp.autonomy.types.requests.idol.actions.tags.params.FieldTypeParam;
 import org.junit.Before;
 import org.junit.Test;
@@ -16,6 +19,10 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.collection.IsEmptyCollection.empty;
@@ -24,6 +31,7 @@ import static org.hamcrest.core.IsNot.not;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anySetOf;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -31,6 +39,9 @@ public class IdolFieldsServiceTest {
     @Mock
     private AciService contentAciService;
 
+    @Mock
+    private AsyncAciService contentAsyncAciService;
+
     @Mock
     private ProcessorFactory processorFactory;
 
@@ -38,13 +49,43 @@ public class IdolFieldsServiceTest {
 
     @Before
     public void setUp() {
-        idolFieldsService = new IdolFieldsServiceImpl(contentAciService, processorFactory);
+        idolFieldsService = new IdolFieldsServiceImpl(contentAciService, contentAsyncAciService, processorFactory);
     }
 
     @Test
     public void getFields() {
         when(contentAciService.executeAction(anySetOf(AciParameter.class), any())).thenReturn(mockTagNamesResponse());
-        assertThat(idolFieldsService.getFields(mock(IdolFieldsRequest.class), FieldTypeParam.Date, FieldTypeParam.Numeric), hasEntry(is(FieldTypeParam.Numeric), not(empty())));
+        assertThat(idolFieldsService.getFields(mock(IdolFieldsRequest.class), FieldTypeParam.Numeric), hasEntry(is(FieldTypeParam.Numeric), not(empty())));
+        verifyZeroInteractions(contentAsyncAciService);
+    }
+
+    @Test
+    public void getFieldsOfSeveralTypes() {
+        when(contentAsyncAciService.executeAction(anySetOf(AciParameter.class), any())).thenReturn(CompletableFuture.completedFuture(mockTagNamesResponse()));
+
+        final Map<FieldTypeParam, List<TagName>> results = idolFieldsService.getFields(mock(IdolFieldsRequest.class), FieldTypeParam.Date, FieldTypeParam.Numeric);
+        assertThat(results, hasEntry(is(FieldTypeParam.Date), not(empty())));
+        assertThat(results, hasEntry(is(FieldTypeParam.Numeric), not(empty())));
+        verifyZeroInteractions(contentAciService);
+    }
+
+    @Test(expected = AciErrorException.class)
+    public void getFieldsOfSeveralTypesFails() {
+        final CompletableFuture<GetTagNamesResponseData> failedResponse = new CompletableFuture<>();
+        failedResponse.completeExceptionally(new AciErrorException());
+        final CompletableFuture<GetTagNamesResponseData> slowResponse = new CompletableFuture<>();
+        when(contentAsyncAciService.executeAction(anySetOf(AciParameter.class), any())).thenReturn(failedResponse, slowResponse);
+
+        try {
+            idolFieldsService.getFields(mock(IdolFieldsRequest.class), FieldTypeParam.Date, FieldTypeParam.Numeric);
+        } finally {
+            assertThat(slowResponse.isCancelled(), is(true));
+        }
+    }
+
+    @Test
+    public void getFieldsOfNoTypes() {
+        assertThat(idolFieldsService.getFields(mock(IdolFieldsRequest.class)).isEmpty(), is(true));
     }
 
     private GetTagNamesResponseData mockTagNamesResponse() {
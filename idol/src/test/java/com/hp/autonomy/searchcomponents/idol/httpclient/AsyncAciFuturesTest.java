@@ -0,0 +1,48 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.httpclient;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class AsyncAciFuturesTest {
+    @Test
+    public void thenApply() {
+        final CompletableFuture<String> response = CompletableFuture.completedFuture("response");
+        assertThat(AsyncAciFutures.thenApply(response, String::length).join(), is(8));
+    }
+
+    @Test
+    public void cancellingResultCancelsResponse() {
+        final CompletableFuture<String> response = new CompletableFuture<>();
+        AsyncAciFutures.thenApply(response, String::length).cancel(true);
+
+        assertThat(response.isCancelled(), is(true));
+    }
+
+    @Test
+    public void failingResultCancelsResponse() {
+        final CompletableFuture<String> response = new CompletableFuture<>();
+        AsyncAciFutures.thenApply(response, String::length).completeExceptionally(new TimeoutException());
+
+        assertThat(response.isCancelled(), is(true));
+    }
+
+    @Test
+    public void failedResponseIsNotCancelled() {
+        final CompletableFuture<String> response = new CompletableFuture<>();
+        final CompletableFuture<Integer> result = AsyncAciFutures.thenApply(response, String::length);
+        response.completeExceptionally(new IllegalStateException());
+
+        assertThat(result.isCompletedExceptionally(), is(true));
+        assertThat(response.isCancelled(), is(false));
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.httpclient;
+
+import com.autonomy.aci.client.services.AciErrorException;
+import com.autonomy.aci.client.services.AciServiceException;
+import com.autonomy.aci.client.services.Processor;
+import com.autonomy.aci.client.transport.AciResponseInputStream;
+import com.autonomy.aci.client.transport.AciServerDetails;
+import com.autonomy.aci.client.util.AciParameters;
+import com.hp.autonomy.searchcomponents.core.deadline.Deadline;
+import com.hp.autonomy.searchcomponents.core.deadline.DeadlineContext;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.nio.client.HttpAsyncClient;
+import org.apache.http.util.EntityUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.both;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AsyncAciServiceTest {
+    @Mock
+    private HttpAsyncClient httpClient;
+    @Mock
+    private Processor<String> processor;
+    @Mock
+    private Future<HttpResponse> responseFuture;
+
+    private AsyncAciService asyncAciService;
+
+    @SuppressWarnings("unchecked")
+    @Before
+    public void setUp() {
+        when(httpClient.execute(any(HttpUriRequest.class), any(FutureCallback.class))).thenReturn(responseFuture);
+
+        asyncAciService = new AsyncAciServiceImpl(httpClient, Runnable::run, () -> new AciServerDetails("content", 9000));
+    }
+
+    @Test
+    public void executeAction() throws IOException {
+        when(processor.process(any(AciResponseInputStream.class))).thenReturn("result");
+
+        final CompletableFuture<String> result = asyncAciService.executeAction(new AciParameters("GetStatus"), processor);
+        final HttpPost request = completeRequest(HttpStatus.SC_OK);
+
+        assertThat(result.join(), is("result"));
+        assertThat(request.getURI().toString(), is("http://content:9000/"));
+        assertThat(EntityUtils.toString(request.getEntity()), containsString("action=GetStatus"));
+    }
+
+    @Test
+    public void executeActionOnGivenServer() {
+        asyncAciService.executeAction(new AciServerDetails("replica", 9100), new AciParameters("GetStatus"), processor);
+        final HttpPost request = completeRequest(HttpStatus.SC_OK);
+
+        assertThat(request.getURI().toString(), is("http://replica:9100/"));
+    }
+
+    @Test
+    public void processorError() {
+        when(processor.process(any(AciResponseInputStream.class))).thenThrow(new AciErrorException());
+
+        final CompletableFuture<String> result = asyncAciService.executeAction(new AciParameters("GetStatus"), processor);
+        completeRequest(HttpStatus.SC_OK);
+
+        assertCause(result, AciErrorException.class);
+    }
+
+    @Test
+    public void httpError() {
+        final CompletableFuture<String> result = asyncAciService.executeAction(new AciParameters("GetStatus"), processor);
+        completeRequest(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+
+        assertCause(result, AciServiceException.class);
+    }
+
+    @Test
+    public void cancellationAbortsRequest() {
+        asyncAciService.executeAction(new AciParameters("GetStatus"), processor).cancel(true);
+
+        verify(responseFuture).cancel(true);
+    }
+
+    @Test
+    public void noServerConfigured() {
+        asyncAciService = new AsyncAciServiceImpl(httpClient, Runnable::run, () -> null);
+
+        assertCause(asyncAciService.executeAction(new AciParameters("GetStatus"), processor), IllegalStateException.class);
+    }
+
+    @Test
+    public void deadlineShortensTimeouts() {
+        useDefaultRequestConfig();
+
+        DeadlineContext.runWithin(Deadline.after(5, TimeUnit.SECONDS), () -> asyncAciService.executeAction(new AciParameters("GetStatus"), processor));
+        final RequestConfig config = completeRequest(HttpStatus.SC_OK).getConfig();
+
+        assertThat(config.getSocketTimeout(), is(both(greaterThan(0)).and(lessThanOrEqualTo(5000))));
+        assertThat(config.getConnectTimeout(), is(both(greaterThan(0)).and(lessThanOrEqualTo(5000))));
+        assertThat(config.getConnectionRequestTimeout(), is(both(greaterThan(0)).and(lessThanOrEqualTo(5000))));
+        assertThat(config.getMaxRedirects(), is(3));
+    }
+
+    @Test
+    public void deadlineDoesNotLengthenTimeouts() {
+        useDefaultRequestConfig();
+
+        DeadlineContext.runWithin(Deadline.after(1, TimeUnit.HOURS), () -> asyncAciService.executeAction(new AciParameters("GetStatus"), processor));
+        final RequestConfig config = completeRequest(HttpStatus.SC_OK).getConfig();
+
+        assertThat(config.getSocketTimeout(), is(90000));
+        assertThat(config.getConnectTimeout(), is(1000));
+        assertThat(config.getMaxRedirects(), is(3));
+    }
+
+    private void useDefaultRequestConfig() {
+        asyncAciService = new AsyncAciServiceImpl(httpClient, RequestConfig.custom()
+                .setSocketTimeout(90000)
+                .setConnectTimeout(1000)
+                .setMaxRedirects(3)
+                .build(), Runnable::run, () -> new AciServerDetails("content", 9000));
+    }
+
+    @SuppressWarnings("unchecked")
+    private HttpPost completeRequest(final int statusCode) {
+        final ArgumentCaptor<HttpUriRequest> requestCaptor = ArgumentCaptor.forClass(HttpUriRequest.class);
+        final ArgumentCaptor<FutureCallback> callbackCaptor = ArgumentCaptor.forClass(FutureCallback.class);
+        verify(httpClient).execute(requestCaptor.capture(), callbackCaptor.capture());
+
+        final HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, statusCode, null);
+        response.setEntity(new StringEntity("<autnresponse/>", "UTF-8"));
+        callbackCaptor.getValue().completed(response);
+
+        return (HttpPost) requestCaptor.getValue();
+    }
+
+    private void assertCause(final CompletableFuture<?> result, final Class<? extends Throwable> type) {
+        try {
+            result.join();
+            fail("Expected " + type.getSimpleName());
+        } catch (final CompletionException e) {
+            assertThat(e.getCause(), instanceOf(type));
+        }
+    }
+}
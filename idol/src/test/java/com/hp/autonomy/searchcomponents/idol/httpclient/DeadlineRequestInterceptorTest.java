@@ -0,0 +1,76 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.httpclient;
+
+import com.hp.autonomy.searchcomponents.core.deadline.Deadline;
+import com.hp.autonomy.searchcomponents.core.deadline.DeadlineContext;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class DeadlineRequestInterceptorTest {
+    private DeadlineRequestInterceptor interceptor;
+    private HttpClientContext context;
+
+    @Before
+    public void setUp() {
+        interceptor = new DeadlineRequestInterceptor();
+        context = HttpClientContext.create();
+        context.setRequestConfig(RequestConfig.custom()
+                .setSocketTimeout(90000)
+                .build());
+    }
+
+    @Test
+    public void noDeadline() throws IOException {
+        interceptor.process(new HttpPost("http://localhost/"), context);
+        assertThat(context.getRequestConfig().getSocketTimeout(), is(90000));
+    }
+
+    @Test
+    public void limitsTimeoutsToRemainingTime() {
+        DeadlineContext.runWithin(Deadline.after(5, TimeUnit.SECONDS), this::process);
+
+        final RequestConfig config = context.getRequestConfig();
+        assertThat(config.getSocketTimeout(), lessThanOrEqualTo(5000));
+        assertThat(config.getConnectTimeout(), lessThanOrEqualTo(5000));
+        assertThat(config.getConnectionRequestTimeout(), lessThanOrEqualTo(5000));
+    }
+
+    @Test
+    public void keepsShorterConfiguredTimeout() {
+        DeadlineContext.runWithin(Deadline.after(5, TimeUnit.MINUTES), this::process);
+        assertThat(context.getRequestConfig().getSocketTimeout(), is(90000));
+    }
+
+    @Test(expected = SocketTimeoutException.class)
+    public void failsOncePassed() throws Throwable {
+        try {
+            DeadlineContext.runWithin(Deadline.after(-1, TimeUnit.MILLISECONDS), this::process);
+        } catch (final UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void process() {
+        try {
+            interceptor.process(new HttpPost("http://localhost/"), context);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.httpclient;
+
+import com.autonomy.aci.client.transport.AciServerDetails;
+import com.hp.autonomy.frontend.configuration.ConfigException;
+import com.hp.autonomy.searchcomponents.idol.configuration.HttpPoolConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.pool.PoolStats;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+public class IdolHttpClientFactoryTest {
+    private IdolHttpClientFactoryImpl httpClientFactory;
+    private CloseableHttpClient httpClient;
+
+    @Before
+    public void setUp() {
+        httpClientFactory = new IdolHttpClientFactoryImpl();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (httpClient != null) {
+            httpClient.close();
+        }
+    }
+
+    @Test
+    public void defaults() {
+        httpClient = (CloseableHttpClient) httpClientFactory.createHttpClient("content", null, () -> null);
+
+        final PoolStats stats = httpClientFactory.getPoolStatistics().get("content");
+        assertThat(stats.getMax(), is(IdolHttpClientFactoryImpl.DEFAULT_MAX_CONNECTIONS));
+        assertThat(stats.getLeased(), is(0));
+        assertThat(httpClientFactory.getPoolNames(), contains("content"));
+    }
+
+    @Test
+    public void configuredLimits() {
+        httpClient = (CloseableHttpClient) httpClientFactory.createHttpClient("view", HttpPoolConfig.builder()
+                .maxConnections(8)
+                .maxConnectionsPerRoute(4)
+                .build(), () -> null);
+
+        assertThat(httpClientFactory.summarise("view").get("max"), is(8));
+    }
+
+    @Test
+    public void preWarm() throws IOException {
+        try (final ServerSocket serverSocket = new ServerSocket(0, 10, InetAddress.getLoopbackAddress())) {
+            httpClient = (CloseableHttpClient) httpClientFactory.createHttpClient("content", HttpPoolConfig.builder()
+                    .maxConnectionsPerRoute(2)
+                    .preWarmConnections(5)
+                    .connectTimeout(1000)
+                    .build(), () -> new AciServerDetails(serverSocket.getInetAddress().getHostAddress(), serverSocket.getLocalPort()));
+
+            httpClientFactory.preWarm();
+
+            assertThat(httpClientFactory.getPoolStatistics().get("content").getAvailable(), is(2));
+        }
+    }
+
+    @Test
+    public void preWarmFailureIsIgnored() {
+        httpClient = (CloseableHttpClient) httpClientFactory.createHttpClient("answerServer", HttpPoolConfig.builder()
+                .preWarmConnections(1)
+                .build(), () -> {
+            throw new IllegalStateException("AnswerServer is not configured");
+        });
+
+        httpClientFactory.preWarm();
+
+        assertThat(httpClientFactory.getPoolStatistics().get("answerServer").getAvailable(), is(0));
+    }
+
+    @Test(expected = ConfigException.class)
+    public void invalidPoolConfig() throws ConfigException {
+        HttpPoolConfig.builder()
+                .maxConnections(0)
+                .build()
+                .basicValidate(null);
+    }
+}
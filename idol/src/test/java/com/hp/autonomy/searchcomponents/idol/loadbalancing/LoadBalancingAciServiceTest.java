@@ -0,0 +1,332 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.loadbalancing;
+
+import com.autonomy.aci.client.services.AciErrorException;
+import com.autonomy.aci.client.services.AciService;
+import com.autonomy.aci.client.services.AciServiceException;
+import com.autonomy.aci.client.services.Processor;
+import com.autonomy.aci.client.transport.AciServerDetails;
+import com.autonomy.aci.client.transport.EncryptionCodec;
+import com.autonomy.aci.client.util.AciParameters;
+import com.hp.autonomy.frontend.configuration.server.ServerConfig;
+import com.hp.autonomy.searchcomponents.idol.configuration.HedgingConfig;
+import com.hp.autonomy.searchcomponents.idol.configuration.LoadBalancingConfig;
+import com.hp.autonomy.searchcomponents.idol.httpclient.AsyncAciService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class LoadBalancingAciServiceTest {
+    private static final int FIRST_PORT = 9000;
+    private static final int SECOND_PORT = 9001;
+    private static final int BROKEN_PORT = 9002;
+    private static final long STALL_MILLIS = 5000L;
+
+    @Mock
+    private AciService delegate;
+    @Mock
+    private AsyncAciService asyncDelegate;
+    @Mock
+    private Processor<String> processor;
+    @Mock
+    private AciServerDetails configuredServer;
+
+    private LoadBalancingConfig config;
+    private LoadBalancingAciService loadBalancingAciService;
+
+    // the ports which have received a request
+    private Set<Integer> usedPorts;
+    // makes the next request to any replica stall
+    private final AtomicBoolean stallNextRequest = new AtomicBoolean();
+    private long stallMillis = STALL_MILLIS;
+    // the last request which was made to stall
+    private final AtomicReference<CompletableFuture<String>> stalledRequest = new AtomicReference<>();
+    private final ScheduledExecutorService stallExecutor = Executors.newSingleThreadScheduledExecutor();
+    private final ThreadPoolTaskScheduler taskScheduler = new ThreadPoolTaskScheduler();
+
+    @Before
+    public void setUp() {
+        taskScheduler.initialize();
+        usedPorts = ConcurrentHashMap.newKeySet();
+
+        // stands in for one server per port, one of which refuses connections
+        when(delegate.executeAction(any(AciServerDetails.class), any(), any())).thenAnswer(invocation -> {
+            final int port = ((AciServerDetails) invocation.getArguments()[0]).getPort();
+            usedPorts.add(port);
+
+            if (port == BROKEN_PORT) {
+                throw new AciServiceException("Connection refused");
+            }
+
+            if (stallNextRequest.compareAndSet(true, false)) {
+                Thread.sleep(stallMillis);
+            }
+
+            return "response from " + port;
+        });
+
+        when(asyncDelegate.executeAction(any(AciServerDetails.class), any(), any())).thenAnswer(invocation -> {
+            final int port = ((AciServerDetails) invocation.getArguments()[0]).getPort();
+            usedPorts.add(port);
+
+            final CompletableFuture<String> response = new CompletableFuture<>();
+            if (port == BROKEN_PORT) {
+                response.completeExceptionally(new AciServiceException("Connection refused"));
+            } else if (stallNextRequest.compareAndSet(true, false)) {
+                stalledRequest.set(response);
+                stallExecutor.schedule(() -> response.complete("response from " + port), stallMillis, TimeUnit.MILLISECONDS);
+            } else {
+                response.complete("response from " + port);
+            }
+
+            return response;
+        });
+
+        loadBalancingAciService = new LoadBalancingAciService(delegate, asyncDelegate, () -> config, taskScheduler);
+    }
+
+    @After
+    public void tearDown() {
+        loadBalancingAciService.close();
+        stallExecutor.shutdownNow();
+        taskScheduler.shutdown();
+    }
+
+    @Test
+    public void disabledUsesConfiguredServer() {
+        final AciParameters parameters = new AciParameters("Query");
+        loadBalancingAciService.executeAction(configuredServer, parameters, processor);
+
+        verify(delegate).executeAction(configuredServer, parameters, processor);
+    }
+
+    @Test
+    public void spreadsRequestsAcrossReplicas() {
+        config = createConfig(1000L, FIRST_PORT, SECOND_PORT);
+
+        for (int i = 0; i < 100; i++) {
+            loadBalancingAciService.executeAction(configuredServer, new AciParameters("Query"), processor);
+        }
+
+        assertThat(usedPorts, containsInAnyOrder(FIRST_PORT, SECOND_PORT));
+    }
+
+    @Test
+    public void ejectsFailingReplica() {
+        config = createConfig(60000L, FIRST_PORT, BROKEN_PORT);
+
+        int failures = 0;
+        for (int i = 0; i < 100; i++) {
+            try {
+                loadBalancingAciService.executeAction(configuredServer, new AciParameters("Query"), processor);
+            } catch (final AciServiceException ignored) {
+                failures++;
+            }
+        }
+
+        assertThat(failures, is(LoadBalancingConfig.DEFAULT_EJECTION_THRESHOLD));
+        assertThat(loadBalancingAciService.getReplicaStatus().get("localhost:" + BROKEN_PORT).startsWith("out of service"), is(true));
+    }
+
+    @Test
+    public void actionErrorsDoNotEject() {
+        config = createConfig(60000L, FIRST_PORT);
+        when(delegate.executeAction(any(AciServerDetails.class), any(), any())).thenThrow(new AciErrorException());
+
+        for (int i = 0; i < 10; i++) {
+            try {
+                loadBalancingAciService.executeAction(configuredServer, new AciParameters("Query"), processor);
+            } catch (final AciErrorException ignored) {
+            }
+        }
+
+        assertThat(loadBalancingAciService.getReplicaStatus().get("localhost:" + FIRST_PORT).startsWith("healthy"), is(true));
+    }
+
+    @Test
+    public void probeRestoresReplica() throws InterruptedException {
+        config = createConfig(1L, BROKEN_PORT);
+
+        for (int i = 0; i < LoadBalancingConfig.DEFAULT_EJECTION_THRESHOLD; i++) {
+            try {
+                loadBalancingAciService.executeAction(configuredServer, new AciParameters("Query"), processor);
+            } catch (final AciServiceException ignored) {
+            }
+        }
+
+        assertThat(loadBalancingAciService.getReplicaStatus().get("localhost:" + BROKEN_PORT).startsWith("out of service"), is(true));
+
+        // the server comes back
+        when(delegate.executeAction(any(AciServerDetails.class), any(), any())).thenReturn("OK");
+        Thread.sleep(5L);
+        loadBalancingAciService.probeReplicas();
+
+        assertThat(loadBalancingAciService.getReplicaStatus().get("localhost:" + BROKEN_PORT).startsWith("healthy"), is(true));
+    }
+
+    @Test
+    public void spreadsAsyncRequestsAcrossReplicas() {
+        config = createConfig(1000L, FIRST_PORT, SECOND_PORT);
+
+        for (int i = 0; i < 100; i++) {
+            loadBalancingAciService.getAsyncAciService().executeAction(new AciParameters("Query"), processor).join();
+        }
+
+        assertThat(usedPorts, containsInAnyOrder(FIRST_PORT, SECOND_PORT));
+    }
+
+    @Test
+    public void disabledAsyncUsesConfiguredServer() {
+        final AciParameters parameters = new AciParameters("Query");
+        loadBalancingAciService.getAsyncAciService().executeAction(parameters, processor);
+
+        verify(asyncDelegate).executeAction(parameters, processor);
+    }
+
+    @Test
+    public void onlyReplicaIsUsedEvenIfExcluded() {
+        config = createConfig(1000L, FIRST_PORT);
+        final Replica replica = loadBalancingAciService.chooseReplica(null);
+
+        assertThat(loadBalancingAciService.chooseReplica(replica), is(replica));
+        assertThat(usedPorts, is(empty()));
+    }
+
+    @Test
+    public void hedgesSlowRequest() {
+        config = createConfig(1000L, createHedgingConfig(100D), FIRST_PORT, SECOND_PORT);
+        recordLatencies();
+        final long hedgedRequests = loadBalancingAciService.getHedgedRequests();
+        final long hedgeWins = loadBalancingAciService.getHedgeWins();
+
+        stallNextRequest.set(true);
+        final long start = System.currentTimeMillis();
+        final String response = loadBalancingAciService.executeAction(configuredServer, new AciParameters("Query"), processor);
+
+        assertThat(response.startsWith("response from"), is(true));
+        assertThat(System.currentTimeMillis() - start < STALL_MILLIS, is(true));
+        assertThat(loadBalancingAciService.getHedgedRequests(), is(hedgedRequests + 1));
+        assertThat(loadBalancingAciService.getHedgeWins(), is(hedgeWins + 1));
+        assertThat(stalledRequest.get().isCancelled(), is(true));
+    }
+
+    @Test
+    public void abortedRequestsRecordTheirLatency() {
+        config = createConfig(1000L, createHedgingConfig(100D), FIRST_PORT, SECOND_PORT);
+        recordLatencies();
+        final long samples = loadBalancingAciService.getLatencySampleCount("query");
+
+        stallNextRequest.set(true);
+        loadBalancingAciService.executeAction(configuredServer, new AciParameters("Query"), processor);
+
+        // the hedge which answered and the original which was aborted
+        assertThat(loadBalancingAciService.getLatencySampleCount("query"), is(samples + 2));
+    }
+
+    @Test
+    public void encryptedRequestsAreNotHedged() {
+        config = createConfig(1000L, createHedgingConfig(100D), FIRST_PORT, SECOND_PORT);
+        when(configuredServer.getEncryptionCodec()).thenReturn(mock(EncryptionCodec.class));
+        stallMillis = 200L;
+        recordLatencies();
+
+        stallNextRequest.set(true);
+        loadBalancingAciService.executeAction(configuredServer, new AciParameters("Query"), processor);
+
+        assertThat(loadBalancingAciService.getHedgedRequests(), is(0L));
+        verify(asyncDelegate, never()).executeAction(any(AciServerDetails.class), any(), any());
+    }
+
+    @Test
+    public void hedgingRespectsBudget() {
+        config = createConfig(1000L, createHedgingConfig(0D), FIRST_PORT, SECOND_PORT);
+        stallMillis = 200L;
+        recordLatencies();
+        final long hedgesOverBudget = loadBalancingAciService.getHedgesOverBudget();
+
+        stallNextRequest.set(true);
+        loadBalancingAciService.executeAction(configuredServer, new AciParameters("Query"), processor);
+
+        assertThat(loadBalancingAciService.getHedgedRequests(), is(0L));
+        assertThat(loadBalancingAciService.getHedgesOverBudget(), is(hedgesOverBudget + 1));
+    }
+
+    @Test
+    public void onlyReadsAreHedged() {
+        config = createConfig(1000L, createHedgingConfig(100D), FIRST_PORT, SECOND_PORT);
+        stallMillis = 200L;
+
+        for (int i = 0; i < 50; i++) {
+            loadBalancingAciService.executeAction(configuredServer, new AciParameters("DREADD"), processor);
+        }
+
+        stallNextRequest.set(true);
+        loadBalancingAciService.executeAction(configuredServer, new AciParameters("DREADD"), processor);
+
+        assertThat(loadBalancingAciService.getHedgedRequests(), is(0L));
+    }
+
+    // hedging only starts once enough requests have been seen to estimate a percentile
+    private void recordLatencies() {
+        for (int i = 0; i < 50; i++) {
+            loadBalancingAciService.executeAction(configuredServer, new AciParameters("Query"), processor);
+        }
+    }
+
+    private HedgingConfig createHedgingConfig(final double budgetPercent) {
+        return HedgingConfig.builder()
+                .enabled(true)
+                .percentile(50D)
+                .budgetPercent(budgetPercent)
+                .build();
+    }
+
+    private LoadBalancingConfig createConfig(final long probeInterval, final int... ports) {
+        return createConfig(probeInterval, null, ports);
+    }
+
+    private LoadBalancingConfig createConfig(final long probeInterval, final HedgingConfig hedging, final int... ports) {
+        final LoadBalancingConfig.LoadBalancingConfigBuilder builder = LoadBalancingConfig.builder()
+                .enabled(true)
+                .probeInterval(probeInterval)
+                .hedging(hedging);
+
+        for (final int port : ports) {
+            builder.replica(ServerConfig.builder()
+                    .protocol(AciServerDetails.TransportProtocol.HTTP)
+                    .host("localhost")
+                    .port(port)
+                    .build());
+        }
+
+        return builder.build();
+    }
+}
@@ -15,6 +15,7 @@ import com.hp.autonomy.searchcomponents.core.test.CoreTestContext;
 import com.hp.autonomy.searchcomponents.idol.configuration.AciServiceRetriever;
 import com.hp.autonomy.searchcomponents.idol.fields.IdolFieldsRequestBuilder;
 import com.hp.autonomy.searchcomponents.idol.fields.IdolFieldsService;
+import com.hp.autonomy.searchcomponents.idol.httpclient.AsyncAciService;
 import com.hp.autonomy.searchcomponents.idol.search.HavenSearchAciParameterHandler;
 import com.hp.autonomy.types.idol.marshalling.ProcessorFactory;
 import com.hp.autonomy.types.idol.responses.FlatField;
@@ -53,6 +54,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import static com.hp.autonomy.searchcomponents.core.test.CoreTestContext.CORE_CLASSES_PROPERTY;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -93,6 +95,9 @@ public class IdolParametricValuesServiceTest {
     @Mock
     private AciService contentAciService;
 
+    @Mock
+    private AsyncAciService contentAsyncAciService;
+
     @Mock
     private AciServiceRetriever aciServiceRetriever;
 
@@ -124,6 +129,18 @@ public class IdolParametricValuesServiceTest {
         assertThat(results, is(not(empty())));
     }
 
+    @Test
+    public void getAllParametricValuesAsync() {
+        final IdolParametricRequest idolParametricRequest = mockRequest(Collections.singletonList("Some field"));
+
+        final GetQueryTagValuesResponseData responseData = mockQueryResponse();
+        when(aciServiceRetriever.getAsyncAciService(any(QueryRequest.QueryType.class))).thenReturn(contentAsyncAciService);
+        when(contentAsyncAciService.executeAction(anySetOf(AciParameter.class), any())).thenReturn(CompletableFuture.completedFuture(responseData));
+
+        final Set<QueryTagInfo> results = parametricValuesService.getAllParametricValuesAsync(idolParametricRequest).join();
+        assertThat(results, is(not(empty())));
+    }
+
     @Test
     public void getFieldNamesFirst() {
         final IdolParametricRequest idolParametricRequest = mockRequest(Collections.emptyList());
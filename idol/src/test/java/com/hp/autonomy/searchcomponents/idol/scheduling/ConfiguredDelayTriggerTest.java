@@ -0,0 +1,39 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.scheduling;
+
+import org.junit.Test;
+import org.springframework.scheduling.support.SimpleTriggerContext;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class ConfiguredDelayTriggerTest {
+    private final AtomicLong delay = new AtomicLong(1000L);
+    private final ConfiguredDelayTrigger trigger = new ConfiguredDelayTrigger(delay::get);
+
+    @Test
+    public void firstRunIsImmediate() {
+        assertThat(trigger.nextExecutionTime(new SimpleTriggerContext()).getTime(), is(lessThanOrEqualTo(System.currentTimeMillis())));
+    }
+
+    @Test
+    public void delayIsMeasuredFromCompletion() {
+        final SimpleTriggerContext context = new SimpleTriggerContext(new Date(0L), new Date(0L), new Date(500L));
+        assertThat(trigger.nextExecutionTime(context), is(new Date(1500L)));
+    }
+
+    @Test
+    public void changedDelayAppliesToNextRun() {
+        final SimpleTriggerContext context = new SimpleTriggerContext(new Date(0L), new Date(0L), new Date(500L));
+        delay.set(2000L);
+        assertThat(trigger.nextExecutionTime(context), is(new Date(2500L)));
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.search;
+
+import com.autonomy.aci.client.transport.AciParameter;
+import com.autonomy.aci.client.transport.ActionParameter;
+import com.autonomy.aci.client.util.AciParameters;
+import com.hp.autonomy.types.requests.idol.actions.query.params.CombineParam;
+import com.hp.autonomy.types.requests.idol.actions.query.params.QueryParams;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class AciParameterTemplateTest {
+    private final AciParameterTemplate template = AciParameterTemplate.of(parameters -> {
+        parameters.add(QueryParams.Combine.name(), CombineParam.Simple);
+        parameters.add(QueryParams.Predict.name(), false);
+        parameters.add(QueryParams.MaxResults.name(), 10);
+    });
+
+    @Test
+    public void sameParametersAsAddingDirectly() {
+        final AciParameters expected = new AciParameters();
+        expected.add(QueryParams.Combine.name(), CombineParam.Simple);
+        expected.add(QueryParams.Predict.name(), false);
+        expected.add(QueryParams.MaxResults.name(), 10);
+
+        final AciParameters aciParameters = new AciParameters();
+        template.applyTo(aciParameters);
+
+        assertThat(new ArrayList<>(aciParameters), is(new ArrayList<>(expected)));
+        assertThat(aciParameters, hasItem(new AciParameter(QueryParams.Predict.name(), false)));
+    }
+
+    @Test
+    public void parametersAreShared() {
+        final AciParameters first = new AciParameters();
+        final AciParameters second = new AciParameters();
+        template.applyTo(first);
+        template.applyTo(second);
+
+        final List<ActionParameter<?>> firstParameters = new ArrayList<>(first);
+        final List<ActionParameter<?>> secondParameters = new ArrayList<>(second);
+        assertThat(secondParameters, hasSize(firstParameters.size()));
+        for (int i = 0; i < firstParameters.size(); i++) {
+            assertThat(secondParameters.get(i), is(sameInstance(firstParameters.get(i))));
+        }
+    }
+
+    @Test
+    public void dynamicParametersCanBeAdded() {
+        final AciParameters aciParameters = new AciParameters();
+        template.applyTo(aciParameters);
+        aciParameters.add(QueryParams.Text.name(), "cats");
+
+        assertThat(aciParameters, hasSize(4));
+        assertThat(template.getParameters(), hasSize(3));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void templateIsImmutable() {
+        template.getParameters().clear();
+    }
+
+    @Test
+    public void putDoesNotChangeTemplate() {
+        final AciParameters aciParameters = new AciParameters();
+        template.applyTo(aciParameters);
+        aciParameters.put(QueryParams.MaxResults.name(), 50);
+
+        final AciParameters otherParameters = new AciParameters();
+        template.applyTo(otherParameters);
+
+        assertThat(getValue(aciParameters, QueryParams.MaxResults.name()), is("50"));
+        assertThat(getValue(template.getParameters(), QueryParams.MaxResults.name()), is("10"));
+        assertThat(getValue(otherParameters, QueryParams.MaxResults.name()), is("10"));
+    }
+
+    @Test
+    public void addDoesNotChangeTemplate() {
+        final Object combine = getValue(template.getParameters(), QueryParams.Combine.name());
+
+        final AciParameters aciParameters = new AciParameters();
+        template.applyTo(aciParameters);
+        aciParameters.add(QueryParams.Combine.name(), "FieldCheck");
+
+        assertThat(getValue(template.getParameters(), QueryParams.Combine.name()), is(combine));
+    }
+
+    @Test
+    public void clearDoesNotChangeTemplate() {
+        final AciParameters aciParameters = new AciParameters();
+        template.applyTo(aciParameters);
+        aciParameters.clear();
+
+        assertThat(template.getParameters(), hasSize(3));
+    }
+
+    private static Object getValue(final Iterable<? extends ActionParameter<?>> parameters, final String name) {
+        for (final ActionParameter<?> parameter : parameters) {
+            if (parameter.getName().equalsIgnoreCase(name)) {
+                return parameter.getValue();
+            }
+        }
+
+        return null;
+    }
+}
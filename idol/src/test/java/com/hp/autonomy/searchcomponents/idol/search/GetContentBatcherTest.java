@@ -0,0 +1,287 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.search;
+
+import com.autonomy.aci.client.services.AciErrorException;
+import com.hp.autonomy.frontend.configuration.ConfigService;
+import com.hp.autonomy.searchcomponents.core.deadline.Deadline;
+import com.hp.autonomy.searchcomponents.core.deadline.DeadlineContext;
+import com.hp.autonomy.searchcomponents.core.requestcontext.SearchRequestContext;
+import com.hp.autonomy.searchcomponents.core.requestcontext.SearchRequestContextHolder;
+import com.hp.autonomy.searchcomponents.idol.configuration.GetContentBatchingConfig;
+import com.hp.autonomy.searchcomponents.idol.configuration.IdolSearchCapable;
+import com.hp.autonomy.types.idol.responses.QueryResponseData;
+import com.hp.autonomy.types.requests.idol.actions.query.params.PrintParam;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class GetContentBatcherTest {
+    private static final String DATABASE = "Database1";
+
+    @Mock
+    private ConfigService<IdolSearchCapable> configService;
+    @Mock
+    private IdolSearchCapable config;
+    @Mock
+    private HavenSearchAciParameterHandler parameterHandler;
+    @Mock
+    private QueryExecutor queryExecutor;
+    @Mock
+    private QueryResponseParser queryResponseParser;
+    @Mock
+    private SearchRequestContextService searchRequestContextService;
+    @Mock
+    private IdolGetContentRequestIndexBuilder indexBuilder;
+
+    private final CountDownLatch busyQuerySent = new CountDownLatch(1);
+    private final CountDownLatch busyQueryReleased = new CountDownLatch(1);
+
+    private ExecutorService executor;
+    private GetContentBatcher getContentBatcher;
+
+    @Before
+    public void setUp() {
+        when(configService.getConfig()).thenReturn(config);
+        when(config.getGetContentBatching()).thenReturn(GetContentBatchingConfig.builder()
+                .enabled(true)
+                .window(10000L)
+                .maxBatchSize(3)
+                .build());
+
+        when(searchRequestContextService.getContext()).thenAnswer(invocation -> SearchRequestContextHolder.getContext());
+        when(searchRequestContextService.getSecurityInfo(any())).thenAnswer(invocation -> {
+            final SearchRequestContext<?> context = (SearchRequestContext<?>) invocation.getArguments()[0];
+            return context != null ? context.getSecurityInfo() : null;
+        });
+        when(indexBuilder.clearReferences()).thenReturn(indexBuilder);
+        when(indexBuilder.references(any())).thenReturn(indexBuilder);
+        when(queryExecutor.executeQuery(any(), any(), any())).thenReturn(new QueryResponseData());
+
+        executor = Executors.newFixedThreadPool(4);
+        getContentBatcher = new GetContentBatcherImpl(configService, parameterHandler, queryExecutor, queryResponseParser, searchRequestContextService);
+    }
+
+    @After
+    public void tearDown() {
+        busyQueryReleased.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void disabledWithoutConfig() {
+        when(config.getGetContentBatching()).thenReturn(null);
+        assertThat(getContentBatcher.isEnabled(), is(false));
+    }
+
+    @Test
+    public void loneLookupIsSentAtOnce() throws InterruptedException, ExecutionException, TimeoutException {
+        when(queryResponseParser.parseQueryHits(any())).thenReturn(Collections.singletonList(result("1")));
+
+        assertThat(lookUp("1").get(0).get(5, TimeUnit.SECONDS), contains(result("1")));
+        verify(queryExecutor, times(1)).executeQuery(any(), any(), any());
+    }
+
+    @Test
+    public void concurrentLookupsShareOneQuery() throws InterruptedException, ExecutionException {
+        when(queryExecutor.executeQuery(any(), any(), any())).thenAnswer(this::busyQuery).thenReturn(new QueryResponseData());
+        when(queryResponseParser.parseQueryHits(any())).thenReturn(Arrays.asList(result("1"), result("2"), result("3")));
+
+        final Future<List<IdolSearchResult>> busyFuture = startBusyLookup();
+        final List<Future<List<IdolSearchResult>>> futures = lookUp("1", "2", "3");
+
+        for (int i = 0; i < futures.size(); i++) {
+            final List<IdolSearchResult> results = futures.get(i).get();
+            assertThat(results.size(), is(1));
+            assertThat(results.get(0).getReference(), is(String.valueOf(i + 1)));
+        }
+
+        busyQueryReleased.countDown();
+        busyFuture.get();
+
+        verify(queryExecutor, times(2)).executeQuery(any(), any(), any());
+        verify(indexBuilder, times(2)).references(any());
+    }
+
+    @Test
+    public void missingDocumentIsNotFound() throws InterruptedException, ExecutionException {
+        when(queryExecutor.executeQuery(any(), any(), any())).thenAnswer(this::busyQuery).thenReturn(new QueryResponseData());
+        when(queryResponseParser.parseQueryHits(any())).thenReturn(Arrays.asList(result("1"), result("3")), Collections.emptyList());
+
+        final Future<List<IdolSearchResult>> busyFuture = startBusyLookup();
+        final List<Future<List<IdolSearchResult>>> futures = lookUp("1", "2", "3");
+
+        assertThat(futures.get(1).get(), is(Collections.<IdolSearchResult>emptyList()));
+        assertThat(futures.get(2).get(), contains(result("3")));
+
+        busyQueryReleased.countDown();
+        busyFuture.get();
+
+        verify(queryExecutor, times(2)).executeQuery(any(), any(), any());
+    }
+
+    @Test
+    public void referencesAreMatchedIgnoringCase() throws InterruptedException, ExecutionException {
+        when(queryExecutor.executeQuery(any(), any(), any())).thenAnswer(this::busyQuery).thenReturn(new QueryResponseData());
+        when(queryResponseParser.parseQueryHits(any())).thenReturn(Arrays.asList(result("doc1"), result("Doc2"), result("DOC3")), Collections.emptyList());
+
+        final Future<List<IdolSearchResult>> busyFuture = startBusyLookup();
+        final List<Future<List<IdolSearchResult>>> futures = lookUp("doc1", "DOC2", "doc3");
+
+        assertThat(futures.get(0).get(), contains(result("doc1")));
+        assertThat(futures.get(1).get(), contains(result("Doc2")));
+        assertThat(futures.get(2).get(), contains(result("DOC3")));
+
+        busyQueryReleased.countDown();
+        busyFuture.get();
+
+        verify(queryExecutor, times(2)).executeQuery(any(), any(), any());
+    }
+
+    @Test
+    public void batchIsSentWithLatestDeadlineAndRequestContext() throws InterruptedException, ExecutionException {
+        final AtomicReference<Deadline> sentDeadline = new AtomicReference<>();
+        final AtomicReference<SearchRequestContext<?>> sentContext = new AtomicReference<>();
+        when(queryExecutor.executeQuery(any(), any(), any())).thenAnswer(this::busyQuery).thenAnswer(invocation -> {
+            sentDeadline.set(DeadlineContext.getDeadline());
+            sentContext.set((SearchRequestContext<?>) invocation.getArguments()[2]);
+            return new QueryResponseData();
+        });
+        when(queryResponseParser.parseQueryHits(any())).thenReturn(Arrays.asList(result("1"), result("2"), result("3")));
+
+        final SearchRequestContext<IdolSearchCapable> context = new SearchRequestContext<>(configService, config, null);
+        final Deadline latest = Deadline.after(3, TimeUnit.MINUTES);
+        final Future<List<IdolSearchResult>> busyFuture = startBusyLookup();
+        final List<Future<List<IdolSearchResult>>> futures = new ArrayList<>();
+        futures.add(lookUpWithin(context, Deadline.after(1, TimeUnit.MINUTES), "1"));
+        futures.add(lookUpWithin(context, latest, "2"));
+        futures.add(lookUpWithin(context, Deadline.after(2, TimeUnit.MINUTES), "3"));
+
+        for (final Future<List<IdolSearchResult>> future : futures) {
+            future.get();
+        }
+
+        busyQueryReleased.countDown();
+        busyFuture.get();
+
+        assertThat(sentDeadline.get(), is(sameInstance(latest)));
+        assertThat(sentContext.get(), is(sameInstance(context)));
+        verify(parameterHandler).addGetDocumentOutputParameters(any(), any(), any(), eq(context));
+    }
+
+    @Test
+    public void usersDoNotShareBatches() throws InterruptedException, ExecutionException {
+        when(queryExecutor.executeQuery(any(), any(), any())).thenAnswer(this::busyQuery).thenReturn(new QueryResponseData());
+        when(queryResponseParser.parseQueryHits(any())).thenReturn(Collections.emptyList());
+
+        final Future<List<IdolSearchResult>> busyFuture = startBusyLookup();
+        final Future<List<IdolSearchResult>> first = lookUpWithin(new SearchRequestContext<>(configService, config, "user1"), null, "1");
+        final Future<List<IdolSearchResult>> second = lookUpWithin(new SearchRequestContext<>(configService, config, "user2"), null, "2");
+        first.get();
+        second.get();
+
+        busyQueryReleased.countDown();
+        busyFuture.get();
+
+        verify(queryExecutor, times(3)).executeQuery(any(), any(), any());
+    }
+
+    @Test
+    public void errorsReachEveryCaller() throws InterruptedException, ExecutionException {
+        when(queryExecutor.executeQuery(any(), any(), any())).thenAnswer(this::busyQuery).thenThrow(new AciErrorException());
+        when(queryResponseParser.parseQueryHits(any())).thenReturn(Collections.emptyList());
+
+        final Future<List<IdolSearchResult>> busyFuture = startBusyLookup();
+
+        for (final Future<List<IdolSearchResult>> future : lookUp("1", "2", "3")) {
+            try {
+                future.get();
+            } catch (final ExecutionException e) {
+                assertThat(e.getCause(), instanceOf(AciErrorException.class));
+            }
+        }
+
+        busyQueryReleased.countDown();
+        busyFuture.get();
+    }
+
+    /**
+     * Starts a lookup whose query does not return until {@link #busyQueryReleased} is released, so that lookups made
+     * meanwhile wait for a batch
+     */
+    private Future<List<IdolSearchResult>> startBusyLookup() throws InterruptedException {
+        final Future<List<IdolSearchResult>> future = lookUp("busy").get(0);
+        busyQuerySent.await();
+        return future;
+    }
+
+    private QueryResponseData busyQuery(final InvocationOnMock invocation) throws InterruptedException {
+        busyQuerySent.countDown();
+        busyQueryReleased.await();
+        return new QueryResponseData();
+    }
+
+    private List<Future<List<IdolSearchResult>>> lookUp(final String... references) {
+        final List<Future<List<IdolSearchResult>>> futures = new ArrayList<>();
+        for (final String reference : references) {
+            final IdolGetContentRequestIndex index = mockIndex(reference);
+            futures.add(executor.submit(() -> getContentBatcher.getDocument(index, PrintParam.All)));
+        }
+
+        return futures;
+    }
+
+    private Future<List<IdolSearchResult>> lookUpWithin(final SearchRequestContext<?> context, final Deadline deadline, final String reference) {
+        final IdolGetContentRequestIndex index = mockIndex(reference);
+        return executor.submit(() -> SearchRequestContextHolder.callWithin(context,
+                () -> DeadlineContext.callWithin(deadline, () -> getContentBatcher.getDocument(index, PrintParam.All))));
+    }
+
+    private IdolGetContentRequestIndex mockIndex(final String reference) {
+        final IdolGetContentRequestIndex index = mock(IdolGetContentRequestIndex.class);
+        when(index.getIndex()).thenReturn(DATABASE);
+        when(index.getReferences()).thenReturn(Collections.singleton(reference));
+        when(index.toBuilder()).thenReturn(indexBuilder);
+        return index;
+    }
+
+    private IdolSearchResult result(final String reference) {
+        return IdolSearchResult.builder()
+                .reference(reference)
+                .index(DATABASE)
+                .build();
+    }
+}
@@ -8,7 +8,6 @@ package com.hp.autonomy.searchcomponents.idol.search;
 import com.autonomy.aci.client.transport.AciParameter;
 import com.autonomy.aci.client.util.AciParameters;
 import com.hp.autonomy.frontend.configuration.ConfigService;
-import com.hp.autonomy.frontend.configuration.authentication.CommunityPrincipal;
 import com.hp.autonomy.searchcomponents.core.search.fields.DocumentFieldsService;
 import com.hp.autonomy.searchcomponents.idol.configuration.IdolSearchCapable;
 import com.hp.autonomy.searchcomponents.idol.configuration.QueryManipulation;
@@ -16,7 +15,6 @@ import com.hp.autonomy.searchcomponents.idol.view.IdolViewRequest;
 import com.hp.autonomy.types.requests.idol.actions.query.params.PrintParam;
 import com.hp.autonomy.types.requests.idol.actions.query.params.QueryParams;
 import com.hp.autonomy.types.requests.idol.actions.query.params.SummaryParam;
-import com.hpe.bigdata.frontend.spring.authentication.AuthenticationInformationRetriever;
 import org.hamcrest.Matchers;
 import org.joda.time.DateTime;
 import org.junit.Before;
@@ -43,7 +41,7 @@ public class HavenSearchAciParameterHandlerTest {
     private DocumentFieldsService documentFieldsService;
 
     @Mock
-    private AuthenticationInformationRetriever<?, CommunityPrincipal> authenticationInformationRetriever;
+    private SearchRequestContextService searchRequestContextService;
 
     @Mock
     private IdolQueryRestrictions queryRestrictions;
@@ -64,7 +62,7 @@ public class HavenSearchAciParameterHandlerTest {
     @Before
     public void setUp() {
         aciParameters = new AciParameters();
-        parameterHandler = new HavenSearchAciParameterHandlerImpl(configService, documentFieldsService, authenticationInformationRetriever);
+        parameterHandler = new HavenSearchAciParameterHandlerImpl(configService, documentFieldsService, searchRequestContextService);
     }
 
     @Test
@@ -6,8 +6,10 @@
 package com.hp.autonomy.searchcomponents.idol.search;
 
 import com.autonomy.aci.client.util.AciParameters;
+import com.hp.autonomy.searchcomponents.core.requestcontext.SearchRequestContext;
 import com.hp.autonomy.searchcomponents.core.search.QueryRequest;
 import com.hp.autonomy.searchcomponents.core.search.StateTokenAndResultCount;
+import com.hp.autonomy.searchcomponents.idol.configuration.IdolSearchCapable;
 import com.hp.autonomy.types.idol.responses.Hit;
 import com.hp.autonomy.types.idol.responses.QueryResponseData;
 import com.hp.autonomy.types.idol.responses.SuggestResponseData;
@@ -29,6 +31,7 @@ import static org.hamcrest.collection.IsEmptyCollection.empty;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -62,30 +65,51 @@ public class IdolDocumentsServiceTest {
     @Mock
     private IdolGetContentRequestIndex getContentRequestIndex;
 
+    @Mock
+    private GetContentBatcher getContentBatcher;
+
+    @Mock
+    private SearchRequestContextService searchRequestContextService;
+
     private IdolDocumentsService idolDocumentsService;
 
     @Before
     public void setUp() {
-        idolDocumentsService = new IdolDocumentsServiceImpl(parameterHandler, queryExecutor, queryResponseParser);
+        idolDocumentsService = new IdolDocumentsServiceImpl(parameterHandler, queryExecutor, queryResponseParser, getContentBatcher, searchRequestContextService);
     }
 
     @Test
     public void queryContent() {
-        when(queryExecutor.performQuery(any())).thenReturn(true);
+        when(queryExecutor.performQuery(any(), any())).thenReturn(true);
 
         final QueryResponseData responseData = new QueryResponseData();
-        when(queryExecutor.executeQuery(any(), any())).thenReturn(responseData);
+        when(queryExecutor.executeQuery(any(), any(), any())).thenReturn(responseData);
 
         idolDocumentsService.queryTextIndex(mockQueryParams(QueryRequest.QueryType.RAW));
         verify(queryResponseParser).parseQueryResults(any(), any(AciParameters.class), eq(responseData), any());
     }
 
+    @Test
+    public void contextIsPassedToEachComponent() {
+        final SearchRequestContext<IdolSearchCapable> context = new SearchRequestContext<>(null, null, "info");
+        when(searchRequestContextService.getContext()).thenReturn(context);
+        when(queryExecutor.performQuery(any(), any())).thenReturn(true);
+        when(queryExecutor.executeQuery(any(), any(), any())).thenReturn(new QueryResponseData());
+
+        idolDocumentsService.queryTextIndex(mockQueryParams(QueryRequest.QueryType.MODIFIED));
+
+        verify(queryExecutor).performQuery(QueryRequest.QueryType.MODIFIED, context);
+        verify(parameterHandler).addSearchOutputParameters(any(), any(), eq(context));
+        verify(parameterHandler).addQmsParameters(any(), any(), eq(context));
+        verify(queryExecutor).executeQuery(any(), eq(QueryRequest.QueryType.MODIFIED), eq(context));
+    }
+
     @Test
     public void queryQms() {
-        when(queryExecutor.performQuery(any())).thenReturn(true);
+        when(queryExecutor.performQuery(any(), any())).thenReturn(true);
 
         final QueryResponseData responseData = new QueryResponseData();
-        when(queryExecutor.executeQuery(any(), any())).thenReturn(responseData);
+        when(queryExecutor.executeQuery(any(), any(), any())).thenReturn(responseData);
 
         idolDocumentsService.queryTextIndex(mockQueryParams(QueryRequest.QueryType.MODIFIED));
         verify(queryResponseParser).parseQueryResults(any(), any(AciParameters.class), eq(responseData), any());
@@ -99,10 +123,10 @@ public class IdolDocumentsServiceTest {
 
     @Test
     public void queryQmsForPromotions() {
-        when(queryExecutor.performQuery(any())).thenReturn(true);
+        when(queryExecutor.performQuery(any(), any())).thenReturn(true);
 
         final QueryResponseData responseData = new QueryResponseData();
-        when(queryExecutor.executeQuery(any(), any())).thenReturn(responseData);
+        when(queryExecutor.executeQuery(any(), any(), any())).thenReturn(responseData);
 
         idolDocumentsService.queryTextIndex(mockQueryParams(QueryRequest.QueryType.PROMOTIONS));
         verify(queryResponseParser).parseQueryResults(any(), any(AciParameters.class), eq(responseData), any());
@@ -115,7 +139,7 @@ public class IdolDocumentsServiceTest {
         final Hit hit = new Hit();
         responseData.getHits().add(hit);
 
-        when(queryExecutor.executeSuggest(any(), any())).thenReturn(responseData);
+        when(queryExecutor.executeSuggest(any(), any(), any())).thenReturn(responseData);
 
         when(suggestRequest.getReference()).thenReturn("Some reference");
         when(suggestRequest.getQueryRestrictions()).thenReturn(queryRestrictions);
@@ -130,7 +154,7 @@ public class IdolDocumentsServiceTest {
         final Hit hit = new Hit();
         responseData.getHits().add(hit);
 
-        when(queryExecutor.executeQuery(any(), any())).thenReturn(responseData);
+        when(queryExecutor.executeQuery(any(), any(), any())).thenReturn(responseData);
 
         when(getContentRequestIndex.getIndex()).thenReturn("Database1");
         when(getContentRequestIndex.getReferences()).thenReturn(Collections.singleton("Some reference"));
@@ -141,9 +165,21 @@ public class IdolDocumentsServiceTest {
         verify(queryResponseParser).parseQueryHits(responseData.getHits());
     }
 
+    @Test
+    public void getContentBatched() {
+        when(getContentBatcher.isEnabled()).thenReturn(true);
+        when(getContentRequestIndex.getReferences()).thenReturn(Collections.singleton("Some reference"));
+        when(getContentRequest.getIndexesAndReferences()).thenReturn(Collections.singleton(getContentRequestIndex));
+        when(getContentRequest.getPrint()).thenReturn(PrintParam.Fields);
+
+        idolDocumentsService.getDocumentContent(getContentRequest);
+        verify(getContentBatcher).getDocument(getContentRequestIndex, PrintParam.Fields);
+        verify(queryExecutor, never()).executeQuery(any(), any(), any());
+    }
+
     @Test
     public void getStateToken() {
-        when(queryExecutor.executeQuery(any(), any())).thenReturn(mockStateTokenResponse());
+        when(queryExecutor.executeQuery(any(), any(), any())).thenReturn(mockStateTokenResponse());
 
         final String stateToken = idolDocumentsService.getStateToken(mockQueryParams(QueryRequest.QueryType.RAW).getQueryRestrictions(), 3, false);
         assertThat(stateToken, is(MOCK_STATE_TOKEN));
@@ -151,7 +187,7 @@ public class IdolDocumentsServiceTest {
 
     @Test
     public void getStateTokenAndResultCount() {
-        when(queryExecutor.executeQuery(any(), any())).thenReturn(mockStateTokenResponse());
+        when(queryExecutor.executeQuery(any(), any(), any())).thenReturn(mockStateTokenResponse());
 
         final StateTokenAndResultCount stateTokenAndResultCount = idolDocumentsService.getStateTokenAndResultCount(mockQueryParams(QueryRequest.QueryType.RAW).getQueryRestrictions(), 3, false);
         assertThat(stateTokenAndResultCount.getTypedStateToken().getStateToken(), is(MOCK_STATE_TOKEN));
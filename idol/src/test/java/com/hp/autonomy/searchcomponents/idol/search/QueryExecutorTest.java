@@ -7,8 +7,13 @@ package com.hp.autonomy.searchcomponents.idol.search;
 
 import com.autonomy.aci.client.services.AciService;
 import com.autonomy.aci.client.util.AciParameters;
+import com.hp.autonomy.frontend.configuration.ConfigService;
+import com.hp.autonomy.searchcomponents.core.requestcontext.SearchRequestContext;
+import com.hp.autonomy.searchcomponents.core.requestcontext.SearchRequestContextHolder;
 import com.hp.autonomy.searchcomponents.core.search.QueryRequest;
 import com.hp.autonomy.searchcomponents.idol.configuration.AciServiceRetriever;
+import com.hp.autonomy.searchcomponents.idol.configuration.IdolSearchCapable;
+import com.hp.autonomy.searchcomponents.idol.httpclient.AsyncAciService;
 import com.hp.autonomy.types.idol.marshalling.ProcessorFactory;
 import org.junit.Before;
 import org.junit.Test;
@@ -16,6 +21,12 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
@@ -29,7 +40,13 @@ public class QueryExecutorTest {
     @Mock
     private AciService aciService;
     @Mock
+    private AsyncAciService asyncAciService;
+    @Mock
     private ProcessorFactory processorFactory;
+    @Mock
+    private ConfigService<IdolSearchCapable> configService;
+    @Mock
+    private IdolSearchCapable config;
 
     private QueryExecutor queryExecutor;
 
@@ -57,7 +74,7 @@ public class QueryExecutorTest {
 
     @Test
     public void performPromotionsQueryAndQms() {
-        when(aciServiceRetriever.qmsEnabled()).thenReturn(true);
+        when(aciServiceRetriever.qmsAvailable()).thenReturn(true);
         assertTrue(queryExecutor.performQuery(QueryRequest.QueryType.PROMOTIONS));
     }
 
@@ -67,6 +84,30 @@ public class QueryExecutorTest {
         verify(aciService).executeAction(any(), any());
     }
 
+    @Test
+    public void executeQueryWithinContext() {
+        final SearchRequestContext<IdolSearchCapable> context = new SearchRequestContext<>(configService, config, "info");
+        final AtomicReference<SearchRequestContext<?>> retrieverContext = new AtomicReference<>();
+        when(aciServiceRetriever.getAciService(any())).thenAnswer(invocation -> {
+            retrieverContext.set(SearchRequestContextHolder.getContext());
+            return aciService;
+        });
+
+        queryExecutor.executeQuery(new AciParameters(), QueryRequest.QueryType.MODIFIED, context);
+
+        // the backend is chosen using the given context, which is not left on the thread
+        assertThat(retrieverContext.get(), is(sameInstance(context)));
+        assertThat(SearchRequestContextHolder.getContext(), is(nullValue()));
+    }
+
+    @Test
+    public void executeQueryAsync() {
+        when(aciServiceRetriever.getAsyncAciService(any())).thenReturn(asyncAciService);
+
+        queryExecutor.executeQueryAsync(new AciParameters(), QueryRequest.QueryType.MODIFIED);
+        verify(asyncAciService).executeAction(any(), any());
+    }
+
     @Test
     public void executeSuggest() {
         queryExecutor.executeSuggest(new AciParameters(), QueryRequest.QueryType.RAW);
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.search;
+
+import com.hp.autonomy.frontend.configuration.ConfigService;
+import com.hp.autonomy.frontend.configuration.authentication.CommunityPrincipal;
+import com.hp.autonomy.searchcomponents.core.requestcontext.SearchRequestContext;
+import com.hp.autonomy.searchcomponents.core.requestcontext.SearchRequestContextHolder;
+import com.hp.autonomy.searchcomponents.idol.configuration.IdolSearchCapable;
+import com.hpe.bigdata.frontend.spring.authentication.AuthenticationInformationRetriever;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SearchRequestContextServiceTest {
+    private static final String SECURITY_INFO = "security info+with|characters";
+    private static final String ESCAPED_SECURITY_INFO = "security%20info+with%7Ccharacters";
+
+    @Mock
+    private ConfigService<IdolSearchCapable> configService;
+
+    @Mock
+    private IdolSearchCapable config;
+
+    @Mock
+    private AuthenticationInformationRetriever<?, CommunityPrincipal> authenticationInformationRetriever;
+
+    @Mock
+    private CommunityPrincipal principal;
+
+    private SearchRequestContextService searchRequestContextService;
+
+    @Before
+    public void setUp() {
+        when(configService.getConfig()).thenReturn(config);
+        when(authenticationInformationRetriever.getPrincipal()).thenReturn(principal);
+        when(principal.getSecurityInfo()).thenReturn(SECURITY_INFO);
+
+        searchRequestContextService = new SearchRequestContextServiceImpl(configService, authenticationInformationRetriever);
+    }
+
+    @Test
+    public void captureContext() {
+        final SearchRequestContext<IdolSearchCapable> context = searchRequestContextService.captureContext();
+
+        assertThat(context.getConfig(), is(sameInstance(config)));
+        assertThat(context.getSecurityInfo(), is(ESCAPED_SECURITY_INFO));
+    }
+
+    @Test
+    public void securityInfoReadFromContext() {
+        final SearchRequestContext<IdolSearchCapable> context = searchRequestContextService.captureContext();
+
+        SearchRequestContextHolder.callWithin(context, () -> {
+            searchRequestContextService.getSecurityInfo();
+            searchRequestContextService.getSecurityInfo();
+            return SearchRequestContextHolder.getConfig(configService);
+        });
+
+        verify(configService, times(1)).getConfig();
+        verify(authenticationInformationRetriever, times(1)).getPrincipal();
+    }
+
+    @Test
+    public void securityInfoReadFromExplicitContext() {
+        final SearchRequestContext<IdolSearchCapable> context = new SearchRequestContext<>(configService, config, "explicit");
+
+        assertThat(searchRequestContextService.getSecurityInfo(context), is("explicit"));
+        verify(authenticationInformationRetriever, never()).getPrincipal();
+    }
+
+    @Test
+    public void currentContextIsReused() {
+        final SearchRequestContext<IdolSearchCapable> context = searchRequestContextService.captureContext();
+
+        assertThat(SearchRequestContextHolder.callWithin(context, searchRequestContextService::getContext), is(sameInstance(context)));
+        assertThat(searchRequestContextService.getContext(), is(not(sameInstance(context))));
+    }
+
+    @Test
+    public void securityInfoWithoutContext() {
+        assertThat(searchRequestContextService.getSecurityInfo(), is(ESCAPED_SECURITY_INFO));
+    }
+
+    @Test
+    public void escapedSecurityInfoIsReused() {
+        assertThat(searchRequestContextService.getSecurityInfo(), is(sameInstance(searchRequestContextService.getSecurityInfo())));
+    }
+
+    @Test
+    public void noPrincipal() {
+        when(authenticationInformationRetriever.getPrincipal()).thenReturn(null);
+
+        assertThat(searchRequestContextService.getSecurityInfo(), is(nullValue()));
+    }
+}
@@ -72,6 +72,16 @@ public class FieldsParserTest {
         assertThat(fieldMap.get("author").getValues(), hasSize(2));
     }
 
+    @Test
+    public void parseUnconfiguredField() {
+        final IdolSearchResult.IdolSearchResultBuilder builder = IdolSearchResult.builder();
+        fieldsParser.parseDocumentFields(mockHit(), builder);
+        final FieldInfo<?> fieldInfo = builder.build().getFieldMap().get("UNKNOWN");
+        assertEquals(FieldType.STRING, fieldInfo.getType());
+        assertTrue(fieldInfo.isAdvanced());
+        assertThat(fieldInfo.getValues(), hasSize(1));
+    }
+
     @Test
     public void parseStaticContentPromotionResult() {
         final IdolSearchResult.IdolSearchResultBuilder builder = IdolSearchResult.builder();
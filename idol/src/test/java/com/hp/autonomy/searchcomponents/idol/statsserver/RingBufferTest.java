@@ -0,0 +1,88 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.statsserver;
+
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class RingBufferTest {
+    @Test
+    public void roundsCapacityUpToPowerOfTwo() {
+        assertThat(new RingBuffer<>(5).capacity(), is(8));
+        assertThat(new RingBuffer<>(8).capacity(), is(8));
+    }
+
+    @Test
+    public void firstInFirstOut() {
+        final RingBuffer<Integer> buffer = new RingBuffer<>(2);
+        buffer.offer(1);
+        buffer.offer(2);
+
+        assertThat(buffer.poll(), is(1));
+        assertThat(buffer.poll(), is(2));
+        assertThat(buffer.poll(), is(nullValue()));
+    }
+
+    @Test
+    public void rejectsWhenFull() {
+        final RingBuffer<Integer> buffer = new RingBuffer<>(2);
+
+        assertThat(buffer.offer(1), is(true));
+        assertThat(buffer.offer(2), is(true));
+        assertThat(buffer.offer(3), is(false));
+        assertThat(buffer.size(), is(2));
+
+        buffer.poll();
+        assertThat(buffer.offer(3), is(true));
+    }
+
+    @Test
+    public void concurrentProducers() throws InterruptedException {
+        final int producers = 4;
+        final int perProducer = 1000;
+        final RingBuffer<Integer> buffer = new RingBuffer<>(producers * perProducer);
+        final ExecutorService executor = Executors.newFixedThreadPool(producers);
+        final CountDownLatch start = new CountDownLatch(1);
+
+        for (int producer = 0; producer < producers; producer++) {
+            final int offset = producer * perProducer;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (final InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+
+                for (int i = 0; i < perProducer; i++) {
+                    buffer.offer(offset + i);
+                }
+            });
+        }
+
+        start.countDown();
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        final Set<Integer> received = ConcurrentHashMap.newKeySet();
+        Integer element;
+        while ((element = buffer.poll()) != null) {
+            received.add(element);
+        }
+
+        assertThat(received, hasSize(producers * perProducer));
+    }
+}
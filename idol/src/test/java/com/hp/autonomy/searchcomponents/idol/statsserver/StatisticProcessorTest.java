@@ -69,4 +69,22 @@ public class StatisticProcessorTest {
         assertThat(contentTopN.getType(), is("topn"));
         assertThat(contentTopN.getDynamic(), is(false));
     }
+
+    @Test
+    public void processesValues() throws XMLStreamException {
+        final XMLStreamReader reader = XmlTestUtils.getResourceAsXMLStreamReader("/stats-server-get-statistics-response.xml");
+        final Set<Statistic> statistics = processor.process(reader);
+
+        assertThat(statistics, hasSize(2));
+
+        for (final Statistic statistic : statistics) {
+            assertThat(statistic.getIdol(), is("Content"));
+
+            if ("ContentCount".equals(statistic.getName())) {
+                assertThat(statistic.getValue(), is(42.0));
+            } else {
+                assertThat(statistic.getValue(), is(nullValue()));
+            }
+        }
+    }
 }
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.statsserver;
+
+import com.autonomy.aci.client.annotations.IdolAnnotationsProcessorFactoryImpl;
+import com.autonomy.aci.client.services.AciService;
+import com.autonomy.aci.client.transport.AciParameter;
+import com.autonomy.aci.client.transport.AciServerDetails;
+import com.hp.autonomy.frontend.configuration.ConfigService;
+import com.hp.autonomy.frontend.configuration.server.ServerConfig;
+import com.hp.autonomy.searchcomponents.idol.configuration.IdolSearchCapable;
+import com.hp.autonomy.searchcomponents.idol.statsserver.configuration.StatisticsPollingConfig;
+import com.hp.autonomy.searchcomponents.idol.statsserver.configuration.StatsServerConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anySetOf;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class StatisticsHistoryServiceTest {
+    private static final StatisticKey CONTENT_COUNT = new StatisticKey("Content", "ContentCount", 1000L);
+    private static final long WINDOW = 60000L;
+
+    @Mock
+    private ConfigService<IdolSearchCapable> configService;
+    @Mock
+    private IdolSearchCapable config;
+    @Mock
+    private ServerConfig server;
+    @Mock
+    private AciService aciService;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    private StatisticsHistoryServiceImpl statisticsHistoryService;
+
+    @Before
+    public void setUp() {
+        when(configService.getConfig()).thenReturn(config);
+        when(server.toAciServerDetails()).thenReturn(new AciServerDetails("localhost", 19870));
+        mockPollingConfig(StatisticsPollingConfig.builder().enabled(true).historySize(2).build());
+
+        statisticsHistoryService = new StatisticsHistoryServiceImpl(configService, aciService, new IdolAnnotationsProcessorFactoryImpl(), taskScheduler);
+    }
+
+    @After
+    public void tearDown() {
+        statisticsHistoryService.close();
+    }
+
+    @Test
+    public void poll() {
+        mockValues(statistic("ContentCount", 1000L, 42.0), statistic("ContentTopN", 86400L, null));
+        statisticsHistoryService.poll();
+
+        assertThat(statisticsHistoryService.getKeys(), contains(CONTENT_COUNT));
+        assertThat(getValues(), contains(42.0));
+    }
+
+    @Test
+    public void keepsFixedNumberOfSamples() {
+        for (final double value : new double[]{1, 2, 3}) {
+            mockValues(statistic("ContentCount", 1000L, value));
+            statisticsHistoryService.poll();
+        }
+
+        assertThat(getValues(), contains(2.0, 3.0));
+    }
+
+    @Test
+    public void summary() {
+        for (final double value : new double[]{4, 2}) {
+            mockValues(statistic("ContentCount", 1000L, value));
+            statisticsHistoryService.poll();
+        }
+
+        final StatisticSummary summary = statisticsHistoryService.getSummary(CONTENT_COUNT, WINDOW);
+        assertThat(summary.getCount(), is(2));
+        assertThat(summary.getMin(), is(2.0));
+        assertThat(summary.getMax(), is(4.0));
+        assertThat(summary.getMean(), is(3.0));
+        assertThat(summary.getSum(), is(6.0));
+        assertThat(summary.getLatest(), is(2.0));
+    }
+
+    @Test
+    public void onlyConfiguredStatistics() {
+        mockPollingConfig(StatisticsPollingConfig.builder().enabled(true).statistic("ContentTopN").build());
+        mockValues(statistic("ContentCount", 1000L, 42.0));
+        statisticsHistoryService.poll();
+
+        assertThat(statisticsHistoryService.getKeys(), is(empty()));
+    }
+
+    @Test
+    public void unknownStatistic() {
+        assertThat(statisticsHistoryService.getSamples(CONTENT_COUNT, WINDOW), is(empty()));
+        assertThat(statisticsHistoryService.getSummary(CONTENT_COUNT, WINDOW), is(nullValue()));
+    }
+
+    @Test
+    public void disabled() {
+        when(config.getStatsServer()).thenReturn(null);
+        statisticsHistoryService.poll();
+
+        verifyZeroInteractions(aciService);
+    }
+
+    private void mockPollingConfig(final StatisticsPollingConfig pollingConfig) {
+        when(config.getStatsServer()).thenReturn(StatsServerConfig.builder().enabled(true).server(server).polling(pollingConfig).build());
+    }
+
+    private void mockValues(final Statistic... statistics) {
+        when(aciService.executeAction(any(AciServerDetails.class), anySetOf(AciParameter.class), any())).thenReturn(new HashSet<>(Arrays.asList(statistics)));
+    }
+
+    private List<Double> getValues() {
+        return statisticsHistoryService.getSamples(CONTENT_COUNT, WINDOW).stream()
+                .map(StatisticSample::getValue)
+                .collect(Collectors.toList());
+    }
+
+    private Statistic statistic(final String name, final long period, final Double value) {
+        final Statistic statistic = new Statistic();
+        statistic.setIdol("Content");
+        statistic.setName(name);
+        statistic.setPeriod(period);
+        if (value != null) {
+            statistic.setValue(value);
+        }
+        return statistic;
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.statsserver;
+
+import com.autonomy.aci.client.services.AciService;
+import com.autonomy.aci.client.transport.AciParameter;
+import com.autonomy.aci.client.transport.AciServerDetails;
+import com.autonomy.aci.client.util.AciParameters;
+import com.hp.autonomy.frontend.configuration.ConfigService;
+import com.hp.autonomy.frontend.configuration.server.ServerConfig;
+import com.hp.autonomy.searchcomponents.idol.configuration.IdolSearchCapable;
+import com.hp.autonomy.searchcomponents.idol.statsserver.configuration.StatsEventDropPolicy;
+import com.hp.autonomy.searchcomponents.idol.statsserver.configuration.StatsEventsConfig;
+import com.hp.autonomy.searchcomponents.idol.statsserver.configuration.StatsServerConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anySetOf;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class StatsEventEmitterTest {
+    @Mock
+    private ConfigService<IdolSearchCapable> configService;
+    @Mock
+    private IdolSearchCapable config;
+    @Mock
+    private ServerConfig server;
+    @Mock
+    private AciService aciService;
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    private StatsEventEmitterImpl statsEventEmitter;
+
+    @Before
+    public void setUp() {
+        when(configService.getConfig()).thenReturn(config);
+        when(server.toAciServerDetails()).thenReturn(new AciServerDetails("localhost", 19870));
+        mockEventsConfig(StatsEventsConfig.builder().enabled(true).bufferSize(2).batchSize(1).build());
+
+        statsEventEmitter = new StatsEventEmitterImpl(configService, aciService, taskScheduler);
+    }
+
+    @After
+    public void tearDown() {
+        statsEventEmitter.close();
+    }
+
+    @Test
+    public void emitAndFlush() {
+        statsEventEmitter.emit(queryEvent("cat"));
+        statsEventEmitter.emit(queryEvent("dog"));
+        statsEventEmitter.flush();
+
+        verify(aciService, times(2)).executeAction(any(AciServerDetails.class), anySetOf(AciParameter.class), any());
+        assertThat(statsEventEmitter.getSentCount(), is(2L));
+        assertThat(statsEventEmitter.getBufferedCount(), is(0));
+    }
+
+    @Test
+    public void disabled() {
+        when(config.getStatsServer()).thenReturn(null);
+
+        assertThat(statsEventEmitter.emit(queryEvent("cat")), is(true));
+        statsEventEmitter.flush();
+
+        assertThat(statsEventEmitter.getEmittedCount(), is(0L));
+        verifyZeroInteractions(aciService);
+    }
+
+    @Test
+    public void dropNewest() {
+        statsEventEmitter.emit(queryEvent("cat"));
+        statsEventEmitter.emit(queryEvent("dog"));
+
+        assertThat(statsEventEmitter.emit(queryEvent("fish")), is(false));
+        assertThat(statsEventEmitter.getDroppedCount(), is(1L));
+
+        statsEventEmitter.flush();
+        assertThat(getSentData(2), not(containsString("fish")));
+    }
+
+    @Test
+    public void dropOldest() {
+        mockEventsConfig(StatsEventsConfig.builder().enabled(true).batchSize(10).dropPolicy(StatsEventDropPolicy.DROP_OLDEST).build());
+        statsEventEmitter.emit(queryEvent("cat"));
+        statsEventEmitter.emit(queryEvent("dog"));
+
+        assertThat(statsEventEmitter.emit(queryEvent("fish")), is(false));
+
+        statsEventEmitter.flush();
+        final String data = getSentData(1);
+        assertThat(data, not(containsString("cat")));
+        assertThat(data, containsString("fish"));
+    }
+
+    @Test
+    public void failedBatchIsDiscarded() {
+        when(aciService.executeAction(any(AciServerDetails.class), anySetOf(AciParameter.class), any())).thenThrow(new IllegalStateException());
+        statsEventEmitter.emit(queryEvent("cat"));
+        statsEventEmitter.emit(queryEvent("dog"));
+
+        statsEventEmitter.flush();
+
+        assertThat(statsEventEmitter.getFailedCount(), is(1L));
+        assertThat(statsEventEmitter.getBufferedCount(), is(1));
+    }
+
+    @Test
+    public void toXml() {
+        final StatsEvent event = StatsEvent.builder()
+                .type(StatsEventType.VIEW)
+                .timestamp(1000L)
+                .username("user")
+                .field("reference", "a<b")
+                .build();
+
+        assertThat(StatsEventEmitterImpl.toXml(Collections.singletonList(event)),
+                containsString("<events><event><type>view</type><timestamp>1000</timestamp><username>user</username><reference>a&lt;b</reference></event></events>"));
+    }
+
+    private void mockEventsConfig(final StatsEventsConfig eventsConfig) {
+        when(config.getStatsServer()).thenReturn(StatsServerConfig.builder().enabled(true).server(server).events(eventsConfig).build());
+    }
+
+    private StatsEvent queryEvent(final String text) {
+        return StatsEvent.builder()
+                .type(StatsEventType.QUERY)
+                .timestamp(System.currentTimeMillis())
+                .field("text", text)
+                .build();
+    }
+
+    private String getSentData(final int batches) {
+        final ArgumentCaptor<AciParameters> captor = ArgumentCaptor.forClass(AciParameters.class);
+        verify(aciService, times(batches)).executeAction(any(AciServerDetails.class), captor.capture(), any());
+
+        final StringBuilder data = new StringBuilder();
+        for (final AciParameters parameters : captor.getAllValues()) {
+            parameters.stream()
+                    .filter(parameter -> "Data".equalsIgnoreCase(parameter.getName()))
+                    .forEach(parameter -> data.append(parameter.getValue()));
+        }
+        return data.toString();
+    }
+}
@@ -7,16 +7,26 @@ package com.hp.autonomy.searchcomponents.idol.typeahead;
 
 import com.autonomy.aci.client.services.AciErrorException;
 import com.hp.autonomy.frontend.configuration.ConfigService;
+import com.hp.autonomy.searchcomponents.core.typeahead.TypeAheadPrefixCache;
 import com.hp.autonomy.searchcomponents.core.typeahead.TypeAheadService;
 import com.hp.autonomy.searchcomponents.idol.configuration.IdolSearchCapable;
 import com.hp.autonomy.searchcomponents.idol.configuration.QueryManipulation;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.Matchers;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -30,6 +40,12 @@ public class IdolTypeAheadServiceTest {
     @Mock
     private TypeAheadService<AciErrorException> qmsTypeAheadService;
 
+    @Mock
+    private TypeAheadIndexService typeAheadIndexService;
+
+    @Mock
+    private TypeAheadPrefixCache typeAheadPrefixCache;
+
     @Mock
     private IdolSearchCapable config;
 
@@ -37,8 +53,10 @@ public class IdolTypeAheadServiceTest {
 
     @Before
     public void setUp() {
-        typeAheadService = new IdolTypeAheadServiceImpl(configService, termExpandTypeAheadService, qmsTypeAheadService);
+        typeAheadService = new IdolTypeAheadServiceImpl(configService, termExpandTypeAheadService, qmsTypeAheadService, typeAheadIndexService, typeAheadPrefixCache);
         when(configService.getConfig()).thenReturn(config);
+        when(typeAheadPrefixCache.getSuggestions(any(), anyString(), Matchers.<TypeAheadService<AciErrorException>>any()))
+                .thenAnswer(invocation -> ((TypeAheadService<?>) invocation.getArguments()[2]).getSuggestions((String) invocation.getArguments()[1]));
     }
 
     @Test
@@ -58,4 +76,13 @@ public class IdolTypeAheadServiceTest {
         typeAheadService.getSuggestions(text);
         verify(termExpandTypeAheadService).getSuggestions(text);
     }
+
+    @Test
+    public void getIndexedSuggestions() {
+        final List<String> suggestions = Collections.singletonList("ab");
+        when(typeAheadIndexService.getSuggestions("A")).thenReturn(suggestions);
+
+        assertThat(typeAheadService.getSuggestions("A"), is(suggestions));
+        verifyZeroInteractions(qmsTypeAheadService, termExpandTypeAheadService);
+    }
 }
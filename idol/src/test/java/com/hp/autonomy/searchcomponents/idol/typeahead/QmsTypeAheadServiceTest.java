@@ -7,6 +7,7 @@ package com.hp.autonomy.searchcomponents.idol.typeahead;
 
 import com.autonomy.aci.client.services.AciService;
 import com.autonomy.aci.client.transport.AciParameter;
+import com.hp.autonomy.searchcomponents.idol.httpclient.AsyncAciService;
 import com.hp.autonomy.frontend.configuration.ConfigService;
 import com.hp.autonomy.searchcomponents.idol.configuration.IdolSearchCapable;
 import com.hp.autonomy.searchcomponents.idol.configuration.QueryManipulation;
@@ -34,6 +35,9 @@ public class QmsTypeAheadServiceTest {
     @Mock
     private AciService qmsAciService;
 
+    @Mock
+    private AsyncAciService qmsAsyncAciService;
+
     @Mock
     private ProcessorFactory processorFactory;
 
@@ -44,7 +48,7 @@ public class QmsTypeAheadServiceTest {
 
     @Before
     public void setUp() {
-        qmsTypeAheadService = new QmsTypeAheadService(configService, qmsAciService, processorFactory);
+        qmsTypeAheadService = new QmsTypeAheadService(configService, qmsAciService, qmsAsyncAciService, processorFactory);
         when(configService.getConfig()).thenReturn(config);
     }
 
@@ -7,6 +7,7 @@ package com.hp.autonomy.searchcomponents.idol.typeahead;
 
 import com.autonomy.aci.client.services.AciService;
 import com.autonomy.aci.client.transport.AciParameter;
+import com.hp.autonomy.searchcomponents.idol.httpclient.AsyncAciService;
 import com.hp.autonomy.types.idol.marshalling.ProcessorFactory;
 import com.hp.autonomy.types.idol.responses.TermExpandResponseData;
 import org.junit.Before;
@@ -16,8 +17,10 @@ import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anySetOf;
 import static org.mockito.Mockito.when;
@@ -27,6 +30,9 @@ public class TermExpandTypeAheadServiceTest {
     @Mock
     private AciService contentAciService;
 
+    @Mock
+    private AsyncAciService contentAsyncAciService;
+
     @Mock
     private ProcessorFactory processorFactory;
 
@@ -34,7 +40,7 @@ public class TermExpandTypeAheadServiceTest {
 
     @Before
     public void setUp() {
-        termExpandTypeAheadService = new TermExpandTypeAheadService(contentAciService, processorFactory);
+        termExpandTypeAheadService = new TermExpandTypeAheadService(contentAciService, contentAsyncAciService, processorFactory);
     }
 
     @Test
@@ -44,6 +50,22 @@ public class TermExpandTypeAheadServiceTest {
         assertEquals("ab", suggestions.get(0));
     }
 
+    @Test
+    public void getSuggestionsAsync() {
+        when(contentAsyncAciService.executeAction(anySetOf(AciParameter.class), any())).thenReturn(CompletableFuture.completedFuture(mockResponse()));
+        final List<String> suggestions = termExpandTypeAheadService.getSuggestionsAsync("A").join();
+        assertEquals("ab", suggestions.get(0));
+    }
+
+    @Test
+    public void cancellingAsyncSuggestionsAbortsRequest() {
+        final CompletableFuture<TermExpandResponseData> response = new CompletableFuture<>();
+        when(contentAsyncAciService.executeAction(anySetOf(AciParameter.class), any())).thenReturn(response);
+
+        termExpandTypeAheadService.getSuggestionsAsync("A").cancel(true);
+        assertTrue(response.isCancelled());
+    }
+
     private TermExpandResponseData mockResponse() {
         final TermExpandResponseData typeAheadResponseData = new TermExpandResponseData();
         final TermExpandResponseData.Term term = new TermExpandResponseData.Term();
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.typeahead;
+
+import com.hp.autonomy.frontend.configuration.ConfigService;
+import com.hp.autonomy.searchcomponents.core.typeahead.TypeAheadPrefixCache;
+import com.hp.autonomy.searchcomponents.idol.configuration.IdolSearchCapable;
+import com.hp.autonomy.searchcomponents.idol.configuration.QueryManipulation;
+import com.hp.autonomy.searchcomponents.idol.configuration.TypeAheadDispatchConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TypeAheadDispatcherTest {
+    @Mock
+    private ConfigService<IdolSearchCapable> configService;
+
+    @Mock
+    private IdolSearchCapable config;
+
+    @Mock
+    private TypeAheadIndexService typeAheadIndexService;
+
+    @Mock
+    private TypeAheadPrefixCache typeAheadPrefixCache;
+
+    @Mock
+    private IdolAsyncTypeAheadService qmsTypeAheadService;
+
+    @Mock
+    private IdolAsyncTypeAheadService termExpandTypeAheadService;
+
+    private final ThreadPoolTaskScheduler timeoutScheduler = new ThreadPoolTaskScheduler();
+    private TypeAheadDispatcherImpl typeAheadDispatcher;
+
+    @Before
+    public void setUp() {
+        when(configService.getConfig()).thenReturn(config);
+        when(config.getQueryManipulation()).thenReturn(QueryManipulation.builder().enabled(false).build());
+
+        timeoutScheduler.initialize();
+        typeAheadDispatcher = new TypeAheadDispatcherImpl(configService, typeAheadIndexService, typeAheadPrefixCache, qmsTypeAheadService, termExpandTypeAheadService, timeoutScheduler);
+    }
+
+    @After
+    public void tearDown() {
+        timeoutScheduler.shutdown();
+    }
+
+    @Test
+    public void getSuggestions() {
+        when(termExpandTypeAheadService.getSuggestionsAsync("mach")).thenReturn(CompletableFuture.completedFuture(Collections.singletonList("machine")));
+
+        assertThat(typeAheadDispatcher.getSuggestions("session", "mach").join(), contains("machine"));
+        verify(typeAheadPrefixCache).putSuggestions(IdolTypeAheadService.TERM_EXPAND_TYPE_AHEAD_SERVICE_BEAN_NAME, "mach", Collections.singletonList("machine"));
+        verifyZeroInteractions(qmsTypeAheadService);
+    }
+
+    @Test
+    public void getCachedSuggestions() {
+        when(typeAheadPrefixCache.getCachedSuggestions(any(), anyString())).thenReturn(Collections.singletonList("machine"));
+
+        assertThat(typeAheadDispatcher.getSuggestions("session", "mach").join(), contains("machine"));
+        verifyZeroInteractions(termExpandTypeAheadService);
+    }
+
+    @Test
+    public void newerRequestCancelsEarlierRequest() {
+        final CompletableFuture<List<String>> firstRequest = new CompletableFuture<>();
+        when(termExpandTypeAheadService.getSuggestionsAsync("mach")).thenReturn(firstRequest);
+        when(termExpandTypeAheadService.getSuggestionsAsync("machi")).thenReturn(CompletableFuture.completedFuture(Collections.singletonList("machine")));
+
+        final CompletableFuture<List<String>> first = typeAheadDispatcher.getSuggestions("session", "mach");
+        final CompletableFuture<List<String>> second = typeAheadDispatcher.getSuggestions("session", "machi");
+
+        assertThat(first.isCancelled(), is(true));
+        assertThat(firstRequest.isCancelled(), is(true));
+        assertThat(second.join(), contains("machine"));
+        assertThat(typeAheadDispatcher.getCancellationCount(), is(1L));
+        assertThat(typeAheadDispatcher.getCancellationRate(), is(50.0));
+        assertThat(typeAheadDispatcher.getRequestsInProgress(), is(0));
+    }
+
+    @Test
+    public void sessionsAreIndependent() {
+        when(termExpandTypeAheadService.getSuggestionsAsync(anyString())).thenReturn(new CompletableFuture<>());
+
+        final CompletableFuture<List<String>> first = typeAheadDispatcher.getSuggestions("session", "mach");
+        typeAheadDispatcher.getSuggestions("other-session", "machi");
+
+        assertThat(first.isCancelled(), is(false));
+        assertThat(typeAheadDispatcher.getRequestsInProgress(), is(2));
+    }
+
+    @Test
+    public void debouncedRequestIsNotSentIfSuperseded() {
+        when(config.getTypeAheadDispatch()).thenReturn(TypeAheadDispatchConfig.builder().enabled(true).debounce(50L).build());
+        when(termExpandTypeAheadService.getSuggestionsAsync("machi")).thenReturn(CompletableFuture.completedFuture(Collections.singletonList("machine")));
+
+        final CompletableFuture<List<String>> first = typeAheadDispatcher.getSuggestions("session", "mach");
+        final CompletableFuture<List<String>> second = typeAheadDispatcher.getSuggestions("session", "machi");
+
+        assertThat(first.isCancelled(), is(true));
+        assertThat(second.join(), contains("machine"));
+        verify(termExpandTypeAheadService, never()).getSuggestionsAsync("mach");
+    }
+}
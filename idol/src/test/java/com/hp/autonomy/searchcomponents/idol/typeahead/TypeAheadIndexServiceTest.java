@@ -0,0 +1,152 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.typeahead;
+
+import com.autonomy.aci.client.services.AciService;
+import com.autonomy.aci.client.transport.AciParameter;
+import com.hp.autonomy.frontend.configuration.ConfigService;
+import com.hp.autonomy.searchcomponents.idol.configuration.IdolSearchCapable;
+import com.hp.autonomy.searchcomponents.idol.configuration.QueryManipulation;
+import com.hp.autonomy.searchcomponents.idol.configuration.TypeAheadIndexConfig;
+import com.hp.autonomy.types.idol.marshalling.ProcessorFactory;
+import com.hp.autonomy.types.idol.responses.TermExpandResponseData;
+import com.hp.autonomy.types.idol.responses.TypeAheadResponseData;
+import com.hp.autonomy.types.requests.qms.actions.typeahead.params.ModeParam;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.scheduling.TaskScheduler;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anySetOf;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TypeAheadIndexServiceTest {
+    @Mock
+    private ConfigService<IdolSearchCapable> configService;
+
+    @Mock
+    private AciService contentAciService;
+
+    @Mock
+    private AciService qmsAciService;
+
+    @Mock
+    private ProcessorFactory processorFactory;
+
+    @Mock
+    private IdolSearchCapable config;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    private TypeAheadIndexServiceImpl typeAheadIndexService;
+
+    @Before
+    public void setUp() {
+        when(configService.getConfig()).thenReturn(config);
+        when(config.getQueryManipulation()).thenReturn(QueryManipulation.builder().enabled(false).build());
+        when(config.getTypeAheadIndex()).thenReturn(TypeAheadIndexConfig.builder().enabled(true).prefix("c").maxTerms(10).build());
+        when(contentAciService.executeAction(anySetOf(AciParameter.class), any())).thenReturn(mockTermExpandResponse());
+        when(qmsAciService.executeAction(anySetOf(AciParameter.class), any())).thenReturn(mockTypeAheadResponse());
+
+        typeAheadIndexService = new TypeAheadIndexServiceImpl(configService, contentAciService, qmsAciService, processorFactory, taskScheduler);
+    }
+
+    @After
+    public void tearDown() {
+        typeAheadIndexService.close();
+    }
+
+    @Test
+    public void notBuilt() {
+        assertThat(typeAheadIndexService.getSuggestions("ca"), is(nullValue()));
+    }
+
+    @Test
+    public void disabled() {
+        when(config.getTypeAheadIndex()).thenReturn(null);
+        typeAheadIndexService.rebuild();
+
+        assertThat(typeAheadIndexService.getSuggestions("ca"), is(nullValue()));
+        verifyZeroInteractions(contentAciService, qmsAciService);
+    }
+
+    @Test
+    public void buildsFromContent() {
+        typeAheadIndexService.rebuild();
+
+        assertThat(typeAheadIndexService.getTermCount(), is(2));
+        assertThat(typeAheadIndexService.getSuggestions("Ca"), contains("car", "cat"));
+        assertThat(typeAheadIndexService.getSuggestions("cat*"), contains("cat"));
+        assertThat(typeAheadIndexService.getHitCount(), is(2L));
+        verify(qmsAciService, never()).executeAction(anySetOf(AciParameter.class), any());
+    }
+
+    @Test
+    public void buildsFromQms() {
+        when(config.getQueryManipulation()).thenReturn(QueryManipulation.builder().enabled(true).typeAheadMode(ModeParam.Dictionary).build());
+        typeAheadIndexService.rebuild();
+
+        assertThat(typeAheadIndexService.getSuggestions("co"), contains("Cow"));
+        verify(contentAciService, never()).executeAction(anySetOf(AciParameter.class), any());
+    }
+
+    @Test
+    public void leavesPhrasesToBackend() {
+        typeAheadIndexService.rebuild();
+
+        assertThat(typeAheadIndexService.getSuggestions("car park"), is(nullValue()));
+        assertThat(typeAheadIndexService.getMissCount(), is(1L));
+    }
+
+    @Test
+    public void leavesUncoveredPrefixesToBackend() {
+        typeAheadIndexService.rebuild();
+
+        assertThat(typeAheadIndexService.getSuggestions("b"), is(nullValue()));
+    }
+
+    @Test
+    public void ignoresIndexFromOtherBackend() {
+        typeAheadIndexService.rebuild();
+        when(config.getQueryManipulation()).thenReturn(QueryManipulation.builder().enabled(true).typeAheadMode(ModeParam.Index).build());
+
+        assertThat(typeAheadIndexService.getSuggestions("ca"), is(nullValue()));
+    }
+
+    private TermExpandResponseData mockTermExpandResponse() {
+        final TermExpandResponseData response = new TermExpandResponseData();
+
+        for (final String value : new String[]{"Car", "Cat"}) {
+            final TermExpandResponseData.Term term = new TermExpandResponseData.Term();
+            term.setValue(value);
+            response.getTerm().add(term);
+        }
+
+        return response;
+    }
+
+    private TypeAheadResponseData mockTypeAheadResponse() {
+        final TypeAheadResponseData response = new TypeAheadResponseData();
+        final TypeAheadResponseData.Expansion expansion = new TypeAheadResponseData.Expansion();
+        expansion.setScore(5);
+        expansion.setValue("Cow");
+        response.getExpansion().add(expansion);
+        return response;
+    }
+}
@@ -11,6 +11,7 @@ import com.autonomy.aci.client.services.AciServiceException;
 import com.autonomy.aci.client.services.Processor;
 import com.autonomy.aci.client.util.AciParameters;
 import com.hp.autonomy.frontend.configuration.ConfigService;
+import com.hp.autonomy.searchcomponents.idol.httpclient.AsyncAciService;
 import com.hp.autonomy.searchcomponents.idol.search.HavenSearchAciParameterHandler;
 import com.hp.autonomy.searchcomponents.idol.view.configuration.ViewCapable;
 import com.hp.autonomy.searchcomponents.idol.view.configuration.ViewConfig;
@@ -21,21 +22,37 @@ import com.hp.autonomy.types.idol.responses.Hit;
 import com.hp.autonomy.types.idol.responses.QueryResponse;
 import org.apache.commons.lang3.NotImplementedException;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.*;
 
 @RunWith(MockitoJUnitRunner.class)
 public class IdolViewServerServiceTest {
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     private static final String SAMPLE_REFERENCE_FIELD_NAME = "URL";
 
     @Mock
@@ -56,6 +73,21 @@ public class IdolViewServerServiceTest {
     @Mock
     private ViewCapable viewCapableConfig;
 
+    @Mock
+    private ViewFailureCache viewFailureCache;
+
+    @Mock
+    private ViewReferenceCache viewReferenceCache;
+
+    @Mock
+    private RenderedDocumentCache renderedDocumentCache;
+
+    @Mock
+    private AsyncAciService contentAsyncAciService;
+
+    @Mock
+    private AsyncAciService viewAsyncAciService;
+
     @Mock
     private IdolViewRequest request;
 
@@ -70,7 +102,7 @@ public class IdolViewServerServiceTest {
         when(request.getDocumentReference()).thenReturn("dede952d-8a4d-4f54-ac1f-5187bf10a744");
         when(request.getHighlightExpression()).thenReturn("SomeText");
 
-        idolViewServerService = new IdolViewServerServiceImpl(contentAciService, viewAciService, processorFactory, parameterHandler, configService);
+        idolViewServerService = new IdolViewServerServiceImpl(contentAciService, viewAciService, processorFactory, parameterHandler, configService, viewFailureCache, viewReferenceCache, renderedDocumentCache, contentAsyncAciService, viewAsyncAciService);
     }
 
     @Test
@@ -83,6 +115,89 @@ public class IdolViewServerServiceTest {
         verify(viewAciService).executeAction(any(), any());
     }
 
+    @Test
+    public void viewDocumentWithCachedReference() throws IOException {
+        when(viewReferenceCache.getReference(eq("dede952d-8a4d-4f54-ac1f-5187bf10a744"), any(), any())).thenReturn("http://en.wikipedia.org/wiki/Car");
+        idolViewServerService.viewDocument(request, mock(OutputStream.class));
+
+        verify(parameterHandler).addViewParameters(any(), eq("http://en.wikipedia.org/wiki/Car"), any());
+        verify(contentAciService, never()).executeAction(any(), any());
+        verify(viewAciService).executeAction(any(), any());
+    }
+
+    @Test
+    public void viewDocumentRecordsReference() throws IOException {
+        final GetContentResponseData responseData = mockResponseData();
+        when(contentAciService.executeAction(any(AciParameters.class), any())).thenReturn(responseData);
+        idolViewServerService.viewDocument(request, mock(OutputStream.class));
+
+        verify(viewReferenceCache).putReference(eq("dede952d-8a4d-4f54-ac1f-5187bf10a744"), any(), any(), eq("http://en.wikipedia.org/wiki/Car"));
+    }
+
+    @Test
+    public void viewDocumentFromRenderedDocumentCache() throws IOException {
+        final Path file = temporaryFolder.newFile().toPath();
+        Files.write(file, "<p>Car</p>".getBytes(StandardCharsets.UTF_8));
+        final RenderedDocument renderedDocument = new RenderedDocument("\"etag\"", System.currentTimeMillis(), Files.size(file), file);
+        when(renderedDocumentCache.isEnabled()).thenReturn(true);
+        when(renderedDocumentCache.getDocument(request)).thenReturn(renderedDocument);
+        final GetContentResponseData responseData = mockResponseData();
+        when(contentAciService.executeAction(any(AciParameters.class), any())).thenReturn(responseData);
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        idolViewServerService.viewDocument(request, outputStream);
+
+        assertThat(new String(outputStream.toByteArray(), StandardCharsets.UTF_8), is("<p>Car</p>"));
+        // the document must still be visible to the current user
+        verify(contentAciService).executeAction(any(), any());
+        verify(viewAciService, never()).executeAction(any(), any());
+    }
+
+    @Test(expected = ViewDocumentNotFoundException.class)
+    public void renderedDocumentCacheNotUsedForInvisibleDocument() throws IOException {
+        when(renderedDocumentCache.isEnabled()).thenReturn(true);
+        when(contentAciService.executeAction(any(AciParameters.class), any(Processor.class))).thenThrow(new AciErrorException());
+
+        try {
+            idolViewServerService.renderDocument(request);
+        } finally {
+            verify(renderedDocumentCache, never()).getDocument(any());
+        }
+    }
+
+    @Test
+    public void renderDocumentWhenCacheDisabled() throws IOException {
+        assertThat(idolViewServerService.renderDocument(request), nullValue());
+        verify(renderedDocumentCache, never()).putDocument(any(), any());
+    }
+
+    @Test
+    public void viewDocumentAsync() {
+        final GetContentResponseData responseData = mockResponseData();
+        when(contentAsyncAciService.executeAction(any(AciParameters.class), any())).thenReturn(CompletableFuture.completedFuture(responseData));
+        when(viewAsyncAciService.executeAction(any(AciParameters.class), any())).thenReturn(CompletableFuture.completedFuture(true));
+
+        idolViewServerService.viewDocumentAsync(request, mock(OutputStream.class)).join();
+
+        verify(parameterHandler).addViewParameters(any(), eq("http://en.wikipedia.org/wiki/Car"), any());
+        verify(contentAciService, never()).executeAction(any(), any());
+    }
+
+    @Test
+    public void viewDocumentAsyncNotFound() {
+        final CompletableFuture<Object> error = new CompletableFuture<>();
+        error.completeExceptionally(new AciErrorException());
+        when(contentAsyncAciService.executeAction(any(AciParameters.class), any())).thenReturn(error);
+
+        try {
+            idolViewServerService.viewDocumentAsync(request, mock(OutputStream.class)).join();
+            fail("Expected ViewDocumentNotFoundException");
+        } catch (final CompletionException e) {
+            assertThat(e.getCause(), instanceOf(ViewDocumentNotFoundException.class));
+            verify(viewFailureCache, never()).documentNotFound(any(), any(), any());
+        }
+    }
+
     @Test(expected = NotImplementedException.class)
     public void viewStaticContentPromotion() throws IOException {
         idolViewServerService.viewStaticContentPromotion("SomeReference", mock(OutputStream.class));
@@ -100,12 +215,49 @@ public class IdolViewServerServiceTest {
         idolViewServerService.viewDocument(request, mock(OutputStream.class));
     }
 
+    @Test
+    public void errorGettingContentIsNotCached() throws IOException {
+        when(contentAciService.executeAction(any(AciParameters.class), any(Processor.class))).thenThrow(new AciErrorException());
+
+        try {
+            idolViewServerService.viewDocument(request, mock(OutputStream.class));
+            fail("Expected ViewDocumentNotFoundException");
+        } catch (final ViewDocumentNotFoundException ignored) {
+            verify(viewFailureCache, never()).documentNotFound(any(), any(), any());
+        }
+    }
+
     @Test(expected = ViewDocumentNotFoundException.class)
     public void noDocumentFound() throws ViewNoReferenceFieldException, ViewDocumentNotFoundException, ReferenceFieldBlankException, IOException {
         when(contentAciService.executeAction(any(AciParameters.class), any())).thenReturn(new GetContentResponseData());
         idolViewServerService.viewDocument(request, mock(OutputStream.class));
     }
 
+    @Test
+    public void cachedFailureSkipsGetContent() throws IOException {
+        doThrow(new ViewDocumentNotFoundException("dede952d-8a4d-4f54-ac1f-5187bf10a744")).when(viewFailureCache).rethrowCachedFailure(any(), any(), any());
+
+        try {
+            idolViewServerService.viewDocument(request, mock(OutputStream.class));
+            fail("Expected ViewDocumentNotFoundException");
+        } catch (final ViewDocumentNotFoundException ignored) {
+            verify(contentAciService, never()).executeAction(any(AciParameters.class), any());
+        }
+    }
+
+    @Test
+    public void notFoundIsCached() throws IOException {
+        when(request.getDatabase()).thenReturn("Wikipedia");
+        when(contentAciService.executeAction(any(AciParameters.class), any())).thenReturn(new GetContentResponseData());
+
+        try {
+            idolViewServerService.viewDocument(request, mock(OutputStream.class));
+            fail("Expected ViewDocumentNotFoundException");
+        } catch (final ViewDocumentNotFoundException ignored) {
+            verify(viewFailureCache).documentNotFound(eq("dede952d-8a4d-4f54-ac1f-5187bf10a744"), eq("Wikipedia"), any());
+        }
+    }
+
     @Test(expected = ViewNoReferenceFieldException.class)
     public void noMatchingField() throws ViewNoReferenceFieldException, ViewDocumentNotFoundException, ReferenceFieldBlankException, IOException {
         final QueryResponse responseData = new GetContentResponseData();
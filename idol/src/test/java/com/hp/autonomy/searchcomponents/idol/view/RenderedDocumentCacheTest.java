@@ -0,0 +1,264 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.view;
+
+import com.hp.autonomy.frontend.configuration.ConfigService;
+import com.hp.autonomy.frontend.configuration.authentication.CommunityPrincipal;
+import com.hp.autonomy.searchcomponents.idol.view.configuration.RenderedDocumentCacheConfig;
+import com.hp.autonomy.searchcomponents.idol.view.configuration.ViewCapable;
+import com.hp.autonomy.searchcomponents.idol.view.configuration.ViewConfig;
+import com.hpe.bigdata.frontend.spring.authentication.AuthenticationInformationRetriever;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RenderedDocumentCacheTest {
+    private static final String CONTENT = "<html><body>A car is a wheeled motor vehicle</body></html>";
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Mock
+    private ConfigService<ViewCapable> configService;
+
+    @Mock
+    private ViewCapable config;
+
+    @Mock
+    private AuthenticationInformationRetriever<?, CommunityPrincipal> authenticationInformationRetriever;
+
+    @Mock
+    private CommunityPrincipal principal;
+
+    @Mock
+    private IdolViewRequest request;
+
+    @Mock
+    private IdolViewRequest otherRequest;
+
+    private Path directory;
+
+    private RenderedDocumentCache renderedDocumentCache;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = temporaryFolder.newFolder().toPath();
+        setConfig(RenderedDocumentCacheConfig.builder().enabled(true).directory(directory.toString()).build());
+
+        when(configService.getConfig()).thenReturn(config);
+        when(authenticationInformationRetriever.getPrincipal()).thenReturn(principal);
+        when(principal.getSecurityInfo()).thenReturn("security-info");
+        when(request.getDocumentReference()).thenReturn("Car");
+        when(request.getHighlightExpression()).thenReturn("wheeled");
+        when(otherRequest.getDocumentReference()).thenReturn("Boat");
+
+        renderedDocumentCache = new RenderedDocumentCacheImpl(configService, authenticationInformationRetriever);
+    }
+
+    @Test
+    public void disabled() {
+        setConfig(RenderedDocumentCacheConfig.builder().enabled(false).build());
+
+        assertThat(renderedDocumentCache.isEnabled(), is(false));
+        assertThat(renderedDocumentCache.getDocument(request), is(nullValue()));
+    }
+
+    @Test
+    public void storesRenderedOutput() throws IOException {
+        assertThat(renderedDocumentCache.getDocument(request), is(nullValue()));
+
+        final RenderedDocument document = renderedDocumentCache.putDocument(request, outputStream -> outputStream.write(CONTENT.getBytes(StandardCharsets.UTF_8)));
+        assertThat(document.getLength(), is((long) CONTENT.length()));
+        assertThat(document.getETag().startsWith("\""), is(true));
+        assertThat(renderedDocumentCache.getDocument(request), is(sameInstance(document)));
+        assertThat(write(document), is(CONTENT));
+    }
+
+    @Test
+    public void writesRange() throws IOException {
+        final RenderedDocument document = renderedDocumentCache.putDocument(request, outputStream -> outputStream.write(CONTENT.getBytes(StandardCharsets.UTF_8)));
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        document.writeTo(outputStream, 6, 6);
+        assertThat(new String(outputStream.toByteArray(), StandardCharsets.UTF_8), is("<body>"));
+
+        final ByteArrayOutputStream tailOutputStream = new ByteArrayOutputStream();
+        document.writeTo(tailOutputStream, CONTENT.length() - 7, 100);
+        assertThat(new String(tailOutputStream.toByteArray(), StandardCharsets.UTF_8), is("</html>"));
+    }
+
+    @Test
+    public void differentContentHasDifferentETag() throws IOException {
+        final RenderedDocument first = renderedDocumentCache.putDocument(request, outputStream -> outputStream.write(CONTENT.getBytes(StandardCharsets.UTF_8)));
+        final RenderedDocument second = renderedDocumentCache.putDocument(otherRequest, outputStream -> outputStream.write("other".getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(first.getETag(), is(not(second.getETag())));
+    }
+
+    @Test
+    public void partitionedBySecurityInfo() throws IOException {
+        renderedDocumentCache.putDocument(request, outputStream -> outputStream.write(CONTENT.getBytes(StandardCharsets.UTF_8)));
+        when(principal.getSecurityInfo()).thenReturn("other-security-info");
+
+        assertThat(renderedDocumentCache.getDocument(request), is(nullValue()));
+    }
+
+    @Test
+    public void partitionedByViewConfig() throws IOException {
+        renderedDocumentCache.putDocument(request, outputStream -> outputStream.write(CONTENT.getBytes(StandardCharsets.UTF_8)));
+        when(config.getViewConfig()).thenReturn(ViewConfig.builder()
+                .referenceField("DREREFERENCE")
+                .renderedDocumentCache(RenderedDocumentCacheConfig.builder().enabled(true).directory(directory.toString()).build())
+                .build());
+
+        assertThat(renderedDocumentCache.getDocument(request), is(nullValue()));
+    }
+
+    @Test
+    public void concurrentMissesRenderOnce() throws Exception {
+        final AtomicInteger renderCount = new AtomicInteger();
+        final CountDownLatch rendering = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<RenderedDocument> first = executor.submit(() -> renderedDocumentCache.putDocument(request, outputStream -> {
+                renderCount.incrementAndGet();
+                rendering.countDown();
+                try {
+                    release.await();
+                } catch (final InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+                outputStream.write(CONTENT.getBytes(StandardCharsets.UTF_8));
+            }));
+            assertThat(rendering.await(5, TimeUnit.SECONDS), is(true));
+
+            final Thread releaser = new Thread(() -> {
+                try {
+                    Thread.sleep(50L);
+                } catch (final InterruptedException ignored) {
+                }
+                release.countDown();
+            });
+            releaser.start();
+
+            final RenderedDocument second = renderedDocumentCache.putDocument(request, outputStream -> renderCount.incrementAndGet());
+
+            assertThat(second, is(sameInstance(first.get(5, TimeUnit.SECONDS))));
+            assertThat(renderCount.get(), is(1));
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void outputRenderedIntoAnOldDirectoryIsNotReturned() throws IOException {
+        final Path newDirectory = temporaryFolder.newFolder().toPath();
+
+        final RenderedDocument document = renderedDocumentCache.putDocument(request, outputStream -> {
+            outputStream.write(CONTENT.getBytes(StandardCharsets.UTF_8));
+            setConfig(RenderedDocumentCacheConfig.builder().enabled(true).directory(newDirectory.toString()).build());
+            renderedDocumentCache.getDocument(otherRequest);
+        });
+
+        assertThat(document, is(nullValue()));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.count(), is(0L));
+        }
+    }
+
+    @Test
+    public void failedRenderingIsNotStored() throws IOException {
+        try {
+            renderedDocumentCache.putDocument(request, outputStream -> {
+                outputStream.write(CONTENT.getBytes(StandardCharsets.UTF_8));
+                throw new ViewServerErrorException("Car", new RuntimeException());
+            });
+        } catch (final ViewServerErrorException ignored) {
+            // expected
+        }
+
+        assertThat(renderedDocumentCache.getDocument(request), is(nullValue()));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.count(), is(0L));
+        }
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedOverBudget() throws IOException {
+        setConfig(RenderedDocumentCacheConfig.builder().enabled(true).directory(directory.toString()).maxSize((long) CONTENT.length() + 1).build());
+
+        final RenderedDocument first = renderedDocumentCache.putDocument(request, outputStream -> outputStream.write(CONTENT.getBytes(StandardCharsets.UTF_8)));
+        renderedDocumentCache.putDocument(otherRequest, outputStream -> outputStream.write(CONTENT.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(renderedDocumentCache.getDocument(request), is(nullValue()));
+        assertThat(renderedDocumentCache.getDocument(otherRequest) != null, is(true));
+        assertThat(Files.exists(first.getPath()), is(false));
+    }
+
+    @Test
+    public void expiredOutputIsNotUsed() throws IOException {
+        setConfig(RenderedDocumentCacheConfig.builder().enabled(true).directory(directory.toString()).maxAge(1L).build());
+        renderedDocumentCache.putDocument(request, outputStream -> outputStream.write(CONTENT.getBytes(StandardCharsets.UTF_8)));
+
+        try {
+            Thread.sleep(10);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        assertThat(renderedDocumentCache.getDocument(request), is(nullValue()));
+    }
+
+    @Test
+    public void staleFilesAreDeleted() throws IOException {
+        final Path staleFile = Files.createFile(directory.resolve("0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef-1.html"));
+        final Path unrelatedFile = Files.createFile(directory.resolve("index.html"));
+
+        renderedDocumentCache.getDocument(request);
+
+        assertThat(Files.exists(staleFile), is(false));
+        assertThat(Files.exists(unrelatedFile), is(true));
+    }
+
+    private void setConfig(final RenderedDocumentCacheConfig renderedDocumentCacheConfig) {
+        when(config.getViewConfig()).thenReturn(ViewConfig.builder().referenceField("URL").renderedDocumentCache(renderedDocumentCacheConfig).build());
+    }
+
+    private String write(final RenderedDocument document) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        document.writeTo(outputStream);
+        return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
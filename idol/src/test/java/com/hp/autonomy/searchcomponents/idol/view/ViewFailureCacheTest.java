@@ -0,0 +1,101 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.view;
+
+import com.hp.autonomy.frontend.configuration.authentication.CommunityPrincipal;
+import com.hp.autonomy.searchcomponents.idol.view.configuration.ViewConfig;
+import com.hp.autonomy.searchcomponents.idol.view.configuration.ViewFailureCacheConfig;
+import com.hpe.bigdata.frontend.spring.authentication.AuthenticationInformationRetriever;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ViewFailureCacheTest {
+    private static final String REFERENCE = "dede952d-8a4d-4f54-ac1f-5187bf10a744";
+    private static final String DATABASE = "Wikipedia";
+
+    @Mock
+    private AuthenticationInformationRetriever<?, CommunityPrincipal> authenticationInformationRetriever;
+
+    @Mock
+    private CommunityPrincipal principal;
+
+    private final ViewConfig viewConfig = ViewConfig.builder().referenceField("URL").build();
+
+    private ViewFailureCache viewFailureCache;
+
+    @Before
+    public void setUp() {
+        when(authenticationInformationRetriever.getPrincipal()).thenReturn(principal);
+        when(principal.getSecurityInfo()).thenReturn("security-info");
+
+        viewFailureCache = new ViewFailureCacheImpl(authenticationInformationRetriever);
+    }
+
+    @Test
+    public void noCachedFailure() {
+        viewFailureCache.rethrowCachedFailure(REFERENCE, DATABASE, viewConfig);
+
+        assertThat(viewFailureCache.getStatistics().missCount(), is(1L));
+    }
+
+    @Test(expected = ViewDocumentNotFoundException.class)
+    public void documentNotFound() {
+        viewFailureCache.documentNotFound(REFERENCE, DATABASE, viewConfig);
+        viewFailureCache.rethrowCachedFailure(REFERENCE, DATABASE, viewConfig);
+    }
+
+    @Test(expected = ViewNoReferenceFieldException.class)
+    public void noReferenceField() {
+        viewFailureCache.noReferenceField(REFERENCE, DATABASE, viewConfig);
+        viewFailureCache.rethrowCachedFailure(REFERENCE, DATABASE, viewConfig);
+    }
+
+    @Test
+    public void differentDatabase() {
+        viewFailureCache.documentNotFound(REFERENCE, DATABASE, viewConfig);
+        viewFailureCache.rethrowCachedFailure(REFERENCE, "News", viewConfig);
+    }
+
+    @Test
+    public void partitionedBySecurityInfo() {
+        viewFailureCache.documentNotFound(REFERENCE, DATABASE, viewConfig);
+
+        when(principal.getSecurityInfo()).thenReturn("other-security-info");
+        viewFailureCache.rethrowCachedFailure(REFERENCE, DATABASE, viewConfig);
+    }
+
+    @Test
+    public void invalidateAll() {
+        viewFailureCache.documentNotFound(REFERENCE, DATABASE, viewConfig);
+        viewFailureCache.invalidateAll();
+        viewFailureCache.rethrowCachedFailure(REFERENCE, DATABASE, viewConfig);
+    }
+
+    @Test
+    public void referenceFieldChangeInvalidates() {
+        viewFailureCache.noReferenceField(REFERENCE, DATABASE, viewConfig);
+        viewFailureCache.rethrowCachedFailure(REFERENCE, DATABASE, ViewConfig.builder().referenceField("DREREFERENCE").build());
+    }
+
+    @Test
+    public void zeroMaxSizeDisablesCache() {
+        final ViewConfig disabledViewConfig = ViewConfig.builder()
+                .referenceField("URL")
+                .failureCache(ViewFailureCacheConfig.builder().maxSize(0L).build())
+                .build();
+
+        viewFailureCache.documentNotFound(REFERENCE, DATABASE, disabledViewConfig);
+        viewFailureCache.rethrowCachedFailure(REFERENCE, DATABASE, disabledViewConfig);
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.view;
+
+import com.hp.autonomy.frontend.configuration.authentication.CommunityPrincipal;
+import com.hp.autonomy.searchcomponents.idol.view.configuration.ViewConfig;
+import com.hp.autonomy.searchcomponents.idol.view.configuration.ViewReferenceCacheConfig;
+import com.hp.autonomy.searchcomponents.idol.view.configuration.ViewingMode;
+import com.hpe.bigdata.frontend.spring.authentication.AuthenticationInformationRetriever;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ViewReferenceCacheTest {
+    private static final String REFERENCE = "dede952d-8a4d-4f54-ac1f-5187bf10a744";
+    private static final String DATABASE = "Wikipedia";
+    private static final String VIEW_REFERENCE = "http://en.wikipedia.org/wiki/Car";
+
+    @Mock
+    private AuthenticationInformationRetriever<?, CommunityPrincipal> authenticationInformationRetriever;
+
+    @Mock
+    private CommunityPrincipal principal;
+
+    private final ViewConfig viewConfig = ViewConfig.builder().referenceField("URL").build();
+
+    private ViewReferenceCache viewReferenceCache;
+
+    @Before
+    public void setUp() {
+        when(authenticationInformationRetriever.getPrincipal()).thenReturn(principal);
+        when(principal.getSecurityInfo()).thenReturn("security-info");
+
+        viewReferenceCache = new ViewReferenceCacheImpl(authenticationInformationRetriever);
+    }
+
+    @Test
+    public void noCachedReference() {
+        assertThat(viewReferenceCache.getReference(REFERENCE, DATABASE, viewConfig), is(nullValue()));
+        assertThat(viewReferenceCache.getStatistics().missCount(), is(1L));
+    }
+
+    @Test
+    public void cachedReference() {
+        viewReferenceCache.putReference(REFERENCE, DATABASE, viewConfig, VIEW_REFERENCE);
+
+        assertThat(viewReferenceCache.getReference(REFERENCE, DATABASE, viewConfig), is(VIEW_REFERENCE));
+    }
+
+    @Test
+    public void referencesArePartitionedBySecurityInfo() {
+        viewReferenceCache.putReference(REFERENCE, DATABASE, viewConfig, VIEW_REFERENCE);
+        when(principal.getSecurityInfo()).thenReturn("other-security-info");
+
+        assertThat(viewReferenceCache.getReference(REFERENCE, DATABASE, viewConfig), is(nullValue()));
+    }
+
+    @Test
+    public void referenceFieldChangeInvalidates() {
+        viewReferenceCache.putReference(REFERENCE, DATABASE, viewConfig, VIEW_REFERENCE);
+        final ViewConfig newViewConfig = ViewConfig.builder().referenceField("DREREFERENCE").build();
+
+        assertThat(viewReferenceCache.getReference(REFERENCE, DATABASE, newViewConfig), is(nullValue()));
+        assertThat(viewReferenceCache.getReference(REFERENCE, DATABASE, viewConfig), is(nullValue()));
+    }
+
+    @Test
+    public void viewingModeChangeInvalidates() {
+        viewReferenceCache.putReference(REFERENCE, DATABASE, viewConfig, VIEW_REFERENCE);
+        final ViewConfig newViewConfig = ViewConfig.builder().referenceField("URL").viewingMode(ViewingMode.CONNECTOR).build();
+
+        assertThat(viewReferenceCache.getReference(REFERENCE, DATABASE, newViewConfig), is(nullValue()));
+    }
+
+    @Test
+    public void unchangedSettingsKeepReferences() {
+        viewReferenceCache.putReference(REFERENCE, DATABASE, viewConfig, VIEW_REFERENCE);
+        final ViewConfig equivalentViewConfig = ViewConfig.builder().referenceField("URL").host("viewserver").build();
+
+        assertThat(viewReferenceCache.getReference(REFERENCE, DATABASE, equivalentViewConfig), is(VIEW_REFERENCE));
+    }
+
+    @Test
+    public void invalidateAll() {
+        viewReferenceCache.putReference(REFERENCE, DATABASE, viewConfig, VIEW_REFERENCE);
+        viewReferenceCache.invalidateAll();
+
+        assertThat(viewReferenceCache.getReference(REFERENCE, DATABASE, viewConfig), is(nullValue()));
+    }
+
+    @Test
+    public void expiryChangeInvalidates() {
+        viewReferenceCache.putReference(REFERENCE, DATABASE, viewConfig, VIEW_REFERENCE);
+        final ViewConfig newViewConfig = ViewConfig.builder()
+                .referenceField("URL")
+                .referenceCache(ViewReferenceCacheConfig.builder().expiry(1000L).build())
+                .build();
+
+        assertThat(viewReferenceCache.getReference(REFERENCE, DATABASE, newViewConfig), is(nullValue()));
+    }
+
+    @Test
+    public void zeroMaxSizeDisablesCache() {
+        final ViewConfig disabledViewConfig = ViewConfig.builder()
+                .referenceField("URL")
+                .referenceCache(ViewReferenceCacheConfig.builder().maxSize(0L).build())
+                .build();
+        viewReferenceCache.putReference(REFERENCE, DATABASE, disabledViewConfig, VIEW_REFERENCE);
+
+        assertThat(viewReferenceCache.getReference(REFERENCE, DATABASE, disabledViewConfig), is(nullValue()));
+    }
+}
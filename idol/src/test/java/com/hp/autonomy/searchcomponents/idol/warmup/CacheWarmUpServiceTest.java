@@ -0,0 +1,141 @@
+/*
+ * Copyright 2015 Hewlett-Packard Development Company, L.P.
+ * Licensed under the MIT License (the "License"); you may not use this file except in compliance with the License.
+ */
+
+package com.hp.autonomy.searchcomponents.idol.warmup;
+
+import com.autonomy.aci.client.services.AciErrorException;
+import com.hp.autonomy.frontend.configuration.ConfigService;
+import com.hp.autonomy.searchcomponents.idol.configuration.IdolSearchCapable;
+import com.hp.autonomy.searchcomponents.idol.configuration.WarmUpConfig;
+import com.hp.autonomy.searchcomponents.idol.databases.IdolDatabasesRequest;
+import com.hp.autonomy.searchcomponents.idol.databases.IdolDatabasesRequestBuilder;
+import com.hp.autonomy.searchcomponents.idol.databases.IdolDatabasesService;
+import com.hp.autonomy.searchcomponents.idol.fields.IdolFieldsRequest;
+import com.hp.autonomy.searchcomponents.idol.fields.IdolFieldsRequestBuilder;
+import com.hp.autonomy.searchcomponents.idol.fields.IdolFieldsService;
+import com.hp.autonomy.searchcomponents.idol.languages.IdolLanguagesService;
+import com.hp.autonomy.searchcomponents.idol.parametricvalues.IdolParametricRequest;
+import com.hp.autonomy.searchcomponents.idol.parametricvalues.IdolParametricRequestBuilder;
+import com.hp.autonomy.searchcomponents.idol.parametricvalues.IdolParametricValuesService;
+import com.hp.autonomy.searchcomponents.idol.search.IdolQueryRestrictionsBuilder;
+import com.hp.autonomy.types.requests.idol.actions.tags.params.FieldTypeParam;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.beans.factory.ObjectFactory;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CacheWarmUpServiceTest {
+    @Mock
+    private ConfigService<IdolSearchCapable> configService;
+    @Mock
+    private IdolSearchCapable config;
+    @Mock
+    private IdolFieldsService fieldsService;
+    @Mock
+    private ObjectFactory<IdolFieldsRequestBuilder> fieldsRequestBuilderFactory;
+    @Mock
+    private IdolFieldsRequestBuilder fieldsRequestBuilder;
+    @Mock
+    private IdolLanguagesService languagesService;
+    @Mock
+    private IdolDatabasesService databasesService;
+    @Mock
+    private ObjectFactory<IdolDatabasesRequestBuilder> databasesRequestBuilderFactory;
+    @Mock
+    private IdolDatabasesRequestBuilder databasesRequestBuilder;
+    @Mock
+    private IdolParametricValuesService parametricValuesService;
+    @Mock
+    private ObjectFactory<IdolParametricRequestBuilder> parametricRequestBuilderFactory;
+    @Mock
+    private IdolParametricRequestBuilder parametricRequestBuilder;
+    @Mock
+    private ObjectFactory<IdolQueryRestrictionsBuilder> queryRestrictionsBuilderFactory;
+    @Mock
+    private IdolQueryRestrictionsBuilder queryRestrictionsBuilder;
+
+    private CacheWarmUpService cacheWarmUpService;
+
+    @Before
+    public void setUp() {
+        when(configService.getConfig()).thenReturn(config);
+
+        when(fieldsRequestBuilderFactory.getObject()).thenReturn(fieldsRequestBuilder);
+        when(databasesRequestBuilderFactory.getObject()).thenReturn(databasesRequestBuilder);
+        when(parametricRequestBuilderFactory.getObject()).thenReturn(parametricRequestBuilder);
+        when(parametricRequestBuilder.queryRestrictions(any())).thenReturn(parametricRequestBuilder);
+        when(queryRestrictionsBuilderFactory.getObject()).thenReturn(queryRestrictionsBuilder);
+        when(queryRestrictionsBuilder.queryText(anyString())).thenReturn(queryRestrictionsBuilder);
+
+        cacheWarmUpService = new CacheWarmUpServiceImpl(
+                configService,
+                fieldsService,
+                fieldsRequestBuilderFactory,
+                languagesService,
+                databasesService,
+                databasesRequestBuilderFactory,
+                parametricValuesService,
+                parametricRequestBuilderFactory,
+                queryRestrictionsBuilderFactory
+        );
+    }
+
+    @Test
+    public void pendingBeforeWarmUp() {
+        assertThat(cacheWarmUpService.getStatus(), is(WarmUpStatus.PENDING));
+    }
+
+    @Test
+    public void disabled() {
+        cacheWarmUpService.warmUp().join();
+
+        assertThat(cacheWarmUpService.getStatus(), is(WarmUpStatus.DISABLED));
+        verify(languagesService, never()).getLanguages();
+    }
+
+    @Test
+    public void warmUp() {
+        when(config.getWarmUp()).thenReturn(WarmUpConfig.builder()
+                .enabled(true)
+                .concurrency(2)
+                .build());
+
+        cacheWarmUpService.warmUp().join();
+
+        assertThat(cacheWarmUpService.getStatus(), is(WarmUpStatus.COMPLETE));
+        // the same types in the same order as the callers, so that the cache keys match
+        verify(fieldsService).getFields(any(IdolFieldsRequest.class), eq(FieldTypeParam.Parametric), eq(FieldTypeParam.Numeric), eq(FieldTypeParam.NumericDate), eq(FieldTypeParam.Index));
+        verify(fieldsService).getFields(any(IdolFieldsRequest.class), eq(FieldTypeParam.Parametric));
+        verify(languagesService).getLanguages();
+        verify(databasesService).getDatabases(any(IdolDatabasesRequest.class));
+        verify(queryRestrictionsBuilder).queryText("*");
+        verify(parametricValuesService).getAllParametricValues(any(IdolParametricRequest.class));
+    }
+
+    @Test
+    public void failuresDoNotPreventCompletion() {
+        when(config.getWarmUp()).thenReturn(WarmUpConfig.builder()
+                .enabled(true)
+                .build());
+        when(languagesService.getLanguages()).thenThrow(new AciErrorException());
+
+        cacheWarmUpService.warmUp().join();
+
+        assertThat(cacheWarmUpService.getStatus(), is(WarmUpStatus.COMPLETE));
+        verify(databasesService).getDatabases(any(IdolDatabasesRequest.class));
+    }
+}